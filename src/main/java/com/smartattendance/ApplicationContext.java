@@ -1,6 +1,7 @@
 package com.smartattendance;
 
 import com.smartattendance.config.Config;
+import com.smartattendance.config.SchemaMigrator;
 // import com.smartattendance.controller.AttendanceController;
 import com.smartattendance.controller.RecognitionController;
 import com.smartattendance.model.entity.AuthSession;
@@ -15,9 +16,12 @@ import com.smartattendance.service.ProfileService;
 import com.smartattendance.service.SessionService;
 import com.smartattendance.service.StudentService;
 import com.smartattendance.service.UserService;
+import com.smartattendance.service.mail.MailDispatcher;
 import com.smartattendance.service.recognition.HistogramRecognizer;
 import com.smartattendance.service.recognition.OpenFaceRecognizer;
+import com.smartattendance.service.report.ScheduledExportService;
 import com.smartattendance.util.AutoAttendanceUpdater;
+import com.smartattendance.util.AutoSessionScheduler;
 import com.smartattendance.util.CameraUtils;
 import com.smartattendance.util.FileLoader;
 import com.smartattendance.util.security.log.ApplicationLogger;
@@ -51,6 +55,7 @@ public final class ApplicationContext {
     // Busines Util
     // F_MA: added by felicia handling marking attendance
     private static AutoAttendanceUpdater autoAttendanceUpdater;
+    private static AutoSessionScheduler autoSessionScheduler;
 
     // OpenCV Services
     private static FaceDetectionService faceDetectionService;
@@ -76,6 +81,13 @@ public final class ApplicationContext {
             throw new IllegalStateException("ApplicationContext Already Initialized");
         }
 
+        // Bring the database schema up to date before any service queries it
+        try {
+            SchemaMigrator.migrate();
+        } catch (Exception e) {
+            appLogger.error("Error Migrating Database Schema", e);
+        }
+
         // Set session
         session = new AuthSession();
         appLogger.info("Auth Session Initialized.");
@@ -118,6 +130,13 @@ public final class ApplicationContext {
         // autoAttendanceUpdater.addObserver(ApplicationContext.getAttendanceController());
         autoAttendanceUpdater.startAutoUpdate(60);
 
+        // Start auto-session scheduler (fires at each auto-start/auto-stop time)
+        autoSessionScheduler = new AutoSessionScheduler(sessionService);
+        autoSessionScheduler.start();
+
+        // Run incremental scheduled exports when due, if polling is enabled on this machine
+        ScheduledExportService.getInstance().start();
+
         // Apply recognition algorithm from the config
         applyRecognitionAlgorithm();
     }
@@ -218,6 +237,15 @@ public final class ApplicationContext {
         return sessionService;
     }
 
+    /**
+     * Get the AutoSessionScheduler instance.
+     *
+     * @return AutoSessionScheduler, or null before it is started
+     */
+    public static AutoSessionScheduler getAutoSessionScheduler() {
+        return autoSessionScheduler;
+    }
+
     /**
      * Get the UserService instance.
      *
@@ -408,11 +436,27 @@ public final class ApplicationContext {
             autoAttendanceUpdater.stopAutoUpdate();
         }
 
+        // Stop auto-session scheduler
+        if (autoSessionScheduler != null) {
+            autoSessionScheduler.stop();
+        }
+
         // Stop recognition if active
         if (recognitionController != null) {
             recognitionController.stopAcquisition();
         }
 
+        // Flush queued attendance writes before exiting
+        if (attendanceService != null) {
+            attendanceService.shutdown();
+        }
+
+        // Stop scheduled exports; an interrupted run is retried later
+        ScheduledExportService.getInstance().stop();
+
+        // Close pooled SMTP connections; unsent mail stays in the outbox
+        MailDispatcher.shutdownInstance();
+
         // Release camera resources
         CameraUtils.getInstance().releaseCamera();
         // Log out the user
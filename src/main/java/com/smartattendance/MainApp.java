@@ -1,5 +1,13 @@
 package com.smartattendance;
 
+import com.smartattendance.config.SchemaMigrator;
+import com.smartattendance.repository.AttendanceRollupRepository;
+import com.smartattendance.repository.QueryPlanChecker;
+import com.smartattendance.repository.ReportQueryChecker;
+import com.smartattendance.repository.TopCardsBenchmark;
+import com.smartattendance.service.mail.MailBenchmark;
+import com.smartattendance.service.report.ScheduledExportService;
+import com.smartattendance.util.report.ReportBenchmark;
 import com.smartattendance.util.security.log.ApplicationLogger;
 
 import javafx.application.Application;
@@ -118,9 +126,95 @@ public class MainApp extends Application {
    *     <li>Invoke {@link #init()}, {@link #start(Stage)}, and later {@link #stop()}</li>
    * </ul>
    *
+   * <p>Passing {@code --rebuild-rollups} recomputes the analytics rollup
+   * tables and exits without starting the UI. Passing
+   * {@code --check-query-plans} explains the hot queries and exits with a
+   * non-zero status if any of them scans the attendance tables sequentially.
+   * Passing {@code --check-report-queries} runs the summary report query on
+   * a rolled back fixture and exits with a non-zero status if its results
+   * are wrong.
+   * Passing {@code --benchmark-reports [rows]} writes synthetic CSV, XLSX and
+   * PDF reports and logs their rows/sec and heap use. Passing
+   * {@code --benchmark-top-cards [rows]} times the dashboard top cards query
+   * against the per-card queries on generated, rolled back rows. Passing
+   * {@code --benchmark-mail [count] [host] [port]} sends that many notices to a
+   * local SMTP stand-in and logs the mails/sec. Passing
+   * {@code --run-scheduled-exports} migrates the schema, runs the scheduled
+   * exports that are due once, e.g. from cron, and exits with a non-zero
+   * status if any failed.
+   *
    * @param args command-line arguments passed to the application
    */
   public static void main(String[] args) {
+    if (args.length > 0 && "--rebuild-rollups".equals(args[0])) {
+      try {
+        new AttendanceRollupRepository().rebuild();
+      } catch (Exception e) {
+        ApplicationLogger.getInstance().error("Rollup rebuild failed", e);
+        System.exit(1);
+      }
+      return;
+    }
+    if (args.length > 0 && "--check-query-plans".equals(args[0])) {
+      boolean ok;
+      try {
+        ok = new QueryPlanChecker().checkAll();
+      } catch (Exception e) {
+        ApplicationLogger.getInstance().error("Query plan check failed", e);
+        ok = false;
+      }
+      System.exit(ok ? 0 : 1);
+    }
+    if (args.length > 0 && "--check-report-queries".equals(args[0])) {
+      boolean ok;
+      try {
+        ok = new ReportQueryChecker().checkAll();
+      } catch (Exception e) {
+        ApplicationLogger.getInstance().error("Report query check failed", e);
+        ok = false;
+      }
+      System.exit(ok ? 0 : 1);
+    }
+    if (args.length > 0 && "--benchmark-reports".equals(args[0])) {
+      try {
+        ReportBenchmark.run(args.length > 1 ? Integer.parseInt(args[1]) : 200_000);
+      } catch (Exception e) {
+        ApplicationLogger.getInstance().error("Report benchmark failed", e);
+        System.exit(1);
+      }
+      return;
+    }
+    if (args.length > 0 && "--benchmark-top-cards".equals(args[0])) {
+      try {
+        TopCardsBenchmark.run(args.length > 1 ? Integer.parseInt(args[1]) : 200_000);
+      } catch (Exception e) {
+        ApplicationLogger.getInstance().error("Top cards benchmark failed", e);
+        System.exit(1);
+      }
+      return;
+    }
+    if (args.length > 0 && "--benchmark-mail".equals(args[0])) {
+      try {
+        MailBenchmark.run(args.length > 1 ? Integer.parseInt(args[1]) : 600,
+            args.length > 2 ? args[2] : "localhost",
+            args.length > 3 ? Integer.parseInt(args[3]) : 1025);
+      } catch (Exception e) {
+        ApplicationLogger.getInstance().error("Mail benchmark failed", e);
+        System.exit(1);
+      }
+      return;
+    }
+    if (args.length > 0 && "--run-scheduled-exports".equals(args[0])) {
+      int failed;
+      try {
+        SchemaMigrator.migrate();
+        failed = ScheduledExportService.getInstance().runDue();
+      } catch (Exception e) {
+        ApplicationLogger.getInstance().error("Scheduled exports failed", e);
+        failed = 1;
+      }
+      System.exit(failed == 0 ? 0 : 1);
+    }
     launch(args);
   }
 }
@@ -60,6 +60,61 @@ public class Config {
         return props.getProperty(k);
     }
 
+    /**
+     * Retrieves an integer configuration value.
+     *
+     * @param k            The property key.
+     * @param defaultValue Value returned when the key is missing or invalid.
+     * @return The parsed value, or defaultValue.
+     */
+    public static int getInt(String k, int defaultValue) {
+        String value = props.getProperty(k);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            appLogger.warn("Invalid integer for " + k + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Retrieves a decimal configuration value.
+     *
+     * @param k            The property key.
+     * @param defaultValue Value returned when the key is missing or invalid.
+     * @return The parsed value, or defaultValue.
+     */
+    public static double getDouble(String k, double defaultValue) {
+        String value = props.getProperty(k);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            appLogger.warn("Invalid number for " + k + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Retrieves a boolean configuration value ("true"/"false").
+     *
+     * @param k            The property key.
+     * @param defaultValue Value returned when the key is missing.
+     * @return The parsed value, or defaultValue.
+     */
+    public static boolean getBoolean(String k, boolean defaultValue) {
+        String value = props.getProperty(k);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value.trim());
+    }
+
     /**
      * Updates a configuration value and persists the change immediately.
      *
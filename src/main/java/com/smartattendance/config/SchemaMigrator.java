@@ -0,0 +1,172 @@
+package com.smartattendance.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import com.smartattendance.util.FileLoader;
+import com.smartattendance.util.security.log.ApplicationLogger;
+
+/**
+ * Applies the versioned schema migrations under {@code db/migration}.
+ *
+ * Each migration is a SQL script named {@code V<n>__<description>.sql} and is
+ * applied at most once, in version order, inside its own transaction. The
+ * applied versions are recorded in the {@code schema_version} table, so an
+ * existing database is upgraded in place instead of being dropped and
+ * recreated.
+ *
+ * A database created from the old {@code schema.sql} (tables present, no
+ * {@code schema_version}) is recorded at version 1 without running the
+ * baseline; the later migrations are written to be safe on such databases.
+ *
+ * @version 17:05 19 Oct 2026
+ */
+public final class SchemaMigrator {
+
+    /** Migration scripts in version order. Append new migrations here. */
+    private static final String[] MIGRATIONS = {
+            "V1__baseline.sql",
+            "V2__session_closed_at.sql",
+            "V3__attendance_rollups.sql",
+            "V4__hot_query_indexes.sql",
+            "V5__attendance_keyset_index.sql",
+            "V6__report_data_watermark.sql",
+            "V7__mail_outbox.sql",
+            "V8__scheduled_exports.sql"
+    };
+
+    private static final String MIGRATION_DIR = "/db/migration/";
+
+    /** Advisory lock key, so two app instances never migrate concurrently */
+    private static final long LOCK_KEY = 4_271_019L;
+
+    private static final ApplicationLogger appLogger = ApplicationLogger.getInstance();
+
+    private SchemaMigrator() {
+    }
+
+    /**
+     * Brings the database schema up to the latest version.
+     *
+     * @return number of migrations applied
+     * @throws SQLException if a migration fails; it is rolled back and later
+     *                      migrations are not attempted
+     */
+    public static int migrate() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            if (conn == null) {
+                throw new SQLException("No database connection");
+            }
+
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("SELECT pg_advisory_lock(" + LOCK_KEY + ")");
+            }
+            try {
+                return applyPending(conn);
+            } finally {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("SELECT pg_advisory_unlock(" + LOCK_KEY + ")");
+                }
+            }
+        }
+    }
+
+    private static int applyPending(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_version ("
+                    + "version INTEGER PRIMARY KEY, "
+                    + "description VARCHAR(255) NOT NULL, "
+                    + "applied_at TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP)");
+        }
+
+        int current = currentVersion(conn);
+        if (current == 0 && hasLegacySchema(conn)) {
+            record(conn, 1, "baseline (existing schema)");
+            current = 1;
+            appLogger.info("SchemaMigrator: Existing schema recorded as version 1");
+        }
+
+        int applied = 0;
+        for (String script : MIGRATIONS) {
+            int version = versionOf(script);
+            if (version <= current) {
+                continue;
+            }
+            apply(conn, script, version);
+            current = version;
+            applied++;
+        }
+
+        appLogger.info("SchemaMigrator: Schema at version " + current
+                + (applied > 0 ? ", applied " + applied + " migrations" : ", up to date"));
+        return applied;
+    }
+
+    /**
+     * Runs one migration script and records it, in a single transaction.
+     */
+    private static void apply(Connection conn, String script, int version) throws SQLException {
+        String sql = load(script);
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql); // the driver runs every statement of the script
+            record(conn, version, descriptionOf(script));
+            conn.commit();
+            appLogger.info("SchemaMigrator: Applied " + script);
+        } catch (SQLException e) {
+            conn.rollback();
+            appLogger.error("SchemaMigrator: Migration " + script + " failed, rolled back", e);
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static int currentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static boolean hasLegacySchema(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT to_regclass('public.attendance') IS NOT NULL")) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+
+    private static void record(Connection conn, int version, String description) throws SQLException {
+        String sql = "INSERT INTO schema_version (version, description) VALUES (?, ?)";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, version);
+            ps.setString(2, description);
+            ps.executeUpdate();
+        }
+    }
+
+    private static String load(String script) throws SQLException {
+        try (InputStream in = FileLoader.loadAsStream(MIGRATION_DIR + script)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SQLException("Cannot read migration " + script, e);
+        }
+    }
+
+    /** {@code V12__add_thing.sql} -> 12 */
+    private static int versionOf(String script) {
+        return Integer.parseInt(script.substring(1, script.indexOf("__")));
+    }
+
+    /** {@code V12__add_thing.sql} -> "add thing" */
+    private static String descriptionOf(String script) {
+        return script.substring(script.indexOf("__") + 2, script.length() - ".sql".length()).replace('_', ' ');
+    }
+}
@@ -15,6 +15,7 @@ import com.smartattendance.model.entity.AttendanceRecord;
 import com.smartattendance.model.entity.Session;
 import com.smartattendance.model.entity.Student;
 import com.smartattendance.model.enums.AttendanceStatus;
+import com.smartattendance.model.enums.MarkMethod;
 import com.smartattendance.service.AttendanceMarker;
 import com.smartattendance.service.AttendanceObserver;
 import com.smartattendance.service.AttendanceService;
@@ -153,6 +154,40 @@ public class AttendanceController implements AttendanceObserver, TabRefreshable
         Platform.runLater(this::loadAttendanceRecords);
     }
 
+    /**
+     * Applies students just marked ABSENT by the absent sweeper to the table
+     * in place, instead of reloading every record of the session.
+     * Must be called on the JavaFX thread.
+     *
+     * @param absentees session id to ids of the students marked ABSENT
+     * @param markedAt  the time the records were marked
+     */
+    public void applyAbsentees(Map<Integer, List<Integer>> absentees, LocalDateTime markedAt) {
+        if (currentSession == null) {
+            return;
+        }
+        List<Integer> studentIds = absentees.get(currentSession.getSessionId());
+        if (studentIds == null || studentIds.isEmpty()) {
+            return;
+        }
+
+        Set<Integer> absentIds = Set.copyOf(studentIds);
+        for (AttendanceRecord record : attendanceList) {
+            int studentId = record.getStudent().getStudentId();
+            if (absentIds.contains(studentId)) {
+                record.setStatus(AttendanceStatus.ABSENT);
+                record.setMethod(MarkMethod.AUTO);
+                record.setTimestamp(markedAt);
+                record.setNote("Auto-marked as Absent after session closed");
+                originalStatuses.put(studentId, record.getStatus().toString());
+                originalNotes.put(studentId, record.getNote());
+            }
+        }
+
+        attendanceTable.refresh();
+        updateAttendanceSummary();
+    }
+
     // ======= Message Display Helpers =======
     /**
      * Displays a success message in the info label.
@@ -2,16 +2,26 @@ package com.smartattendance.controller;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.smartattendance.model.dto.dashboard.AttendanceRecord;
+import com.smartattendance.model.dto.dashboard.DashboardAggregates;
 import com.smartattendance.model.dto.dashboard.DashboardFilter;
 import com.smartattendance.model.dto.dashboard.DashboardTopCards;
+import com.smartattendance.model.dto.page.AttendanceKey;
+import com.smartattendance.model.dto.page.KeysetPage;
 import com.smartattendance.repository.DashboardRepository;
 import com.smartattendance.repository.JdbcDashboardRepository;
 import com.smartattendance.service.DashboardService;
+import com.smartattendance.util.LazyTableLoader;
 import com.smartattendance.util.chart.PngChartExporter;
 import com.smartattendance.util.dashboard.DashboardCharts;
 
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.scene.Scene;
@@ -34,6 +44,7 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 /**
  * Controller for the main dashboard screen.
@@ -42,9 +53,9 @@ import javafx.stage.Stage;
  * Responsibilities:
  * <ul>
  *     <li>Read filters from the UI (dates, course, session, status checkboxes)</li>
- *     <li>Use {@link DashboardService} to load attendance records and compute top cards</li>
+ *     <li>Use {@link DashboardService} to load chart aggregates, recent records and top cards</li>
  *     <li>Populate charts via {@link DashboardCharts}</li>
- *     <li>Populate the recent activity table</li>
+ *     <li>Populate the recent activity table, a page at a time as it scrolls</li>
  *     <li>Handle PNG export and zoom views for charts</li>
  * </ul>
  *
@@ -102,6 +113,8 @@ public class DashboardController {
     @FXML private TableColumn<ActivityItem, String> colTime;
     @FXML private TableColumn<ActivityItem, String> colStudent;
     @FXML private TableColumn<ActivityItem, String> colStatus;
+    /** Shows how many of the matching records are loaded into the table. */
+    @FXML private Label recentCountLabel;
 
     /** Histogram of arrival times (e.g. early, on time, late buckets). */
     @FXML private BarChart<String, Number> arrivalHistogram;
@@ -127,6 +140,40 @@ public class DashboardController {
     /** Service that encapsulates dashboard business logic. */
     private final DashboardService    dashboardService    = new DashboardService(dashboardRepository);
 
+    // ===== BACKGROUND LOADING =====
+
+    /** Number of records loaded per page of the recent activity table. */
+    private static final int RECENT_PAGE_SIZE = 40;
+
+    /** Rows before the end of the recent table at which the next page is requested. */
+    private static final int RECENT_PREFETCH_ROWS = 10;
+
+    /** Quiet period before a filter change triggers a load. */
+    private static final long REFRESH_DEBOUNCE_MS = 250;
+
+    /** Shared background thread for dashboard queries, keeps them off the FX thread. */
+    private static final ExecutorService LOADER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "dashboard-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Coalesces rapid filter changes into one refresh. */
+    private final PauseTransition refreshDebounce = new PauseTransition(Duration.millis(REFRESH_DEBOUNCE_MS));
+    /** Incremented per load; results of older loads are dropped. */
+    private final AtomicLong loadGeneration = new AtomicLong();
+    /** The most recently submitted load, cancelled when superseded. */
+    private Future<?> currentLoad;
+
+    /** Filter the recent table was loaded with; further pages use the same filter. */
+    private DashboardFilter recentFilter;
+    /** Key of the last record in the recent table, or {@code null} if all are loaded. */
+    private AttendanceKey recentNextKey;
+    /** Whether a next page of the recent table is being loaded. */
+    private boolean recentLoading;
+    /** Approximate number of records matching the filter, or -1 if unknown. */
+    private long recentEstimate = -1;
+
     /** Default "from" date (usually 7-day window ending today). */
     private LocalDate defaultFrom;
     /** Default "to" date (today). */
@@ -164,6 +211,7 @@ public class DashboardController {
         if (excusedChk != null) excusedChk.setSelected(true);
 
         setupTableColumns();
+        refreshDebounce.setOnFinished(e -> refreshAll());
         wireFilters();
 
         refreshAll();
@@ -178,6 +226,11 @@ public class DashboardController {
      * the dashboard filter and refresh all widgets.
      *
      * <p>
+     * Every change only requests a refresh; rapid changes (e.g. a course
+     * change that also resets the session combo) are coalesced into one load.
+     * </p>
+     *
+     * <p>
      * Listeners are attached to:
      * <ul>
      *     <li>Date pickers (from/to)</li>
@@ -191,29 +244,29 @@ public class DashboardController {
         if (fromDate != null) {
             fromDate.valueProperty().addListener((obs, o, n) -> {
                 clampDates();
-                refreshAll();
+                requestRefresh();
             });
         }
         if (toDate != null) {
             toDate.valueProperty().addListener((obs, o, n) -> {
                 clampDates();
-                refreshAll();
+                requestRefresh();
             });
         }
         if (courseCombo != null) {
             courseCombo.valueProperty().addListener((obs, o, n) -> {
                 Integer courseId = parseIdFromCombo(n);
                 loadSessionCombo(courseId);
-                refreshAll();
+                requestRefresh();
             });
         }
         if (sessionCombo != null) {
-            sessionCombo.valueProperty().addListener((obs, o, n) -> refreshAll());
+            sessionCombo.valueProperty().addListener((obs, o, n) -> requestRefresh());
         }
-        if (onTimeChk  != null) onTimeChk.selectedProperty().addListener((obs, o, n) -> refreshAll());
-        if (lateChk    != null) lateChk.selectedProperty().addListener((obs, o, n) -> refreshAll());
-        if (absentChk  != null) absentChk.selectedProperty().addListener((obs, o, n) -> refreshAll());
-        if (excusedChk != null) excusedChk.selectedProperty().addListener((obs, o, n) -> refreshAll());
+        if (onTimeChk  != null) onTimeChk.selectedProperty().addListener((obs, o, n) -> requestRefresh());
+        if (lateChk    != null) lateChk.selectedProperty().addListener((obs, o, n) -> requestRefresh());
+        if (absentChk  != null) absentChk.selectedProperty().addListener((obs, o, n) -> requestRefresh());
+        if (excusedChk != null) excusedChk.selectedProperty().addListener((obs, o, n) -> requestRefresh());
 
         // Reset all filters back to default.
         if (resetBtn != null) {
@@ -226,24 +279,30 @@ public class DashboardController {
                 lateChk.setSelected(true);
                 absentChk.setSelected(true);
                 excusedChk.setSelected(true);
-                refreshAll();
+                requestRefresh();
             });
         }
 
-        // Jump to the latest session for the currently selected course.
+        // Jump to the latest session for the currently selected course,
+        // looked up on the background loader.
         if (latestSessionBtn != null) {
             latestSessionBtn.setOnAction(e -> {
-                try {
-                    Integer courseId = parseIdFromCombo(courseCombo.getValue());
-                    String latest = dashboardRepository.findLatestSessionLabel(courseId);
-                    if (latest != null) {
+                Integer courseId = parseIdFromCombo(courseCombo.getValue());
+                LOADER.submit(() -> {
+                    String latest;
+                    try {
+                        latest = dashboardService.latestSessionLabel(courseId);
+                    } catch (Exception ex) {
+                        ex.printStackTrace();
+                        return;
+                    }
+                    if (latest == null) return;
+                    Platform.runLater(() -> {
                         sessionCombo.getSelectionModel().select(latest);
                         // Do not touch date filters; only change the session.
-                        refreshAll();
-                    }
-                } catch (Exception ex) {
-                    ex.printStackTrace();
-                }
+                        requestRefresh();
+                    });
+                });
             });
         }
     }
@@ -306,6 +365,15 @@ public class DashboardController {
      * REFRESH
      * --------------------------------------------------------- */
 
+    /**
+     * Requests a dashboard refresh. The load starts once the filters have
+     * been quiet for {@link #REFRESH_DEBOUNCE_MS} milliseconds, so a burst
+     * of filter changes results in a single load.
+     */
+    private void requestRefresh() {
+        refreshDebounce.playFromStart();
+    }
+
     /**
      * Recomputes and refreshes all dashboard widgets based on the
      * current UI filter state.
@@ -313,51 +381,98 @@ public class DashboardController {
      * <p>
      * This method:
      * <ul>
-     *     <li>Builds a {@link DashboardFilter}</li>
-     *     <li>Loads attendance records</li>
-     *     <li>Updates top cards</li>
-     *     <li>Fills the recent activity table</li>
-     *     <li>Delegates to {@link DashboardCharts} to rebuild charts</li>
+     *     <li>Builds a {@link DashboardFilter} on the FX thread</li>
+     *     <li>Cancels any load that is still queued or running, including
+     *         its query on the database server</li>
+     *     <li>Loads chart aggregates, recent records and top cards on the background loader</li>
+     *     <li>Applies cards, table and charts in a single FX pulse via {@link #applyResult}</li>
      * </ul>
+     * Results of a superseded load are discarded.
      * </p>
      */
     private void refreshAll() {
         DashboardFilter filter = buildFilterFromUI();
+        long generation = loadGeneration.incrementAndGet();
 
-        // attendance rows
-        List<AttendanceRecord> records;
-        try {
-            records = dashboardService.loadAttendance(filter);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return;
+        if (currentLoad != null && !currentLoad.isDone()) {
+            // Interrupting the loader does not stop a running JDBC query,
+            // so cancel the statement as well
+            currentLoad.cancel(true);
+            dashboardService.cancelRunning();
         }
 
+        currentLoad = LOADER.submit(() -> {
+            // chart aggregates + recent rows
+            DashboardAggregates aggregates;
+            try {
+                aggregates = dashboardService.loadAggregates(filter, RECENT_PAGE_SIZE);
+            } catch (Exception e) {
+                if (generation == loadGeneration.get()) e.printStackTrace(); // else cancelled
+                return;
+            }
+            if (generation != loadGeneration.get()) return; // superseded, skip the card queries
+
+            // top cards
+            DashboardTopCards cards = null;
+            try {
+                cards = dashboardService.computeTopCards(filter);
+            } catch (Exception e) {
+                if (generation == loadGeneration.get()) e.printStackTrace();
+            }
+
+            // approximate size of the recent table
+            long estimate = -1;
+            try {
+                estimate = dashboardService.estimateAttendanceCount(filter);
+            } catch (Exception e) {
+                if (generation == loadGeneration.get()) e.printStackTrace();
+            }
+
+            DashboardTopCards loadedCards = cards;
+            long loadedEstimate = estimate;
+            Platform.runLater(() -> {
+                if (generation == loadGeneration.get()) {
+                    applyResult(filter, aggregates, loadedCards, loadedEstimate);
+                }
+            });
+        });
+    }
+
+    /**
+     * Applies a finished load to the cards, table and charts.
+     * Must run on the FX thread.
+     *
+     * @param filter     the filter the data was loaded for
+     * @param aggregates chart aggregates and recent records loaded by the service
+     * @param cards      top card counts, or {@code null} if they failed to load
+     * @param estimate   approximate number of matching records, or -1 if unknown
+     */
+    private void applyResult(DashboardFilter filter, DashboardAggregates aggregates,
+                             DashboardTopCards cards, long estimate) {
         // top cards
-        try {
-            DashboardTopCards cards = dashboardService.computeTopCards(filter);
+        if (cards != null) {
             if (studentsCount != null) studentsCount.setText(String.valueOf(cards.getStudents()));
             if (sessionsCount != null) sessionsCount.setText(String.valueOf(cards.getSessions()));
             if (presentTodayCount != null) presentTodayCount.setText(String.valueOf(cards.getPresent()));
-        } catch (Exception e) {
-            e.printStackTrace();
         }
 
-        // table
-        fillRecentTable(records);
+        // table (first page, later pages load on scroll)
+        recentFilter = filter;
+        recentEstimate = estimate;
+        fillRecentTable(aggregates.recent);
 
         // charts (via util/dashboard)
         DashboardCharts.setupWeeklyChart(
                 weeklyChart, chartXAxis, chartYAxis,
-                records, filter.from, filter.to
+                aggregates.perDay, filter.from, filter.to
         );
         DashboardCharts.setupArrivalHistogram(
                 arrivalHistogram, arrivalXAxis, arrivalYAxis,
-                records
+                aggregates.arrivalBins
         );
         DashboardCharts.setupStatusPie(
                 statusPie, statusLegendBox,
-                records,
+                aggregates.statusCounts,
                 filter.includePresent,
                 filter.includeLate,
                 filter.includeAbsent,
@@ -365,7 +480,7 @@ public class DashboardController {
         );
         DashboardCharts.setupCourseChart(
                 courseChart, courseXAxis, courseYAxis, courseLegendBox,
-                records,
+                aggregates.perCourse,
                 filter.includePresent,
                 filter.includeLate,
                 filter.includeAbsent,
@@ -403,10 +518,12 @@ public class DashboardController {
 
     /**
      * Configures the recent activity table columns to read directly from
-     * {@link ActivityItem} fields.
+     * {@link ActivityItem} fields, and loads further pages as the table is
+     * scrolled towards its end.
      */
     private void setupTableColumns() {
         if (recentTable == null) return;
+        LazyTableLoader.install(recentTable, RECENT_PREFETCH_ROWS, this::loadMoreRecent);
         if (colTime != null) {
             colTime.setCellValueFactory(c ->
                     new javafx.beans.property.SimpleStringProperty(c.getValue().time));
@@ -422,21 +539,79 @@ public class DashboardController {
     }
 
     /**
-     * Populates the recent activity table with up to 40 most recent records.
+     * Replaces the recent activity table contents with the first page of
+     * records.
      *
-     * @param records attendance records loaded from the service
+     * @param page first page of recent attendance records, newest first
      */
-    private void fillRecentTable(List<AttendanceRecord> records) {
+    private void fillRecentTable(KeysetPage<AttendanceRecord, AttendanceKey> page) {
         if (recentTable == null) return;
-        var rows = records.stream()
-                .limit(40)
+        recentNextKey = page.getNextKey();
+        recentLoading = false;
+        recentTable.setItems(FXCollections.observableArrayList(toActivityItems(page.getItems())));
+        updateRecentCount();
+    }
+
+    /**
+     * Loads the page after the last record in the recent activity table on
+     * the background loader and appends it. Ignored while a page is loading
+     * or when every record is shown. A page that arrives after the filter
+     * changed is dropped.
+     */
+    private void loadMoreRecent() {
+        if (recentLoading || recentNextKey == null || recentFilter == null) return;
+        recentLoading = true;
+
+        DashboardFilter filter = recentFilter;
+        AttendanceKey after = recentNextKey;
+        long generation = loadGeneration.get();
+
+        LOADER.submit(() -> {
+            KeysetPage<AttendanceRecord, AttendanceKey> page;
+            try {
+                page = dashboardService.loadAttendancePage(filter, after, RECENT_PAGE_SIZE);
+            } catch (Exception e) {
+                e.printStackTrace();
+                page = null;
+            }
+
+            KeysetPage<AttendanceRecord, AttendanceKey> loaded = page;
+            Platform.runLater(() -> {
+                if (generation != loadGeneration.get()) return; // filter changed meanwhile
+                recentLoading = false;
+                if (loaded == null) return;
+                recentNextKey = loaded.getNextKey();
+                recentTable.getItems().addAll(toActivityItems(loaded.getItems()));
+                updateRecentCount();
+            });
+        });
+    }
+
+    /**
+     * Shows how many records are loaded and, while more pages remain, the
+     * approximate total.
+     */
+    private void updateRecentCount() {
+        if (recentCountLabel == null) return;
+        int shown = recentTable.getItems().size();
+        if (recentNextKey == null || recentEstimate < shown) {
+            recentCountLabel.setText(shown + " records");
+        } else {
+            recentCountLabel.setText(shown + " of ~" + recentEstimate + " records");
+        }
+    }
+
+    /**
+     * Maps attendance records to table rows.
+     */
+    private static List<ActivityItem> toActivityItems(List<AttendanceRecord> records) {
+        return records.stream()
                 .map(r -> new ActivityItem(
                         r.markedAt != null ? r.markedAt.toString().replace('T', ' ') : "-",
                         r.username != null ? r.username : "Student " + r.userId,
                         r.status != null ? r.status : "Pending"
                 ))
                 .toList();
-        recentTable.setItems(FXCollections.observableArrayList(rows));
     }
 
     /* ---------------------------------------------------------
@@ -20,8 +20,10 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -115,8 +117,12 @@ public class RecognitionController implements RecognitionObserver {
     private long lastFrameTime = 0;
     private double currentFps = 0.0;
 
-    // Recognition cooldown to avoid spam
-    private long lastRecognitionTime = 0;
+    // Results of the last frame that ran detection, reused while the scene is static
+    private List<RecognitionResult> lastResults = List.of();
+
+    // Recognition cooldown to avoid spam, tracked per student so several faces can be logged at once
+    private final Map<Integer, Long> lastRecognitionTimes = new ConcurrentHashMap<>();
+    private long lastUnknownFaceTime = 0;
     private long lastAlertTime = 0;
     private static final long RECOGNITION_COOLDOWN_MS = Long.parseLong(Config.get("cooldown.seconds")) * 1000; // * 1000 to change from seconds to milliseconds
     private static final long ALERT_COOLDOWN_MS = 5000; // 5 seconds
@@ -180,6 +186,10 @@ public class RecognitionController implements RecognitionObserver {
             // Open camera using CameraUtils
             if (this.cameraUtils.openCamera()) {
                 this.cameraActive = true;
+                this.faceDetectionService.resetMotionGate();
+                this.faceRecognitionService.getStats().reset();
+                this.lastRecognitionTimes.clear();
+                this.lastResults = List.of();
 
                 // Create a task to grab and process frames continuously
                 Runnable frameGrabber = new Runnable() {
@@ -290,11 +300,14 @@ public class RecognitionController implements RecognitionObserver {
 
                 // if the frame is not empty, process it
                 if (!frame.empty()) {
-                    // 1. Detect Faces
-                    MatOfRect faces = faceDetectionService.detectFaces(frame);
+                    // 1. Detect Faces (static frames reuse the previous detections)
+                    MatOfRect faces = faceDetectionService.detectFacesGated(frame);
                     Rect[] facesArray = faces.toArray();
 
-                    if (facesArray.length > 0) {
+                    if (facesArray.length > 0 && !faceDetectionService.wasLastFrameDetected()) {
+                        // Scene unchanged: redraw the previous labels, skip recognition
+                        faceDetectionService.drawFaceRectanglesWithLabels(frame, faces, lastResults);
+                    } else if (facesArray.length > 0) {
                         // Step 2: Extractface ROTs
                         List<Mat> faceROIs = faceRecognitionService.extractFaceROIs(frame, facesArray);
 
@@ -303,17 +316,21 @@ public class RecognitionController implements RecognitionObserver {
 
                         // Step 4: Process results
                         processRecognitionResults(results);
+                        lastResults = results;
 
                         // Step 5: Draw rectangles and labels
                         faceDetectionService.drawFaceRectanglesWithLabels(frame, faces, results);
 
                         // Step 6: Update UI
                         final int faceCount = facesArray.length;
+                        final long rejectedCount = faceRecognitionService.getStats().getTotalRejected();
                         Platform.runLater(() -> {
                             totalDetectionsLabel.setText("Detections: " + faceCount);
-                            statusLabel.setText("Status: Detected " + faceCount + " face(s)");
+                            statusLabel.setText("Status: Detected " + faceCount + " face(s), "
+                                    + rejectedCount + " low quality skipped");
                         });
                     } else {
+                        lastResults = List.of();
                         Platform.runLater(() -> statusLabel.setText("Status: No faces detected"));
                     }
                 }
@@ -380,18 +397,18 @@ public class RecognitionController implements RecognitionObserver {
                     confidenceLabel.setText(String.format("Confidence: %.1f%%", finalConfidence));
                 });
 
-                // Log attendance if cooldown period has passed
-                if (currentTime - lastRecognitionTime > RECOGNITION_COOLDOWN_MS) {
-                    // Handle based on confidence
-                    if (confidence >= LOW_CONFIDENCE_THRESHOLD) {
-                        // Recognized face (confidence >= 30%)
+                // Handle based on confidence, logging each face only once per cooldown period
+                if (confidence >= LOW_CONFIDENCE_THRESHOLD) {
+                    // Recognized face (confidence >= 30%)
+                    Long lastRecognitionTime = lastRecognitionTimes.get(student.getStudentId());
+                    if (lastRecognitionTime == null || currentTime - lastRecognitionTime > RECOGNITION_COOLDOWN_MS) {
                         logAttendance(student, confidence);
-                    } else {
-                        // Unknown face (confidence < 30%)
-                        logUnknownFace(confidence);
+                        lastRecognitionTimes.put(student.getStudentId(), currentTime);
                     }
-
-                    lastRecognitionTime = currentTime;
+                } else if (currentTime - lastUnknownFaceTime > RECOGNITION_COOLDOWN_MS) {
+                    // Unknown face (confidence < 30%)
+                    logUnknownFace(confidence);
+                    lastUnknownFaceTime = currentTime;
                 }
 
             }
@@ -451,8 +468,10 @@ public class RecognitionController implements RecognitionObserver {
 
         CompletableFuture.runAsync(() -> {
             try {
-                // Get full session object
-                Session session = ApplicationContext.getSessionService().findById(sessionId);
+                // Get full session object, from the attendance cache when it holds the active session
+                Session session = attendanceService.getStateCache().isLoadedFor(sessionId)
+                        ? attendanceService.getStateCache().getSession()
+                        : ApplicationContext.getSessionService().findById(sessionId);
                 if (session == null) {
                     appLogger.info("Session not found - cannot mark attendance");
                     return;
@@ -527,10 +546,11 @@ public class RecognitionController implements RecognitionObserver {
             long frameDuration = currentTime - lastFrameTime;
             if (frameDuration > 0) {
                 currentFps = 1000.0 / frameDuration;
+                final long skippedFrames = faceDetectionService.getSkippedFrameCount();
 
                 Platform.runLater(() -> {
                     if (fpsLabel != null) {
-                        fpsLabel.setText(String.format("FPS: %.1f", currentFps));
+                        fpsLabel.setText(String.format("FPS: %.1f (skipped: %d)", currentFps, skippedFrames));
                     }
                 });
             }
@@ -2,21 +2,38 @@ package com.smartattendance.controller;
 
 import java.io.File;
 import java.time.LocalDate;
-import java.util.List;
-
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import com.smartattendance.model.dto.page.AttendanceKey;
+import com.smartattendance.model.dto.page.KeysetPage;
 import com.smartattendance.service.AttendanceReportService;
+import com.smartattendance.service.report.ReportJob;
+import com.smartattendance.service.report.ReportJobService;
+import com.smartattendance.service.report.ScheduledExportService;
+import com.smartattendance.util.LazyTableLoader;
 import com.smartattendance.util.report.AttendanceReportRow;
+import com.smartattendance.util.report.ReportFormat;
 import com.smartattendance.util.report.ReportSpec;
 import com.smartattendance.util.security.log.ApplicationLogger;
 
 import javafx.application.Platform;
 import javafx.fxml.FXML;
+import javafx.scene.control.Button;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.DatePicker;
 import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
+import javafx.scene.control.TitledPane;
+import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
 
 /**
@@ -28,14 +45,17 @@ import javafx.stage.FileChooser;
  * <li>Read filter / column selections from the UI</li>
  * <li>Call {@link AttendanceReportService} to fetch data and generate
  * reports</li>
- * <li>Trigger exports (PDF, Excel, CSV) and email sending</li>
+ * <li>Preview the matching rows, a page at a time</li>
+ * <li>Trigger exports (PDF, Excel, CSV, or a zip bundle of several) and email
+ * sending</li>
  * <li>Update the status label with user-friendly messages</li>
  * </ul>
  *
  * <p>
  * All heavy lifting (DB queries, report generation, email sending) is delegated
- * to {@link AttendanceReportService}; this class stays as a thin orchestration
- * layer.
+ * to {@link AttendanceReportService}; exports and emails run as background
+ * jobs on {@link ReportJobService}, whose progress this class follows. This
+ * class stays as a thin orchestration layer.
  *
  * @author Ernest Lun
  */
@@ -85,6 +105,57 @@ public class ReportController {
     @FXML
     private CheckBox includeNoteCheck;
 
+    // ===== Bundle export =====
+
+    @FXML
+    private CheckBox bundleCsvCheck;
+    @FXML
+    private CheckBox bundleExcelCheck;
+    @FXML
+    private CheckBox bundlePdfCheck;
+    @FXML
+    private Button cancelExportButton;
+
+    // ===== Summary report =====
+
+    @FXML
+    private CheckBox summaryModeCheck;
+
+    // ===== Per-student reports =====
+
+    @FXML
+    private CheckBox studentZipCheck;
+    @FXML
+    private CheckBox studentEmailCheck;
+
+    // ===== Scheduled exports =====
+
+    @FXML
+    private TextField scheduleNameField;
+
+    // ===== Preview table =====
+
+    @FXML
+    private TitledPane previewPane;
+    @FXML
+    private TableView<AttendanceReportRow> previewTable;
+    @FXML
+    private TableColumn<AttendanceReportRow, String> previewTimeCol;
+    @FXML
+    private TableColumn<AttendanceReportRow, String> previewSessionCol;
+    @FXML
+    private TableColumn<AttendanceReportRow, String> previewCourseCol;
+    @FXML
+    private TableColumn<AttendanceReportRow, String> previewStudentIdCol;
+    @FXML
+    private TableColumn<AttendanceReportRow, String> previewStudentNameCol;
+    @FXML
+    private TableColumn<AttendanceReportRow, String> previewStatusCol;
+    @FXML
+    private TableColumn<AttendanceReportRow, String> previewMethodCol;
+    @FXML
+    private Label previewCount;
+
     // ===== Email controls =====
 
     @FXML
@@ -112,6 +183,42 @@ public class ReportController {
     private File lastCsv;
     private File lastXlsx;
 
+    /**
+     * Rows fetched per preview page, and how close to the end of the table
+     * the next page is requested.
+     */
+    private static final int PREVIEW_PAGE_SIZE = 100;
+    private static final int PREVIEW_PREFETCH_ROWS = 20;
+
+    /**
+     * Background thread for preview queries, so scrolling never waits on the
+     * database.
+     */
+    private static final ExecutorService PREVIEW_LOADER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "report-preview-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Runs exports and emails in the background, and the most recent export
+     * job, which the "Cancel" button stops.
+     */
+    private final ReportJobService reportJobs = ReportJobService.getInstance();
+    private ReportJob currentJob;
+
+    /**
+     * Preview paging state: the filter the preview was opened with, the key
+     * to continue after (null once every row is loaded), whether a page is
+     * in flight, and a generation counter so pages of an older preview are
+     * dropped.
+     */
+    private AttendanceReportService.ReportFilter previewFilter;
+    private AttendanceKey previewNextKey;
+    private boolean previewLoading = false;
+    private long previewGeneration = 0;
+    private long previewEstimate = -1;
+
     /**
      * Guard flag to prevent infinite recursion when we update the
      * "Select All" checkbox based on individual checkbox changes.
@@ -177,6 +284,25 @@ public class ReportController {
 
         // Load dropdown options (sessions, courses, status, etc.) from the service.
         loadDropDowns();
+
+        setupPreviewTable();
+    }
+
+    /**
+     * Bind the preview columns to {@link AttendanceReportRow} getters and
+     * load further pages as the preview is scrolled.
+     */
+    private void setupPreviewTable() {
+        if (previewTable == null)
+            return;
+        previewTimeCol.setCellValueFactory(new PropertyValueFactory<>("timestampFormatted"));
+        previewSessionCol.setCellValueFactory(new PropertyValueFactory<>("sessionId"));
+        previewCourseCol.setCellValueFactory(new PropertyValueFactory<>("courseCode"));
+        previewStudentIdCol.setCellValueFactory(new PropertyValueFactory<>("studentId"));
+        previewStudentNameCol.setCellValueFactory(new PropertyValueFactory<>("studentName"));
+        previewStatusCol.setCellValueFactory(new PropertyValueFactory<>("status"));
+        previewMethodCol.setCellValueFactory(new PropertyValueFactory<>("method"));
+        LazyTableLoader.install(previewTable, PREVIEW_PREFETCH_ROWS, this::loadPreviewPage);
     }
 
     /**
@@ -346,110 +472,364 @@ public class ReportController {
         setStatus("Filters reset.");
     }
 
+    /* =================== button handlers: preview =================== */
+
+    /**
+     * Handler for the "Preview" button.
+     * Clears the preview table and loads its first page for the current
+     * filters; later pages are loaded as the user scrolls.
+     */
+    @FXML
+    private void onPreview() {
+        if (previewTable == null)
+            return;
+        if (previewPane != null)
+            previewPane.setExpanded(true);
+
+        previewGeneration++;
+        previewFilter = buildFilter();
+        previewNextKey = null;
+        previewLoading = false;
+        previewEstimate = -1;
+        previewTable.getItems().clear();
+
+        loadPreviewPage(true);
+        setStatus("Loading preview...");
+    }
+
+    /**
+     * Load the next preview page, if any, when the table scrolls near its
+     * end.
+     */
+    private void loadPreviewPage() {
+        if (previewNextKey != null)
+            loadPreviewPage(false);
+    }
+
+    /**
+     * Fetch one preview page on the background loader and append it.
+     * The first page also fetches the approximate row count.
+     *
+     * @param first {@code true} for the first page of a new preview
+     */
+    private void loadPreviewPage(boolean first) {
+        if (previewLoading || previewFilter == null)
+            return;
+        previewLoading = true;
+
+        var filter = previewFilter;
+        var after = first ? null : previewNextKey;
+        long generation = previewGeneration;
+
+        PREVIEW_LOADER.submit(() -> {
+            KeysetPage<AttendanceReportRow, AttendanceKey> page;
+            long estimate;
+            try {
+                page = reportService.getAttendancePage(filter, after, PREVIEW_PAGE_SIZE);
+                estimate = first ? reportService.estimateAttendanceCount(filter) : -1;
+            } catch (Exception e) {
+                appLogger.error("Loading preview page failed", e);
+                Platform.runLater(() -> {
+                    if (generation != previewGeneration)
+                        return;
+                    previewLoading = false; // scrolling or Preview tries again
+                    setStatus("Could not load preview: " + e.getMessage());
+                });
+                return;
+            }
+
+            Platform.runLater(() -> {
+                if (generation != previewGeneration)
+                    return; // a newer preview was started
+                previewLoading = false;
+                previewNextKey = page.getNextKey();
+                if (first)
+                    previewEstimate = estimate;
+                previewTable.getItems().addAll(page.getItems());
+                updatePreviewCount();
+                if (first)
+                    setStatus("Preview loaded.");
+            });
+        });
+    }
+
+    /**
+     * Show how many rows are loaded, and the estimated total while more
+     * pages remain.
+     */
+    private void updatePreviewCount() {
+        if (previewCount == null)
+            return;
+        int shown = previewTable.getItems().size();
+        if (previewNextKey == null || previewEstimate < shown) {
+            previewCount.setText(shown + " rows");
+        } else {
+            previewCount.setText(shown + " of ~" + previewEstimate + " rows (scroll to load more)");
+        }
+    }
+
     /* =================== button handlers: exports =================== */
 
     /**
      * Handler for "Export PDF" button.
-     * Validates column selection, fetches filtered data, allows user to choose
-     * a file, then delegates to the service to generate the PDF.
+     * Validates column selection, lets the user choose a file, then queues
+     * the export as a background job.
      */
     @FXML
     private void onExportPDF() {
-        if (!atLeastOneColumnSelected()) {
-            setStatus("Select at least one column.");
+        if (isChecked(summaryModeCheck)) {
+            exportSummary(ReportFormat.PDF, "attendance-summary.pdf", "PDF files", "*.pdf", "PDF summary",
+                    file -> lastPdf = file);
             return;
         }
+        File target = prepareExport("attendance-report.pdf", "PDF files", "*.pdf", "PDF");
+        if (target == null)
+            return;
+
         var filter = buildFilter();
-        var spec = buildReportSpec();
+        long pages = reportService.estimatePdfPages(filter);
+        String label = pages > 0 ? "PDF (~" + pages + " pages)" : "PDF";
+        follow(reportJobs.submitExport(filter, buildReportSpec(), ReportFormat.PDF, target), label,
+                file -> lastPdf = file);
+    }
 
-        List<AttendanceReportRow> rows = reportService.getAttendance(filter);
-        if (rows.isEmpty()) {
-            setStatus("No data to export.");
+    /**
+     * Handler for "Export Excel" button (.xlsx).
+     */
+    @FXML
+    private void onExportExcel() {
+        if (isChecked(summaryModeCheck)) {
+            exportSummary(ReportFormat.XLSX, "attendance-summary.xlsx", "Excel files", "*.xlsx", "Excel summary",
+                    file -> lastXlsx = file);
             return;
         }
+        File target = prepareExport("attendance-report.xlsx", "Excel files", "*.xlsx", "Excel");
+        if (target == null)
+            return;
+        follow(reportJobs.submitExport(buildFilter(), buildReportSpec(), ReportFormat.XLSX, target), "Excel",
+                file -> lastXlsx = file);
+    }
 
-        File target = chooseFile("attendance-report.pdf", "PDF files", "*.pdf");
+    /**
+     * Handler for "Export CSV" button.
+     */
+    @FXML
+    private void onExportCSV() {
+        if (isChecked(summaryModeCheck)) {
+            exportSummary(ReportFormat.CSV, "attendance-summary.csv", "CSV files", "*.csv", "CSV summary",
+                    file -> lastCsv = file);
+            return;
+        }
+        File target = prepareExport("attendance-report.csv", "CSV files", "*.csv", "CSV");
+        if (target == null)
+            return;
+        // Streamed from the database, the rows are never held in memory
+        follow(reportJobs.submitExport(buildFilter(), buildReportSpec(), ReportFormat.CSV, target), "CSV",
+                file -> lastCsv = file);
+    }
+
+    /**
+     * Export the summary report (one row per student and course) instead of
+     * the attendance rows, when "Summary per student and course" is ticked.
+     * The summary has fixed columns and counts every status, so the column
+     * choice and the status, method and confidence filters are ignored.
+     */
+    private void exportSummary(ReportFormat format, String defaultName, String desc, String ext, String label,
+                               Consumer<File> onSuccess) {
+        File target = chooseFile(defaultName, desc, ext);
         if (target == null) {
-            setStatus("PDF export cancelled.");
+            setStatus(label + " export cancelled.");
             return;
         }
+        follow(reportJobs.submitSummary(buildFilter(), format, target), label, "student-course rows", onSuccess);
+    }
 
-        try {
-            reportService.generatePdfReport(rows, spec, target);
-            lastPdf = target;
-            setStatus("PDF exported: " + target.getAbsolutePath());
-        } catch (Exception e) {
-            e.printStackTrace();
-            setStatus("PDF export failed: " + e.getMessage());
+    /**
+     * Handler for "Export Bundle (.zip)" button.
+     * Exports the ticked formats from one query into a zip.
+     */
+    @FXML
+    private void onExportBundle() {
+        Set<ReportFormat> formats = EnumSet.noneOf(ReportFormat.class);
+        if (isChecked(bundleCsvCheck))
+            formats.add(ReportFormat.CSV);
+        if (isChecked(bundleExcelCheck))
+            formats.add(ReportFormat.XLSX);
+        if (isChecked(bundlePdfCheck))
+            formats.add(ReportFormat.PDF);
+        if (formats.isEmpty()) {
+            setStatus("Select at least one bundle format.");
+            return;
         }
+
+        File target = prepareExport("attendance-report.zip", "Zip files", "*.zip", "Bundle");
+        if (target == null)
+            return;
+        follow(reportJobs.submitBundle(buildFilter(), buildReportSpec(), formats, target), "Bundle " + formats,
+                file -> { });
     }
 
     /**
-     * Handler for "Export Excel" button (.xlsx).
+     * Handler for "Export Student PDFs" button: renders one PDF per student
+     * enrolled in the selected course (or all courses) over the selected
+     * dates into a chosen folder, optionally zipped and emailed. Choosing
+     * the same folder again resumes an interrupted run.
      */
     @FXML
-    private void onExportExcel() {
+    private void onExportStudentReports() {
         if (!atLeastOneColumnSelected()) {
             setStatus("Select at least one column.");
             return;
         }
-        var filter = buildFilter();
-        var spec = buildReportSpec();
-
-        List<AttendanceReportRow> rows = reportService.getAttendance(filter);
-        if (rows.isEmpty()) {
-            setStatus("No data to export.");
+        DirectoryChooser dc = new DirectoryChooser();
+        dc.setTitle("Folder for student reports");
+        File dir = dc.showDialog(null);
+        if (dir == null) {
+            setStatus("Student reports export cancelled.");
             return;
         }
 
-        File target = chooseFile("attendance-report.xlsx", "Excel files", "*.xlsx");
-        if (target == null) {
-            setStatus("Excel export cancelled.");
+        boolean zip = isChecked(studentZipCheck);
+        boolean email = isChecked(studentEmailCheck);
+        follow(reportJobs.submitStudentReports(buildFilter(), buildReportSpec(), dir, zip, email),
+                "Student reports", "students", file -> { });
+    }
+
+    /**
+     * Handler for "Schedule CSV Export..." button: saves the current filter
+     * and columns as a scheduled export into a chosen folder. Its first run
+     * writes every matching row so far; each later run (every
+     * {@code report.schedule.interval.minutes}) only the rows added or
+     * changed since.
+     */
+    @FXML
+    private void onScheduleExport() {
+        if (!atLeastOneColumnSelected()) {
+            setStatus("Select at least one column.");
+            return;
+        }
+        String name = scheduleNameField != null ? scheduleNameField.getText().trim() : "";
+        if (name.isEmpty()) {
+            setStatus("Enter a name for the scheduled export.");
+            return;
+        }
+        DirectoryChooser dc = new DirectoryChooser();
+        dc.setTitle("Folder for scheduled exports");
+        File dir = dc.showDialog(null);
+        if (dir == null) {
+            setStatus("Scheduling cancelled.");
             return;
         }
 
         try {
-            reportService.generateXlsxReport(rows, spec, target);
-            lastXlsx = target;
-            setStatus("Excel exported: " + target.getAbsolutePath());
+            ScheduledExportService.getInstance().schedule(name, buildFilter(), buildReportSpec(),
+                    ReportFormat.CSV, dir, ScheduledExportService.DEFAULT_INTERVAL_MINUTES);
+            setStatus("Scheduled export '" + name + "' to " + dir.getAbsolutePath()
+                    + (ScheduledExportService.POLL_ENABLED
+                            ? ", first run shortly."
+                            : ", first run by the next --run-scheduled-exports on this machine."));
+        } catch (IllegalArgumentException e) {
+            setStatus(e.getMessage());
         } catch (Exception e) {
-            e.printStackTrace();
-            setStatus("Excel export failed: " + e.getMessage());
+            appLogger.error("Scheduling export failed", e);
+            setStatus("Could not schedule export: " + e.getMessage());
         }
     }
 
     /**
-     * Handler for "Export CSV" button.
+     * Handler for "Cancel" button: cancels the most recent export job.
      */
     @FXML
-    private void onExportCSV() {
+    private void onCancelExport() {
+        ReportJob job = currentJob;
+        if (job != null && !job.getState().isFinished()) {
+            job.cancel();
+            setStatus("Cancelling export...");
+        }
+    }
+
+    /**
+     * Common checks before an export: at least one column, some matching
+     * data, and a target file.
+     *
+     * @return the chosen file, or {@code null} if the export should not run
+     */
+    private File prepareExport(String defaultName, String desc, String ext, String label) {
         if (!atLeastOneColumnSelected()) {
             setStatus("Select at least one column.");
-            return;
+            return null;
         }
-        var filter = buildFilter();
-        var spec = buildReportSpec();
-
-        List<AttendanceReportRow> rows = reportService.getAttendance(filter);
-        if (rows.isEmpty()) {
+        if (!reportService.hasAttendance(buildFilter())) {
             setStatus("No data to export.");
-            return;
+            return null;
         }
-
-        File target = chooseFile("attendance-report.csv", "CSV files", "*.csv");
+        File target = chooseFile(defaultName, desc, ext);
         if (target == null) {
-            setStatus("CSV export cancelled.");
-            return;
+            setStatus(label + " export cancelled.");
         }
+        return target;
+    }
 
-        try {
-            reportService.generateCsvReport(rows, spec, target);
-            lastCsv = target;
-            setStatus("CSV exported: " + target.getAbsolutePath());
-        } catch (Exception e) {
-            e.printStackTrace();
-            setStatus("CSV export failed: " + e.getMessage());
-        }
+    /**
+     * Show an export job's progress and outcome in the status label. The
+     * job becomes the one the "Cancel" button stops.
+     *
+     * @param job       the submitted job
+     * @param label     name shown in the status, e.g. "PDF"
+     * @param onSuccess called on the FX thread with the exported file
+     */
+    private void follow(ReportJob job, String label, Consumer<File> onSuccess) {
+        follow(job, label, "rows", onSuccess);
+    }
+
+    /**
+     * Like {@link #follow(ReportJob, String, Consumer)}, for jobs whose
+     * progress counts something other than rows.
+     *
+     * @param unit what the job's progress counts, e.g. "students"
+     */
+    private void follow(ReportJob job, String label, String unit, Consumer<File> onSuccess) {
+        currentJob = job;
+        if (cancelExportButton != null)
+            cancelExportButton.setDisable(false);
+
+        job.addListener(j -> Platform.runLater(() -> {
+            switch (j.getState()) {
+                case QUEUED:
+                    showProgress(label + " export queued...");
+                    break;
+                case RUNNING:
+                    long done = j.getRowsWritten();
+                    long estimate = j.getEstimatedRows();
+                    showProgress(estimate > done
+                            ? "Exporting " + label + ": " + done + " of ~" + estimate + " " + unit + "..."
+                            : "Exporting " + label + ": " + done + " " + unit + "...");
+                    break;
+                case SUCCEEDED:
+                    onSuccess.accept(j.getResult());
+                    setStatus(label + " exported (" + j.getRowsWritten() + " " + unit
+                            + (j.isFromCache() ? ", unchanged since last export" : "") + "): "
+                            + j.getResult().getAbsolutePath());
+                    break;
+                case FAILED:
+                    setStatus(label + " export failed: " + j.getError());
+                    break;
+                case CANCELLED:
+                    setStatus(label + " export cancelled.");
+                    break;
+            }
+            if (j.getState().isFinished() && j == currentJob && cancelExportButton != null)
+                cancelExportButton.setDisable(true);
+        }));
+    }
+
+    /**
+     * Show a progress message in the status label, without logging every
+     * update.
+     */
+    private void showProgress(String msg) {
+        if (reportStatus != null)
+            reportStatus.setText(msg);
     }
 
     // ====== email buttons ======
@@ -493,8 +873,8 @@ public class ReportController {
 
     /**
      * Common helper for sending email with the given report file attached.
-     * Runs the actual sending in a background thread, then updates the UI status
-     * on the JavaFX Application Thread using {@link Platform#runLater(Runnable)}.
+     * Queues the sending as a report job, then updates the UI status on the
+     * JavaFX Application Thread using {@link Platform#runLater(Runnable)}.
      */
     private void sendEmailWith(File file) {
         String to = emailTo != null ? emailTo.getText() : "";
@@ -511,16 +891,13 @@ public class ReportController {
 
         setStatus("Sending email...");
 
-        // Perform email sending off the UI thread to avoid freezing the interface.
-        new Thread(() -> {
-            try {
-                reportService.sendEmail(to, subject, body, file);
+        // Sent on the report job pool to avoid freezing the interface.
+        reportJobs.submitEmail(to, subject, body, file).addListener(j -> {
+            if (j.getState() == ReportJob.State.SUCCEEDED)
                 Platform.runLater(() -> setStatus("Email sent to " + to));
-            } catch (Exception e) {
-                e.printStackTrace();
-                Platform.runLater(() -> setStatus("Email failed: " + e.getMessage()));
-            }
-        }, "mail-thread").start();
+            else if (j.getState() == ReportJob.State.FAILED)
+                Platform.runLater(() -> setStatus("Email failed: " + j.getError()));
+        });
     }
 
     /* ================= helpers ================= */
@@ -8,10 +8,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import com.smartattendance.ApplicationContext;
 import com.smartattendance.model.entity.Session;
 import com.smartattendance.service.AttendanceObserver;
 import com.smartattendance.service.SessionService;
-import com.smartattendance.util.AutoSessionProcessor;
 import com.smartattendance.util.ButtonStateManager;
 import com.smartattendance.util.DialogUtil;
 import com.smartattendance.util.InfoLabelUtil;
@@ -19,6 +19,7 @@ import com.smartattendance.util.SessionTableUtil;
 import com.smartattendance.util.SessionViewNavigator;
 import com.smartattendance.util.security.log.ApplicationLogger;
 
+import javafx.application.Platform;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -198,9 +199,9 @@ public class SessionController {
         // Initialise view navigator for session-attendance view transitions
         this.svn = new SessionViewNavigator(sessionListContainer, attendanceViewContainer);
 
-        // Start automatic session processor (runs every 30 seconds)
-        AutoSessionProcessor autoProcessor = new AutoSessionProcessor(ss, st);
-        autoProcessor.start();
+        // Refresh the table whenever the auto-session scheduler starts or stops a session
+        ApplicationContext.getAutoSessionScheduler().setOnSessionsChanged(
+                () -> Platform.runLater(st::loadSessions));
     }
 
     // ========== MESSAGE DISPLAY METHODS USING INFOLABELUTIL ==========
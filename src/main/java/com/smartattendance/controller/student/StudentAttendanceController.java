@@ -356,7 +356,10 @@ public class StudentAttendanceController {
             if (toDate != null)   toDate.setValue(to);
         }
 
-        var result = service.applyFilters(masterData, course, from, to);
+        User current = ApplicationContext.getAuthSession().getCurrentUser();
+        Integer studentId = (current != null) ? current.getId() : null;
+
+        var result = service.applyFilters(studentId, masterData, course, from, to);
         filtered.setAll(result.getRows());
         summary.setAll(result.getSummaries());
 
@@ -0,0 +1,66 @@
+package com.smartattendance.model.dto.attendance;
+
+import java.time.LocalDateTime;
+
+import com.smartattendance.model.enums.AttendanceStatus;
+
+/**
+ * Lightweight, immutable snapshot of one student's attendance state in a
+ * session.
+ *
+ * Holds only what the auto marker needs to decide whether a recognition is a
+ * real state transition (status and last seen time), so a whole session
+ * roster can be loaded with a single query and kept in memory.
+ *
+ * @version 10:05 19 Oct 2026
+ */
+public final class AttendanceState {
+
+    private final int studentId; // Student (user) id
+    private final AttendanceStatus status; // Current attendance status
+    private final LocalDateTime lastSeen; // Last time the student was seen
+
+    /**
+     * Creates a new attendance state snapshot.
+     *
+     * @param studentId the student id
+     * @param status    the current attendance status
+     * @param lastSeen  the last seen timestamp, may be null
+     */
+    public AttendanceState(int studentId, AttendanceStatus status, LocalDateTime lastSeen) {
+        this.studentId = studentId;
+        this.status = status;
+        this.lastSeen = lastSeen;
+    }
+
+    /**
+     * @return the student id
+     */
+    public int getStudentId() {
+        return studentId;
+    }
+
+    /**
+     * @return the current attendance status
+     */
+    public AttendanceStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * @return the last seen timestamp, may be null
+     */
+    public LocalDateTime getLastSeen() {
+        return lastSeen;
+    }
+
+    /**
+     * Returns a copy of this state with a new last seen time.
+     *
+     * @param newLastSeen the new last seen time
+     * @return the updated snapshot
+     */
+    public AttendanceState withLastSeen(LocalDateTime newLastSeen) {
+        return new AttendanceState(studentId, status, newLastSeen);
+    }
+}
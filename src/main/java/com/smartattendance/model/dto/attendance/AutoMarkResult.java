@@ -0,0 +1,81 @@
+package com.smartattendance.model.dto.attendance;
+
+import java.time.LocalDateTime;
+
+import com.smartattendance.model.enums.AttendanceStatus;
+
+/**
+ * Result of the single-statement auto-mark upsert.
+ *
+ * Carries the status the row had before the statement and the status it has
+ * afterwards (null when the statement changed nothing, e.g. cooldown still
+ * active or the student is already ABSENT), so the caller can decide which
+ * observers to notify without reading the row again.
+ *
+ * @version 11:20 19 Oct 2026
+ */
+public final class AutoMarkResult {
+
+    /** What the upsert did to the attendance row. */
+    public enum Outcome {
+        MARKED, // PENDING (or missing) row moved to PRESENT or LATE
+        LAST_SEEN_UPDATED, // Already PRESENT/LATE, cooldown expired, last_seen updated
+        SKIPPED_COOLDOWN, // Already PRESENT/LATE, still in cooldown
+        SKIPPED_STATUS // Row in a status auto marking must not change (e.g. ABSENT)
+    }
+
+    private final AttendanceStatus previousStatus; // Status before the upsert, null if the row did not exist
+    private final AttendanceStatus resultingStatus; // Status after the upsert, null if nothing changed
+    private final LocalDateTime lastSeen; // last_seen after the upsert, null if nothing changed
+
+    /**
+     * Creates a new auto-mark result.
+     *
+     * @param previousStatus  status before the upsert, null if no row existed
+     * @param resultingStatus status after the upsert, null if unchanged
+     * @param lastSeen        last seen time after the upsert, null if unchanged
+     */
+    public AutoMarkResult(AttendanceStatus previousStatus, AttendanceStatus resultingStatus,
+            LocalDateTime lastSeen) {
+        this.previousStatus = previousStatus;
+        this.resultingStatus = resultingStatus;
+        this.lastSeen = lastSeen;
+    }
+
+    /**
+     * @return the status before the upsert, null if the row did not exist
+     */
+    public AttendanceStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    /**
+     * @return the status after the upsert, null if the row was not changed
+     */
+    public AttendanceStatus getResultingStatus() {
+        return resultingStatus;
+    }
+
+    /**
+     * @return the last seen time after the upsert, null if the row was not changed
+     */
+    public LocalDateTime getLastSeen() {
+        return lastSeen;
+    }
+
+    /**
+     * Interprets the before/after statuses.
+     *
+     * @return what the upsert did
+     */
+    public Outcome getOutcome() {
+        if (resultingStatus == null) {
+            return previousStatus == AttendanceStatus.PRESENT || previousStatus == AttendanceStatus.LATE
+                    ? Outcome.SKIPPED_COOLDOWN
+                    : Outcome.SKIPPED_STATUS;
+        }
+        return previousStatus == null || previousStatus == AttendanceStatus.PENDING
+                ? Outcome.MARKED
+                : Outcome.LAST_SEEN_UPDATED;
+    }
+}
@@ -0,0 +1,51 @@
+package com.smartattendance.model.dto.dashboard;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.smartattendance.model.dto.page.AttendanceKey;
+import com.smartattendance.model.dto.page.KeysetPage;
+
+/**
+ * Pre-aggregated data backing the dashboard charts and recent activity table.
+ *
+ * <p>Every field is computed by a GROUP BY (or LIMIT) query in
+ * {@code JdbcDashboardRepository}, so the dashboard renders from a handful of
+ * rows regardless of how many attendance records fall into the filter.
+ *
+ * <p>Like {@link DashboardFilter}, this is a plain holder with public fields.
+ *
+ * @version 15:20 19 Oct 2026
+ */
+public class DashboardAggregates {
+
+    /**
+     * Number of attendance records per day (by {@code marked_at}).
+     * Days without records are absent from the map.
+     */
+    public Map<LocalDate, Integer> perDay = new LinkedHashMap<>();
+
+    /**
+     * Arrival counts per bin, in the order
+     * {@code ≤0, 1–5, 6–10, 11–15, >15} minutes after session start.
+     */
+    public int[] arrivalBins = new int[5];
+
+    /**
+     * Overall counts per status.
+     */
+    public StatusCounts statusCounts = new StatusCounts();
+
+    /**
+     * Counts per status for each course code, ordered by the course's most
+     * recent attendance record first.
+     */
+    public Map<String, StatusCounts> perCourse = new LinkedHashMap<>();
+
+    /**
+     * First page of the most recent attendance records for the activity
+     * table, newest first. Further pages are loaded as the table scrolls.
+     */
+    public KeysetPage<AttendanceRecord, AttendanceKey> recent = KeysetPage.empty();
+}
@@ -45,6 +45,12 @@ public class DashboardFilter {
      */
     public Integer sessionId;
 
+    /**
+     * Optional student (user) ID to restrict results to a single student.
+     * If {@code null}, records of all students are included.
+     */
+    public Integer studentId;
+
     /**
      * Whether "Present" records should be included in the results and charts.
      * Defaults to {@code true}.
@@ -0,0 +1,48 @@
+package com.smartattendance.model.dto.dashboard;
+
+/**
+ * Attendance counts per status, as returned by the dashboard GROUP BY
+ * queries.
+ *
+ * <p>Used both for the overall status split (pie chart) and for each row of
+ * the course &times; status matrix (stacked course chart). Like the other
+ * dashboard DTOs it uses public fields so chart utilities can read them
+ * without boilerplate.
+ *
+ * @version 15:20 19 Oct 2026
+ */
+public class StatusCounts {
+
+    /** Number of "Present" records. */
+    public int present;
+
+    /** Number of "Late" records. */
+    public int late;
+
+    /** Number of "Absent" records. */
+    public int absent;
+
+    /** Number of "Pending" records, including records without a status. */
+    public int pending;
+
+    /**
+     * Adds a count to the bucket of the given status. Unknown statuses are
+     * counted as "Pending", matching how the dashboard treats them.
+     *
+     * @param status status label as stored in the database
+     * @param count  number of records with that status
+     */
+    public void add(String status, int count) {
+        if ("Present".equals(status)) present += count;
+        else if ("Late".equals(status)) late += count;
+        else if ("Absent".equals(status)) absent += count;
+        else pending += count;
+    }
+
+    /**
+     * @return sum of all four buckets
+     */
+    public int total() {
+        return present + late + absent + pending;
+    }
+}
@@ -0,0 +1,21 @@
+package com.smartattendance.model.dto.page;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position of an attendance row in change order, the high-water mark of an
+ * incremental export.
+ *
+ * Incremental exports read rows in {@code (changed_at, user_id, session_id)}
+ * order and remember the key of the last row written; the next run continues
+ * after it. {@code changed_at} is set by a trigger on insert and whenever a
+ * reported column changes (see {@code V8__scheduled_exports.sql}), so an
+ * edited mark moves past the mark and is exported again.
+ *
+ * @param changedAt changed_at of the row
+ * @param userId    user_id of the row
+ * @param sessionId session_id of the row
+ * @version 22:30 19 Oct 2026
+ */
+public record AttendanceChangeKey(LocalDateTime changedAt, int userId, int sessionId) {
+}
@@ -0,0 +1,21 @@
+package com.smartattendance.model.dto.page;
+
+import java.time.LocalDateTime;
+
+/**
+ * Sort key of an attendance row in paginated listings.
+ *
+ * Listings are ordered newest first by
+ * {@code (marked_at, user_id, session_id) DESC}; the key of the last row
+ * shown is where the next page continues. {@code user_id} and
+ * {@code session_id} together are the primary key, so the order is total
+ * even when many rows share a {@code marked_at}.
+ *
+ * @param markedAt  marked_at of the row, null for rows not marked yet (they
+ *                  sort first)
+ * @param userId    user_id of the row
+ * @param sessionId session_id of the row
+ * @version 17:50 19 Oct 2026
+ */
+public record AttendanceKey(LocalDateTime markedAt, int userId, int sessionId) {
+}
@@ -0,0 +1,49 @@
+package com.smartattendance.model.dto.page;
+
+import java.util.List;
+
+/**
+ * One page of a keyset (seek) paginated listing.
+ *
+ * Pages are not addressed by offset. The next page is requested with the key
+ * of the last row of this page, and the query continues strictly after it
+ * using the index order, so every page costs the same no matter how deep
+ * the user has scrolled.
+ *
+ * @param <T> type of the rows
+ * @param <K> type of the sort key the next page continues after
+ * @version 17:50 19 Oct 2026
+ */
+public final class KeysetPage<T, K> {
+
+    private final List<T> items; // Rows of this page, in listing order
+    private final K nextKey; // Key of the last row, null if this is the last page
+
+    public KeysetPage(List<T> items, K nextKey) {
+        this.items = List.copyOf(items);
+        this.nextKey = nextKey;
+    }
+
+    /**
+     * @return an empty last page
+     */
+    public static <T, K> KeysetPage<T, K> empty() {
+        return new KeysetPage<>(List.of(), null);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return the key to pass when requesting the next page, or null if
+     *         there are no more rows
+     */
+    public K getNextKey() {
+        return nextKey;
+    }
+
+    public boolean hasMore() {
+        return nextKey != null;
+    }
+}
@@ -0,0 +1,12 @@
+package com.smartattendance.model.dto.page;
+
+/**
+ * Sort key of a row in the paginated student listing, which has one row per
+ * enrollment ordered by {@code (user_id, course_id)}.
+ *
+ * @param userId   user_id of the student
+ * @param courseId course_id of the enrollment
+ * @version 17:50 19 Oct 2026
+ */
+public record StudentKey(int userId, int courseId) {
+}
@@ -10,10 +10,14 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.smartattendance.config.DatabaseUtil;
 import com.smartattendance.controller.student.AttendanceRow;
+import com.smartattendance.model.dto.attendance.AttendanceState;
+import com.smartattendance.model.dto.attendance.AutoMarkResult;
 import com.smartattendance.model.entity.AttendanceRecord;
 import com.smartattendance.model.entity.Session;
 import com.smartattendance.model.entity.Student;
@@ -223,6 +227,42 @@ public class AttendanceRecordRepository {
         return records;
     }
 
+    /**
+     * Retrieves the status and last seen time of every attendance record in a
+     * session with a single query, without loading the student and session
+     * entities.
+     *
+     * @param sessionId the session identifier
+     * @return map of student id to attendance state, empty if none or on error
+     */
+    public Map<Integer, AttendanceState> findStatesBySessionId(int sessionId) {
+        Map<Integer, AttendanceState> states = new HashMap<>();
+        String sql = "SELECT user_id, status, last_seen FROM attendance WHERE session_id = ?";
+
+        try (Connection conn = DatabaseUtil.getConnection(); 
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, sessionId);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int studentId = rs.getInt("user_id");
+                    AttendanceStatus status 
+                            = AttendanceStatus.valueOf(rs.getString("status").toUpperCase());
+
+                    states.put(studentId, new AttendanceState(
+                            studentId,
+                            status,
+                            toLocalDateTime(rs.getTimestamp("last_seen"))));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return states;
+    }
+
      /**
      * Retrieves a single attendance record based on student Id and session Id.
      *
@@ -420,6 +460,245 @@ public class AttendanceRecordRepository {
         }
     }
 
+    /**
+     * Applies an auto-mark recognition in a single statement.
+     *
+     * The upsert inserts the record as PRESENT or LATE if it does not exist,
+     * moves a PENDING record to PRESENT or LATE, and refreshes last_seen of a
+     * PRESENT or LATE record whose cooldown has expired. The late decision is
+     * made against the session's start_time and late_threshold and the
+     * cooldown against the stored last_seen, so two concurrent recognitions of
+     * the same student cannot both mark them. Any other row (e.g. ABSENT) or
+     * a cooldown still running is left untouched.
+     *
+     * @param studentId       the recognized student
+     * @param sessionId       the session being marked
+     * @param confidence      the recognition confidence
+     * @param now             the recognition time
+     * @param cooldownSeconds minimum seconds between two last_seen updates
+     * @return the status before and after the statement
+     * @throws SQLException if the statement fails
+     */
+    public AutoMarkResult upsertAutoMark(int studentId, int sessionId, double confidence,
+            LocalDateTime now, int cooldownSeconds) throws SQLException {
+        // Both CTEs see the same snapshot, so prev is the row as it was before the upsert
+        String sql = "WITH prev AS ("
+                     + "    SELECT status FROM attendance WHERE user_id = ? AND session_id = ?"
+                     + "), marked AS ("
+                     + "    INSERT INTO attendance AS a (user_id, session_id, note, confidence, marked_at, "
+                     + "                                 last_seen, method, status) "
+                     + "    SELECT ?, s.session_id, 'Auto-marked via face recognition', ?, ?, ?, 'Auto', "
+                     + "           CASE WHEN ? >= s.start_time + (COALESCE(s.late_threshold, 0) + 1) * INTERVAL '1 minute' "
+                     + "                THEN 'Late' ELSE 'Present' END "
+                     + "    FROM sessions s WHERE s.session_id = ? "
+                     + "    ON CONFLICT (user_id, session_id) DO UPDATE SET "
+                     + "        status = CASE WHEN a.status = 'Pending' THEN EXCLUDED.status ELSE a.status END, "
+                     + "        method = CASE WHEN a.status = 'Pending' THEN EXCLUDED.method ELSE a.method END, "
+                     + "        confidence = CASE WHEN a.status = 'Pending' THEN EXCLUDED.confidence ELSE a.confidence END, "
+                     + "        marked_at = CASE WHEN a.status = 'Pending' THEN EXCLUDED.marked_at ELSE a.marked_at END, "
+                     + "        note = CASE WHEN a.status = 'Pending' THEN EXCLUDED.note ELSE a.note END, "
+                     + "        last_seen = EXCLUDED.last_seen "
+                     + "    WHERE a.status = 'Pending' "
+                     + "       OR (a.status IN ('Present', 'Late') "
+                     + "           AND (a.last_seen IS NULL "
+                     + "                OR a.last_seen <= EXCLUDED.last_seen - ? * INTERVAL '1 second')) "
+                     + "    RETURNING a.status, a.last_seen"
+                     + ") "
+                     + "SELECT (SELECT status FROM prev) AS previous_status, m.status, m.last_seen "
+                     + "FROM (SELECT 1) one LEFT JOIN marked m ON TRUE";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            Timestamp ts = Timestamp.valueOf(now);
+            ps.setInt(1, studentId);
+            ps.setInt(2, sessionId);
+            ps.setInt(3, studentId);
+            ps.setDouble(4, confidence);
+            ps.setTimestamp(5, ts);
+            ps.setTimestamp(6, ts);
+            ps.setTimestamp(7, ts);
+            ps.setInt(8, sessionId);
+            ps.setInt(9, cooldownSeconds);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return new AutoMarkResult(null, null, null);
+                }
+                String previous = rs.getString("previous_status");
+                String resulting = rs.getString("status");
+
+                return new AutoMarkResult(
+                        previous != null ? AttendanceStatus.valueOf(previous.toUpperCase()) : null,
+                        resulting != null ? AttendanceStatus.valueOf(resulting.toUpperCase()) : null,
+                        toLocalDateTime(rs.getTimestamp("last_seen")));
+            }
+        }
+    }
+
+    /**
+     * Writes several pending attendance changes in one transaction using JDBC
+     * batches: new records first, then full updates, then last seen updates.
+     * Used by {@link AttendanceWriteBehindQueue} to flush coalesced writes.
+     *
+     * <p>
+     * Inserts overwrite an existing row for the same (user_id, session_id),
+     * e.g. one written directly after the queue was closed or by another app
+     * instance, so the newer coalesced values are never discarded.
+     * </p>
+     *
+     * @param inserts         records to insert
+     * @param updates         records to fully update
+     * @param lastSeenUpdates records whose last_seen should be updated
+     * @throws SQLException if the batch failed and was rolled back; SQLState
+     *                      class {@code 08} if there was no connection
+     */
+    public void writeBatch(List<AttendanceRecord> inserts,
+            List<AttendanceRecord> updates,
+            List<AttendanceRecord> lastSeenUpdates) throws SQLException {
+        String insertSql = "INSERT INTO attendance (user_id, session_id, note, confidence, marked_at, "
+                           + "last_seen, method, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?) "
+                           + "ON CONFLICT (user_id, session_id) DO UPDATE SET "
+                           + "status = EXCLUDED.status, method = EXCLUDED.method, "
+                           + "confidence = EXCLUDED.confidence, marked_at = EXCLUDED.marked_at, "
+                           + "last_seen = EXCLUDED.last_seen, note = EXCLUDED.note";
+        String updateSql = "UPDATE attendance SET status = ?, method = ?, confidence = ?, marked_at = ?, " 
+                           + "last_seen = ?, note = ? WHERE user_id = ? AND session_id = ?";
+        String lastSeenSql = "UPDATE attendance SET last_seen = ? WHERE user_id = ? AND session_id = ?";
+
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            if (conn == null) {
+                throw new SQLException("No database connection", "08001");
+            }
+
+            conn.setAutoCommit(false);
+            try (PreparedStatement insertPs = conn.prepareStatement(insertSql);
+                 PreparedStatement updatePs = conn.prepareStatement(updateSql);
+                 PreparedStatement lastSeenPs = conn.prepareStatement(lastSeenSql)) {
+
+                for (AttendanceRecord record : inserts) {
+                    insertPs.setInt(1, record.getStudent().getStudentId());
+                    insertPs.setInt(2, record.getSession().getSessionId());
+                    insertPs.setString(3, record.getNote());
+                    insertPs.setDouble(4, record.getConfidence());
+                    insertPs.setTimestamp(5, Timestamp.valueOf(record.getTimestamp()));
+                    insertPs.setTimestamp(6, Timestamp.valueOf(record.getLastSeen()));
+                    insertPs.setString(7, capitalize(record.getMethod().toString()));
+                    insertPs.setString(8, capitalize(record.getStatus().toString()));
+                    insertPs.addBatch();
+                }
+
+                for (AttendanceRecord record : updates) {
+                    updatePs.setString(1, capitalize(record.getStatus().toString()));
+                    updatePs.setString(2, capitalize(record.getMethod().toString()));
+                    updatePs.setDouble(3, record.getConfidence());
+                    updatePs.setTimestamp(4, Timestamp.valueOf(record.getTimestamp()));
+                    updatePs.setTimestamp(5, Timestamp.valueOf(record.getLastSeen()));
+                    updatePs.setString(6, record.getNote());
+                    updatePs.setInt(7, record.getStudent().getStudentId());
+                    updatePs.setInt(8, record.getSession().getSessionId());
+                    updatePs.addBatch();
+                }
+
+                for (AttendanceRecord record : lastSeenUpdates) {
+                    lastSeenPs.setTimestamp(1, Timestamp.valueOf(record.getLastSeen()));
+                    lastSeenPs.setInt(2, record.getStudent().getStudentId());
+                    lastSeenPs.setInt(3, record.getSession().getSessionId());
+                    lastSeenPs.addBatch();
+                }
+
+                if (!inserts.isEmpty()) {
+                    insertPs.executeBatch();
+                }
+                if (!updates.isEmpty()) {
+                    updatePs.executeBatch();
+                }
+                if (!lastSeenUpdates.isEmpty()) {
+                    lastSeenPs.executeBatch();
+                }
+
+                conn.commit();
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Marks every PENDING record of a closed session as ABSENT with a single
+     * UPDATE and returns the affected students.
+     *
+     * @param sessionId the closed session
+     * @param markedAt  the time to record as marked_at
+     * @return ids of the students marked ABSENT, empty if none or on error
+     */
+    public List<Integer> markPendingAsAbsent(int sessionId, LocalDateTime markedAt) {
+        List<Integer> studentIds = new ArrayList<>();
+        String sql = "UPDATE attendance SET status = 'Absent', method = 'Auto', marked_at = ?, "
+                     + "note = 'Auto-marked as Absent after session closed' "
+                     + "WHERE session_id = ? AND status = 'Pending' RETURNING user_id";
+
+        try (Connection conn = DatabaseUtil.getConnection(); 
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setTimestamp(1, Timestamp.valueOf(markedAt));
+            ps.setInt(2, sessionId);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    studentIds.add(rs.getInt("user_id"));
+                }
+            }
+        } catch (SQLException e) {
+            appLogger.error("Failed to mark pending attendance as absent for session " + sessionId, e);
+        }
+
+        return studentIds;
+    }
+
+    /**
+     * Marks the PENDING records of every session closed at or after the
+     * watermark as ABSENT with a single UPDATE. A null watermark sweeps all
+     * closed sessions, e.g. once at start-up to catch up.
+     *
+     * @param closedSince only sessions with closed_at at or after this time, or null for all
+     * @param markedAt    the time to record as marked_at
+     * @return session id to ids of the students marked ABSENT, or null on error
+     */
+    public Map<Integer, List<Integer>> markPendingAsAbsentForClosedSessions(
+            LocalDateTime closedSince, LocalDateTime markedAt) {
+        Map<Integer, List<Integer>> absentees = new HashMap<>();
+        String sql = "UPDATE attendance a SET status = 'Absent', method = 'Auto', marked_at = ?, "
+                     + "note = 'Auto-marked as Absent after session closed' "
+                     + "FROM sessions s WHERE a.session_id = s.session_id "
+                     + "AND s.status = 'Closed' AND a.status = 'Pending'"
+                     + (closedSince != null ? " AND s.closed_at >= ?" : "")
+                     + " RETURNING a.session_id, a.user_id";
+
+        try (Connection conn = DatabaseUtil.getConnection(); 
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setTimestamp(1, Timestamp.valueOf(markedAt));
+            if (closedSince != null) {
+                ps.setTimestamp(2, Timestamp.valueOf(closedSince));
+            }
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    absentees.computeIfAbsent(rs.getInt("session_id"), id -> new ArrayList<>())
+                            .add(rs.getInt("user_id"));
+                }
+            }
+        } catch (SQLException e) {
+            appLogger.error("Failed to sweep pending attendance of closed sessions", e);
+            return null;
+        }
+
+        return absentees;
+    }
+
     // public StudentRepository getStudentRepo() {
     //     return studentRepo;
     // }
@@ -1,5 +1,8 @@
 package com.smartattendance.repository;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.Date;
 import java.sql.PreparedStatement;
@@ -11,9 +14,20 @@ import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import com.smartattendance.config.Config;
 import com.smartattendance.config.DatabaseUtil;
+import com.smartattendance.model.dto.page.AttendanceChangeKey;
+import com.smartattendance.model.dto.page.AttendanceKey;
+import com.smartattendance.model.dto.page.KeysetPage;
 import com.smartattendance.service.AttendanceReportService;
 import com.smartattendance.util.report.AttendanceReportRow;
+import com.smartattendance.util.report.AttendanceSummaryRow;
+import com.smartattendance.util.report.ReportSpec;
+import com.smartattendance.util.report.ReportWriter;
+import com.smartattendance.util.report.StudentReport;
 
 /**
  * Repository responsible for querying attendance- and session-related data
@@ -25,6 +39,13 @@ import com.smartattendance.util.report.AttendanceReportRow;
  *     <li>Provide option lists for sessions and courses (for dropdowns)</li>
  *     <li>Fetch information about the latest session</li>
  *     <li>Query filtered attendance records for report generation</li>
+ *     <li>Page through filtered attendance records for the report preview</li>
+ *     <li>Stream filtered attendance records into report writers, or copy
+ *         them out as CSV with {@code COPY}</li>
+ *     <li>Stream every enrolled student's attendance, grouped per student</li>
+ *     <li>Aggregate attendance into a per student and course summary</li>
+ *     <li>Stream the records changed since an incremental export's
+ *         high-water mark</li>
  * </ul>
  *
  * <p>
@@ -38,6 +59,28 @@ import com.smartattendance.util.report.AttendanceReportRow;
  */
 public class AttendanceRepository {
 
+    /** Rows fetched per round trip when streaming an export */
+    private static final int FETCH_SIZE = Config.getInt("report.fetch.size", 1000);
+
+    /** Columns and joins shared by the report queries, ending in a WHERE clause */
+    private static final String REPORT_SELECT =
+            "SELECT " +
+                    "a.marked_at, " +
+                    "a.session_id, " +
+                    "a.user_id, " +
+                    "u.username, " +
+                    "a.status, " +
+                    "a.method, " +
+                    "a.note, " +
+                    "a.confidence, " +
+                    "c.course_code, " +
+                    "c.course_id " +
+                    "FROM attendance a " +
+                    "JOIN sessions s ON a.session_id = s.session_id " +
+                    "JOIN courses  c ON s.course_id = c.course_id " +
+                    "LEFT JOIN users u ON a.user_id = u.user_id " +
+                    "WHERE 1=1 ";
+
     /* ===== combos ===== */
 
     /**
@@ -235,34 +278,707 @@ public class AttendanceRepository {
                                                     String confidenceExpr) {
         List<AttendanceReportRow> out = new ArrayList<>();
 
+        StringBuilder sb = new StringBuilder(REPORT_SELECT);
+        List<Object> params = new ArrayList<>();
+        appendReportFilter(sb, params, from, to, sessionDisplay, courseDisplay, status, method, confidenceExpr);
+        sb.append(KeysetPaging.ATTENDANCE_ORDER);
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sb.toString())) {
+
+            // Bind all collected parameters in order.
+            bind(ps, params);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    out.add(mapReportRow(rs));
+                }
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return List.of();
+        }
+
+        return out;
+    }
+
+    /**
+     * Loads one page of the attendance records matching the report filters,
+     * newest first, for the report preview table.
+     *
+     * <p>
+     * Uses keyset pagination: the page starts strictly after {@code after}
+     * in {@code (marked_at, user_id, session_id)} order, so deep pages are as
+     * cheap as the first one. One extra row is fetched to tell whether
+     * another page follows.
+     * </p>
+     *
+     * @param from           start date of the filter (inclusive), or {@code null}
+     * @param to             end date of the filter (inclusive), or {@code null}
+     * @param sessionDisplay session combo label, or {@code "All"}
+     * @param courseDisplay  course combo label, or {@code "All"}
+     * @param status         attendance status filter, or {@code "All"} / {@code null}
+     * @param method         method filter, or {@code "All"} / {@code null}
+     * @param confidenceExpr confidence expression like {@code ">=0.8"}, or {@code "All"}
+     * @param after          key of the last row already shown, or {@code null} for the first page
+     * @param pageSize       maximum number of rows in the page
+     * @return the page; empty if the query fails
+     */
+    public KeysetPage<AttendanceReportRow, AttendanceKey> findAttendancePage(LocalDate from,
+                                                                             LocalDate to,
+                                                                             String sessionDisplay,
+                                                                             String courseDisplay,
+                                                                             String status,
+                                                                             String method,
+                                                                             String confidenceExpr,
+                                                                             AttendanceKey after,
+                                                                             int pageSize) {
+        List<AttendanceReportRow> rows = new ArrayList<>();
+        AttendanceKey lastKey = null;
+        boolean more = false;
+
+        StringBuilder sb = new StringBuilder(REPORT_SELECT);
+        List<Object> params = new ArrayList<>();
+        appendReportFilter(sb, params, from, to, sessionDisplay, courseDisplay, status, method, confidenceExpr);
+        KeysetPaging.appendAfter(sb, params, after);
+        sb.append(KeysetPaging.ATTENDANCE_ORDER).append("LIMIT ?");
+        params.add(pageSize + 1);
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sb.toString())) {
+            bind(ps, params);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (rows.size() == pageSize) {
+                        more = true;
+                        break;
+                    }
+                    rows.add(mapReportRow(rs));
+                    lastKey = KeysetPaging.keyOf(rs);
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return KeysetPage.empty();
+        }
+
+        return new KeysetPage<>(rows, more ? lastKey : null);
+    }
+
+    /**
+     * Estimates how many attendance records match the report filters, from
+     * the query planner's statistics instead of counting them.
+     *
+     * @param from           start date of the filter (inclusive), or {@code null}
+     * @param to             end date of the filter (inclusive), or {@code null}
+     * @param sessionDisplay session combo label, or {@code "All"}
+     * @param courseDisplay  course combo label, or {@code "All"}
+     * @param status         attendance status filter, or {@code "All"} / {@code null}
+     * @param method         method filter, or {@code "All"} / {@code null}
+     * @param confidenceExpr confidence expression like {@code ">=0.8"}, or {@code "All"}
+     * @return approximate number of matching records, or -1 if unknown
+     */
+    public long estimateAttendanceCount(LocalDate from,
+                                        LocalDate to,
+                                        String sessionDisplay,
+                                        String courseDisplay,
+                                        String status,
+                                        String method,
+                                        String confidenceExpr) {
         StringBuilder sb = new StringBuilder(
-                "SELECT " +
-                        "a.marked_at, " +
-                        "a.session_id, " +
-                        "a.user_id, " +
-                        "u.username, " +
-                        "a.status, " +
-                        "a.method, " +
-                        "a.note, " +
-                        "a.confidence, " +
-                        "c.course_code, " +
-                        "c.course_id " +
-                        "FROM attendance a " +
-                        "JOIN sessions s ON a.session_id = s.session_id " +
-                        "JOIN courses  c ON s.course_id = c.course_id " +
-                        "LEFT JOIN users u ON a.user_id = u.user_id " +
-                        "WHERE 1=1 ");
+                "SELECT 1 FROM attendance a " +
+                "JOIN sessions s ON a.session_id = s.session_id " +
+                "JOIN courses  c ON s.course_id = c.course_id " +
+                "WHERE 1=1 ");
+        List<Object> params = new ArrayList<>();
+        appendReportFilter(sb, params, from, to, sessionDisplay, courseDisplay, status, method, confidenceExpr);
+
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            return KeysetPaging.estimateRows(conn, sb.toString(), params);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    /**
+     * Streams the attendance records matching the report filters into a
+     * {@link ReportWriter}, newest first, without collecting them in a list.
+     *
+     * <p>
+     * The query runs with autocommit off and a fetch size, so the driver
+     * keeps a server-side cursor and holds only one batch of rows in memory
+     * at a time. Each row is mapped and handed to the writer immediately.
+     * </p>
+     *
+     * @param from           start date of the filter (inclusive), or {@code null}
+     * @param to             end date of the filter (inclusive), or {@code null}
+     * @param sessionDisplay session combo label, or {@code "All"}
+     * @param courseDisplay  course combo label, or {@code "All"}
+     * @param status         attendance status filter, or {@code "All"} / {@code null}
+     * @param method         method filter, or {@code "All"} / {@code null}
+     * @param confidenceExpr confidence expression like {@code ">=0.8"}, or {@code "All"}
+     * @param sink           writer receiving each row
+     * @return number of rows written
+     * @throws Exception if the query or the writer fails
+     */
+    public long streamAttendance(LocalDate from,
+                                 LocalDate to,
+                                 String sessionDisplay,
+                                 String courseDisplay,
+                                 String status,
+                                 String method,
+                                 String confidenceExpr,
+                                 ReportWriter sink) throws Exception {
+        StringBuilder sb = new StringBuilder(REPORT_SELECT);
+        List<Object> params = new ArrayList<>();
+        appendReportFilter(sb, params, from, to, sessionDisplay, courseDisplay, status, method, confidenceExpr);
+        sb.append(KeysetPaging.ATTENDANCE_ORDER);
 
+        long count = 0;
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            if (conn == null) {
+                throw new SQLException("No database connection");
+            }
+            // The driver only uses a cursor (fetching in batches) inside a transaction
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(sb.toString())) {
+                ps.setFetchSize(FETCH_SIZE);
+                bind(ps, params);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        sink.writeRow(mapReportRow(rs));
+                        count++;
+                    }
+                }
+            } finally {
+                conn.rollback(); // read only, nothing to commit
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Streams the filtered attendance records inserted or changed after a
+     * high-water mark into a {@link ReportWriter}, oldest change first.
+     *
+     * <p>
+     * Rows are read in {@code (changed_at, user_id, session_id)} order from
+     * {@code after} onwards (exclusive), on a cursor like
+     * {@link #streamAttendance}. Changes from the last {@code settleSeconds}
+     * are left for the next run: a transaction still in progress may commit
+     * a {@code changed_at} slightly older than rows already visible, and
+     * would otherwise fall behind the mark.
+     * </p>
+     *
+     * @param after          key of the last row of the previous run, or
+     *                       {@code null} to start from the first change
+     * @param settleSeconds  age a change must have to be exported
+     * @param sink           writer receiving each row
+     * @return key of the last row written, or {@code after} if there was none
+     * @throws Exception if the query or the writer fails
+     */
+    public AttendanceChangeKey streamChangedAttendance(LocalDate from,
+                                                       LocalDate to,
+                                                       String sessionDisplay,
+                                                       String courseDisplay,
+                                                       String status,
+                                                       String method,
+                                                       String confidenceExpr,
+                                                       AttendanceChangeKey after,
+                                                       int settleSeconds,
+                                                       ReportWriter sink) throws Exception {
+        StringBuilder sb = new StringBuilder(REPORT_SELECT.replaceFirst("SELECT ", "SELECT a.changed_at, "));
         List<Object> params = new ArrayList<>();
+        appendReportFilter(sb, params, from, to, sessionDisplay, courseDisplay, status, method, confidenceExpr);
+        if (after != null) {
+            sb.append("AND (a.changed_at, a.user_id, a.session_id) > (?, ?, ?) ");
+            params.add(Timestamp.valueOf(after.changedAt()));
+            params.add(after.userId());
+            params.add(after.sessionId());
+        }
+        sb.append("AND a.changed_at < LOCALTIMESTAMP - make_interval(secs => ?) ");
+        params.add(settleSeconds);
+        sb.append("ORDER BY a.changed_at, a.user_id, a.session_id");
+
+        AttendanceChangeKey last = after;
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            if (conn == null) {
+                throw new SQLException("No database connection");
+            }
+            // The driver only uses a cursor (fetching in batches) inside a transaction
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(sb.toString())) {
+                ps.setFetchSize(FETCH_SIZE);
+                bind(ps, params);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        sink.writeRow(mapReportRow(rs));
+                        last = new AttendanceChangeKey(rs.getTimestamp("changed_at").toLocalDateTime(),
+                                rs.getInt("user_id"), rs.getInt("session_id"));
+                    }
+                }
+            } finally {
+                conn.rollback(); // read only, nothing to commit
+            }
+        }
+        return last;
+    }
 
-        // Date filters
+    /**
+     * Exports the attendance records matching the report filters as CSV
+     * using PostgreSQL {@code COPY (...) TO STDOUT}, the fast path for plain
+     * CSV exports.
+     *
+     * <p>
+     * The server formats the CSV itself and the driver copies it straight
+     * into {@code out}, so no rows are mapped to objects at all. The columns,
+     * headers and value formats follow {@link ReportSpec} and
+     * {@link com.smartattendance.util.report.CsvReportGenerator}.
+     * </p>
+     *
+     * <p>
+     * {@code COPY} does not accept bind parameters, so the filter values are
+     * inlined as SQL literals by {@link #inlineParams}.
+     * </p>
+     *
+     * @param from           start date of the filter (inclusive), or {@code null}
+     * @param to             end date of the filter (inclusive), or {@code null}
+     * @param sessionDisplay session combo label, or {@code "All"}
+     * @param courseDisplay  course combo label, or {@code "All"}
+     * @param status         attendance status filter, or {@code "All"} / {@code null}
+     * @param method         method filter, or {@code "All"} / {@code null}
+     * @param confidenceExpr confidence expression like {@code ">=0.8"}, or {@code "All"}
+     * @param spec           selected columns
+     * @param out            destination of the CSV text, header line included
+     * @return number of rows copied
+     * @throws SQLException if the connection is not a PostgreSQL one or COPY fails
+     * @throws IOException  if writing to {@code out} fails
+     */
+    public long copyAttendanceCsv(LocalDate from,
+                                  LocalDate to,
+                                  String sessionDisplay,
+                                  String courseDisplay,
+                                  String status,
+                                  String method,
+                                  String confidenceExpr,
+                                  ReportSpec spec,
+                                  Writer out) throws SQLException, IOException {
+        List<String> columns = new ArrayList<>();
+        if (spec.isIncludeDateTime())
+            columns.add("to_char(a.marked_at, 'YYYY-MM-DD HH24:MI:SS') AS \"Date/Time\"");
+        if (spec.isIncludeSessionId())
+            columns.add("a.session_id AS \"Session ID\"");
+        if (spec.isIncludeCourseCode())
+            columns.add("c.course_code AS \"Course\"");
+        if (spec.isIncludeStudentId())
+            columns.add("a.user_id AS \"Student ID\"");
+        if (spec.isIncludeStudentName())
+            columns.add("u.username AS \"Student Name\"");
+        if (spec.isIncludeStatus())
+            columns.add("a.status AS \"Status\"");
+        if (spec.isIncludeMethod())
+            columns.add("a.method AS \"Method\"");
+        if (spec.isIncludeConfidence())
+            columns.add("a.confidence AS \"Confidence\"");
+        if (spec.isIncludeNote())
+            columns.add("a.note AS \"Note\"");
+
+        StringBuilder sb = new StringBuilder("SELECT ")
+                .append(String.join(", ", columns)).append(' ')
+                .append("FROM attendance a ")
+                .append("JOIN sessions s ON a.session_id = s.session_id ")
+                .append("JOIN courses  c ON s.course_id = c.course_id ")
+                .append("LEFT JOIN users u ON a.user_id = u.user_id ")
+                .append("WHERE 1=1 ");
+        List<Object> params = new ArrayList<>();
+        appendReportFilter(sb, params, from, to, sessionDisplay, courseDisplay, status, method, confidenceExpr);
+        sb.append(KeysetPaging.ATTENDANCE_ORDER);
+
+        String copySql = "COPY (" + inlineParams(sb.toString(), params) + ") TO STDOUT WITH (FORMAT csv, HEADER)";
+
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            if (conn == null) {
+                throw new SQLException("No database connection");
+            }
+            CopyManager copy = conn.unwrap(PGConnection.class).getCopyAPI();
+            return copy.copyOut(copySql, out);
+        }
+    }
+
+    /**
+     * Checks whether any attendance record matches the report filters,
+     * so an export can be skipped before the user picks a file.
+     *
+     * @param from           start date of the filter (inclusive), or {@code null}
+     * @param to             end date of the filter (inclusive), or {@code null}
+     * @param sessionDisplay session combo label, or {@code "All"}
+     * @param courseDisplay  course combo label, or {@code "All"}
+     * @param status         attendance status filter, or {@code "All"} / {@code null}
+     * @param method         method filter, or {@code "All"} / {@code null}
+     * @param confidenceExpr confidence expression like {@code ">=0.8"}, or {@code "All"}
+     * @return {@code true} if at least one record matches
+     */
+    public boolean hasAttendance(LocalDate from,
+                                 LocalDate to,
+                                 String sessionDisplay,
+                                 String courseDisplay,
+                                 String status,
+                                 String method,
+                                 String confidenceExpr) {
+        StringBuilder sb = new StringBuilder(
+                "SELECT 1 FROM attendance a " +
+                "JOIN sessions s ON a.session_id = s.session_id " +
+                "JOIN courses  c ON s.course_id = c.course_id " +
+                "WHERE 1=1 ");
+        List<Object> params = new ArrayList<>();
+        appendReportFilter(sb, params, from, to, sessionDisplay, courseDisplay, status, method, confidenceExpr);
+        sb.append("LIMIT 1");
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sb.toString())) {
+            bind(ps, params);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Streams the attendance of every enrolled student as one
+     * {@link StudentReport} per student, for per-student term reports.
+     *
+     * <p>
+     * A single query returns each enrolment joined to the student's
+     * attendance in that course's sessions, ordered by student, so the rows
+     * of one student arrive together and are grouped here; no query is run
+     * per student. Only one student's rows are held in memory at a time.
+     * Enrolled courses without any attendance are still listed, so they
+     * appear in the student's course summary.
+     * </p>
+     *
+     * @param from          first session date (inclusive), or {@code null}
+     * @param to            last session date (inclusive), or {@code null}
+     * @param courseDisplay course combo label, or {@code "All"}
+     * @param afterUserId   only students with a larger user id, to resume a
+     *                      run; 0 for all
+     * @param sink          receives each student's report, in user id order
+     * @return number of students streamed
+     * @throws Exception if the query or the sink fails
+     */
+    public long streamStudentReports(LocalDate from,
+                                     LocalDate to,
+                                     String courseDisplay,
+                                     int afterUserId,
+                                     StudentReport.Sink sink) throws Exception {
+        StringBuilder sb = new StringBuilder(
+                "SELECT e.user_id, u.username, u.email, c.course_code, " +
+                "x.session_id, x.marked_at, x.status, x.method, x.note, x.confidence " +
+                "FROM enrollments e " +
+                "JOIN users u ON e.user_id = u.user_id AND u.role = 'STUDENT' " +
+                "JOIN courses c ON e.course_id = c.course_id " +
+                "LEFT JOIN LATERAL (" +
+                "SELECT a.session_id, COALESCE(a.marked_at, s.start_time) AS marked_at, " +
+                "a.status, a.method, a.note, a.confidence, s.start_time " +
+                "FROM attendance a JOIN sessions s ON a.session_id = s.session_id " +
+                "WHERE a.user_id = e.user_id AND s.course_id = e.course_id ");
+        List<Object> params = new ArrayList<>();
+
+        // Date filters apply to the sessions, so enrolments without any stay listed
+        if (from != null) {
+            sb.append("AND s.session_date >= ? ");
+            params.add(Date.valueOf(from));
+        }
+        if (to != null) {
+            sb.append("AND s.session_date <= ? ");
+            params.add(Date.valueOf(to));
+        }
+        sb.append(") x ON TRUE WHERE e.user_id > ? ");
+        params.add(afterUserId);
+
+        Integer courseId = parseIdFromDisplay(courseDisplay);
+        if (courseId != null) {
+            sb.append("AND c.course_id = ? ");
+            params.add(courseId);
+        }
+        sb.append("ORDER BY e.user_id, c.course_code, x.start_time, x.session_id");
+
+        long students = 0;
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            if (conn == null) {
+                throw new SQLException("No database connection");
+            }
+            // The driver only uses a cursor (fetching in batches) inside a transaction
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(sb.toString())) {
+                ps.setFetchSize(FETCH_SIZE);
+                bind(ps, params);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    StudentReport current = null;
+                    int currentId = -1;
+                    while (rs.next()) {
+                        int userId = rs.getInt("user_id");
+                        if (current == null || userId != currentId) {
+                            if (current != null) {
+                                sink.accept(current);
+                                students++;
+                            }
+                            current = new StudentReport(String.valueOf(userId),
+                                    rs.getString("username"), rs.getString("email"));
+                            currentId = userId;
+                        }
+
+                        String courseCode = rs.getString("course_code");
+                        current.addCourse(courseCode);
+                        if (rs.getObject("session_id") == null) {
+                            continue; // enrolled, but no attendance in range
+                        }
+
+                        AttendanceReportRow r = new AttendanceReportRow();
+                        Timestamp ts = rs.getTimestamp("marked_at");
+                        if (ts != null) {
+                            r.setTimestamp(ts.toLocalDateTime());
+                        }
+                        r.setSessionId(String.valueOf(rs.getInt("session_id")));
+                        r.setCourseCode(courseCode);
+                        r.setStudentId(String.valueOf(userId));
+                        r.setStudentName(current.getStudentName());
+                        r.setStatus(rs.getString("status"));
+                        r.setMethod(rs.getString("method"));
+                        r.setNote(rs.getString("note"));
+                        Object conf = rs.getObject("confidence");
+                        if (conf != null) {
+                            r.setConfidence(String.valueOf(conf));
+                        }
+                        current.addRow(r);
+                    }
+                    if (current != null) {
+                        sink.accept(current);
+                        students++;
+                    }
+                }
+            } finally {
+                conn.rollback(); // read only, nothing to commit
+            }
+        }
+        return students;
+    }
+
+    /**
+     * Counts the students {@link #streamStudentReports} would return.
+     *
+     * @param courseDisplay course combo label, or {@code "All"}
+     * @return number of enrolled students, or -1 if it cannot be counted
+     */
+    public long countEnrolledStudents(String courseDisplay) {
+        StringBuilder sb = new StringBuilder(
+                "SELECT COUNT(DISTINCT e.user_id) FROM enrollments e " +
+                "JOIN users u ON e.user_id = u.user_id AND u.role = 'STUDENT' WHERE 1=1 ");
+        List<Object> params = new ArrayList<>();
+        Integer courseId = parseIdFromDisplay(courseDisplay);
+        if (courseId != null) {
+            sb.append("AND e.course_id = ? ");
+            params.add(courseId);
+        }
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sb.toString())) {
+            bind(ps, params);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    /**
+     * Computes the attendance summary: one row per student and course, with
+     * the counts per status, the attendance ratio, the longest and current
+     * absence streaks and when the student last attended.
+     *
+     * <p>
+     * All aggregation runs in the database, so only the summary rows are
+     * transferred, however many attendance records they cover. Streaks are
+     * found with the gaps-and-islands technique: over the sessions with a
+     * final status (Present, Late or Absent) in start time order, the
+     * difference between the row number of a record and its row number
+     * among the records with the same status is constant within a run of
+     * equal statuses. The current streak counts the Absent sessions after the
+     * last attended one.
+     * </p>
+     *
+     * <p>
+     * Takes the session and course filters of {@link #findAttendance}; the
+     * date range applies to the session date rather than {@code marked_at},
+     * so Pending records (and Absent ones without a mark time) are counted.
+     * Status, method and confidence filters do not apply to a summary.
+     * </p>
+     *
+     * @param from           first session date (inclusive), or {@code null}
+     * @param to             last session date (inclusive), or {@code null}
+     * @param sessionDisplay session combo label, or {@code "All"}
+     * @param courseDisplay  course combo label, or {@code "All"}
+     * @return summary rows ordered by course, student name and id
+     * @throws SQLException if the query fails
+     */
+    public List<AttendanceSummaryRow> findAttendanceSummary(LocalDate from,
+                                                            LocalDate to,
+                                                            String sessionDisplay,
+                                                            String courseDisplay) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            if (conn == null) {
+                throw new SQLException("No database connection");
+            }
+            return findAttendanceSummary(conn, from, to, sessionDisplay, courseDisplay);
+        }
+    }
+
+    /**
+     * {@link #findAttendanceSummary(LocalDate, LocalDate, String, String)} on
+     * the given connection, e.g. inside a transaction of
+     * {@link ReportQueryChecker}.
+     */
+    List<AttendanceSummaryRow> findAttendanceSummary(Connection conn,
+                                                     LocalDate from,
+                                                     LocalDate to,
+                                                     String sessionDisplay,
+                                                     String courseDisplay) throws SQLException {
+        StringBuilder sb = new StringBuilder(
+                "WITH marks AS (" +
+                "SELECT a.user_id, u.username, c.course_id, c.course_code, a.session_id, " +
+                "a.status, a.marked_at, s.start_time " +
+                "FROM attendance a " +
+                "JOIN sessions s ON a.session_id = s.session_id " +
+                "JOIN courses  c ON s.course_id = c.course_id " +
+                "LEFT JOIN users u ON a.user_id = u.user_id " +
+                "WHERE 1=1 ");
+        List<Object> params = new ArrayList<>();
+        if (from != null) {
+            sb.append("AND s.session_date >= ? ");
+            params.add(Date.valueOf(from));
+        }
+        if (to != null) {
+            sb.append("AND s.session_date <= ? ");
+            params.add(Date.valueOf(to));
+        }
+        appendReportFilter(sb, params, null, null, sessionDisplay, courseDisplay, null, null, null);
+        sb.append("), " +
+                // Sessions with a final status, numbered into runs of equal status
+                "decided AS (" +
+                "SELECT user_id, course_id, status, start_time, " +
+                "ROW_NUMBER() OVER (PARTITION BY user_id, course_id ORDER BY start_time, session_id) " +
+                "- ROW_NUMBER() OVER (PARTITION BY user_id, course_id, status ORDER BY start_time, session_id) AS run, " +
+                "MAX(CASE WHEN status IN ('Present', 'Late') THEN start_time END) " +
+                "OVER (PARTITION BY user_id, course_id) AS last_attended_start " +
+                "FROM marks WHERE status IN ('Present', 'Late', 'Absent')), " +
+                "absence_runs AS (" +
+                "SELECT user_id, course_id, COUNT(*) AS len, " +
+                "BOOL_OR(last_attended_start IS NULL OR start_time > last_attended_start) AS is_current " +
+                "FROM decided WHERE status = 'Absent' GROUP BY user_id, course_id, run), " +
+                "streaks AS (" +
+                "SELECT user_id, course_id, MAX(len) AS longest, " +
+                "COALESCE(SUM(len) FILTER (WHERE is_current), 0) AS current_streak " +
+                "FROM absence_runs GROUP BY user_id, course_id), " +
+                "counts AS (" +
+                "SELECT user_id, MAX(username) AS username, course_id, MAX(course_code) AS course_code, " +
+                "COUNT(DISTINCT session_id) AS sessions, " +
+                "COUNT(*) FILTER (WHERE status = 'Present') AS present, " +
+                "COUNT(*) FILTER (WHERE status = 'Late') AS late, " +
+                "COUNT(*) FILTER (WHERE status = 'Absent') AS absent, " +
+                "COUNT(*) FILTER (WHERE status IS NULL OR status NOT IN ('Present', 'Late', 'Absent')) AS pending, " +
+                "MAX(marked_at) FILTER (WHERE status IN ('Present', 'Late')) AS last_attended " +
+                "FROM marks GROUP BY user_id, course_id) " +
+                "SELECT k.*, " +
+                "ROUND(100.0 * (k.present + k.late) / NULLIF(k.present + k.late + k.absent, 0), 1) AS attendance_pct, " +
+                "COALESCE(st.longest, 0) AS longest_streak, " +
+                "COALESCE(st.current_streak, 0) AS current_streak " +
+                "FROM counts k " +
+                "LEFT JOIN streaks st ON st.user_id = k.user_id AND st.course_id = k.course_id " +
+                "ORDER BY k.course_code, k.username, k.user_id");
+
+        List<AttendanceSummaryRow> out = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(sb.toString())) {
+            bind(ps, params);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    AttendanceSummaryRow r = new AttendanceSummaryRow();
+                    r.setStudentId(String.valueOf(rs.getInt("user_id")));
+                    r.setStudentName(rs.getString("username"));
+                    r.setCourseCode(rs.getString("course_code"));
+                    r.setSessions(rs.getInt("sessions"));
+                    r.setPresent(rs.getInt("present"));
+                    r.setLate(rs.getInt("late"));
+                    r.setAbsent(rs.getInt("absent"));
+                    r.setPending(rs.getInt("pending"));
+                    BigDecimal pct = rs.getBigDecimal("attendance_pct");
+                    if (pct != null) {
+                        r.setAttendancePercent(pct.doubleValue());
+                    }
+                    r.setLongestAbsenceStreak(rs.getInt("longest_streak"));
+                    r.setCurrentAbsenceStreak(rs.getInt("current_streak"));
+                    Timestamp last = rs.getTimestamp("last_attended");
+                    if (last != null) {
+                        r.setLastAttended(last.toLocalDateTime());
+                    }
+                    out.add(r);
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Returns the report data watermark: a number that changes whenever a
+     * write touches data shown in attendance reports (see the V6 migration).
+     * Two reads returning the same value mean the report data did not change
+     * in between, except for a write whose bump was visible just before it
+     * committed.
+     *
+     * @return the current watermark, or {@code -1} if it cannot be read
+     */
+    public long dataWatermark() {
+        String sql = "SELECT CASE WHEN is_called THEN last_value ELSE 0 END FROM report_data_seq";
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : -1;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    /**
+     * Appends the report filter conditions described on {@link #findAttendance}.
+     * Expects attendance aliased as {@code a} and courses as {@code c}.
+     */
+    private void appendReportFilter(StringBuilder sb,
+                                    List<Object> params,
+                                    LocalDate from,
+                                    LocalDate to,
+                                    String sessionDisplay,
+                                    String courseDisplay,
+                                    String status,
+                                    String method,
+                                    String confidenceExpr) {
+        // Date filters (half-open, so records in the last second of the day are kept)
         if (from != null) {
             sb.append("AND a.marked_at >= ? ");
             params.add(Timestamp.valueOf(from.atStartOfDay()));
         }
         if (to != null) {
-            sb.append("AND a.marked_at <= ? ");
-            params.add(Timestamp.valueOf(to.atTime(23, 59, 59)));
+            sb.append("AND a.marked_at < ? ");
+            params.add(Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
         }
 
         // Session filter
@@ -303,49 +1019,73 @@ public class AttendanceRepository {
                 params.add(max);
             }
         }
+    }
 
-        sb.append("ORDER BY a.marked_at DESC");
-
-        try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sb.toString())) {
-
-            // Bind all collected parameters in order.
-            for (int i = 0; i < params.size(); i++) {
-                ps.setObject(i + 1, params.get(i));
-            }
-
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    AttendanceReportRow r = new AttendanceReportRow();
+    /**
+     * Maps the current row of a {@link #REPORT_SELECT} query.
+     */
+    private AttendanceReportRow mapReportRow(ResultSet rs) throws SQLException {
+        AttendanceReportRow r = new AttendanceReportRow();
 
-                    Timestamp ts = rs.getTimestamp("marked_at");
-                    if (ts != null) {
-                        r.setTimestamp(ts.toLocalDateTime());
-                    }
+        Timestamp ts = rs.getTimestamp("marked_at");
+        if (ts != null) {
+            r.setTimestamp(ts.toLocalDateTime());
+        }
 
-                    r.setSessionId(String.valueOf(rs.getInt("session_id")));
-                    r.setCourseCode(rs.getString("course_code"));
-                    r.setStudentId(String.valueOf(rs.getInt("user_id")));
-                    r.setStudentName(rs.getString("username"));
-                    r.setStatus(rs.getString("status"));
-                    r.setMethod(rs.getString("method"));
-                    r.setNote(rs.getString("note"));
+        r.setSessionId(String.valueOf(rs.getInt("session_id")));
+        r.setCourseCode(rs.getString("course_code"));
+        r.setStudentId(String.valueOf(rs.getInt("user_id")));
+        r.setStudentName(rs.getString("username"));
+        r.setStatus(rs.getString("status"));
+        r.setMethod(rs.getString("method"));
+        r.setNote(rs.getString("note"));
 
-                    Object conf = rs.getObject("confidence");
-                    if (conf != null) {
-                        r.setConfidence(String.valueOf(conf));
-                    }
+        Object conf = rs.getObject("confidence");
+        if (conf != null) {
+            r.setConfidence(String.valueOf(conf));
+        }
+        return r;
+    }
 
-                    out.add(r);
-                }
+    /**
+     * Replaces each {@code ?} placeholder with the matching parameter as a
+     * SQL literal, for statements that cannot take bind parameters
+     * ({@code COPY}). Only the value types produced by
+     * {@link #appendReportFilter} are supported; strings are quoted with
+     * embedded quotes doubled.
+     */
+    private static String inlineParams(String sql, List<Object> params) {
+        StringBuilder out = new StringBuilder();
+        int p = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char ch = sql.charAt(i);
+            if (ch != '?') {
+                out.append(ch);
+                continue;
+            }
+            Object v = params.get(p++);
+            if (v instanceof Timestamp ts) {
+                out.append("TIMESTAMP '").append(ts).append('\'');
+            } else if (v instanceof Integer || v instanceof Long) {
+                out.append(v);
+            } else if (v instanceof Double d && Double.isFinite(d)) {
+                out.append(d);
+            } else if (v instanceof String str) {
+                out.append('\'').append(str.replace("'", "''")).append('\'');
+            } else {
+                throw new IllegalArgumentException("Cannot inline parameter " + v);
             }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return List.of();
         }
+        return out.toString();
+    }
 
-        return out;
+    /**
+     * Binds the collected parameters to the statement in order.
+     */
+    private static void bind(PreparedStatement ps, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            ps.setObject(i + 1, params.get(i));
+        }
     }
 
     /**
@@ -0,0 +1,47 @@
+package com.smartattendance.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import com.smartattendance.config.DatabaseUtil;
+import com.smartattendance.util.security.log.ApplicationLogger;
+
+/**
+ * Maintenance access to the analytics rollup tables.
+ *
+ * The rollups ({@code attendance_daily_rollup}, {@code session_arrival_rollup}
+ * and {@code student_course_rollup}) are kept up to date by database triggers
+ * on every attendance and session write, see
+ * {@code db/migration/V3__attendance_rollups.sql}. This
+ * repository only exposes the full rebuild, for use after bulk imports or
+ * when the rollups are suspected to have drifted.
+ *
+ * @version 15:55 19 Oct 2026
+ */
+public class AttendanceRollupRepository {
+
+    /** Recomputes all rollups from attendance in one transaction */
+    private static final String REBUILD_SQL = "SELECT rebuild_attendance_rollups()";
+
+    private final ApplicationLogger appLogger = ApplicationLogger.getInstance();
+
+    /**
+     * Truncates and recomputes every rollup table from the attendance table.
+     * Runs in a single transaction, so readers see either the old or the new
+     * rollups.
+     *
+     * @throws SQLException if the rebuild fails
+     */
+    public void rebuild() throws SQLException {
+        long started = System.currentTimeMillis();
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement ps = conn.prepareStatement(REBUILD_SQL)) {
+            ps.execute();
+        }
+
+        appLogger.info("AttendanceRollupRepository: Rebuilt attendance rollups in "
+                + (System.currentTimeMillis() - started) + " ms");
+    }
+}
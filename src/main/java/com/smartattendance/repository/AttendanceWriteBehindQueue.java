@@ -0,0 +1,432 @@
+package com.smartattendance.repository;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.smartattendance.config.Config;
+import com.smartattendance.model.entity.AttendanceRecord;
+import com.smartattendance.util.security.log.ApplicationLogger;
+
+/**
+ * Write-behind buffer in front of {@link AttendanceRecordRepository} for the
+ * auto-marking hot path.
+ *
+ * Saves, updates and last seen updates are queued per (user_id, session_id)
+ * and coalesced, so a student seen fifty times in a minute produces one
+ * write. The queue is flushed as JDBC batches in a single transaction when it
+ * reaches {@code attendance.write.batch.size} entries or every
+ * {@code attendance.write.flush.ms} milliseconds, and explicitly on session
+ * stop and application shutdown.
+ *
+ * If a batch fails, its writes are retried one at a time so a single bad
+ * row (e.g. for a deleted session) cannot hold back the others. A write that
+ * keeps failing is dropped and logged after
+ * {@code attendance.write.max.attempts} attempts. Failures caused by a lost
+ * connection do not count as attempts: the writes wait in the queue until the
+ * database is back.
+ *
+ * @version 10:40 19 Oct 2026
+ */
+public class AttendanceWriteBehindQueue {
+
+    /** Kind of pending write, ordered from weakest to strongest. */
+    private enum Kind {
+        LAST_SEEN, UPDATE, INSERT
+    }
+
+    /** One coalesced pending write for a (user_id, session_id) pair. */
+    private static final class PendingWrite {
+        private final Kind kind;
+        private final AttendanceRecord snapshot;
+        private final int attempts; // Failed attempts so far
+
+        private PendingWrite(Kind kind, AttendanceRecord snapshot) {
+            this(kind, snapshot, 0);
+        }
+
+        private PendingWrite(Kind kind, AttendanceRecord snapshot, int attempts) {
+            this.kind = kind;
+            this.snapshot = snapshot;
+            this.attempts = attempts;
+        }
+    }
+
+    /** Outcome of one flush. */
+    private record FlushResult(int written, int requeued) {
+    }
+
+    /** Key of a pending write. */
+    private record Key(int userId, int sessionId) {
+    }
+
+    private static final int DEFAULT_BATCH_SIZE = 200;
+    private static final long DEFAULT_FLUSH_MS = 1000;
+    private static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+    private final AttendanceRecordRepository repo; // Repository performing the batched writes
+    private final int batchSize; // Pending entries that trigger an early flush
+    private final int maxAttempts; // Failed attempts after which a write is dropped
+    private final Map<Key, PendingWrite> pending = new LinkedHashMap<>(); // Guarded by this
+    private final Object flushLock = new Object(); // Serialises flushes so batches stay in order
+    private final ScheduledExecutorService scheduler;
+    private volatile boolean closed = false;
+    private volatile Runnable flushListener; // Called after each successful non-empty flush
+    private final ApplicationLogger appLogger = ApplicationLogger.getInstance();
+
+    /**
+     * Creates the queue and starts its periodic flush thread.
+     *
+     * @param repo repository used to write batches
+     */
+    public AttendanceWriteBehindQueue(AttendanceRecordRepository repo) {
+        this.repo = repo;
+        this.batchSize = Math.max(1, Config.getInt("attendance.write.batch.size", DEFAULT_BATCH_SIZE));
+        long flushMs = Math.max(50, Config.getInt("attendance.write.flush.ms", (int) DEFAULT_FLUSH_MS));
+        this.maxAttempts = Math.max(1, Config.getInt("attendance.write.max.attempts", DEFAULT_MAX_ATTEMPTS));
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "attendance-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::flushQuietly, flushMs, flushMs, TimeUnit.MILLISECONDS);
+    }
+
+    // ========== ENQUEUE ==========
+
+    /**
+     * Queues the insertion of a new attendance record.
+     *
+     * @param record the record to insert
+     */
+    public void enqueueSave(AttendanceRecord record) {
+        enqueue(Kind.INSERT, record);
+    }
+
+    /**
+     * Queues a full update of an attendance record.
+     *
+     * @param record the record containing updated values
+     */
+    public void enqueueUpdate(AttendanceRecord record) {
+        enqueue(Kind.UPDATE, record);
+    }
+
+    /**
+     * Queues a last seen update of an attendance record.
+     *
+     * @param record the record whose last seen time changed
+     */
+    public void enqueueLastSeen(AttendanceRecord record) {
+        enqueue(Kind.LAST_SEEN, record);
+    }
+
+    /**
+     * Coalesces the write with any pending write for the same key.
+     *
+     * An insert or update absorbs later last seen updates, an update on a
+     * still-pending insert stays an insert with the newer values, and the
+     * newest last seen time always wins.
+     */
+    private void enqueue(Kind kind, AttendanceRecord record) {
+        if (closed) {
+            // Shutting down, fall back to a direct write so nothing is lost
+            writeDirect(kind, record);
+            return;
+        }
+
+        boolean flushNow;
+        synchronized (this) {
+            Key key = new Key(record.getStudent().getStudentId(), record.getSession().getSessionId());
+            PendingWrite existing = pending.get(key);
+            AttendanceRecord snapshot = snapshot(record);
+
+            if (existing == null) {
+                pending.put(key, new PendingWrite(kind, snapshot));
+            } else if (kind == Kind.LAST_SEEN) {
+                existing.snapshot.setLastSeen(latest(existing.snapshot.getLastSeen(), snapshot.getLastSeen()));
+            } else {
+                Kind merged = existing.kind == Kind.INSERT ? Kind.INSERT : kind;
+                snapshot.setLastSeen(latest(existing.snapshot.getLastSeen(), snapshot.getLastSeen()));
+                pending.put(key, new PendingWrite(merged, snapshot, existing.attempts));
+            }
+
+            flushNow = pending.size() >= batchSize;
+        }
+
+        if (flushNow) {
+            try {
+                scheduler.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                flushQuietly(); // closed in the meantime
+            }
+        }
+    }
+
+    // ========== FLUSH ==========
+
+    /**
+     * Writes every pending change to the database now.
+     * Failed writes are put back in the queue unless a newer write for the
+     * same key arrived in the meantime, or dropped once they used up their
+     * attempts.
+     *
+     * @return true if nothing was put back in the queue
+     */
+    public boolean flush() {
+        FlushResult result = flushPending();
+        if (result.written() > 0 && flushListener != null) {
+            flushListener.run();
+        }
+        return result.requeued() == 0;
+    }
+
+    /**
+     * Writes the pending change of one record now, if there is one, and
+     * leaves the rest of the queue to its batch. Waits for a flush in
+     * progress, so no older write of the record lands afterwards.
+     *
+     * @param userId    student of the record
+     * @param sessionId session of the record
+     * @return true if nothing was put back in the queue
+     */
+    public boolean flush(int userId, int sessionId) {
+        Key key = new Key(userId, sessionId);
+        synchronized (flushLock) {
+            PendingWrite write;
+            synchronized (this) {
+                write = pending.remove(key);
+            }
+            if (write == null) {
+                return true;
+            }
+            try {
+                write(List.of(write));
+            } catch (SQLException e) {
+                return !retryLater(key, write, e);
+            }
+        }
+        if (flushListener != null) {
+            flushListener.run();
+        }
+        return true;
+    }
+
+    /**
+     * Registers a callback run after every flush that wrote something, e.g.
+     * to refresh views once per batch instead of once per mark.
+     *
+     * @param listener the callback, or null to remove it
+     */
+    public void setFlushListener(Runnable listener) {
+        this.flushListener = listener;
+    }
+
+    /**
+     * Drains and writes the pending map as one batch, or one write at a time
+     * if the batch fails.
+     */
+    private FlushResult flushPending() {
+        synchronized (flushLock) {
+            Map<Key, PendingWrite> drained;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return new FlushResult(0, 0);
+                }
+                drained = new LinkedHashMap<>(pending);
+                pending.clear();
+            }
+
+            try {
+                write(drained.values());
+                return new FlushResult(drained.size(), 0);
+            } catch (SQLException e) {
+                if (isConnectionFailure(e)) {
+                    appLogger.warn("AttendanceWriteBehindQueue - Database unavailable, " + drained.size()
+                            + " attendance writes re-queued: " + e.getMessage());
+                    synchronized (this) {
+                        drained.forEach((key, write) -> requeue(key, write, write.attempts));
+                    }
+                    return new FlushResult(0, drained.size());
+                }
+                appLogger.warn("AttendanceWriteBehindQueue - Flush of " + drained.size()
+                        + " attendance writes failed, retrying one at a time: " + e.getMessage());
+            }
+
+            int written = 0;
+            int requeued = 0;
+            Iterator<Map.Entry<Key, PendingWrite>> it = drained.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Key, PendingWrite> entry = it.next();
+                PendingWrite write = entry.getValue();
+                try {
+                    write(List.of(write));
+                    written++;
+                } catch (SQLException e) {
+                    if (isConnectionFailure(e)) {
+                        // Lost the database midway, keep this and the untried writes as they are
+                        synchronized (this) {
+                            requeue(entry.getKey(), write, write.attempts);
+                            requeued++;
+                            while (it.hasNext()) {
+                                Map.Entry<Key, PendingWrite> rest = it.next();
+                                requeue(rest.getKey(), rest.getValue(), rest.getValue().attempts);
+                                requeued++;
+                            }
+                        }
+                        break;
+                    }
+                    if (retryLater(entry.getKey(), write, e)) {
+                        requeued++;
+                    }
+                }
+            }
+            return new FlushResult(written, requeued);
+        }
+    }
+
+    /**
+     * Puts a write that failed on its own back in the queue, without counting
+     * an attempt if the database was unreachable, or drops it once it used up
+     * its attempts.
+     *
+     * @return true if the write was put back
+     */
+    private boolean retryLater(Key key, PendingWrite write, SQLException e) {
+        boolean counted = !isConnectionFailure(e);
+        if (counted && write.attempts + 1 >= maxAttempts) {
+            appLogger.error("AttendanceWriteBehindQueue - Dropped " + write.kind + " of user "
+                    + key.userId() + " in session " + key.sessionId()
+                    + " after " + maxAttempts + " failed attempts", e);
+            return false;
+        }
+        synchronized (this) {
+            requeue(key, write, counted ? write.attempts + 1 : write.attempts);
+        }
+        return true;
+    }
+
+    /**
+     * Writes the given pending writes in one transaction.
+     */
+    private void write(Iterable<PendingWrite> writes) throws SQLException {
+        List<AttendanceRecord> inserts = new ArrayList<>();
+        List<AttendanceRecord> updates = new ArrayList<>();
+        List<AttendanceRecord> lastSeens = new ArrayList<>();
+        for (PendingWrite write : writes) {
+            switch (write.kind) {
+                case INSERT -> inserts.add(write.snapshot);
+                case UPDATE -> updates.add(write.snapshot);
+                case LAST_SEEN -> lastSeens.add(write.snapshot);
+            }
+        }
+        repo.writeBatch(inserts, updates, lastSeens);
+    }
+
+    /**
+     * True if the failure is about reaching the database (SQLState class
+     * 08, connection exception) rather than about the written rows.
+     */
+    private static boolean isConnectionFailure(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && state.startsWith("08");
+    }
+
+    /**
+     * Returns the number of coalesced writes waiting to be flushed.
+     *
+     * @return pending write count
+     */
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    /**
+     * Flushes the remaining writes and stops the flush thread.
+     * Later writes are executed directly.
+     */
+    public void close() {
+        closed = true;
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!flush()) {
+            appLogger.error("AttendanceWriteBehindQueue - " + size() + " attendance writes lost on shutdown");
+        }
+    }
+
+    /**
+     * Puts a failed write back, keeping any newer write for the same key but
+     * never downgrading an insert or update to a last seen update.
+     *
+     * @param attempts failed attempts to record if the failed write is kept
+     */
+    private void requeue(Key key, PendingWrite failed, int attempts) {
+        PendingWrite newer = pending.get(key);
+        if (newer == null) {
+            pending.put(key, new PendingWrite(failed.kind, failed.snapshot, attempts));
+        } else if (newer.kind == Kind.LAST_SEEN && failed.kind != Kind.LAST_SEEN) {
+            failed.snapshot.setLastSeen(latest(failed.snapshot.getLastSeen(), newer.snapshot.getLastSeen()));
+            pending.put(key, new PendingWrite(failed.kind, failed.snapshot, attempts));
+        } else if (failed.kind == Kind.INSERT) {
+            // Newer values, so they get their own attempts
+            pending.put(key, new PendingWrite(Kind.INSERT, newer.snapshot, newer.attempts));
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            appLogger.error("AttendanceWriteBehindQueue - Unexpected flush error", e);
+        }
+    }
+
+    // ========== HELPERS ==========
+
+    private void writeDirect(Kind kind, AttendanceRecord record) {
+        switch (kind) {
+            case INSERT -> repo.save(record);
+            case UPDATE -> repo.update(record);
+            case LAST_SEEN -> repo.updateLastSeen(record);
+        }
+    }
+
+    /**
+     * Copies the record so later changes by the caller do not leak into the
+     * queued write.
+     */
+    private static AttendanceRecord snapshot(AttendanceRecord record) {
+        LocalDateTime lastSeen = record.getLastSeen() != null ? record.getLastSeen() : LocalDateTime.now();
+        AttendanceRecord copy = new AttendanceRecord(
+                record.getStudent(),
+                record.getSession(),
+                record.getStatus(),
+                record.getConfidence(),
+                record.getMethod(),
+                record.getTimestamp(),
+                lastSeen);
+        copy.setNote(record.getNote());
+        return copy;
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        if (a == null || b == null) {
+            return Objects.requireNonNullElse(a, b);
+        }
+        return a.isAfter(b) ? a : b;
+    }
+}
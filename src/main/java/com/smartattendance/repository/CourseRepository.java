@@ -9,6 +9,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.smartattendance.config.DatabaseUtil;
+import com.smartattendance.model.dto.page.KeysetPage;
+import com.smartattendance.model.dto.page.StudentKey;
 import com.smartattendance.model.dto.student.StudentDTO;
 import com.smartattendance.model.entity.Course;
 
@@ -190,6 +192,65 @@ public class CourseRepository {
         return students;
     }
 
+    /**
+     * Find one page of students across all courses, one row per enrollment,
+     * ordered by user ID and course ID.
+     *
+     * Uses keyset pagination: the page starts strictly after the given key,
+     * so later pages cost the same as the first one instead of skipping an
+     * ever larger OFFSET.
+     *
+     * @param after    Key of the last row already loaded, or null for the first page
+     * @param pageSize Maximum number of rows in the page
+     * @return Page of StudentDTO and the key to continue after
+     */
+    public KeysetPage<StudentDTO, StudentKey> findStudentsPage(StudentKey after, int pageSize) {
+        List<StudentDTO> students = new ArrayList<>();
+        StudentKey lastKey = null;
+        boolean more = false;
+
+        String sql = "SELECT " +
+                "    u.user_id as studentId, " +
+                "    CONCAT(p.first_name, ' ', p.last_name) as fullName, " +
+                "    c.course_id as courseId, " +
+                "    c.course_name as courseName " +
+                "FROM users u " +
+                "JOIN profile p ON u.user_id = p.user_id " +
+                "JOIN enrollments e ON u.user_id = e.user_id " +
+                "JOIN courses c ON e.course_id = c.course_id " +
+                "WHERE u.role = 'STUDENT' " +
+                "AND (e.user_id, e.course_id) > (?, ?) " +
+                "ORDER BY e.user_id, e.course_id " +
+                "LIMIT ?";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            // First page starts before every real key
+            ps.setInt(1, after != null ? after.userId() : Integer.MIN_VALUE);
+            ps.setInt(2, after != null ? after.courseId() : Integer.MIN_VALUE);
+            ps.setInt(3, pageSize + 1); // one extra row tells whether another page follows
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (students.size() == pageSize) {
+                        more = true;
+                        break;
+                    }
+                    students.add(new StudentDTO(
+                            rs.getInt("studentId"),
+                            rs.getString("fullName"),
+                            rs.getString("courseName")));
+                    lastKey = new StudentKey(rs.getInt("studentId"), rs.getInt("courseId"));
+                }
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return new KeysetPage<>(students, more ? lastKey : null);
+    }
+
     /**
      * Enroll a student in a course
      *
@@ -1,11 +1,16 @@
 package com.smartattendance.repository;
 
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 import com.smartattendance.model.dto.dashboard.AttendanceRecord;
 import com.smartattendance.model.dto.dashboard.DashboardFilter;
 import com.smartattendance.model.dto.dashboard.DashboardTopCards;
+import com.smartattendance.model.dto.dashboard.StatusCounts;
+import com.smartattendance.model.dto.page.AttendanceKey;
+import com.smartattendance.model.dto.page.KeysetPage;
 
 /**
  * Repository abstraction for dashboard-related data access.
@@ -45,6 +50,90 @@ public interface DashboardRepository {
      */
     List<AttendanceRecord> findAttendance(DashboardFilter filter) throws SQLException;
 
+    /**
+     * Loads one page of the attendance records that match the given filter,
+     * newest first, for the recent activity table.
+     *
+     * <p>
+     * Pages are keyset based: a page starts strictly after {@code after} in
+     * {@code (marked_at, user_id, session_id)} order, so scrolling deep into
+     * the table costs the same as loading the first page.
+     * </p>
+     *
+     * @param filter   filter object describing date range, course and session
+     * @param after    key of the last record already loaded, or {@code null} for the first page
+     * @param pageSize maximum number of records in the page
+     * @return the page and the key to continue after
+     * @throws SQLException if a database access error occurs
+     */
+    KeysetPage<AttendanceRecord, AttendanceKey> findAttendancePage(DashboardFilter filter,
+                                                                   AttendanceKey after,
+                                                                   int pageSize) throws SQLException;
+
+    /**
+     * Estimates the number of attendance records that match the given
+     * filter from planner statistics, without counting them.
+     *
+     * @param filter filter object describing date range, course and session
+     * @return approximate number of matching records, or -1 if unknown
+     * @throws SQLException if a database access error occurs
+     */
+    long estimateAttendanceCount(DashboardFilter filter) throws SQLException;
+
+    /**
+     * Counts attendance records per day (by {@code marked_at}) for the given filter.
+     *
+     * @param filter filter object describing date range, course and session
+     * @return record count per day, in date order; days without records are omitted
+     * @throws SQLException if a database access error occurs
+     */
+    Map<LocalDate, Integer> countByDay(DashboardFilter filter) throws SQLException;
+
+    /**
+     * Counts arrivals relative to session start, grouped into the bins
+     * {@code ≤0, 1–5, 6–10, 11–15, >15} minutes.
+     *
+     * <p>
+     * Records without a {@code marked_at} or session start time are ignored.
+     * </p>
+     *
+     * @param filter filter object describing date range, course and session
+     * @return five counts, one per bin, in the order above
+     * @throws SQLException if a database access error occurs
+     */
+    int[] countArrivalBins(DashboardFilter filter) throws SQLException;
+
+    /**
+     * Counts attendance records per status for the given filter.
+     *
+     * @param filter filter object describing date range, course and session
+     * @return counts per status; records without a status count as "Pending"
+     * @throws SQLException if a database access error occurs
+     */
+    StatusCounts countByStatus(DashboardFilter filter) throws SQLException;
+
+    /**
+     * Counts attendance records per course code and status for the given filter.
+     *
+     * @param filter filter object describing date range, course and session
+     * @return counts per status keyed by course code ("Unknown" when missing),
+     *         most recently active course first
+     * @throws SQLException if a database access error occurs
+     */
+    Map<String, StatusCounts> countByCourseAndStatus(DashboardFilter filter) throws SQLException;
+
+    /**
+     * Returns a student's lifetime counts of marked attendance records per
+     * course, read from the per-student rollup so the cost does not depend on
+     * history length.
+     *
+     * @param studentId user ID of the student
+     * @return counts per status keyed by course label, as labelled in the
+     *         student attendance view
+     * @throws SQLException if a database access error occurs
+     */
+    Map<String, StatusCounts> countStudentCourseTotals(int studentId) throws SQLException;
+
     /**
      * Computes high-level KPI values (top cards) for the given filter.
      *
@@ -113,4 +202,13 @@ public interface DashboardRepository {
      * @throws SQLException if a database access error occurs
      */
     String findLatestSessionLabel(Integer courseId) throws SQLException;
+
+    /**
+     * Cancels the queries of this repository that are running right now,
+     * e.g. because the dashboard filter changed and their results would be
+     * dropped. A cancelled query fails with an {@link SQLException}; queries
+     * started afterwards are not affected, unless they run on a thread that
+     * was interrupted.
+     */
+    void cancelRunning();
 }
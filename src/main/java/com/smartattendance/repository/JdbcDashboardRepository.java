@@ -5,16 +5,26 @@ import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.smartattendance.config.DatabaseUtil;
 import com.smartattendance.model.dto.dashboard.AttendanceRecord;
 import com.smartattendance.model.dto.dashboard.DashboardFilter;
 import com.smartattendance.model.dto.dashboard.DashboardTopCards;
+import com.smartattendance.model.dto.dashboard.StatusCounts;
+import com.smartattendance.model.dto.page.AttendanceKey;
+import com.smartattendance.model.dto.page.KeysetPage;
 
 /**
  * JDBC-based implementation of {@link DashboardRepository}.
@@ -24,6 +34,9 @@ import com.smartattendance.model.dto.dashboard.DashboardTopCards;
  * <ul>
  *     <li>Loading raw attendance records for the dashboard, based on a
  *         {@link DashboardFilter}</li>
+ *     <li>Aggregating chart data (per day, arrival bins, status, course)
+ *         from the trigger-maintained rollup tables instead of rescanning
+ *         attendance</li>
  *     <li>Computing high-level KPI values for the top dashboard cards</li>
  *     <li>Providing course and session labels for dashboard combo boxes</li>
  *     <li>Finding the latest session label for a given course (or globally)</li>
@@ -35,10 +48,18 @@ import com.smartattendance.model.dto.dashboard.DashboardTopCards;
  * SQL injection and to keep filtering logic readable.
  * </p>
  *
+ * <p>
+ * Queries are registered while they run, so {@link #cancelRunning()} can
+ * stop them on the server when the dashboard no longer needs the result.
+ * </p>
+ *
  * @author Ernest Lun
  */
 public class JdbcDashboardRepository implements DashboardRepository {
 
+    /** Statements currently executing, cancelled by {@link #cancelRunning()}. */
+    private final Set<Statement> running = ConcurrentHashMap.newKeySet();
+
     /**
      * Loads attendance records that match the given {@link DashboardFilter}.
      *
@@ -55,6 +76,240 @@ public class JdbcDashboardRepository implements DashboardRepository {
      */
     @Override
     public List<AttendanceRecord> findAttendance(DashboardFilter filter) throws SQLException {
+        return queryRecords(filter, null, null);
+    }
+
+    /**
+     * Loads one page of the attendance records matching the filter, for the
+     * recent activity table. One row more than {@code pageSize} is fetched
+     * to tell whether another page follows.
+     *
+     * @param filter   dashboard filter (date range, course, session)
+     * @param after    key of the last record already loaded, or {@code null}
+     * @param pageSize maximum number of records in the page
+     * @return the page, newest first
+     * @throws SQLException if a database error occurs
+     */
+    @Override
+    public KeysetPage<AttendanceRecord, AttendanceKey> findAttendancePage(DashboardFilter filter,
+                                                                          AttendanceKey after,
+                                                                          int pageSize) throws SQLException {
+        List<AttendanceRecord> rows = queryRecords(filter, after, pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new KeysetPage<>(rows, null);
+        }
+
+        rows = rows.subList(0, pageSize);
+        AttendanceRecord last = rows.get(pageSize - 1);
+        return new KeysetPage<>(rows, new AttendanceKey(last.markedAt, last.userId, last.sessionId));
+    }
+
+    /**
+     * Estimates the number of attendance records matching the filter from
+     * the planner's row estimate.
+     *
+     * @param filter dashboard filter (date range, course, session)
+     * @return approximate record count, or -1 if unknown
+     * @throws SQLException if a database error occurs
+     */
+    @Override
+    public long estimateAttendanceCount(DashboardFilter filter) throws SQLException {
+        StringBuilder sb = new StringBuilder(
+                "SELECT 1 FROM attendance a " +
+                "LEFT JOIN sessions s ON a.session_id = s.session_id " +
+                "WHERE 1=1 ");
+        List<Object> params = new ArrayList<>();
+        appendFilter(sb, params, filter);
+
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            return KeysetPaging.estimateRows(conn, sb.toString(), params);
+        }
+    }
+
+    /**
+     * Counts attendance records per {@code marked_at} day from
+     * {@code attendance_daily_rollup}.
+     *
+     * @param filter dashboard filter (date range, course, session)
+     * @return record count per day, in date order
+     * @throws SQLException if a database error occurs
+     */
+    @Override
+    public Map<LocalDate, Integer> countByDay(DashboardFilter filter) throws SQLException {
+        Map<LocalDate, Integer> out = new LinkedHashMap<>();
+
+        StringBuilder sb = new StringBuilder(
+                "SELECT r.day, SUM(r.cnt) AS cnt " +
+                "FROM attendance_daily_rollup r " +
+                "WHERE r.day > '-infinity'::date ");
+        List<Object> params = new ArrayList<>();
+        appendRollupFilter(sb, params, filter, "r.course_id");
+        sb.append("GROUP BY r.day ORDER BY r.day");
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sb.toString())) {
+            bind(ps, params);
+            try (ResultSet rs = executeQuery(ps)) {
+                while (rs.next()) {
+                    out.put(rs.getDate("day").toLocalDate(), rs.getInt("cnt"));
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Counts arrivals per minute bin relative to the session start from
+     * {@code session_arrival_rollup}, where the delay was truncated to whole
+     * minutes and mapped to a bin index when the record was written.
+     *
+     * @param filter dashboard filter (date range, course, session)
+     * @return counts for the bins {@code ≤0, 1–5, 6–10, 11–15, >15}
+     * @throws SQLException if a database error occurs
+     */
+    @Override
+    public int[] countArrivalBins(DashboardFilter filter) throws SQLException {
+        int[] bins = new int[5];
+
+        StringBuilder sb = new StringBuilder(
+                "SELECT r.bin, SUM(r.cnt) AS cnt " +
+                "FROM session_arrival_rollup r " +
+                "JOIN sessions s ON r.session_id = s.session_id " +
+                "WHERE 1=1 ");
+        List<Object> params = new ArrayList<>();
+        appendRollupFilter(sb, params, filter, "s.course_id");
+        sb.append("GROUP BY r.bin");
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sb.toString())) {
+            bind(ps, params);
+            try (ResultSet rs = executeQuery(ps)) {
+                while (rs.next()) {
+                    bins[rs.getInt("bin")] = rs.getInt("cnt");
+                }
+            }
+        }
+        return bins;
+    }
+
+    /**
+     * Counts attendance records per status from {@code attendance_daily_rollup}.
+     *
+     * @param filter dashboard filter (date range, course, session)
+     * @return counts per status
+     * @throws SQLException if a database error occurs
+     */
+    @Override
+    public StatusCounts countByStatus(DashboardFilter filter) throws SQLException {
+        StatusCounts out = new StatusCounts();
+
+        StringBuilder sb = new StringBuilder(
+                "SELECT r.status, SUM(r.cnt) AS cnt " +
+                "FROM attendance_daily_rollup r " +
+                "WHERE 1=1 ");
+        List<Object> params = new ArrayList<>();
+        appendRollupFilter(sb, params, filter, "r.course_id");
+        sb.append("GROUP BY r.status");
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sb.toString())) {
+            bind(ps, params);
+            try (ResultSet rs = executeQuery(ps)) {
+                while (rs.next()) {
+                    out.add(rs.getString("status"), rs.getInt("cnt"));
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Builds the course &times; status matrix from {@code attendance_daily_rollup}.
+     * Courses are ordered by the latest day they have attendance on, so the
+     * most recently active course comes first.
+     *
+     * @param filter dashboard filter (date range, course, session)
+     * @return counts per status keyed by course code
+     * @throws SQLException if a database error occurs
+     */
+    @Override
+    public Map<String, StatusCounts> countByCourseAndStatus(DashboardFilter filter) throws SQLException {
+        Map<String, StatusCounts> out = new LinkedHashMap<>();
+
+        StringBuilder sb = new StringBuilder(
+                "SELECT course, status, cnt FROM ( " +
+                "  SELECT COALESCE(NULLIF(TRIM(c.course_code), ''), 'Unknown') AS course, " +
+                "  r.status, SUM(r.cnt) AS cnt, MAX(r.day) AS last_day " +
+                "  FROM attendance_daily_rollup r " +
+                "  LEFT JOIN courses c ON r.course_id = c.course_id " +
+                "  WHERE 1=1 ");
+        List<Object> params = new ArrayList<>();
+        appendRollupFilter(sb, params, filter, "r.course_id");
+        sb.append("  GROUP BY 1, r.status ")
+          .append(") g ")
+          .append("ORDER BY MAX(last_day) OVER (PARTITION BY course) DESC, course");
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sb.toString())) {
+            bind(ps, params);
+            try (ResultSet rs = executeQuery(ps)) {
+                while (rs.next()) {
+                    out.computeIfAbsent(rs.getString("course"), k -> new StatusCounts())
+                       .add(rs.getString("status"), rs.getInt("cnt"));
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Loads a student's lifetime counts of marked attendance records per
+     * course from {@code student_course_rollup}. Course labels and statuses
+     * follow the rows of the student attendance view: the course code, else
+     * {@code "Course {id}"}, else {@code "Unknown"}, and the status
+     * capitalized.
+     *
+     * @param studentId user ID of the student
+     * @return counts per status keyed by course label, in label order
+     * @throws SQLException if a database error occurs
+     */
+    @Override
+    public Map<String, StatusCounts> countStudentCourseTotals(int studentId) throws SQLException {
+        Map<String, StatusCounts> out = new LinkedHashMap<>();
+
+        String sql = "SELECT COALESCE(NULLIF(TRIM(c.course_code), ''), 'Course ' || r.course_id, 'Unknown') AS course, " +
+                     "INITCAP(r.status) AS status, SUM(r.cnt) AS cnt " +
+                     "FROM student_course_rollup r " +
+                     "LEFT JOIN courses c ON r.course_id = c.course_id " +
+                     "WHERE r.user_id = ? AND r.cnt > 0 " +
+                     "GROUP BY 1, 2 " +
+                     "ORDER BY course";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, studentId);
+            try (ResultSet rs = executeQuery(ps)) {
+                while (rs.next()) {
+                    out.computeIfAbsent(rs.getString("course"), k -> new StatusCounts())
+                       .add(rs.getString("status"), rs.getInt("cnt"));
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Runs the joined attendance query shared by {@link #findAttendance} and
+     * {@link #findAttendancePage}.
+     *
+     * @param filter dashboard filter (date range, course, session)
+     * @param after  key to continue after, or {@code null} to start at the newest record
+     * @param limit  maximum number of rows, or {@code null} for no limit
+     * @return list of populated {@link AttendanceRecord} instances, newest first
+     * @throws SQLException if a database error occurs
+     */
+    private List<AttendanceRecord> queryRecords(DashboardFilter filter, AttendanceKey after, Integer limit)
+            throws SQLException {
         List<AttendanceRecord> out = new ArrayList<>();
 
         StringBuilder sb = new StringBuilder();
@@ -68,41 +323,23 @@ public class JdbcDashboardRepository implements DashboardRepository {
           .append("WHERE 1=1 ");
 
         List<Object> params = new ArrayList<>();
+        appendFilter(sb, params, filter);
+        KeysetPaging.appendAfter(sb, params, after);
 
-        // Date range filter (on marked_at::date)
-        if (filter.from != null) {
-            sb.append("AND a.marked_at::date >= ? ");
-            params.add(Date.valueOf(filter.from));
+        sb.append(KeysetPaging.ATTENDANCE_ORDER);
+        if (limit != null) {
+            sb.append("LIMIT ?");
+            params.add(limit);
         }
-        if (filter.to != null) {
-            sb.append("AND a.marked_at::date <= ? ");
-            params.add(Date.valueOf(filter.to));
-        }
-
-        // Course filter
-        if (filter.courseId != null) {
-            sb.append("AND s.course_id = ? ");
-            params.add(filter.courseId);
-        }
-
-        // Session filter
-        if (filter.sessionId != null) {
-            sb.append("AND a.session_id = ? ");
-            params.add(filter.sessionId);
-        }
-
-        sb.append("ORDER BY a.marked_at DESC");
 
         try (Connection conn = DatabaseUtil.getConnection();
              PreparedStatement ps = conn.prepareStatement(sb.toString())) {
 
             // Bind all parameters in order
-            for (int i = 0; i < params.size(); i++) {
-                ps.setObject(i + 1, params.get(i));
-            }
+            bind(ps, params);
 
             // Map each row into an AttendanceRecord DTO
-            try (ResultSet rs = ps.executeQuery()) {
+            try (ResultSet rs = executeQuery(ps)) {
                 while (rs.next()) {
                     AttendanceRecord r = new AttendanceRecord();
 
@@ -143,18 +380,133 @@ public class JdbcDashboardRepository implements DashboardRepository {
         return out;
     }
 
+    /**
+     * Appends the date range, course and session conditions shared by the
+     * attendance queries. Expects the attendance table aliased as {@code a}
+     * and sessions as {@code s}.
+     *
+     * @param sb     SQL being built, ending in a WHERE clause
+     * @param params parameter list to append the bound values to
+     * @param filter dashboard filter (date range, course, session)
+     */
+    static void appendFilter(StringBuilder sb, List<Object> params, DashboardFilter filter) {
+        // Date range filter as a half-open marked_at range, so the index applies
+        if (filter.from != null) {
+            sb.append("AND a.marked_at >= ? ");
+            params.add(Timestamp.valueOf(filter.from.atStartOfDay()));
+        }
+        if (filter.to != null) {
+            sb.append("AND a.marked_at < ? ");
+            params.add(Timestamp.valueOf(filter.to.plusDays(1).atStartOfDay()));
+        }
+
+        // Course filter
+        if (filter.courseId != null) {
+            sb.append("AND s.course_id = ? ");
+            params.add(filter.courseId);
+        }
+
+        // Session filter
+        if (filter.sessionId != null) {
+            sb.append("AND a.session_id = ? ");
+            params.add(filter.sessionId);
+        }
+
+        // Student filter
+        if (filter.studentId != null) {
+            sb.append("AND a.user_id = ? ");
+            params.add(filter.studentId);
+        }
+    }
+
+    /**
+     * Appends the date range, course and session conditions for queries on
+     * the rollup tables, which are aliased as {@code r} and carry a
+     * {@code day} and {@code session_id} column.
+     *
+     * @param sb           SQL being built, ending in a WHERE clause
+     * @param params       parameter list to append the bound values to
+     * @param filter       dashboard filter (date range, course, session)
+     * @param courseColumn qualified column holding the course ID
+     */
+    static void appendRollupFilter(StringBuilder sb, List<Object> params,
+                                   DashboardFilter filter, String courseColumn) {
+        if (filter.from != null) {
+            sb.append("AND r.day >= ? ");
+            params.add(Date.valueOf(filter.from));
+        }
+        if (filter.to != null) {
+            sb.append("AND r.day <= ? ");
+            params.add(Date.valueOf(filter.to));
+        }
+        if (filter.courseId != null) {
+            sb.append("AND ").append(courseColumn).append(" = ? ");
+            params.add(filter.courseId);
+        }
+        if (filter.sessionId != null) {
+            sb.append("AND r.session_id = ? ");
+            params.add(filter.sessionId);
+        }
+    }
+
+    /**
+     * Executes the query while registered in {@link #running}. A thread that
+     * was interrupted, e.g. by cancelling its load, does not start the query.
+     */
+    private ResultSet executeQuery(PreparedStatement ps) throws SQLException {
+        running.add(ps);
+        try {
+            // Checked after registering, so a cancel cannot slip in between
+            if (Thread.currentThread().isInterrupted()) {
+                throw new SQLException("Dashboard query cancelled");
+            }
+            return ps.executeQuery();
+        } finally {
+            running.remove(ps);
+        }
+    }
+
+    /**
+     * Cancels the statements that are executing right now. PostgreSQL stops
+     * them and their {@code executeQuery} fails with an {@link SQLException}.
+     */
+    @Override
+    public void cancelRunning() {
+        for (Statement st : running) {
+            try {
+                st.cancel();
+            } catch (SQLException e) {
+                // Finished or closed meanwhile, nothing to cancel
+            }
+        }
+    }
+
+    /**
+     * Binds the collected parameters to the statement in order.
+     */
+    static void bind(PreparedStatement ps, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            ps.setObject(i + 1, params.get(i));
+        }
+    }
+
     /**
      * Computes the high-level KPI values (students, sessions, present) for
      * the dashboard top cards, based on the given filter.
      *
      * <p>
-     * This method executes three logical queries:
+     * All three values come from one statement. The filtered attendance rows
+     * are read once in a CTE, grouped per student and aggregated with
+     * {@code FILTER} clauses. Grouping hashes the few students instead of
+     * sorting every row for a {@code COUNT(DISTINCT)}
+     * ({@code --benchmark-top-cards} times it against the per-card queries):
      * <ul>
-     *     <li>Count of distinct students in the filtered attendance records
-     *         (fallback: total student count if zero)</li>
-     *     <li>Count of sessions in the filtered period (or 1 if a specific
-     *         session is selected)</li>
-     *     <li>Count of "Present" records (only when {@code includePresent} is true)</li>
+     *     <li>Count of students with a wanted status
+     *         (fallback: total student count if zero, only queried then)</li>
+     *     <li>Count of "Present" records (only used when
+     *         {@code includePresent} is true)</li>
+     *     <li>Count of sessions in the filtered period as a scalar subquery
+     *         (or 1 if a specific session is selected)</li>
      * </ul>
      * </p>
      *
@@ -164,148 +516,86 @@ public class JdbcDashboardRepository implements DashboardRepository {
      */
     @Override
     public DashboardTopCards computeTopCards(DashboardFilter filter) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            return computeTopCards(conn, filter);
+        }
+    }
+
+    /**
+     * Computes the top cards on the given connection, so the benchmark can
+     * run it on uncommitted generated rows.
+     */
+    DashboardTopCards computeTopCards(Connection conn, DashboardFilter filter) throws SQLException {
         int students = 0;
         int sessions = 0;
         int present  = 0;
 
-        // Build list of statuses we care about for the "students" query.
+        // Build list of statuses we care about for the "students" count.
         List<String> wantedStatuses = new ArrayList<>();
         if (filter.includePresent) wantedStatuses.add("Present");
         if (filter.includeLate)    wantedStatuses.add("Late");
         if (filter.includeAbsent)  wantedStatuses.add("Absent");
         if (filter.includePending) wantedStatuses.add("Pending");
 
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            /* ----- Students (distinct user_id) ----- */
-            StringBuilder stu = new StringBuilder(
-                    "SELECT COUNT(DISTINCT a.user_id) AS cnt " +
-                    "FROM attendance a " +
-                    "LEFT JOIN sessions s ON a.session_id = s.session_id " +
-                    "WHERE 1=1 ");
-            List<Object> params = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+
+        /* ----- Shared scan of the filtered attendance rows, one row per student ----- */
+        StringBuilder sb = new StringBuilder(
+                "WITH f AS ( " +
+                "  SELECT a.user_id, ");
+        if (wantedStatuses.isEmpty()) {
+            sb.append("COUNT(*) AS wanted, ");
+        } else {
+            sb.append("COUNT(*) FILTER (WHERE a.status IN (")
+              .append(String.join(",", Collections.nCopies(wantedStatuses.size(), "?")))
+              .append(")) AS wanted, ");
+            params.addAll(wantedStatuses);
+        }
+        sb.append("COUNT(*) FILTER (WHERE a.status = 'Present') AS present ")
+          .append("  FROM attendance a ")
+          .append("  LEFT JOIN sessions s ON a.session_id = s.session_id ")
+          .append("  WHERE 1=1 ");
+        appendFilter(sb, params, filter);
+        sb.append("  GROUP BY a.user_id ")
+          .append("), agg AS ( ")
+          .append("  SELECT COUNT(*) FILTER (WHERE f.wanted > 0) AS students, ")
+          .append("  COALESCE(SUM(f.present), 0) AS present ")
+          .append("  FROM f ")
+          .append(") ");
+
+        /* ----- Students (fallback to all students), present, sessions ----- */
+        sb.append("SELECT CASE WHEN agg.students > 0 THEN agg.students ")
+          .append("ELSE (SELECT COUNT(*) FROM users WHERE role = 'STUDENT') END AS students, ")
+          .append("agg.present AS present, ");
 
+        if (filter.sessionId != null) {
+            // When a specific session is selected, sessions count is exactly 1.
+            sb.append("1 AS sessions ");
+        } else {
+            sb.append("(SELECT COUNT(*) FROM sessions WHERE 1=1 ");
             if (filter.from != null) {
-                stu.append("AND a.marked_at::date >= ? ");
+                sb.append("AND session_date >= ? ");
                 params.add(Date.valueOf(filter.from));
             }
             if (filter.to != null) {
-                stu.append("AND a.marked_at::date <= ? ");
+                sb.append("AND session_date <= ? ");
                 params.add(Date.valueOf(filter.to));
             }
             if (filter.courseId != null) {
-                stu.append("AND s.course_id = ? ");
+                sb.append("AND course_id = ? ");
                 params.add(filter.courseId);
             }
-            if (filter.sessionId != null) {
-                stu.append("AND a.session_id = ? ");
-                params.add(filter.sessionId);
-            }
-            if (!wantedStatuses.isEmpty()) {
-                stu.append("AND a.status IN (");
-                for (int i = 0; i < wantedStatuses.size(); i++) {
-                    stu.append("?");
-                    if (i < wantedStatuses.size() - 1) {
-                        stu.append(",");
-                    }
-                }
-                stu.append(") ");
-            }
-
-            try (PreparedStatement ps = conn.prepareStatement(stu.toString())) {
-                int idx = 1;
-                for (Object o : params) {
-                    ps.setObject(idx++, o);
-                }
-                for (String s : wantedStatuses) {
-                    ps.setString(idx++, s);
-                }
-                try (ResultSet rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        students = rs.getInt("cnt");
-                    }
-                }
-            }
-
-            // Fallback: if no students found in attendance, use total students from users table.
-            if (students == 0) {
-                try (PreparedStatement ps = conn.prepareStatement(
-                        "SELECT COUNT(*) FROM users WHERE role = 'STUDENT'")) {
-                    try (ResultSet rs = ps.executeQuery()) {
-                        if (rs.next()) {
-                            students = rs.getInt(1);
-                        }
-                    }
-                }
-            }
-
-            /* ----- Sessions ----- */
-            if (filter.sessionId != null) {
-                // When a specific session is selected, sessions count is exactly 1.
-                sessions = 1;
-            } else {
-                StringBuilder ssb = new StringBuilder(
-                        "SELECT COUNT(*) FROM sessions WHERE 1=1 ");
-                List<Object> p2 = new ArrayList<>();
-
-                if (filter.from != null) {
-                    ssb.append("AND session_date >= ? ");
-                    p2.add(Date.valueOf(filter.from));
-                }
-                if (filter.to != null) {
-                    ssb.append("AND session_date <= ? ");
-                    p2.add(Date.valueOf(filter.to));
-                }
-                if (filter.courseId != null) {
-                    ssb.append("AND course_id = ? ");
-                    p2.add(filter.courseId);
-                }
-
-                try (PreparedStatement ps = conn.prepareStatement(ssb.toString())) {
-                    for (int i = 0; i < p2.size(); i++) {
-                        ps.setObject(i + 1, p2.get(i));
-                    }
-                    try (ResultSet rs = ps.executeQuery()) {
-                        if (rs.next()) {
-                            sessions = rs.getInt(1);
-                        }
-                    }
-                }
-            }
-
-            /* ----- Present count ----- */
-            if (filter.includePresent) {
-                StringBuilder p = new StringBuilder(
-                        "SELECT COUNT(*) FROM attendance a " +
-                        "LEFT JOIN sessions s ON a.session_id = s.session_id " +
-                        "WHERE a.status = 'Present' ");
-                List<Object> pp = new ArrayList<>();
-
-                if (filter.from != null) {
-                    p.append("AND a.marked_at::date >= ? ");
-                    pp.add(Date.valueOf(filter.from));
-                }
-                if (filter.to != null) {
-                    p.append("AND a.marked_at::date <= ? ");
-                    pp.add(Date.valueOf(filter.to));
-                }
-                if (filter.courseId != null) {
-                    p.append("AND s.course_id = ? ");
-                    pp.add(filter.courseId);
-                }
-                if (filter.sessionId != null) {
-                    p.append("AND a.session_id = ? ");
-                    pp.add(filter.sessionId);
-                }
+            sb.append(") AS sessions ");
+        }
+        sb.append("FROM agg");
 
-                try (PreparedStatement ps = conn.prepareStatement(p.toString())) {
-                    for (int i = 0; i < pp.size(); i++) {
-                        ps.setObject(i + 1, pp.get(i));
-                    }
-                    try (ResultSet rs = ps.executeQuery()) {
-                        if (rs.next()) {
-                            present = rs.getInt(1);
-                        }
-                    }
+        try (PreparedStatement ps = conn.prepareStatement(sb.toString())) {
+            bind(ps, params);
+            try (ResultSet rs = executeQuery(ps)) {
+                if (rs.next()) {
+                    students = rs.getInt("students");
+                    sessions = rs.getInt("sessions");
+                    present  = filter.includePresent ? rs.getInt("present") : 0;
                 }
             }
         }
@@ -338,7 +628,7 @@ public class JdbcDashboardRepository implements DashboardRepository {
 
         try (Connection conn = DatabaseUtil.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
+             ResultSet rs = executeQuery(ps)) {
 
             while (rs.next()) {
                 int id     = rs.getInt("course_id");
@@ -393,7 +683,7 @@ public class JdbcDashboardRepository implements DashboardRepository {
                 ps.setObject(i + 1, params.get(i));
             }
 
-            try (ResultSet rs = ps.executeQuery()) {
+            try (ResultSet rs = executeQuery(ps)) {
                 while (rs.next()) {
                     int sid      = rs.getInt("session_id");
                     Date d       = rs.getDate("session_date");
@@ -448,7 +738,7 @@ public class JdbcDashboardRepository implements DashboardRepository {
                 ps.setInt(1, courseId);
             }
 
-            try (ResultSet rs = ps.executeQuery()) {
+            try (ResultSet rs = executeQuery(ps)) {
                 if (rs.next()) {
                     int sid      = rs.getInt("session_id");
                     Date d       = rs.getDate("session_date");
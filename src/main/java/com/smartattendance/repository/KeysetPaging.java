@@ -0,0 +1,98 @@
+package com.smartattendance.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.smartattendance.model.dto.page.AttendanceKey;
+
+/**
+ * SQL helpers shared by the keyset paginated attendance listings.
+ *
+ * Every listing is ordered by {@link #ATTENDANCE_ORDER}, which matches the
+ * {@code idx_attendance_keyset} index, and continues after the previous page
+ * with {@link #appendAfter}. The attendance table must be aliased as
+ * {@code a}.
+ *
+ * @version 17:50 19 Oct 2026
+ */
+final class KeysetPaging {
+
+    /** Newest first; rows not marked yet (null marked_at) sort first */
+    static final String ATTENDANCE_ORDER = "ORDER BY a.marked_at DESC, a.user_id DESC, a.session_id DESC ";
+
+    /** Row estimate of the top plan node, e.g. "(cost=0.29..8.31 rows=42 width=4)" */
+    private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+
+    private KeysetPaging() {
+    }
+
+    /**
+     * Appends the condition selecting the rows after {@code after} in
+     * {@link #ATTENDANCE_ORDER}. Does nothing for the first page.
+     *
+     * @param sb     SQL being built, ending in a WHERE clause
+     * @param params parameter list to append the bound values to
+     * @param after  key of the last row of the previous page, or null
+     */
+    static void appendAfter(StringBuilder sb, List<Object> params, AttendanceKey after) {
+        if (after == null) {
+            return;
+        }
+        if (after.markedAt() == null) {
+            // Still inside the leading block of unmarked rows
+            sb.append("AND (a.marked_at IS NOT NULL OR (a.user_id, a.session_id) < (?, ?)) ");
+            params.add(after.userId());
+            params.add(after.sessionId());
+        } else {
+            // Row comparison, so the index range scan starts right after the key
+            sb.append("AND (a.marked_at, a.user_id, a.session_id) < (?, ?, ?) ");
+            params.add(Timestamp.valueOf(after.markedAt()));
+            params.add(after.userId());
+            params.add(after.sessionId());
+        }
+    }
+
+    /**
+     * Reads the sort key of the current row. The query must select
+     * {@code a.marked_at}, {@code a.user_id} and {@code a.session_id}.
+     */
+    static AttendanceKey keyOf(ResultSet rs) throws SQLException {
+        Timestamp ts = rs.getTimestamp("marked_at");
+        return new AttendanceKey(ts != null ? ts.toLocalDateTime() : null,
+                rs.getInt("user_id"), rs.getInt("session_id"));
+    }
+
+    /**
+     * Returns the planner's row estimate for a query, without running it.
+     * Used for "about N rows" labels, where an exact {@code COUNT(*)} would
+     * scan every matching row.
+     *
+     * @param conn   open connection
+     * @param sql    the query whose result size is estimated
+     * @param params parameters of the query
+     * @return estimated number of rows, or -1 if the plan has no estimate
+     * @throws SQLException if the query cannot be explained
+     */
+    static long estimateRows(Connection conn, String sql, List<Object> params) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    Matcher m = PLAN_ROWS.matcher(rs.getString(1));
+                    if (m.find()) {
+                        return Long.parseLong(m.group(1));
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,182 @@
+package com.smartattendance.repository;
+
+import java.io.File;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.smartattendance.config.DatabaseUtil;
+import com.smartattendance.service.mail.MailMessage;
+import com.smartattendance.service.mail.MailOutbox;
+
+/**
+ * {@link MailOutbox} backed by the {@code mail_outbox} table, see
+ * {@code db/migration/V7__mail_outbox.sql}.
+ *
+ * Claims use {@code FOR UPDATE SKIP LOCKED}, so several dispatcher workers
+ * (or app instances) never claim the same mail.
+ *
+ * @version 20:40 19 Oct 2026
+ */
+public class MailOutboxRepository implements MailOutbox {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO mail_outbox (recipients, subject, body, attachments) VALUES (?, ?, ?, ?)";
+
+    /** Claims due rows and pushes them out by the lease */
+    private static final String CLAIM_SQL =
+            "UPDATE mail_outbox SET status = 'Sending', attempts = attempts + 1, "
+                    + "next_attempt_at = LOCALTIMESTAMP + make_interval(secs => ?) "
+                    + "WHERE mail_id IN (SELECT mail_id FROM mail_outbox "
+                    + "WHERE status IN ('Pending', 'Sending') AND next_attempt_at <= LOCALTIMESTAMP "
+                    + "ORDER BY next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED) "
+                    + "RETURNING mail_id, recipients, subject, body, attachments, attempts";
+
+    private static final String SENT_SQL =
+            "UPDATE mail_outbox SET status = 'Sent', sent_at = LOCALTIMESTAMP, last_error = NULL "
+                    + "WHERE mail_id = ANY (?)";
+
+    private static final String FAILED_SQL =
+            "UPDATE mail_outbox SET status = ?, next_attempt_at = COALESCE(?, next_attempt_at), last_error = ? "
+                    + "WHERE mail_id = ?";
+
+    /** Undoes the claim of mail that was not tried, attempt included */
+    private static final String RELEASE_SQL =
+            "UPDATE mail_outbox SET status = 'Pending', attempts = GREATEST(attempts - 1, 0), "
+                    + "next_attempt_at = LOCALTIMESTAMP, last_error = ? "
+                    + "WHERE mail_id = ANY (?) AND status = 'Sending'";
+
+    private static final String NEXT_DUE_SQL =
+            "SELECT MIN(next_attempt_at) FROM mail_outbox WHERE status IN ('Pending', 'Sending')";
+
+    @Override
+    public List<Long> enqueue(List<MailMessage> messages) throws SQLException {
+        List<Long> ids = new ArrayList<>(messages.size());
+        if (messages.isEmpty()) {
+            return ids;
+        }
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement ps = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            for (MailMessage m : messages) {
+                ps.setString(1, m.to());
+                ps.setString(2, m.subject());
+                ps.setString(3, m.body() != null ? m.body() : "");
+                ps.setString(4, joinPaths(m.attachments()));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                while (keys.next()) {
+                    ids.add(keys.getLong(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public List<QueuedMail> claim(int max, int leaseSeconds) throws SQLException {
+        List<QueuedMail> claimed = new ArrayList<>();
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement ps = conn.prepareStatement(CLAIM_SQL)) {
+            ps.setInt(1, leaseSeconds);
+            ps.setInt(2, max);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    MailMessage message = new MailMessage(
+                            rs.getString("recipients"),
+                            rs.getString("subject"),
+                            rs.getString("body"),
+                            splitPaths(rs.getString("attachments")));
+                    claimed.add(new QueuedMail(rs.getLong("mail_id"), message, rs.getInt("attempts")));
+                }
+            }
+        }
+        return claimed;
+    }
+
+    @Override
+    public void markSent(List<Long> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement ps = conn.prepareStatement(SENT_SQL)) {
+            Array array = conn.createArrayOf("bigint", ids.toArray());
+            ps.setArray(1, array);
+            ps.executeUpdate();
+        }
+    }
+
+    @Override
+    public void markFailed(long id, String error, LocalDateTime retryAt) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement ps = conn.prepareStatement(FAILED_SQL)) {
+            ps.setString(1, retryAt != null ? "Pending" : "Failed");
+            ps.setTimestamp(2, retryAt != null ? Timestamp.valueOf(retryAt) : null);
+            ps.setString(3, error);
+            ps.setLong(4, id);
+            ps.executeUpdate();
+        }
+    }
+
+    @Override
+    public void release(List<Long> ids, String reason) throws SQLException {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement ps = conn.prepareStatement(RELEASE_SQL)) {
+            ps.setString(1, reason);
+            ps.setArray(2, conn.createArrayOf("bigint", ids.toArray()));
+            ps.executeUpdate();
+        }
+    }
+
+    @Override
+    public LocalDateTime nextDue() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement ps = conn.prepareStatement(NEXT_DUE_SQL);
+                ResultSet rs = ps.executeQuery()) {
+            Timestamp due = rs.next() ? rs.getTimestamp(1) : null;
+            return due != null ? due.toLocalDateTime() : null;
+        }
+    }
+
+    private static String joinPaths(List<File> files) {
+        if (files.isEmpty()) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (File f : files) {
+            if (sb.length() > 0) {
+                sb.append('\n');
+            }
+            sb.append(f.getAbsolutePath());
+        }
+        return sb.toString();
+    }
+
+    private static List<File> splitPaths(String paths) {
+        List<File> files = new ArrayList<>();
+        if (paths != null && !paths.isBlank()) {
+            for (String path : paths.split("\n")) {
+                files.add(new File(path));
+            }
+        }
+        return files;
+    }
+}
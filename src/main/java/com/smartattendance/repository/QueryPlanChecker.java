@@ -0,0 +1,150 @@
+package com.smartattendance.repository;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+import com.smartattendance.config.DatabaseUtil;
+import com.smartattendance.util.security.log.ApplicationLogger;
+
+/**
+ * EXPLAIN-based check that the hot repository queries are served by an index.
+ *
+ * Each query below mirrors the shape of a hot query in
+ * {@link AttendanceRecordRepository}, {@link JdbcDashboardRepository},
+ * {@link AttendanceRepository} or {@link KeysetPaging}. It is explained with sequential scans
+ * disabled for the transaction, so the planner picks an index whenever one
+ * can serve the predicate, even on a small development database. A plan that
+ * still contains a sequential scan on a large table means no usable index
+ * exists (e.g. a predicate wraps the indexed column in a cast).
+ *
+ * Run with {@code --check-query-plans}; keep the list in sync when a hot
+ * query or index changes.
+ *
+ * @version 17:25 19 Oct 2026
+ */
+public class QueryPlanChecker {
+
+    /** A hot query, its sample parameters and the table that must not be scanned sequentially. */
+    private record HotQuery(String name, String table, String sql, List<Object> params) {
+    }
+
+    private static final Timestamp FROM = Timestamp.valueOf(LocalDate.now().minusDays(6).atStartOfDay());
+    private static final Timestamp TO = Timestamp.valueOf(LocalDate.now().plusDays(1).atStartOfDay());
+
+    private static final List<HotQuery> HOT_QUERIES = List.of(
+            new HotQuery("Attendance by session", "attendance",
+                    "SELECT user_id, session_id, note, confidence, marked_at, last_seen, method, status "
+                            + "FROM attendance WHERE session_id = ? ORDER BY user_id ASC",
+                    List.of(1)),
+            new HotQuery("Attendance by session and status", "attendance",
+                    "SELECT user_id, session_id, note, confidence, marked_at, last_seen, method, status "
+                            + "FROM attendance WHERE session_id = ? AND status = ?",
+                    List.of(1, "Present")),
+            new HotQuery("Attendance by student and session", "attendance",
+                    "SELECT user_id, session_id, status FROM attendance WHERE user_id = ? AND session_id = ?",
+                    List.of(1, 1)),
+            new HotQuery("Pending to absent sweep", "attendance",
+                    "UPDATE attendance SET status = 'Absent', method = 'Auto', marked_at = ? "
+                            + "WHERE session_id = ? AND status = 'Pending' RETURNING user_id",
+                    List.of(TO, 1)),
+            new HotQuery("Student attendance history", "attendance",
+                    "SELECT a.user_id, a.session_id, s.session_date, s.start_time, a.status "
+                            + "FROM attendance a JOIN sessions s ON a.session_id = s.session_id "
+                            + "WHERE a.user_id = ? ORDER BY s.session_date DESC, s.start_time DESC",
+                    List.of(1)),
+            new HotQuery("Dashboard recent activity", "attendance",
+                    "SELECT a.marked_at, a.status, a.user_id, a.session_id FROM attendance a "
+                            + "LEFT JOIN sessions s ON a.session_id = s.session_id "
+                            + "WHERE a.marked_at >= ? AND a.marked_at < ? "
+                            + "ORDER BY a.marked_at DESC, a.user_id DESC, a.session_id DESC LIMIT 41",
+                    List.of(FROM, TO)),
+            new HotQuery("Attendance keyset page", "attendance",
+                    "SELECT a.marked_at, a.user_id, a.session_id, a.status FROM attendance a "
+                            + "WHERE (a.marked_at, a.user_id, a.session_id) < (?, ?, ?) "
+                            + "ORDER BY a.marked_at DESC, a.user_id DESC, a.session_id DESC LIMIT 101",
+                    List.of(TO, 1, 1)),
+            new HotQuery("Dashboard top cards scan", "attendance",
+                    "SELECT a.user_id, COUNT(*) FILTER (WHERE a.status = 'Present') "
+                            + "FROM attendance a WHERE a.marked_at >= ? AND a.marked_at < ? GROUP BY a.user_id",
+                    List.of(FROM, TO)),
+            new HotQuery("Report date range", "attendance",
+                    "SELECT a.marked_at, a.session_id, a.user_id, a.status FROM attendance a "
+                            + "JOIN sessions s ON a.session_id = s.session_id "
+                            + "WHERE a.marked_at >= ? AND a.marked_at < ? "
+                            + "ORDER BY a.marked_at DESC, a.user_id DESC, a.session_id DESC",
+                    List.of(FROM, TO)),
+            new HotQuery("Daily rollup range", "attendance_daily_rollup",
+                    "SELECT r.day, SUM(r.cnt) FROM attendance_daily_rollup r "
+                            + "WHERE r.day >= ? AND r.day <= ? GROUP BY r.day",
+                    List.of(Date.valueOf(LocalDate.now().minusDays(6)), Date.valueOf(LocalDate.now()))),
+            new HotQuery("Arrival rollup range", "session_arrival_rollup",
+                    "SELECT r.bin, SUM(r.cnt) FROM session_arrival_rollup r "
+                            + "WHERE r.day >= ? AND r.day <= ? GROUP BY r.bin",
+                    List.of(Date.valueOf(LocalDate.now().minusDays(6)), Date.valueOf(LocalDate.now()))));
+
+    private final ApplicationLogger appLogger = ApplicationLogger.getInstance();
+
+    /**
+     * Explains every hot query and logs whether it uses an index.
+     * Nothing is executed or modified; each EXPLAIN runs in a rolled back
+     * transaction.
+     *
+     * @return true if every hot query is served by an index
+     * @throws SQLException if a query cannot be explained
+     */
+    public boolean checkAll() throws SQLException {
+        int failed = 0;
+
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            if (conn == null) {
+                throw new SQLException("No database connection");
+            }
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("SET LOCAL enable_seqscan = off");
+            }
+
+            try {
+                for (HotQuery query : HOT_QUERIES) {
+                    String plan = explain(conn, query);
+                    boolean usesIndex = !plan.contains("Seq Scan on " + query.table());
+                    if (usesIndex) {
+                        appLogger.info("QueryPlanChecker: OK   " + query.name());
+                    } else {
+                        failed++;
+                        appLogger.warn("QueryPlanChecker: FAIL " + query.name()
+                                + " scans " + query.table() + " sequentially\n" + plan);
+                    }
+                }
+            } finally {
+                conn.rollback();
+            }
+        }
+
+        appLogger.info("QueryPlanChecker: " + (HOT_QUERIES.size() - failed) + "/" + HOT_QUERIES.size()
+                + " hot queries use an index");
+        return failed == 0;
+    }
+
+    private String explain(Connection conn, HotQuery query) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (PreparedStatement ps = conn.prepareStatement("EXPLAIN " + query.sql())) {
+            for (int i = 0; i < query.params().size(); i++) {
+                ps.setObject(i + 1, query.params().get(i));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            }
+        }
+        return plan.toString();
+    }
+}
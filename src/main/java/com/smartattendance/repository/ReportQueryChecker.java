@@ -0,0 +1,133 @@
+package com.smartattendance.repository;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+import com.smartattendance.config.DatabaseUtil;
+import com.smartattendance.util.report.AttendanceSummaryRow;
+import com.smartattendance.util.security.log.ApplicationLogger;
+
+/**
+ * Checks the results of the summary report query against a known fixture.
+ *
+ * A course, a student and three sessions on consecutive days are inserted,
+ * with a Present mark, an Absent record without a mark time and a Pending
+ * record. {@link AttendanceRepository#findAttendanceSummary} is then run
+ * with a date filter over the three days, and its counts, ratio and streaks
+ * are compared with the expected values. Everything runs in one rolled back
+ * transaction, so the database is left unchanged.
+ *
+ * Run with {@code --check-report-queries}.
+ *
+ * @version 23:10 19 Oct 2026
+ */
+public class ReportQueryChecker {
+
+    private static final String CODE = "ZZCHECK";
+
+    private final ApplicationLogger appLogger = ApplicationLogger.getInstance();
+
+    /**
+     * Runs the fixture through the summary query and logs each mismatch.
+     *
+     * @return true if the summary matched the fixture
+     * @throws SQLException if the fixture cannot be inserted or queried
+     */
+    public boolean checkAll() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            if (conn == null) {
+                throw new SQLException("No database connection");
+            }
+            conn.setAutoCommit(false);
+            try {
+                LocalDate today = LocalDate.now();
+                int courseId = insertId(conn,
+                        "INSERT INTO courses (course_name, course_code) VALUES ('Report query check', ?) "
+                                + "RETURNING course_id", CODE);
+                int userId = insertId(conn,
+                        "INSERT INTO users (username, email, role) VALUES (?, ?, 'STUDENT') RETURNING user_id",
+                        "report-query-check", "report-query-check@localhost");
+
+                insertAttendance(conn, userId, insertSession(conn, courseId, today.minusDays(2)),
+                        "Present", Timestamp.valueOf(today.minusDays(2).atTime(9, 5)));
+                insertAttendance(conn, userId, insertSession(conn, courseId, today.minusDays(1)), "Absent", null);
+                insertAttendance(conn, userId, insertSession(conn, courseId, today), "Pending", null);
+
+                List<AttendanceSummaryRow> rows = new AttendanceRepository().findAttendanceSummary(conn,
+                        today.minusDays(2), today, "All", courseId + " - " + CODE);
+
+                if (rows.size() != 1) {
+                    appLogger.warn("ReportQueryChecker: FAIL summary returned " + rows.size() + " rows, expected 1");
+                    return false;
+                }
+                AttendanceSummaryRow r = rows.get(0);
+                int failed = 0;
+                failed += expect("sessions", r.getSessions(), 3);
+                failed += expect("present", r.getPresent(), 1);
+                failed += expect("absent", r.getAbsent(), 1);
+                failed += expect("pending", r.getPending(), 1);
+                failed += expect("attendance %", r.getAttendancePercent(), 50.0);
+                failed += expect("longest absence streak", r.getLongestAbsenceStreak(), 1);
+                failed += expect("current absence streak", r.getCurrentAbsenceStreak(), 1);
+
+                appLogger.info("ReportQueryChecker: summary " + (failed == 0 ? "OK" : failed + " mismatches"));
+                return failed == 0;
+            } finally {
+                conn.rollback();
+            }
+        }
+    }
+
+    private int expect(String what, Object actual, Object expected) {
+        if (expected.equals(actual)) {
+            return 0;
+        }
+        appLogger.warn("ReportQueryChecker: FAIL summary " + what + " is " + actual + ", expected " + expected);
+        return 1;
+    }
+
+    private static int insertSession(Connection conn, int courseId, LocalDate day) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO sessions (course_id, session_date, start_time, end_time, status) "
+                        + "VALUES (?, ?, ?, ?, 'Closed') RETURNING session_id")) {
+            ps.setInt(1, courseId);
+            ps.setDate(2, Date.valueOf(day));
+            ps.setTimestamp(3, Timestamp.valueOf(day.atTime(9, 0)));
+            ps.setTimestamp(4, Timestamp.valueOf(day.atTime(10, 0)));
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private static void insertAttendance(Connection conn, int userId, int sessionId, String status,
+            Timestamp markedAt) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO attendance (user_id, session_id, status, marked_at) VALUES (?, ?, ?, ?)")) {
+            ps.setInt(1, userId);
+            ps.setInt(2, sessionId);
+            ps.setString(3, status);
+            ps.setTimestamp(4, markedAt);
+            ps.executeUpdate();
+        }
+    }
+
+    private static int insertId(Connection conn, String sql, String... params) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                ps.setString(i + 1, params[i]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.smartattendance.repository;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import com.smartattendance.config.DatabaseUtil;
+import com.smartattendance.model.dto.page.AttendanceChangeKey;
+import com.smartattendance.service.AttendanceReportService.ReportFilter;
+import com.smartattendance.service.report.ScheduledExport;
+import com.smartattendance.util.report.ReportFormat;
+
+/**
+ * Stores {@link ScheduledExport} definitions and their high-water marks in
+ * the {@code scheduled_exports} table, see
+ * {@code db/migration/V8__scheduled_exports.sql}.
+ *
+ * Due exports are claimed with {@code FOR UPDATE SKIP LOCKED} and pushed
+ * out by a lease, so two app instances (or the app and a cron run) never
+ * run the same export at once, and a run lost in a crash is retried when
+ * the lease expires.
+ *
+ * @version 22:30 19 Oct 2026
+ */
+public class ScheduledExportRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO scheduled_exports (name, format, target_dir, columns, from_date, to_date, "
+                    + "session_filter, course_filter, status_filter, method_filter, confidence_filter, "
+                    + "interval_minutes, next_run_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, COALESCE(?, LOCALTIMESTAMP)) "
+                    + "RETURNING export_id";
+
+    /** Claims the most overdue export and pushes it out by the lease, returning the original due time */
+    private static final String CLAIM_SQL =
+            "UPDATE scheduled_exports e SET next_run_at = LOCALTIMESTAMP + make_interval(secs => ?) "
+                    + "FROM (SELECT export_id, next_run_at AS due FROM scheduled_exports "
+                    + "WHERE next_run_at <= LOCALTIMESTAMP ORDER BY next_run_at LIMIT 1 FOR UPDATE SKIP LOCKED) d "
+                    + "WHERE e.export_id = d.export_id "
+                    + "RETURNING e.*, d.due";
+
+    private static final String COMPLETE_SQL =
+            "UPDATE scheduled_exports SET hwm_changed_at = ?, hwm_user_id = ?, hwm_session_id = ?, "
+                    + "next_run_at = ?, last_run_at = LOCALTIMESTAMP, last_rows = ?, last_file = ?, "
+                    + "last_error = NULL WHERE export_id = ?";
+
+    /** Leaves next_run_at at the lease expiry, which is when the run is retried */
+    private static final String FAIL_SQL =
+            "UPDATE scheduled_exports SET last_run_at = LOCALTIMESTAMP, last_error = ? WHERE export_id = ?";
+
+    /**
+     * Saves a new definition. It first runs at {@code def.due()}, or at once
+     * if that is null.
+     *
+     * @return the new export_id
+     * @throws SQLException if the insert fails, e.g. the name is taken
+     */
+    public int create(ScheduledExport def) throws SQLException {
+        ReportFilter f = def.filter();
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement ps = conn.prepareStatement(INSERT_SQL)) {
+            ps.setString(1, def.name());
+            ps.setString(2, def.format().getExtension());
+            ps.setString(3, def.targetDir().getAbsolutePath());
+            ps.setString(4, def.columns());
+            setDate(ps, 5, f.fromDate);
+            setDate(ps, 6, f.toDate);
+            ps.setString(7, f.sessionDisplay);
+            ps.setString(8, f.courseDisplay);
+            ps.setString(9, f.status);
+            ps.setString(10, f.method);
+            ps.setString(11, f.confidenceExpr);
+            ps.setInt(12, def.intervalMinutes());
+            ps.setTimestamp(13, def.due() != null ? Timestamp.valueOf(def.due()) : null);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    /**
+     * Claims the export that has been due longest. It is leased for
+     * {@code leaseSeconds}: finish it with {@link #complete} or
+     * {@link #fail} before then. Claiming one at a time leaves the other due
+     * exports to other instances meanwhile, and does not start their leases
+     * while this one runs.
+     *
+     * @return the claimed export, {@link ScheduledExport#due()} being when
+     *         it was due, or null if none is due
+     */
+    public ScheduledExport claimNext(int leaseSeconds) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement ps = conn.prepareStatement(CLAIM_SQL)) {
+            ps.setInt(1, leaseSeconds);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? map(rs) : null;
+            }
+        }
+    }
+
+    /**
+     * Records a successful run: the new high-water mark and the next run.
+     *
+     * @param hwm  key of the last row exported, null if still none
+     * @param file file written by the run
+     */
+    public void complete(int exportId, AttendanceChangeKey hwm, long rows, File file, LocalDateTime nextRunAt)
+            throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement ps = conn.prepareStatement(COMPLETE_SQL)) {
+            if (hwm != null) {
+                ps.setTimestamp(1, Timestamp.valueOf(hwm.changedAt()));
+                ps.setInt(2, hwm.userId());
+                ps.setInt(3, hwm.sessionId());
+            } else {
+                ps.setNull(1, Types.TIMESTAMP);
+                ps.setNull(2, Types.INTEGER);
+                ps.setNull(3, Types.INTEGER);
+            }
+            ps.setTimestamp(4, Timestamp.valueOf(nextRunAt));
+            ps.setLong(5, rows);
+            ps.setString(6, file.getAbsolutePath());
+            ps.setInt(7, exportId);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Records a failed run; the high-water mark stays where it was.
+     */
+    public void fail(int exportId, String error) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement ps = conn.prepareStatement(FAIL_SQL)) {
+            ps.setString(1, error);
+            ps.setInt(2, exportId);
+            ps.executeUpdate();
+        }
+    }
+
+    private static ScheduledExport map(ResultSet rs) throws SQLException {
+        ReportFilter filter = new ReportFilter();
+        Date from = rs.getDate("from_date");
+        Date to = rs.getDate("to_date");
+        filter.fromDate = from != null ? from.toLocalDate() : null;
+        filter.toDate = to != null ? to.toLocalDate() : null;
+        filter.sessionDisplay = rs.getString("session_filter");
+        filter.courseDisplay = rs.getString("course_filter");
+        filter.status = rs.getString("status_filter");
+        filter.method = rs.getString("method_filter");
+        filter.confidenceExpr = rs.getString("confidence_filter");
+
+        AttendanceChangeKey after = null;
+        Timestamp hwm = rs.getTimestamp("hwm_changed_at");
+        if (hwm != null) {
+            after = new AttendanceChangeKey(hwm.toLocalDateTime(),
+                    rs.getInt("hwm_user_id"), rs.getInt("hwm_session_id"));
+        }
+
+        return new ScheduledExport(
+                rs.getInt("export_id"),
+                rs.getString("name"),
+                ReportFormat.valueOf(rs.getString("format").toUpperCase()),
+                new File(rs.getString("target_dir")),
+                filter,
+                ScheduledExport.specOf(rs.getString("columns")),
+                rs.getInt("interval_minutes"),
+                rs.getTimestamp("due").toLocalDateTime(),
+                after);
+    }
+
+    private static void setDate(PreparedStatement ps, int index, LocalDate date) throws SQLException {
+        if (date != null) {
+            ps.setDate(index, Date.valueOf(date));
+        } else {
+            ps.setNull(index, Types.DATE);
+        }
+    }
+}
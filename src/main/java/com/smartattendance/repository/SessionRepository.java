@@ -10,6 +10,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.smartattendance.config.Config;
 import com.smartattendance.config.DatabaseUtil;
 import com.smartattendance.model.entity.Session;
 import com.smartattendance.util.security.log.ApplicationLogger;
@@ -40,6 +41,19 @@ public class SessionRepository {
      */
     private final ApplicationLogger appLogger = ApplicationLogger.getInstance();
 
+    // ========== ROSTER SQL ==========
+
+    /** Rosters above this many enrollments are materialised when the session starts */
+    private static final int DEFAULT_ROSTER_EAGER_MAX = 2000;
+
+    /** Set-based insert of one PENDING attendance record per enrolled student */
+    private static final String ROSTER_INSERT_SQL = "INSERT INTO attendance (user_id, session_id, note, confidence, marked_at, last_seen, method, status) "
+            + "SELECT e.user_id, ?, 'Auto-created with session', 0.0, ?, ?, 'None', 'Pending' "
+            + "FROM enrollments e JOIN sessions s ON s.course_id = e.course_id WHERE s.session_id = ?";
+
+    /** Keeps existing records (e.g. already marked students) untouched */
+    private static final String ROSTER_CONFLICT_SQL = " ON CONFLICT (user_id, session_id) DO NOTHING";
+
     // ========== CRUD OPERATIONS ========
 
     /**
@@ -128,6 +142,97 @@ public class SessionRepository {
         return null;
     }
 
+    /**
+     * Retrieves the sessions the auto-session scheduler has to plan for:
+     * pending sessions with auto-start enabled and not yet ended, and
+     * non-closed sessions with auto-stop enabled.
+     *
+     * @return the auto-start and auto-stop candidates, never null
+     * @throws RuntimeException if a database access error occurs
+     */
+    public List<Session> findAutoSessions() {
+        List<Session> sessions = new ArrayList<>();
+        /** SQL query for retrieving sessions with pending auto-start or auto-stop */
+        String sql = "SELECT s.session_id, c.course_code, s.late_threshold, s.location, s.start_time, s.end_time, s.session_date, s.status, s.auto_start, s.auto_stop FROM sessions s JOIN courses c ON s.course_id = c.course_id "
+                + "WHERE (s.auto_start = TRUE AND s.status = 'Pending' AND s.end_time > ?) "
+                + "OR (s.auto_stop = TRUE AND s.status <> 'Closed')";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    // Convert SQL types to Java time types
+                    java.sql.Date sqlDate = rs.getDate("session_date");
+                    Timestamp sqlStartTime = rs.getTimestamp("start_time");
+                    Timestamp sqlEndTime = rs.getTimestamp("end_time");
+
+                    sessions.add(new Session(
+                            rs.getInt("session_id"),
+                            rs.getString("course_code"),
+                            sqlDate != null ? sqlDate.toLocalDate() : null,
+                            sqlStartTime != null ? sqlStartTime.toLocalDateTime().toLocalTime() : null,
+                            sqlEndTime != null ? sqlEndTime.toLocalDateTime().toLocalTime() : null,
+                            rs.getString("location"),
+                            rs.getInt("late_threshold"),
+                            rs.getString("status"),
+                            rs.getBoolean("auto_start"),
+                            rs.getBoolean("auto_stop")));
+                }
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return sessions;
+    }
+
+    /**
+     * Retrieves every open session and every session with auto-start or
+     * auto-stop enabled in one query. This is the snapshot the auto-session
+     * rules evaluate against.
+     *
+     * @return the open and auto-enabled sessions, never null
+     * @throws RuntimeException if a database access error occurs
+     */
+    public List<Session> findOpenOrAutoSessions() {
+        List<Session> sessions = new ArrayList<>();
+        /** SQL query for retrieving open sessions and sessions with auto settings */
+        String sql = "SELECT s.session_id, c.course_code, s.late_threshold, s.location, s.start_time, s.end_time, s.session_date, s.status, s.auto_start, s.auto_stop FROM sessions s JOIN courses c ON s.course_id = c.course_id "
+                + "WHERE s.status = 'Open' OR s.auto_start = TRUE OR s.auto_stop = TRUE";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                // Convert SQL types to Java time types
+                java.sql.Date sqlDate = rs.getDate("session_date");
+                Timestamp sqlStartTime = rs.getTimestamp("start_time");
+                Timestamp sqlEndTime = rs.getTimestamp("end_time");
+
+                sessions.add(new Session(
+                        rs.getInt("session_id"),
+                        rs.getString("course_code"),
+                        sqlDate != null ? sqlDate.toLocalDate() : null,
+                        sqlStartTime != null ? sqlStartTime.toLocalDateTime().toLocalTime() : null,
+                        sqlEndTime != null ? sqlEndTime.toLocalDateTime().toLocalTime() : null,
+                        rs.getString("location"),
+                        rs.getInt("late_threshold"),
+                        rs.getString("status"),
+                        rs.getBoolean("auto_start"),
+                        rs.getBoolean("auto_stop")));
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return sessions;
+    }
+
     /**
      * Checks if there are any sessions currently marked as "Open" in the system.
      * The system should only allow one open session at a time.
@@ -165,6 +270,12 @@ public class SessionRepository {
      * This method handles the conversion of Java time objects to SQL types
      * and retrieves the auto-generated session_id to update the provided Session
      * object.
+     * 
+     * The PENDING attendance roster is created in the same transaction with a
+     * single INSERT ... SELECT from enrollments, unless the course has more than
+     * {@code session.roster.eager.max} enrollments. Such large rosters are
+     * materialised lazily by {@link #materialiseRoster(int)} when the session
+     * is started or stopped.
      *
      * @param session the Session object to persist, must not be null
      * @throws IllegalArgumentException if the session is null or has invalid data
@@ -173,47 +284,111 @@ public class SessionRepository {
     public void save(Session s) {
         /** SQL query for inserting a new session */
         String sql = "INSERT INTO sessions (course_id, late_threshold, location, start_time, end_time, session_date, status) VALUES ((SELECT course_id FROM courses WHERE course_code = ?), ?, ?, ?, ?, ?, ?) ";
+        /** SQL query for creating the roster, skipped for courses above the eager limit */
+        String rosterSql = ROSTER_INSERT_SQL
+                + " AND (SELECT COUNT(*) FROM enrollments en JOIN sessions ss ON en.course_id = ss.course_id"
+                + " WHERE ss.session_id = ?) <= ?"
+                + ROSTER_CONFLICT_SQL;
 
-        try (Connection conn = DatabaseUtil.getConnection();
-                PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+                    PreparedStatement rosterPs = conn.prepareStatement(rosterSql)) {
+
+                // Convert LocalDate to java.sql.Date for session_date
+                java.sql.Date sqlDate = java.sql.Date.valueOf(s.getSessionDate());
+
+                // For timestamp columns, need to combine session_date with the time
+                // Create LocalDateTime objects by combining session_date with the time
+                LocalDateTime startDateTime = LocalDateTime.of(s.getSessionDate(), s.getStartTime());
+                LocalDateTime endDateTime = LocalDateTime.of(s.getSessionDate(), s.getEndTime());
+
+                // Convert to Timestamp
+                Timestamp sqlStartTime = Timestamp.valueOf(startDateTime);
+                Timestamp sqlEndTime = Timestamp.valueOf(endDateTime);
+
+                ps.setString(1, s.getCourse());
+                ps.setInt(2, s.getLateThresholdMinutes());
+                ps.setString(3, s.getLocation());
+                ps.setTimestamp(4, sqlStartTime);
+                ps.setTimestamp(5, sqlEndTime);
+                ps.setDate(6, sqlDate);
+                ps.setString(7, s.getStatus());
+
+                int affectedRows = ps.executeUpdate();
+
+                // Get the auto-generated session_id
+                if (affectedRows > 0) {
+                    try (ResultSet generatedKeys = ps.getGeneratedKeys()) {
+                        if (generatedKeys.next()) {
+                            int generatedId = generatedKeys.getInt(1);
+                            s.setSessionId(generatedId); // Update the session object with the new ID
+                        }
+                    }
 
-            // Convert LocalDate to java.sql.Date for session_date
-            java.sql.Date sqlDate = java.sql.Date.valueOf(s.getSessionDate());
+                    bindRoster(rosterPs, s.getSessionId());
+                    rosterPs.setInt(5, s.getSessionId());
+                    rosterPs.setInt(6, Config.getInt("session.roster.eager.max", DEFAULT_ROSTER_EAGER_MAX));
+                    int rosterSize = rosterPs.executeUpdate();
 
-            // For timestamp columns, need to combine session_date with the time
-            // Create LocalDateTime objects by combining session_date with the time
-            LocalDateTime startDateTime = LocalDateTime.of(s.getSessionDate(), s.getStartTime());
-            LocalDateTime endDateTime = LocalDateTime.of(s.getSessionDate(), s.getEndTime());
+                    if (rosterSize > 0) {
+                        appLogger.info("Created " + rosterSize + " attendance records for session " + s.getSessionId());
+                    } else {
+                        appLogger.info("Roster of session " + s.getSessionId() + " deferred until the session starts");
+                    }
+                }
 
-            // Convert to Timestamp
-            Timestamp sqlStartTime = Timestamp.valueOf(startDateTime);
-            Timestamp sqlEndTime = Timestamp.valueOf(endDateTime);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
 
-            ps.setString(1, s.getCourse());
-            ps.setInt(2, s.getLateThresholdMinutes());
-            ps.setString(3, s.getLocation());
-            ps.setTimestamp(4, sqlStartTime);
-            ps.setTimestamp(5, sqlEndTime);
-            ps.setDate(6, sqlDate);
-            ps.setString(7, s.getStatus());
+    /**
+     * Creates the PENDING attendance record of every enrolled student that does
+     * not have one yet, in a single statement. Safe to call repeatedly; used to
+     * materialise large rosters lazily and to pick up late enrollments.
+     *
+     * @param sessionId the session_id whose roster should be materialised
+     * @return the number of attendance records created
+     * @throws RuntimeException if a database access error occurs
+     */
+    public int materialiseRoster(int sessionId) {
+        /** SQL query for creating the missing roster entries */
+        String sql = ROSTER_INSERT_SQL + ROSTER_CONFLICT_SQL;
 
-            int affectedRows = ps.executeUpdate();
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement ps = conn.prepareStatement(sql)) {
 
-            // Get the auto-generated session_id
-            if (affectedRows > 0) {
-                try (ResultSet generatedKeys = ps.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        int generatedId = generatedKeys.getInt(1);
-                        s.setSessionId(generatedId); // Update the session object with the new ID
-                    }
-                }
-            }
+            bindRoster(ps, sessionId);
+            int created = ps.executeUpdate();
 
+            if (created > 0) {
+                appLogger.info("Materialised " + created + " attendance records for session " + sessionId);
+            }
+            return created;
         } catch (SQLException e) {
             e.printStackTrace();
+            return 0;
         }
     }
 
+    /**
+     * Binds the session id and default values of the roster insert.
+     */
+    private void bindRoster(PreparedStatement ps, int sessionId) throws SQLException {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        ps.setInt(1, sessionId);
+        ps.setTimestamp(2, now);
+        ps.setTimestamp(3, now);
+        ps.setInt(4, sessionId);
+    }
+
     /**
      * Deletes a session from the database by its unique identifier.
      *
@@ -288,14 +463,18 @@ public class SessionRepository {
      * @throws RuntimeException         if a database access error occurs
      */
     public void updateStatus(int id, String status) {
-        /** SQL query for updating session status */
-        String sql = "UPDATE sessions SET status = ? WHERE session_id = ?";
+        /** SQL query for updating session status, closed_at records when the session was closed */
+        String sql = "UPDATE sessions SET status = ?, "
+                + "closed_at = CASE WHEN ? = 'Closed' THEN COALESCE(closed_at, ?) ELSE NULL END "
+                + "WHERE session_id = ?";
 
         try (Connection conn = DatabaseUtil.getConnection();
                 PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setString(1, status);
-            ps.setInt(2, id);
+            ps.setString(2, status);
+            ps.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+            ps.setInt(4, id);
 
             ps.executeUpdate();
         } catch (SQLException e) {
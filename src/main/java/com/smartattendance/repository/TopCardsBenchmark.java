@@ -0,0 +1,282 @@
+package com.smartattendance.repository;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.smartattendance.config.DatabaseUtil;
+import com.smartattendance.model.dto.dashboard.DashboardFilter;
+import com.smartattendance.model.dto.dashboard.DashboardTopCards;
+import com.smartattendance.util.security.log.ApplicationLogger;
+
+/**
+ * Times the single statement {@link JdbcDashboardRepository#computeTopCards}
+ * against the per-card queries it replaced (distinct students, the all
+ * students fallback, sessions and present from the daily rollup).
+ *
+ * Run with {@code --benchmark-top-cards [rows]} (default 200000). A course,
+ * 2000 students and enough sessions over the last 60 days for that many
+ * attendance rows are generated in one transaction, the tables are analyzed,
+ * and both variants run on that connection for a date range, a course and a
+ * single session filter. The per-card queries use the current filter
+ * predicates, so only the statement count and the shared scan differ.
+ * Everything is rolled back, so the database is left unchanged.
+ *
+ * @version 23:40 19 Oct 2026
+ */
+public final class TopCardsBenchmark {
+
+    private static final String CODE = "ZZTOPCARD";
+    private static final int STUDENTS = 2000;
+    private static final int DAYS = 60;
+    private static final int WARMUP_RUNS = 3;
+    private static final int TIMED_RUNS = 20;
+
+    private static final ApplicationLogger appLogger = ApplicationLogger.getInstance();
+
+    private TopCardsBenchmark() {
+    }
+
+    /**
+     * Generates the rows, times both variants per filter and logs one line
+     * per filter.
+     *
+     * @param rows number of attendance rows to generate
+     * @throws SQLException if the rows cannot be generated or queried
+     */
+    public static void run(int rows) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            if (conn == null) {
+                throw new SQLException("No database connection");
+            }
+            conn.setAutoCommit(false);
+            try {
+                int students = Math.min(STUDENTS, rows);
+                int sessions = (rows + students - 1) / students;
+                int courseId = generate(conn, rows, students, sessions);
+
+                DashboardFilter range = new DashboardFilter();
+                range.from = LocalDate.now().minusDays(29);
+                range.to = LocalDate.now();
+
+                DashboardFilter course = new DashboardFilter();
+                course.courseId = courseId;
+
+                DashboardFilter session = new DashboardFilter();
+                session.courseId = courseId;
+                session.sessionId = firstSession(conn, courseId);
+
+                Map<String, DashboardFilter> filters = new LinkedHashMap<>();
+                filters.put("last 30 days", range);
+                filters.put("course", course);
+                filters.put("one session", session);
+
+                JdbcDashboardRepository repo = new JdbcDashboardRepository();
+                for (Map.Entry<String, DashboardFilter> e : filters.entrySet()) {
+                    DashboardFilter filter = e.getValue();
+                    DashboardTopCards single = repo.computeTopCards(conn, filter);
+                    DashboardTopCards perCard = computePerCard(conn, filter);
+                    for (int i = 0; i < WARMUP_RUNS; i++) {
+                        repo.computeTopCards(conn, filter);
+                        computePerCard(conn, filter);
+                    }
+
+                    // Alternate the variants so caching favours neither
+                    long singleNanos = 0;
+                    long perCardNanos = 0;
+                    for (int i = 0; i < TIMED_RUNS; i++) {
+                        long started = System.nanoTime();
+                        repo.computeTopCards(conn, filter);
+                        singleNanos += System.nanoTime() - started;
+
+                        started = System.nanoTime();
+                        computePerCard(conn, filter);
+                        perCardNanos += System.nanoTime() - started;
+                    }
+
+                    double singleMs = singleNanos / 1e6 / TIMED_RUNS;
+                    double perCardMs = perCardNanos / 1e6 / TIMED_RUNS;
+                    appLogger.info(String.format("TopCardsBenchmark: %-12s %d rows, one statement %.2f ms, "
+                            + "per card %.2f ms (%.1fx), cards %s", e.getKey(), rows, singleMs, perCardMs,
+                            perCardMs / singleMs, same(single, perCard)
+                                    ? "match"
+                                    : "differ " + describe(single) + " vs " + describe(perCard)));
+                }
+            } finally {
+                conn.rollback();
+            }
+        }
+    }
+
+    /**
+     * Inserts the course, students, sessions and attendance rows and
+     * analyzes the tables so the planner sees their real size.
+     *
+     * @return the generated course ID
+     */
+    private static int generate(Connection conn, int rows, int students, int sessions) throws SQLException {
+        int courseId;
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO courses (course_name, course_code) VALUES ('Top cards benchmark', ?) "
+                        + "RETURNING course_id")) {
+            ps.setString(1, CODE);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                courseId = rs.getInt(1);
+            }
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO users (username, email, role) "
+                        + "SELECT 'topcards-' || g, 'topcards-' || g || '@localhost', 'STUDENT' "
+                        + "FROM generate_series(1, ?) g")) {
+            ps.setInt(1, students);
+            ps.executeUpdate();
+        }
+
+        // Session k is held (k mod 60) days ago, 9:00 to 10:00
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO sessions (course_id, session_date, start_time, end_time, status) "
+                        + "SELECT ?, d, d + TIME '09:00', d + TIME '10:00', 'Closed' "
+                        + "FROM (SELECT (?::date - (g % ?)) AS d FROM generate_series(1, ?) g) x")) {
+            ps.setInt(1, courseId);
+            ps.setDate(2, Date.valueOf(LocalDate.now()));
+            ps.setInt(3, DAYS);
+            ps.setInt(4, sessions);
+            ps.executeUpdate();
+        }
+
+        // Every student in every session until the row count is reached,
+        // mostly Present with some Late, Absent and Pending
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO attendance (user_id, session_id, status, method, marked_at) "
+                        + "SELECT u.user_id, s.session_id, "
+                        + "  CASE WHEN (u.user_id + s.session_id) % 10 = 0 THEN 'Late' "
+                        + "       WHEN (u.user_id + s.session_id) % 17 = 0 THEN 'Absent' "
+                        + "       WHEN (u.user_id + s.session_id) % 29 = 0 THEN 'Pending' "
+                        + "       ELSE 'Present' END, 'Face', "
+                        + "  CASE WHEN (u.user_id + s.session_id) % 29 = 0 THEN NULL "
+                        + "       ELSE s.start_time + ((u.user_id % 600) * INTERVAL '1 second') END "
+                        + "FROM sessions s CROSS JOIN users u "
+                        + "WHERE s.course_id = ? AND u.username LIKE 'topcards-%' "
+                        + "ORDER BY s.session_id, u.user_id LIMIT ?")) {
+            ps.setInt(1, courseId);
+            ps.setInt(2, rows);
+            ps.executeUpdate();
+        }
+
+        try (Statement st = conn.createStatement()) {
+            st.execute("ANALYZE attendance");
+            st.execute("ANALYZE sessions");
+            st.execute("ANALYZE users");
+            st.execute("ANALYZE attendance_daily_rollup");
+        }
+        return courseId;
+    }
+
+    private static int firstSession(Connection conn, int courseId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT MIN(session_id) FROM sessions WHERE course_id = ?")) {
+            ps.setInt(1, courseId);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    /**
+     * The top cards as computed before the single statement: one query per
+     * card, plus the all students fallback when no student matched.
+     */
+    private static DashboardTopCards computePerCard(Connection conn, DashboardFilter filter) throws SQLException {
+        int students = 0;
+        int sessions = 0;
+        int present = 0;
+
+        List<String> wantedStatuses = new ArrayList<>();
+        if (filter.includePresent) wantedStatuses.add("Present");
+        if (filter.includeLate)    wantedStatuses.add("Late");
+        if (filter.includeAbsent)  wantedStatuses.add("Absent");
+        if (filter.includePending) wantedStatuses.add("Pending");
+
+        /* ----- Students (distinct user_id) ----- */
+        StringBuilder stu = new StringBuilder(
+                "SELECT COUNT(DISTINCT a.user_id) FROM attendance a "
+                        + "LEFT JOIN sessions s ON a.session_id = s.session_id WHERE 1=1 ");
+        List<Object> params = new ArrayList<>();
+        JdbcDashboardRepository.appendFilter(stu, params, filter);
+        if (!wantedStatuses.isEmpty()) {
+            stu.append("AND a.status IN (")
+               .append(String.join(",", Collections.nCopies(wantedStatuses.size(), "?")))
+               .append(") ");
+            params.addAll(wantedStatuses);
+        }
+        students = queryInt(conn, stu.toString(), params);
+
+        // Fallback: if no students found in attendance, use total students from users table.
+        if (students == 0) {
+            students = queryInt(conn, "SELECT COUNT(*) FROM users WHERE role = 'STUDENT'", List.of());
+        }
+
+        /* ----- Sessions ----- */
+        if (filter.sessionId != null) {
+            sessions = 1;
+        } else {
+            StringBuilder ssb = new StringBuilder("SELECT COUNT(*) FROM sessions WHERE 1=1 ");
+            List<Object> p2 = new ArrayList<>();
+            if (filter.from != null) {
+                ssb.append("AND session_date >= ? ");
+                p2.add(Date.valueOf(filter.from));
+            }
+            if (filter.to != null) {
+                ssb.append("AND session_date <= ? ");
+                p2.add(Date.valueOf(filter.to));
+            }
+            if (filter.courseId != null) {
+                ssb.append("AND course_id = ? ");
+                p2.add(filter.courseId);
+            }
+            sessions = queryInt(conn, ssb.toString(), p2);
+        }
+
+        /* ----- Present count (from the daily rollup) ----- */
+        if (filter.includePresent) {
+            StringBuilder p = new StringBuilder(
+                    "SELECT COALESCE(SUM(r.cnt), 0) FROM attendance_daily_rollup r WHERE r.status = 'Present' ");
+            List<Object> pp = new ArrayList<>();
+            JdbcDashboardRepository.appendRollupFilter(p, pp, filter, "r.course_id");
+            present = queryInt(conn, p.toString(), pp);
+        }
+
+        return new DashboardTopCards(students, sessions, present);
+    }
+
+    private static int queryInt(Connection conn, String sql, List<Object> params) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            JdbcDashboardRepository.bind(ps, params);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    private static boolean same(DashboardTopCards a, DashboardTopCards b) {
+        return a.getStudents() == b.getStudents()
+                && a.getSessions() == b.getSessions()
+                && a.getPresent() == b.getPresent();
+    }
+
+    private static String describe(DashboardTopCards c) {
+        return c.getStudents() + "/" + c.getSessions() + "/" + c.getPresent();
+    }
+}
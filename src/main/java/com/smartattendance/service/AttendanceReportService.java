@@ -1,16 +1,44 @@
 package com.smartattendance.service;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.function.LongConsumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
+import com.smartattendance.model.dto.page.AttendanceChangeKey;
+import com.smartattendance.model.dto.page.AttendanceKey;
+import com.smartattendance.model.dto.page.KeysetPage;
+import com.smartattendance.config.Config;
 import com.smartattendance.repository.AttendanceRepository;
 import com.smartattendance.util.report.AttendanceReportRow;
+import com.smartattendance.util.report.AttendanceSummaryRow;
+import com.smartattendance.util.report.CancellationToken;
 import com.smartattendance.util.report.CsvReportGenerator;
+import com.smartattendance.util.report.ParallelPdfReportGenerator;
 import com.smartattendance.util.report.PdfReportGenerator;
+import com.smartattendance.util.report.ProgressReportWriter;
+import com.smartattendance.util.report.ReportFormat;
 import com.smartattendance.util.report.ReportSpec;
+import com.smartattendance.util.report.ReportWriter;
+import com.smartattendance.util.report.StreamingReportGenerator;
+import com.smartattendance.util.report.StudentReport;
+import com.smartattendance.util.report.SummaryReportGenerator;
+import com.smartattendance.util.report.TeeReportWriter;
 import com.smartattendance.util.report.XlsxReportGenerator;
+import com.smartattendance.util.security.log.ApplicationLogger;
 
 /**
  * Facade for the report UI (ReportController).
@@ -20,6 +48,13 @@ public class AttendanceReportService {
 
     private final AttendanceRepository repo = new AttendanceRepository();
     private final EmailService emailService = new EmailService();
+    private final ApplicationLogger appLogger = ApplicationLogger.getInstance();
+
+    // below this many estimated rows a single-threaded PDF is faster than splitting and merging
+    private static final long PARALLEL_PDF_MIN_ROWS = Config.getInt("report.pdf.parallel.min.rows", 20000);
+
+    // rows a bundle format may lag behind the database cursor before the cursor waits
+    private static final int BUNDLE_QUEUE_ROWS = Config.getInt("report.bundle.queue.rows", 2000);
 
     /* ================= DTOs that the controller expects ================= */
 
@@ -41,6 +76,16 @@ public class AttendanceReportService {
         public String confidenceExpr;
     }
 
+    /**
+     * Outcome of {@link #exportChanges}.
+     *
+     * @param rows rows written
+     * @param last high-water mark for the next run: the key of the last row
+     *             written, or the previous mark if nothing changed
+     */
+    public record ChangeExport(long rows, AttendanceChangeKey last) {
+    }
+
     /* ================== option lists for comboboxes ================== */
 
     public List<String> getSessionOptions() {
@@ -83,6 +128,53 @@ public class AttendanceReportService {
         );
     }
 
+    public KeysetPage<AttendanceReportRow, AttendanceKey> getAttendancePage(ReportFilter filter,
+                                                                           AttendanceKey after,
+                                                                           int pageSize) {
+        return repo.findAttendancePage(
+                filter.fromDate,
+                filter.toDate,
+                filter.sessionDisplay,
+                filter.courseDisplay,
+                filter.status,
+                filter.method,
+                filter.confidenceExpr,
+                after,
+                pageSize
+        );
+    }
+
+    // LIMIT 1 probe, so exports can say "no data" before asking for a file
+    public boolean hasAttendance(ReportFilter filter) {
+        return repo.hasAttendance(
+                filter.fromDate,
+                filter.toDate,
+                filter.sessionDisplay,
+                filter.courseDisplay,
+                filter.status,
+                filter.method,
+                filter.confidenceExpr
+        );
+    }
+
+    // changes whenever report data is written, -1 if unknown; used as the report cache key
+    public long dataWatermark() {
+        return repo.dataWatermark();
+    }
+
+    // planner estimate, cheap enough to show next to the preview table
+    public long estimateAttendanceCount(ReportFilter filter) {
+        return repo.estimateAttendanceCount(
+                filter.fromDate,
+                filter.toDate,
+                filter.sessionDisplay,
+                filter.courseDisplay,
+                filter.status,
+                filter.method,
+                filter.confidenceExpr
+        );
+    }
+
     /* ================== exports ================== */
 
     public void generatePdfReport(List<AttendanceReportRow> rows,
@@ -97,12 +189,397 @@ public class AttendanceReportService {
         new CsvReportGenerator().generate(spec, rows, target);
     }
 
+    /**
+     * Export the filtered attendance as CSV without loading it into memory.
+     * Uses the COPY fast path; if COPY is not available (or fails), falls
+     * back to streaming rows from a cursor into {@link CsvReportGenerator}.
+     * COPY reports progress only once it is done.
+     *
+     * @param token    checked while writing; a cancelled export throws
+     *                 {@link java.util.concurrent.CancellationException}
+     * @param progress called with the number of rows exported so far, or null
+     * @return number of rows exported
+     */
+    public long exportCsv(ReportFilter filter,
+                          ReportSpec spec,
+                          File target,
+                          CancellationToken token,
+                          LongConsumer progress) throws Exception {
+        try (Writer out = new CancellableWriter(
+                Files.newBufferedWriter(target.toPath(), StandardCharsets.UTF_8), token)) {
+            long rows = repo.copyAttendanceCsv(
+                    filter.fromDate,
+                    filter.toDate,
+                    filter.sessionDisplay,
+                    filter.courseDisplay,
+                    filter.status,
+                    filter.method,
+                    filter.confidenceExpr,
+                    spec,
+                    out
+            );
+            if (progress != null) {
+                progress.accept(rows);
+            }
+            return rows;
+        } catch (SQLException e) {
+            token.throwIfCancelled();
+            appLogger.warn("COPY export failed, streaming CSV instead: " + e.getMessage());
+        }
+        return streamReport(filter, new CsvReportGenerator(), spec, target, token, progress);
+    }
+
+    /**
+     * Export the filtered attendance as XLSX, streaming rows from a cursor
+     * into a windowed SXSSF workbook.
+     *
+     * @return number of rows exported
+     */
+    public long exportXlsx(ReportFilter filter,
+                           ReportSpec spec,
+                           File target,
+                           CancellationToken token,
+                           LongConsumer progress) throws Exception {
+        return streamReport(filter, new XlsxReportGenerator(), spec, target, token, progress);
+    }
+
+    /**
+     * Export the filtered attendance as PDF, streaming rows from a cursor
+     * into a table that is flushed to the document in chunks. Large reports
+     * are rendered in parallel, see {@link #generatorFor}.
+     *
+     * @return number of rows exported
+     */
+    public long exportPdf(ReportFilter filter,
+                          ReportSpec spec,
+                          File target,
+                          CancellationToken token,
+                          LongConsumer progress) throws Exception {
+        StreamingReportGenerator generator = generatorFor(ReportFormat.PDF, estimateAttendanceCount(filter));
+        return streamReport(filter, generator, spec, target, token, progress);
+    }
+
+    /**
+     * Export the filtered attendance in one format.
+     *
+     * @return number of rows exported
+     */
+    public long export(ReportFilter filter,
+                       ReportSpec spec,
+                       ReportFormat format,
+                       File target,
+                       CancellationToken token,
+                       LongConsumer progress) throws Exception {
+        switch (format) {
+            case CSV:
+                return exportCsv(filter, spec, target, token, progress);
+            case XLSX:
+                return exportXlsx(filter, spec, target, token, progress);
+            default:
+                return exportPdf(filter, spec, target, token, progress);
+        }
+    }
+
+    /**
+     * Export the filtered attendance in several formats from a single query
+     * and bundle the files into one zip.
+     *
+     * <p>
+     * Rows are read once from a database cursor and copied to one writer
+     * per format through a {@link TeeReportWriter}, so the formats are
+     * written concurrently and the slowest one sets the pace. Each format is
+     * written to a temp file, then the files are zipped as
+     * {@code attendance-report.<ext>}.
+     * </p>
+     *
+     * <p>
+     * Runs on the calling thread; cancel the token (and optionally interrupt
+     * the thread) to stop it. A cancelled or failed export leaves no zip and
+     * no temp files.
+     * </p>
+     *
+     * @param formats  formats to include, at least one
+     * @param target   zip file to write
+     * @param token    checked before every row and between zip entries
+     * @param progress called with the number of rows exported so far, or null
+     * @return number of rows exported
+     */
+    public long exportBundle(ReportFilter filter,
+                             ReportSpec spec,
+                             Set<ReportFormat> formats,
+                             File target,
+                             CancellationToken token,
+                             LongConsumer progress) throws Exception {
+        if (formats.isEmpty()) {
+            throw new IllegalArgumentException("No report format selected");
+        }
+        long estimate = estimateAttendanceCount(filter);
+        Path dir = Files.createTempDirectory("report-bundle-");
+        List<File> files = new ArrayList<>();
+        boolean done = false;
+
+        try {
+            List<ReportWriter> sinks = new ArrayList<>();
+            try {
+                for (ReportFormat format : formats) {
+                    File file = dir.resolve("attendance-report." + format.getExtension()).toFile();
+                    sinks.add(generatorFor(format, estimate).open(spec, file));
+                    files.add(file);
+                }
+            } catch (Exception e) {
+                for (ReportWriter sink : sinks) {
+                    closeQuietly(sink);
+                }
+                throw e;
+            }
+
+            long rows;
+            try (ReportWriter tee = new ProgressReportWriter(
+                    new TeeReportWriter(sinks, BUNDLE_QUEUE_ROWS), token, progress)) {
+                rows = repo.streamAttendance(
+                        filter.fromDate,
+                        filter.toDate,
+                        filter.sessionDisplay,
+                        filter.courseDisplay,
+                        filter.status,
+                        filter.method,
+                        filter.confidenceExpr,
+                        tee
+                );
+            }
+
+            zip(files, target, token);
+            done = true;
+            appLogger.info("Report bundle exported: " + rows + " rows as " + formats + " to " + target);
+            return rows;
+        } finally {
+            for (File f : files) {
+                f.delete();
+            }
+            dir.toFile().delete();
+            if (!done) {
+                target.delete();
+            }
+        }
+    }
+
+    /**
+     * Pick the streaming generator for a format. Reports estimated at
+     * {@code report.pdf.parallel.min.rows} rows or more are rendered as PDF
+     * in page ranges on a worker pool and merged.
+     */
+    private StreamingReportGenerator generatorFor(ReportFormat format, long estimatedRows) {
+        switch (format) {
+            case CSV:
+                return new CsvReportGenerator();
+            case XLSX:
+                return new XlsxReportGenerator();
+            default:
+                return estimatedRows >= PARALLEL_PDF_MIN_ROWS
+                        ? new ParallelPdfReportGenerator()
+                        : new PdfReportGenerator();
+        }
+    }
+
+    /**
+     * Write the files into a zip, one entry per file, stopping between
+     * entries if the export is cancelled.
+     */
+    private void zip(List<File> files, File target, CancellationToken token) throws Exception {
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(target))) {
+            for (File f : files) {
+                token.throwIfCancelled();
+                zip.putNextEntry(new ZipEntry(f.getName()));
+                Files.copy(f.toPath(), zip);
+                zip.closeEntry();
+            }
+        }
+    }
+
+    /**
+     * Checks the cancellation token on every write, so a COPY export stops
+     * at the next chunk the driver hands over.
+     */
+    private static final class CancellableWriter extends FilterWriter {
+
+        private final CancellationToken token;
+
+        CancellableWriter(Writer out, CancellationToken token) {
+            super(out);
+            this.token = token;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            token.throwIfCancelled();
+            super.write(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            token.throwIfCancelled();
+            super.write(str, off, len);
+        }
+    }
+
+    private void closeQuietly(ReportWriter writer) {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // lower bound from the planner's row estimate, single-line rows assumed
+    public long estimatePdfPages(ReportFilter filter) {
+        long rows = estimateAttendanceCount(filter);
+        return rows < 0 ? -1 : PdfReportGenerator.estimatePages(rows);
+    }
+
+    /**
+     * Stream the filtered attendance from a database cursor straight into a
+     * report file, one row at a time.
+     *
+     * @param token    checked before every row
+     * @param progress called with the number of rows exported so far, or null
+     * @return number of rows exported
+     */
+    public long streamReport(ReportFilter filter,
+                             StreamingReportGenerator generator,
+                             ReportSpec spec,
+                             File target,
+                             CancellationToken token,
+                             LongConsumer progress) throws Exception {
+        try (ReportWriter writer = new ProgressReportWriter(generator.open(spec, target), token, progress)) {
+            return repo.streamAttendance(
+                    filter.fromDate,
+                    filter.toDate,
+                    filter.sessionDisplay,
+                    filter.courseDisplay,
+                    filter.status,
+                    filter.method,
+                    filter.confidenceExpr,
+                    writer
+            );
+        }
+    }
+
     public void generateXlsxReport(List<AttendanceReportRow> rows,
                                    ReportSpec spec,
                                    File target) throws Exception {
         new XlsxReportGenerator().generate(spec, rows, target);
     }
 
+    /* ================== per-student reports ================== */
+
+    /**
+     * Stream every enrolled student's attendance in the filter's date range
+     * and course, one student at a time (see
+     * {@link AttendanceRepository#streamStudentReports}). The session,
+     * status, method and confidence filters do not apply: a student report
+     * always shows all of the student's sessions.
+     *
+     * @param afterUserId only students with a larger id, to resume; 0 for all
+     * @return number of students streamed
+     */
+    public long streamStudentReports(ReportFilter filter, int afterUserId, StudentReport.Sink sink) throws Exception {
+        return repo.streamStudentReports(filter.fromDate, filter.toDate, filter.courseDisplay, afterUserId, sink);
+    }
+
+    /**
+     * @return number of students {@link #streamStudentReports} returns, or
+     *         -1 if unknown
+     */
+    public long countStudentReports(ReportFilter filter) {
+        return repo.countEnrolledStudents(filter.courseDisplay);
+    }
+
+    /* ================== incremental exports ================== */
+
+    /**
+     * Export the filtered attendance records inserted or changed after
+     * {@code after}, oldest change first (see
+     * {@link AttendanceRepository#streamChangedAttendance}). The file is
+     * written even if nothing changed, with the header only.
+     *
+     * @param after         high-water mark of the previous run, or null for
+     *                      everything
+     * @param settleSeconds age a change must have to be included
+     * @param token         checked before every row
+     * @return rows written and the new high-water mark
+     */
+    public ChangeExport exportChanges(ReportFilter filter,
+                                      ReportSpec spec,
+                                      ReportFormat format,
+                                      AttendanceChangeKey after,
+                                      int settleSeconds,
+                                      File target,
+                                      CancellationToken token) throws Exception {
+        // Increments are small, so the serial PDF generator is enough
+        StreamingReportGenerator generator = generatorFor(format, 0);
+        try (ProgressReportWriter writer = new ProgressReportWriter(generator.open(spec, target), token, null)) {
+            AttendanceChangeKey last = repo.streamChangedAttendance(
+                    filter.fromDate,
+                    filter.toDate,
+                    filter.sessionDisplay,
+                    filter.courseDisplay,
+                    filter.status,
+                    filter.method,
+                    filter.confidenceExpr,
+                    after,
+                    settleSeconds,
+                    writer
+            );
+            return new ChangeExport(writer.getRows(), last);
+        }
+    }
+
+    /* ================== summary report ================== */
+
+    /**
+     * Per student and course summary of the filtered attendance, aggregated
+     * in the database (see {@link AttendanceRepository#findAttendanceSummary}).
+     * The date, session and course filters apply; status, method and
+     * confidence do not, since the summary counts every status.
+     */
+    public List<AttendanceSummaryRow> getAttendanceSummary(ReportFilter filter) throws SQLException {
+        return repo.findAttendanceSummary(
+                filter.fromDate,
+                filter.toDate,
+                filter.sessionDisplay,
+                filter.courseDisplay
+        );
+    }
+
+    /**
+     * Export the summary report in one format.
+     *
+     * @param token checked once the summary is computed, before writing
+     * @return number of summary rows exported
+     */
+    public long exportSummary(ReportFilter filter,
+                              ReportFormat format,
+                              File target,
+                              CancellationToken token) throws Exception {
+        List<AttendanceSummaryRow> rows = getAttendanceSummary(filter);
+        token.throwIfCancelled();
+
+        SummaryReportGenerator generator;
+        switch (format) {
+            case CSV:
+                generator = new CsvReportGenerator();
+                break;
+            case XLSX:
+                generator = new XlsxReportGenerator();
+                break;
+            default:
+                generator = new PdfReportGenerator();
+                break;
+        }
+        generator.generateSummary(rows, target);
+        return rows.size();
+    }
+
     /* ================== email ================== */
 
     public void sendEmail(String to,
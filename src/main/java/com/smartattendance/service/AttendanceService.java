@@ -1,13 +1,17 @@
 package com.smartattendance.service;
 
-import java.util.ArrayList;
+import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import com.smartattendance.config.Config;
 import com.smartattendance.controller.AttendanceController;
 // import com.smartattendance.controller.RecognitionController;
+import com.smartattendance.model.dto.attendance.AutoMarkResult;
 import com.smartattendance.model.entity.AttendanceRecord;
+import com.smartattendance.model.entity.Session;
 import com.smartattendance.repository.AttendanceRecordRepository;
+import com.smartattendance.repository.AttendanceWriteBehindQueue;
 
 /**
  * Service layer that coordinates attendance operations between repository,
@@ -23,12 +27,14 @@ import com.smartattendance.repository.AttendanceRecordRepository;
  */
 public class AttendanceService {
 
-    private final List<AttendanceObserver> observers = new ArrayList<>(); // Listof observers that listen for attendance related events
+    private final List<AttendanceObserver> observers = new CopyOnWriteArrayList<>(); // Listof observers that listen for attendance related events
     // private final List<AttendanceRecord> attendanceRecords = new ArrayList<>();
     private final double threshold
             = Double.parseDouble(Config.get("recognition.high.threshold")); // Confidence threshold above which attendance is auto-confirmed
     private final AttendanceRecordRepository repo; // Repository for retrieve, update, save and delete AttendanceRecord
     private final AutoAttendanceMarker autoAttendanceMarker; // Responsible for auto attendance marking
+    private final AttendanceStateCache stateCache; // In-memory attendance states of the active session
+    private final AttendanceWriteBehindQueue writeQueue; // Coalescing, batched writer for auto-marking writes
 
     /**
      * Creates a new AttendanceService with AttendanceRepository and
@@ -36,9 +42,51 @@ public class AttendanceService {
      */
     public AttendanceService() {
         this.repo = new AttendanceRecordRepository();
+        this.stateCache = new AttendanceStateCache(repo);
+        this.writeQueue = new AttendanceWriteBehindQueue(repo);
+        this.writeQueue.setFlushListener(this::notifyWritesFlushed);
         this.autoAttendanceMarker = new AutoAttendanceMarker(this);
     }
 
+    /**
+     * Get the in-memory attendance state cache of the active session.
+     *
+     * @return the AttendanceStateCache used by this service
+     */
+    public AttendanceStateCache getStateCache() {
+        return stateCache;
+    }
+
+    /**
+     * Preloads the attendance states of a session that has just been opened.
+     *
+     * @param session the opened session
+     */
+    public void openSession(Session session) {
+        stateCache.load(session);
+    }
+
+    /**
+     * Flushes queued attendance writes, drops the cached attendance states
+     * of a session that has been closed and marks its remaining PENDING
+     * records as ABSENT.
+     *
+     * @param sessionId the closed session id
+     */
+    public void closeSession(int sessionId) {
+        writeQueue.flush();
+        stateCache.clear(sessionId);
+        autoAttendanceMarker.markPendingAttendanceAsAbsent(sessionId);
+    }
+
+    /**
+     * Flushes queued attendance writes and stops the background writer.
+     * Called once on application shutdown.
+     */
+    public void shutdown() {
+        writeQueue.close();
+    }
+
     /**
      * Get AutoAttendanceMarker
      *
@@ -64,7 +112,11 @@ public class AttendanceService {
      */
     public void notifyMarked(String message) {
         for (AttendanceObserver observer : observers) {
-            observer.onAttendanceMarked(message);
+            // Other observers (e.g. attendance table) read from the database, they are
+            // notified once the queued write is flushed, see notifyWritesFlushed()
+            if (observer instanceof RecognitionObserver) {
+                observer.onAttendanceMarked(message);
+            }
             
             // notify the recognitionService that the attendance of a particular student is marked
             // if (observer instanceof RecognitionObserver recognitionObserver) {
@@ -78,6 +130,19 @@ public class AttendanceService {
         }
     }
 
+    /**
+     * Notifies non-recognition observers once a batch of queued attendance
+     * writes has reached the database, so views reload once per batch.
+     */
+    private void notifyWritesFlushed() {
+        DashboardCache.getInstance().invalidate();
+        for (AttendanceObserver observer : observers) {
+            if (!(observer instanceof RecognitionObserver)) {
+                observer.onAttendanceMarked("Attendance records updated");
+            }
+        }
+    }
+
     /**
      * Notifies only RecognitionObservers that an attendance mark was skipped
      * due to still in cooldown time.
@@ -118,6 +183,13 @@ public class AttendanceService {
      */
     public synchronized void markAttendance(AttendanceRecord record) {
         try {
+            // Already marked and still in cooldown → skip without asking or touching the DB
+            if (autoAttendanceMarker.isInCooldown(record)) {
+                notifySkipped("Cooldown active for " + record.getStudent().getName()
+                        + " (Student Id: " + record.getStudent().getStudentId() + ")" + ", skipping re-mark.");
+                return;
+            }
+
             // Already marked or high confidence → mark directly
             if (record.getConfidence() >= threshold) {
                 saveAttendanceRecord(record);
@@ -167,6 +239,7 @@ public class AttendanceService {
      * @return the matching AttendanceRecord, or {@code null} if none exists
      */
     public AttendanceRecord findById(int studentId, int sessionId) {
+        writeQueue.flush();
         return repo.findById(studentId, sessionId);
     }
 
@@ -177,43 +250,89 @@ public class AttendanceService {
      * @return a list of AttendanceRecord objects for the session
      */
     public List<AttendanceRecord> findBySessionId(int session_id) {
+        writeQueue.flush();
         return repo.findBySessionId(session_id);
     }
 
     /**
-     * Saves a new attendance record to the database.
+     * Saves a new attendance record. The insert is queued and written in the
+     * next batch.
      *
      * @param record the AttendanceRecord to save
      */
     public void saveRecord(AttendanceRecord record) {
-        repo.save(record);
+        writeQueue.enqueueSave(record);
+        stateCache.put(record);
     }
 
     /**
-     * Updates an existing attendance record in the database.
+     * Updates an existing attendance record. The update is queued, coalesced
+     * with other pending writes of the same record and written in the next
+     * batch.
      *
      * @param record the AttendanceRecord containing updated values
      */
     public void updateRecord(AttendanceRecord record) {
-        repo.update(record);
+        writeQueue.enqueueUpdate(record);
+        stateCache.put(record);
+    }
+
+    /**
+     * Applies an auto-mark recognition with the single-statement upsert and
+     * records the resulting state in the cache. Unlike the queued writes, a
+     * PENDING to PRESENT/LATE transition is written immediately, so the
+     * database decides atomically whether the student was marked. Only a
+     * queued write of this record is flushed first; the rest of the queue
+     * stays batched.
+     *
+     * @param record          the recognized record (student, session, confidence, time)
+     * @param cooldownSeconds minimum seconds between two last seen updates
+     * @return the status before and after the upsert
+     * @throws SQLException if the upsert fails
+     */
+    public AutoMarkResult autoMark(AttendanceRecord record, int cooldownSeconds) throws SQLException {
+        int sessionId = record.getSession().getSessionId();
+        int studentId = record.getStudent().getStudentId();
+        writeQueue.flush(studentId, sessionId); // keep a queued write of this record ahead of the upsert
+
+        AutoMarkResult result = repo.upsertAutoMark(studentId, sessionId,
+                record.getConfidence(), record.getTimestamp(), cooldownSeconds);
+
+        if (result.getOutcome() == AutoMarkResult.Outcome.MARKED) {
+            DashboardCache.getInstance().invalidate();
+        }
+        if (result.getResultingStatus() != null) {
+            record.setStatus(result.getResultingStatus());
+            record.setLastSeen(result.getLastSeen());
+            stateCache.put(record);
+        }
+        return result;
     }
 
     /**
      * Updates only the {@code lastSeen} timestamp of an attendance record.
+     * The update is queued and coalesced like {@link #updateRecord}.
      *
      * @param record the AttendanceRecord to update
      */
     public void updateLastSeen(AttendanceRecord record) {
-        repo.updateLastSeen(record);
+        writeQueue.enqueueLastSeen(record);
+        stateCache.touch(record.getSession().getSessionId(),
+                record.getStudent().getStudentId(), record.getLastSeen());
     }
 
     /**
      * Updates the attendance status (PRESENT, ABSENT, LATE) of a record.
+     * Queued writes are flushed first so a manual change is never overwritten
+     * by an older auto-marking write.
      *
      * @param record the AttendanceRecord whose status should be updated
      */
     public void updateStatus(AttendanceRecord record) {
+        writeQueue.flush();
         repo.updateStatus(record);
+        stateCache.put(record);
+        DashboardCache.getInstance().invalidate();
     }
 
     /**
@@ -222,6 +341,7 @@ public class AttendanceService {
      * @param record the AttendanceRecord whose note should be updated
      */
     public void updateNote(AttendanceRecord record) {
+        writeQueue.flush();
         repo.updateNote(record);
     }
 
@@ -231,7 +351,10 @@ public class AttendanceService {
      * @param record the AttendanceRecord to delete
      */
     public void deleteRecord(AttendanceRecord record) {
+        writeQueue.flush();
         repo.deleteRecord(record);
+        DashboardCache.getInstance().invalidate();
+        stateCache.remove(record.getSession().getSessionId(), record.getStudent().getStudentId());
     }
 
     /**
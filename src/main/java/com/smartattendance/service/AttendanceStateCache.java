@@ -0,0 +1,168 @@
+package com.smartattendance.service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.smartattendance.model.dto.attendance.AttendanceState;
+import com.smartattendance.model.entity.AttendanceRecord;
+import com.smartattendance.model.entity.Session;
+import com.smartattendance.model.enums.AttendanceStatus;
+import com.smartattendance.repository.AttendanceRecordRepository;
+import com.smartattendance.util.AttendanceTimeUtils;
+import com.smartattendance.util.security.log.ApplicationLogger;
+
+/**
+ * In-memory attendance state for the currently active session.
+ *
+ * Keyed by student id, it holds the status and last seen time of every
+ * roster entry so that the auto marker can decide cooldowns and duplicates
+ * without a database round-trip. The cache is preloaded with one query when
+ * a session opens and kept in sync by {@link AttendanceService} on every
+ * write, so the database is only touched on real state transitions.
+ *
+ * @version 10:05 19 Oct 2026
+ */
+public class AttendanceStateCache {
+
+    private final AttendanceRecordRepository repo; // Repository used to preload the session roster
+    private final Map<Integer, AttendanceState> states = new ConcurrentHashMap<>(); // Student id -> state
+    private volatile Session session; // Session the cache currently holds, null if none
+    private final ApplicationLogger appLogger = ApplicationLogger.getInstance(); // App logger to show info message
+
+    /**
+     * Creates an empty cache backed by the given repository.
+     *
+     * @param repo repository used to preload states
+     */
+    public AttendanceStateCache(AttendanceRecordRepository repo) {
+        this.repo = repo;
+    }
+
+    /**
+     * Loads the attendance states of a session, replacing any previous session.
+     *
+     * @param session the session being opened
+     */
+    public synchronized void load(Session session) {
+        states.clear();
+        states.putAll(repo.findStatesBySessionId(session.getSessionId()));
+        this.session = session;
+        appLogger.info("AttendanceStateCache - Loaded " + states.size()
+                + " attendance states for session: " + session.getSessionId());
+    }
+
+    /**
+     * Makes sure the cache holds the given session, loading it if needed.
+     *
+     * @param session the session recognition is running for
+     */
+    public void ensureLoaded(Session session) {
+        if (!isLoadedFor(session.getSessionId())) {
+            load(session);
+        }
+    }
+
+    /**
+     * Drops the cached states if they belong to the given session.
+     *
+     * @param sessionId the session being closed
+     */
+    public synchronized void clear(int sessionId) {
+        if (isLoadedFor(sessionId)) {
+            states.clear();
+            session = null;
+        }
+    }
+
+    /**
+     * Checks whether the cache currently holds the given session.
+     *
+     * @param sessionId the session id
+     * @return true if the cache was loaded for this session
+     */
+    public boolean isLoadedFor(int sessionId) {
+        Session current = session;
+        return current != null && current.getSessionId() == sessionId;
+    }
+
+    /**
+     * Returns the cached session entity, so callers can avoid a lookup.
+     *
+     * @return the cached session, or null if none is loaded
+     */
+    public Session getSession() {
+        return session;
+    }
+
+    /**
+     * Returns the cached state of a student in the loaded session.
+     *
+     * @param studentId the student id
+     * @return the state, or null if unknown
+     */
+    public AttendanceState get(int studentId) {
+        return states.get(studentId);
+    }
+
+    /**
+     * Checks whether a student is already marked and still inside the
+     * re-mark cooldown, entirely in memory.
+     *
+     * @param sessionId       the session id
+     * @param studentId       the student id
+     * @param now             the recognition time
+     * @param cooldownSeconds the cooldown in seconds
+     * @return true if the recognition would be skipped
+     */
+    public boolean isInCooldown(int sessionId, int studentId, LocalDateTime now, int cooldownSeconds) {
+        if (!isLoadedFor(sessionId)) {
+            return false;
+        }
+        AttendanceState state = states.get(studentId);
+        return state != null
+                && (state.getStatus() == AttendanceStatus.PRESENT || state.getStatus() == AttendanceStatus.LATE)
+                && state.getLastSeen() != null
+                && !AttendanceTimeUtils.isCooldownExpired(state.getLastSeen(), now, cooldownSeconds);
+    }
+
+    /**
+     * Records the state written for an attendance record, if it belongs to
+     * the loaded session.
+     *
+     * @param record the record that was saved or updated
+     */
+    public void put(AttendanceRecord record) {
+        if (record.getStudent() == null || record.getSession() == null
+                || !isLoadedFor(record.getSession().getSessionId())) {
+            return;
+        }
+        int studentId = record.getStudent().getStudentId();
+        states.put(studentId, new AttendanceState(studentId, record.getStatus(), record.getLastSeen()));
+    }
+
+    /**
+     * Updates only the last seen time of a cached student.
+     *
+     * @param sessionId the session id
+     * @param studentId the student id
+     * @param lastSeen  the new last seen time
+     */
+    public void touch(int sessionId, int studentId, LocalDateTime lastSeen) {
+        if (isLoadedFor(sessionId)) {
+            states.computeIfPresent(studentId, (id, state) -> state.withLastSeen(lastSeen));
+        }
+    }
+
+    /**
+     * Forgets a student's state, e.g. after the record was deleted.
+     *
+     * @param sessionId the session id
+     * @param studentId the student id
+     */
+    public void remove(int sessionId, int studentId) {
+        if (isLoadedFor(sessionId)) {
+            states.remove(studentId);
+        }
+    }
+}
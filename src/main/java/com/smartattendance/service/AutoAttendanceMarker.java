@@ -2,16 +2,18 @@ package com.smartattendance.service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 import com.smartattendance.config.Config;
 import com.smartattendance.controller.AttendanceController;
+import com.smartattendance.model.dto.attendance.AttendanceState;
+import com.smartattendance.model.dto.attendance.AutoMarkResult;
 import com.smartattendance.model.entity.AttendanceRecord;
 import com.smartattendance.model.entity.Session;
 import com.smartattendance.model.entity.Student;
 import com.smartattendance.model.enums.AttendanceStatus;
 import com.smartattendance.model.enums.MarkMethod;
 import com.smartattendance.repository.AttendanceRecordRepository;
-import com.smartattendance.repository.SessionRepository;
 import com.smartattendance.util.AttendanceTimeUtils;
 import com.smartattendance.util.security.log.ApplicationLogger;
 import com.smartattendance.util.security.log.BaseLogger;
@@ -45,13 +47,34 @@ public class AutoAttendanceMarker implements AttendanceMarker {
         this.attendanceService = service; // need this so service won't be fetch until ApplicationContext is fully initialized
     }
 
+    /**
+     * Checks, in memory only, whether the student of this record is already
+     * marked and still inside the re-mark cooldown for the record's session.
+     *
+     * @param record the recognized attendance record
+     * @return true if marking would be skipped because of the cooldown
+     */
+    public boolean isInCooldown(AttendanceRecord record) {
+        return attendanceService.getStateCache().isInCooldown(
+                record.getSession().getSessionId(),
+                record.getStudent().getStudentId(),
+                record.getTimestamp(),
+                cooldownSeconds);
+    }
+
     /**
      * Marks the attendance for a single student record.
      *
-     * If the student is in PENDING status, marks them as PRESENT or LATE
-     * depending on lateness. If already PRESENT or LATE, updates their lastSeen
-     * timestamp respecting the cooldown period. Otherwise, the marking is
-     * skipped.
+     * If the student is in PENDING status (or has no record yet), marks them
+     * as PRESENT or LATE depending on lateness. If already PRESENT or LATE,
+     * updates their lastSeen timestamp respecting the cooldown period.
+     * Otherwise, the marking is skipped.
+     *
+     * The current status and last seen time come from the session's
+     * {@link AttendanceStateCache}, so repeated sightings of a marked student
+     * only queue a last seen update. Students not yet marked go through the
+     * single-statement upsert, which decides PRESENT/LATE and the cooldown in
+     * the database and returns the resulting status.
      *
      * @param record the attendance record to mark
      * @throws Exception if attendance marking fails
@@ -67,56 +90,52 @@ public class AutoAttendanceMarker implements AttendanceMarker {
             Student student = record.getStudent();
             Session session = record.getSession();
             LocalDateTime now = record.getTimestamp();
-            AttendanceRecord existingRecord
-                    = attendanceService.findById(student.getStudentId(), session.getSessionId());
-
-            if (existingRecord == null) {
-                AttendanceRecord newRecord = new AttendanceRecord(student, session, AttendanceStatus.PENDING, 
-                        record.getConfidence(), MarkMethod.NONE, record.getTimestamp());
-                newRecord.setNote("New record created while record not found during face detection.");
-                attendanceService.saveRecord(newRecord); // create and save new record if record not found
-                existingRecord = newRecord;
-            }
+            AttendanceStateCache stateCache = attendanceService.getStateCache();
+
+            stateCache.ensureLoaded(session); // preload the roster once per session
+            AttendanceState existingState = stateCache.get(student.getStudentId());
 
             String lastSeenMessage = "Updated last seen for " + student.getName()
                     + " (StudentId: " + student.getStudentId() + ")";
             String coolDownMessage = "Cooldown active for " + student.getName()
                     + " (Student Id: " + student.getStudentId() + ")" + ", skipping re-mark.";
-            String skippingMessage = "Skipping " + student.getName()
-                    + " (Student Id: " + student.getStudentId() + ")"
-                    + ": already marked as " + existingRecord.getStatus();
-
-            // if the student is not marked as present before (still in default PENDING status), update the student attendance
-            if (existingRecord.getStatus() == AttendanceStatus.PENDING) {
-                // if the student is late, set attendance status to LATE before update
-                long minutesLate = AttendanceTimeUtils.minutesBetween(session.getStartTime(), now);
-                AttendanceStatus status = (minutesLate > session.getLateThresholdMinutes())
-                        ? AttendanceStatus.LATE
-                        : AttendanceStatus.PRESENT;
-                String message = "Marked " + student.getName() + " (Student Id: "
-                        + student.getStudentId() + ")" + " as " + status;
-
-                record.setStatus(status);
-                record.setTimestamp(now);
-                record.setMethod(MarkMethod.AUTO);
-                record.setNote("Auto-marked via face recognition");
-
-                attendanceService.updateRecord(record);
-                attendanceService.notifyMarked(message);
-
-                // If student already marked then update last seen
-            } else if (existingRecord.getStatus() == AttendanceStatus.PRESENT || existingRecord.getStatus() == AttendanceStatus.LATE) {
-                long secondsSinceLastSeen = AttendanceTimeUtils.secondsBetween(existingRecord.getLastSeen(), now);
-
-                if (secondsSinceLastSeen >= cooldownSeconds) {
-                    existingRecord.setLastSeen(now);
+
+            // If student already marked then update last seen, batched through the write queue
+            if (existingState != null
+                    && (existingState.getStatus() == AttendanceStatus.PRESENT
+                    || existingState.getStatus() == AttendanceStatus.LATE)) {
+                LocalDateTime lastSeen = existingState.getLastSeen();
+
+                if (lastSeen == null || AttendanceTimeUtils.isCooldownExpired(lastSeen, now, cooldownSeconds)) {
+                    record.setLastSeen(now);
                     attendanceService.updateLastSeen(record);
                     attendanceService.notifyMarked(lastSeenMessage);
                 } else {
                     attendanceService.notifySkipped(coolDownMessage);
                 }
-            } else {
-                attendanceService.notifySkipped(skippingMessage);
+                return;
+            }
+
+            // Neither PENDING nor unknown (e.g. ABSENT), nothing to do
+            if (existingState != null && existingState.getStatus() != AttendanceStatus.PENDING) {
+                attendanceService.notifySkipped(skippingMessage(student, existingState.getStatus()));
+                return;
+            }
+
+            // PENDING or no record yet → let the database apply the transition
+            AutoMarkResult result = attendanceService.autoMark(record, cooldownSeconds);
+
+            switch (result.getOutcome()) {
+                case MARKED -> {
+                    record.setMethod(MarkMethod.AUTO);
+                    record.setNote("Auto-marked via face recognition");
+                    attendanceService.notifyMarked("Marked " + student.getName() + " (Student Id: "
+                            + student.getStudentId() + ")" + " as " + result.getResultingStatus());
+                }
+                case LAST_SEEN_UPDATED -> attendanceService.notifyMarked(lastSeenMessage);
+                case SKIPPED_COOLDOWN -> attendanceService.notifySkipped(coolDownMessage);
+                case SKIPPED_STATUS -> attendanceService.notifySkipped(
+                        skippingMessage(student, result.getPreviousStatus()));
             }
         } catch (Exception e) {
             throw new Exception("Failed to mark attendance: ", e);
@@ -125,78 +144,74 @@ public class AutoAttendanceMarker implements AttendanceMarker {
     }
 
     /**
-     * Marks all pending attendance records as ABSENT for sessions that are
-     * closed.
-     *
-     * @param sessionRepository repository to fetch all sessions
+     * Builds the message shown when a recognized student is not re-marked.
      */
-    public void markPendingAttendanceAsAbsent(SessionRepository sessionRepository) {
-        // AttendanceRecordRepository attendanceRecordRepo = new AttendanceRecordRepository();
-        List<Session> allSessions = sessionRepository.findAll(); // Extract all existing sessions
-        LocalDateTime now = LocalDateTime.now();
-        boolean updatedAny = false; // Flag for whether any record is updated
-
-        for (Session session : allSessions) {
-            if (isSessionClosed(session)) {
-                boolean updated = updatePendingRecords(session, now);
-                if (updated) {
-                    updatedAny = true; // Set updatedAny as true when there's record being updated
-                }
-            }
-        }
-
-        // Refresh UI only if at least one session had pending records updated
-        if (updatedAny) {
-            refreshAttendanceUI();
-        }
+    private static String skippingMessage(Student student, AttendanceStatus status) {
+        return "Skipping " + student.getName()
+                + " (Student Id: " + student.getStudentId() + ")"
+                + ": already marked as " + status;
     }
 
     /**
-     * Checks if a session is closed.
+     * Marks the pending attendance records of a session that has just been
+     * closed as ABSENT, with a single UPDATE.
      *
-     * @param session the session to check
-     * @return true if session is closed, false otherwise
+     * @param sessionId the closed session
+     * @return number of records marked ABSENT
      */
-    private static boolean isSessionClosed(Session session) {
-        return "Closed".equalsIgnoreCase(session.getStatus());
+    public int markPendingAttendanceAsAbsent(int sessionId) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Integer> absentees = attendanceRecordRepo.markPendingAsAbsent(sessionId, now);
+
+        if (!absentees.isEmpty()) {
+            appLogger.info("AutoAttendanceMarker - Marked " + absentees.size() + " PENDING records in session: "
+                    + sessionId + " as ABSENT after session closed.");
+            refreshAttendanceUI(Map.of(sessionId, absentees), now);
+        }
+        return absentees.size();
     }
 
     /**
-     * Updates all pending attendance records for a given session to ABSENT.
+     * Marks all pending attendance records as ABSENT for sessions closed at
+     * or after the given watermark, with a single UPDATE.
      *
-     * @param session the session whose pending records will be updated
-     * @param timestamp the timestamp to set for marking
+     * @param closedSince only sweep sessions closed at or after this time, or
+     *                    null to sweep every closed session
+     * @return number of records marked ABSENT, or -1 if the sweep failed
      */
-    private boolean updatePendingRecords(Session session, LocalDateTime timestamp) {
-        List<AttendanceRecord> pendingRecords = attendanceRecordRepo
-                .findPendingAttendanceBySessionId(
-                        session.getSessionId(),
-                        AttendanceStatus.PENDING);
-
-        if (pendingRecords != null && !pendingRecords.isEmpty()) {
-            appLogger.info("AutoAttendanceMarker - Update records in session: "
-                    + session.getSessionId() + " with PENDING status to ABSENT after session closed.");
-
-            for (AttendanceRecord record : pendingRecords) {
-                record.setStatus(AttendanceStatus.ABSENT);
-                record.setMethod(MarkMethod.AUTO);
-                record.setTimestamp(timestamp);
-                record.setNote("Auto-marked as Absent after session closed");
-
-                attendanceRecordRepo.update(record);
-                appLogger.info("AutoAttendanceMarker - Updated attendance to ABSENT for student: "
-                        + record.getStudent().getName());
-            }
+    public int markPendingAttendanceAsAbsent(LocalDateTime closedSince) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Integer, List<Integer>> absentees
+                = attendanceRecordRepo.markPendingAsAbsentForClosedSessions(closedSince, now);
+        if (absentees == null) {
+            return -1;
+        }
+
+        int updated = 0;
+        for (Map.Entry<Integer, List<Integer>> entry : absentees.entrySet()) {
+            appLogger.info("AutoAttendanceMarker - Marked " + entry.getValue().size() + " PENDING records in session: "
+                    + entry.getKey() + " as ABSENT after session closed.");
+            updated += entry.getValue().size();
         }
 
-        return pendingRecords != null && !pendingRecords.isEmpty();
+        // Refresh UI only if at least one session had pending records updated
+        if (updated > 0) {
+            refreshAttendanceUI(absentees, now);
+        }
+        return updated;
     }
 
     /**
-     * Refreshes the AttendanceController UI after updating attendance records.
+     * Applies the students just marked ABSENT to the AttendanceController
+     * table once, without reloading it from the database.
      * Only refresh the UI if the cells are not being edited.
+     *
+     * @param absentees session id to ids of the students marked ABSENT
+     * @param markedAt  the time the records were marked
      */
-    private void refreshAttendanceUI() {
+    private void refreshAttendanceUI(Map<Integer, List<Integer>> absentees, LocalDateTime markedAt) {
+        DashboardCache.getInstance().invalidate();
+
         AttendanceController attendanceController = (AttendanceController) ControllerRegistry
                 .getInstance()
                 .getController("attendance");
@@ -207,7 +222,7 @@ public class AutoAttendanceMarker implements AttendanceMarker {
                 boolean hasUnsaved = attendanceController.getHasUnsavedChanges();
 
                 if (!isEditing && !hasUnsaved) {
-                    attendanceController.loadAttendanceRecords();
+                    attendanceController.applyAbsentees(absentees, markedAt);
                 }
             });
         }
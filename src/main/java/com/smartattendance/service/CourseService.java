@@ -2,6 +2,8 @@ package com.smartattendance.service;
 
 import java.util.List;
 
+import com.smartattendance.model.dto.page.KeysetPage;
+import com.smartattendance.model.dto.page.StudentKey;
 import com.smartattendance.model.dto.student.StudentDTO;
 import com.smartattendance.model.entity.Course;
 import com.smartattendance.repository.CourseRepository;
@@ -72,6 +74,18 @@ public class CourseService {
         return courseRepo.findAllStudents();
     }
 
+    /**
+     * Get one page of students across all courses, for tables that load
+     * more rows as they scroll
+     *
+     * @param after    Key of the last row already loaded, or null for the first page
+     * @param pageSize Maximum number of rows in the page
+     * @return Page of StudentDTO and the key to continue after
+     */
+    public KeysetPage<StudentDTO, StudentKey> getStudentsPage(StudentKey after, int pageSize) {
+        return courseRepo.findStudentsPage(after, pageSize);
+    }
+
     /**
      * Get all courses enrolled by a specific student
      *
@@ -0,0 +1,105 @@
+package com.smartattendance.service;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.smartattendance.config.Config;
+import com.smartattendance.model.dto.dashboard.DashboardFilter;
+
+/**
+ * In-memory cache for dashboard query results (top cards, chart aggregates).
+ *
+ * Entries are keyed by a kind and the filter values, and stamped with a data
+ * version. Services that write attendance or sessions call
+ * {@link #invalidate()}, which bumps the version so every older entry is
+ * treated as stale, so re-opening the dashboard or toggling back to a
+ * previous filter is served from memory while nothing has changed. A TTL
+ * ({@code dashboard.cache.ttl.seconds}) bounds staleness for writes made
+ * outside this process.
+ *
+ * @version 16:30 19 Oct 2026
+ */
+public final class DashboardCache {
+
+    /**
+     * Loads a value from the database on a cache miss.
+     *
+     * @param <T> type of the loaded value
+     */
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load() throws SQLException;
+    }
+
+    /** A cached value and the data version it was loaded at. */
+    private record Entry(Object value, long version, long loadedAtMillis) {
+    }
+
+    private static final int DEFAULT_TTL_SECONDS = 30;
+
+    private static final DashboardCache INSTANCE = new DashboardCache();
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private final long ttlMillis;
+
+    private DashboardCache() {
+        this.ttlMillis = Math.max(0, Config.getInt("dashboard.cache.ttl.seconds", DEFAULT_TTL_SECONDS)) * 1000L;
+    }
+
+    /**
+     * @return the shared dashboard cache
+     */
+    public static DashboardCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the cached value for the kind and filter, loading and caching
+     * it if it is missing, stale or expired. A value loaded while an
+     * invalidation happened is returned but not cached.
+     *
+     * @param kind   name of the cached query, e.g. "topCards"
+     * @param filter the filter the query runs with
+     * @param loader loads the value on a miss
+     * @param <T>    type of the value
+     * @return the cached or freshly loaded value
+     * @throws SQLException if the loader fails
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getOrLoad(String kind, DashboardFilter filter, Loader<T> loader) throws SQLException {
+        String key = kind + "|" + keyOf(filter);
+        long current = version.get();
+        long now = System.currentTimeMillis();
+
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version() == current && now - entry.loadedAtMillis() < ttlMillis) {
+            return (T) entry.value();
+        }
+
+        T value = loader.load();
+        if (version.get() == current) {
+            entries.put(key, new Entry(value, current, now));
+        }
+        return value;
+    }
+
+    /**
+     * Marks every cached value as stale. Call after attendance or session
+     * data changed.
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+        entries.clear();
+    }
+
+    /**
+     * Builds a cache key from every filter field that affects query results.
+     */
+    private static String keyOf(DashboardFilter f) {
+        return f.from + "|" + f.to + "|" + f.courseId + "|" + f.sessionId + "|" + f.studentId + "|"
+                + f.includePresent + f.includeLate + f.includeAbsent + f.includePending;
+    }
+}
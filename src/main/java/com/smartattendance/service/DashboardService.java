@@ -4,8 +4,11 @@ import java.sql.SQLException;
 import java.util.List;
 
 import com.smartattendance.model.dto.dashboard.AttendanceRecord;
+import com.smartattendance.model.dto.dashboard.DashboardAggregates;
 import com.smartattendance.model.dto.dashboard.DashboardFilter;
 import com.smartattendance.model.dto.dashboard.DashboardTopCards;
+import com.smartattendance.model.dto.page.AttendanceKey;
+import com.smartattendance.model.dto.page.KeysetPage;
 import com.smartattendance.repository.DashboardRepository;
 
 /**
@@ -30,6 +33,11 @@ public class DashboardService {
      */
     private final DashboardRepository repository;
 
+    /**
+     * Shared cache for top cards and chart aggregates.
+     */
+    private final DashboardCache cache = DashboardCache.getInstance();
+
     /**
      * Construct a {@code DashboardService} with the given repository.
      *
@@ -52,16 +60,74 @@ public class DashboardService {
         return repository.findAttendance(filter);
     }
 
+    /**
+     * Load the pre-aggregated chart data and the most recent records for
+     * the dashboard. Every chart is computed by a GROUP BY query, so the
+     * amount of data loaded does not grow with the number of records.
+     * Results are served from {@link DashboardCache} while nothing changed.
+     *
+     * @param filter      filter specifying date range, course and session
+     * @param recentLimit size of the first page of recent records for the activity table
+     * @return {@link DashboardAggregates} for the charts and activity table
+     * @throws SQLException if an error occurs while querying the database
+     */
+    public DashboardAggregates loadAggregates(DashboardFilter filter, int recentLimit) throws SQLException {
+        return cache.getOrLoad("aggregates:" + recentLimit, filter, () -> queryAggregates(filter, recentLimit));
+    }
+
+    /**
+     * Runs the aggregate queries behind {@link #loadAggregates}.
+     */
+    private DashboardAggregates queryAggregates(DashboardFilter filter, int recentLimit) throws SQLException {
+        DashboardAggregates out = new DashboardAggregates();
+        out.perDay       = repository.countByDay(filter);
+        out.arrivalBins  = repository.countArrivalBins(filter);
+        out.statusCounts = repository.countByStatus(filter);
+        out.perCourse    = repository.countByCourseAndStatus(filter);
+        out.recent       = repository.findAttendancePage(filter, null, recentLimit);
+        return out;
+    }
+
+    /**
+     * Load the next page of attendance records for the recent activity
+     * table, continuing after the last record already shown.
+     *
+     * @param filter   filter specifying date range, course and session
+     * @param after    key of the last record already shown
+     * @param pageSize maximum number of records to load
+     * @return the page and the key to continue after
+     * @throws SQLException if an error occurs while querying the database
+     */
+    public KeysetPage<AttendanceRecord, AttendanceKey> loadAttendancePage(DashboardFilter filter,
+                                                                          AttendanceKey after,
+                                                                          int pageSize) throws SQLException {
+        return repository.findAttendancePage(filter, after, pageSize);
+    }
+
+    /**
+     * Estimate how many attendance records match the filter, for the
+     * "about N records" hint under the activity table. Cheap, as it only
+     * asks the query planner.
+     *
+     * @param filter filter specifying date range, course and session
+     * @return approximate record count, or -1 if unknown
+     * @throws SQLException if an error occurs while querying the database
+     */
+    public long estimateAttendanceCount(DashboardFilter filter) throws SQLException {
+        return repository.estimateAttendanceCount(filter);
+    }
+
     /**
      * Compute the values for the dashboard top cards (students, sessions, present)
-     * based on the current filter.
+     * based on the current filter. Served from {@link DashboardCache} while no
+     * attendance or session data changed.
      *
      * @param filter dashboard filter to restrict which records are counted
      * @return {@link DashboardTopCards} containing the KPI values
      * @throws SQLException if an error occurs while querying the database
      */
     public DashboardTopCards computeTopCards(DashboardFilter filter) throws SQLException {
-        return repository.computeTopCards(filter);
+        return cache.getOrLoad("topCards", filter, () -> repository.computeTopCards(filter));
     }
 
     /**
@@ -97,4 +163,12 @@ public class DashboardService {
     public String latestSessionLabel(Integer courseId) throws SQLException {
         return repository.findLatestSessionLabel(courseId);
     }
+
+    /**
+     * Cancel the dashboard queries that are running right now, when a newer
+     * load replaces the one that started them.
+     */
+    public void cancelRunning() {
+        repository.cancelRunning();
+    }
 }
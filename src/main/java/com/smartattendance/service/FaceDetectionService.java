@@ -25,6 +25,11 @@ import org.opencv.core.Mat;
 public class FaceDetectionService {
     private final CascadeClassifier faceDetector;
 
+    // Motion gate for the live recognition loop
+    private final MotionGate motionGate = new MotionGate();
+    private Rect[] lastDetectedFaces = new Rect[0];
+    private boolean lastFrameDetected = false;
+
     // Default detection parameters
     private static final double DEFAULT_SCALE_FACTOR = 1.1;
     private static final int DEFAULT_MIN_NEIGHBORS = 5;
@@ -104,6 +109,70 @@ public class FaceDetectionService {
         return detectFaces(gray, DEFAULT_SCALE_FACTOR, DEFAULT_MIN_NEIGHBORS);
     }
 
+    /**
+     * Detect faces only when the scene changed since the last detection.
+     * Static frames reuse the previous rectangles instead of running the
+     * cascade again. Use {@link #wasLastFrameDetected()} to know whether the
+     * returned rectangles are fresh.
+     * 
+     * @param frame The camera frame to process
+     * @return MatOfRect containing the fresh or reused face rectangles
+     */
+    public synchronized MatOfRect detectFacesGated(Mat frame) {
+        if (frame == null || frame.empty()) {
+            lastFrameDetected = false;
+            return new MatOfRect();
+        }
+
+        if (motionGate.shouldDetect(frame)) {
+            MatOfRect faces = detectFaces(frame);
+            lastDetectedFaces = faces.toArray();
+            lastFrameDetected = true;
+            return faces;
+        }
+
+        lastFrameDetected = false;
+        return new MatOfRect(lastDetectedFaces);
+    }
+
+    /**
+     * Whether the last {@link #detectFacesGated(Mat)} call ran the detector
+     * 
+     * @return true if the rectangles were freshly detected, false if reused
+     */
+    public synchronized boolean wasLastFrameDetected() {
+        return lastFrameDetected;
+    }
+
+    /**
+     * Number of frames the motion gate skipped since the last reset
+     * 
+     * @return skipped frame count
+     */
+    public synchronized long getSkippedFrameCount() {
+        return motionGate.getSkippedFrames();
+    }
+
+    /**
+     * Number of frames that went through full detection since the last reset
+     * 
+     * @return detected frame count
+     */
+    public synchronized long getDetectedFrameCount() {
+        return motionGate.getPassedFrames();
+    }
+
+    /**
+     * Clear the motion gate reference frame, cached rectangles and counters.
+     * Call when the camera is (re)started so stale faces are never reused.
+     */
+    public synchronized void resetMotionGate() {
+        motionGate.reset();
+        motionGate.resetStats();
+        lastDetectedFaces = new Rect[0];
+        lastFrameDetected = false;
+    }
+
     /**
      * Draw rectangles with color coding based on face count.
      * The red color shows error if no face, green if valid
@@ -10,9 +10,11 @@ import com.smartattendance.ApplicationContext;
 import com.smartattendance.config.Config;
 import com.smartattendance.model.entity.Student;
 import com.smartattendance.repository.StudentRepository;
+import com.smartattendance.service.recognition.FaceQualityChecker;
 import com.smartattendance.service.recognition.HistogramRecognizer;
 import com.smartattendance.service.recognition.OpenFaceRecognizer;
 import com.smartattendance.service.recognition.RecognitionResult;
+import com.smartattendance.service.recognition.RecognitionStats;
 import com.smartattendance.service.recognition.Recognizer;
 import com.smartattendance.util.security.log.ApplicationLogger;
 
@@ -32,6 +34,8 @@ public class FaceRecognitionService {
   private final StudentRepository studentRepository;
   private Recognizer recognizer;
   private List<Student> enrolledStudents;
+  private final FaceQualityChecker qualityChecker;
+  private final RecognitionStats stats = new RecognitionStats();
 
   // Logger
   private final ApplicationLogger appLogger = ApplicationLogger.getInstance();
@@ -48,6 +52,7 @@ public class FaceRecognitionService {
     this.faceProcessingService = new FaceProcessingService(faceDetectionService);
     this.studentRepository = new StudentRepository();
     this.enrolledStudents = new ArrayList<>();
+    this.qualityChecker = new FaceQualityChecker();
 
     appLogger.info("FaceRecognitionService initialized with HistogramRecognizer");
   }
@@ -56,15 +61,25 @@ public class FaceRecognitionService {
   /**
    * Recognize multiple faces from a list of face ROIs
    * Processes each face ROI and returns recognition results
+   * Crops failing the quality gate are not sent to the recognizer and get an
+   * empty (non-match) result so they are retried on a later frame
    * 
    * @param faceROIs List of face regions of interest to recognize
-   * @return List of recognition results for each face
+   * @return List of recognition results for each face, in the same order
    */
   public List<RecognitionResult> recognizeFaces(List<Mat> faceROIs) {
     List<RecognitionResult> results = new ArrayList<>();
 
     for (Mat faceROI : faceROIs) {
+      FaceQualityChecker.Verdict verdict = qualityChecker.check(faceROI);
+      if (verdict != FaceQualityChecker.Verdict.ACCEPTED) {
+        stats.recordRejected(verdict);
+        results.add(new RecognitionResult());
+        continue;
+      }
+
       RecognitionResult result = recognizeFace(faceROI);
+      stats.recordRecognized();
       results.add(result);
     }
 
@@ -201,6 +216,16 @@ public class FaceRecognitionService {
     Config.set("recognition.algorithm", algorithmName);
   }
 
+  // ----- Stats -----
+  /**
+   * Get the live recognition counters (recognized and quality rejections)
+   * 
+   * @return RecognitionStats shared with the recognition loop
+   */
+  public RecognitionStats getStats() {
+    return stats;
+  }
+
   // ----- Debugging Methods -----
   /**
    * Get the name of the currently active recognition algorithm
@@ -0,0 +1,173 @@
+package com.smartattendance.service;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+import com.smartattendance.config.Config;
+
+/**
+ * Cheap change detector placed in front of face detection
+ * Compares a small blurred grayscale copy of each frame with the previous one
+ * and only lets the frame through when enough pixels changed, or when the
+ * periodic refresh interval has elapsed
+ *
+ * Not thread safe, each camera loop should own its own gate
+ */
+public class MotionGate {
+    // Default gate parameters
+    private static final int DEFAULT_SAMPLE_WIDTH = 160;
+    private static final int DEFAULT_PIXEL_DELTA = 25;
+    private static final double DEFAULT_MOTION_THRESHOLD = 0.01; // 1% of pixels changed
+    private static final int DEFAULT_REFRESH_FRAMES = 15; // ~0.5s at 30 FPS
+
+    private final int sampleWidth;
+    private final int pixelDelta;
+    private final double motionThreshold;
+    private final int refreshFrames;
+
+    private Mat previousSample;
+    private int framesSinceDetection = 0;
+    private long skippedFrames = 0;
+    private long passedFrames = 0;
+    private double lastMotionRatio = 0.0;
+
+    /**
+     * Default constructor, reads the gate parameters from config
+     * Falls back to the defaults for missing or invalid values
+     */
+    public MotionGate() {
+        this(DEFAULT_SAMPLE_WIDTH,
+                Config.getInt("motion.pixel.delta", DEFAULT_PIXEL_DELTA),
+                Config.getDouble("motion.threshold", DEFAULT_MOTION_THRESHOLD),
+                Config.getInt("motion.refresh.frames", DEFAULT_REFRESH_FRAMES));
+    }
+
+    /**
+     * Custom constructor
+     *
+     * @param sampleWidth     Width the frame is downscaled to before comparing
+     * @param pixelDelta      Minimum gray level difference for a pixel to count
+     *                        as changed (0-255)
+     * @param motionThreshold Fraction of changed pixels (0-1) needed to run
+     *                        detection
+     * @param refreshFrames   Force detection after this many skipped frames
+     */
+    public MotionGate(int sampleWidth, int pixelDelta, double motionThreshold, int refreshFrames) {
+        this.sampleWidth = Math.max(16, sampleWidth);
+        this.pixelDelta = Math.max(0, Math.min(255, pixelDelta));
+        this.motionThreshold = Math.max(0.0, Math.min(1.0, motionThreshold));
+        this.refreshFrames = Math.max(1, refreshFrames);
+    }
+
+    /**
+     * Decide whether the full detection should run on this frame
+     * Always returns true for the first frame and after a reset
+     *
+     * @param frame The current camera frame (BGR or grayscale)
+     * @return true if detection should run, false if previous detections can be
+     *         reused
+     */
+    public boolean shouldDetect(Mat frame) {
+        if (frame == null || frame.empty()) {
+            return false;
+        }
+
+        Mat sample = toSample(frame);
+
+        // First frame or resolution change -> nothing to compare with
+        if (previousSample == null || !previousSample.size().equals(sample.size())) {
+            replacePrevious(sample);
+            return pass();
+        }
+
+        Mat diff = new Mat();
+        Core.absdiff(sample, previousSample, diff);
+        Imgproc.threshold(diff, diff, pixelDelta, 255, Imgproc.THRESH_BINARY);
+        lastMotionRatio = (double) Core.countNonZero(diff) / diff.total();
+        diff.release();
+
+        if (lastMotionRatio >= motionThreshold || framesSinceDetection + 1 >= refreshFrames) {
+            replacePrevious(sample);
+            return pass();
+        }
+
+        // Keep comparing against the last detected frame so slow drifts still add up
+        sample.release();
+        framesSinceDetection++;
+        skippedFrames++;
+        return false;
+    }
+
+    /**
+     * Forget the reference frame so the next frame always runs detection
+     */
+    public void reset() {
+        if (previousSample != null) {
+            previousSample.release();
+            previousSample = null;
+        }
+        framesSinceDetection = 0;
+    }
+
+    /**
+     * Reset the skipped/passed counters
+     */
+    public void resetStats() {
+        skippedFrames = 0;
+        passedFrames = 0;
+    }
+
+    // ----- Getters -----
+    public long getSkippedFrames() {
+        return skippedFrames;
+    }
+
+    public long getPassedFrames() {
+        return passedFrames;
+    }
+
+    public double getLastMotionRatio() {
+        return lastMotionRatio;
+    }
+
+    // ----- Helpers -----
+    /**
+     * Downscale, grayscale and blur the frame so sensor noise does not count as
+     * motion
+     */
+    private Mat toSample(Mat frame) {
+        Mat gray = new Mat();
+        if (frame.channels() == 3) {
+            Imgproc.cvtColor(frame, gray, Imgproc.COLOR_BGR2GRAY);
+        } else if (frame.channels() == 4) {
+            Imgproc.cvtColor(frame, gray, Imgproc.COLOR_BGRA2GRAY);
+        } else {
+            gray = frame.clone();
+        }
+
+        int width = Math.min(sampleWidth, gray.cols());
+        int height = Math.max(1, (int) Math.round(gray.rows() * ((double) width / gray.cols())));
+
+        Mat sample = new Mat();
+        Imgproc.resize(gray, sample, new Size(width, height), 0, 0, Imgproc.INTER_AREA);
+        Imgproc.GaussianBlur(sample, sample, new Size(5, 5), 0);
+        gray.release();
+
+        return sample;
+    }
+
+    private void replacePrevious(Mat sample) {
+        if (previousSample != null) {
+            previousSample.release();
+        }
+        previousSample = sample;
+    }
+
+    private boolean pass() {
+        framesSinceDetection = 0;
+        passedFrames++;
+        return true;
+    }
+}
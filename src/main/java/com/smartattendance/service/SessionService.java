@@ -6,19 +6,15 @@ import java.time.LocalTime;
 import java.util.List;
 
 import com.smartattendance.ApplicationContext;
-import com.smartattendance.model.entity.AttendanceRecord;
 import com.smartattendance.model.entity.Session;
-import com.smartattendance.model.entity.Student;
-import com.smartattendance.model.enums.AttendanceStatus;
-import com.smartattendance.model.enums.MarkMethod;
-import com.smartattendance.repository.AttendanceRecordRepository;
 import com.smartattendance.repository.SessionRepository;
-import com.smartattendance.repository.StudentRepository;
+import com.smartattendance.service.rules.AutoSessionContext;
 import com.smartattendance.service.rules.AutoSessionRule;
 import com.smartattendance.service.rules.ConflictPreventionRule;
 import com.smartattendance.service.rules.SessionEndedRule;
 import com.smartattendance.service.rules.StatusValidationRule;
 import com.smartattendance.service.rules.TimeRule;
+import com.smartattendance.util.AutoSessionScheduler;
 
 /**
  * Service class for managing session business logic and operations.
@@ -67,8 +63,7 @@ public class SessionService {
         this.autoSessionRule = new SessionEndedRule(
                 new StatusValidationRule(
                         new ConflictPreventionRule(
-                                new TimeRule(),
-                                this)));
+                                new TimeRule())));
     }
 
     // ========== BASIC DATA ACCESS METHODS ==========
@@ -111,6 +106,8 @@ public class SessionService {
      */
     public void deleteSession(int id) {
         repo.deleteById(id);
+        DashboardCache.getInstance().invalidate();
+        requestAutoSessionReplan();
     }
 
     /**
@@ -121,6 +118,8 @@ public class SessionService {
      */
     public void deleteAll() {
         repo.deleteAll();
+        DashboardCache.getInstance().invalidate();
+        requestAutoSessionReplan();
     }
 
     /**
@@ -135,39 +134,10 @@ public class SessionService {
 
     // ========== SESSION CREATION METHODS ==========
 
-    /**
-     * Creates attendance records for all students enrolled in the session's course.
-     * This method is called automatically when a new session is created.
-     *
-     * @param session the session for which to create attendance records
-     * @throws IllegalArgumentException if the session is null
-     */
-    private void createAttendanceRecordsForSession(Session s) {
-        StudentRepository studentRepo = new StudentRepository();
-        AttendanceRecordRepository attendanceRepo = new AttendanceRecordRepository();
-
-        // Get all students in the course
-        List<Student> enrolledStudents = studentRepo.findByCourse(s.getCourse());
-
-        for (Student student : enrolledStudents) {
-            // F_MA: modified by felicia handling marking attendance
-            AttendanceRecord record = new AttendanceRecord(
-                    student,
-                    s,
-                    AttendanceStatus.PENDING, // Default status
-                    0.0, // Default confidence
-                    MarkMethod.NONE, // Default method
-                    LocalDateTime.now() // Default LocalDateTime
-            );
-            record.setNote("Auto-created with session"); // Default note
-
-            attendanceRepo.save(record);
-        }
-    }
-
     /**
      * Creates a new session with the specified parameters and generates attendance
-     * records.
+     * records. The roster is inserted by the repository in the same transaction
+     * as the session, see {@link SessionRepository#save(Session)}.
      *
      * @param courseId      the course identifier (will be converted to uppercase)
      * @param date          the date of the session
@@ -182,7 +152,8 @@ public class SessionService {
             LocalTime end, String loc, int lateThreshold) {
         Session session = new Session(courseId.toUpperCase(), date, start, end, loc, lateThreshold);
         repo.save(session);
-        createAttendanceRecordsForSession(session);
+        DashboardCache.getInstance().invalidate();
+        requestAutoSessionReplan();
         return session;
     }
 
@@ -222,6 +193,7 @@ public class SessionService {
      */
     public void updateAutoSettings(int sessionId, boolean autoStart, boolean autoStop) {
         repo.updateAutoSettings(sessionId, autoStart, autoStop);
+        requestAutoSessionReplan();
     }
 
     // ========== SESSION VALIDATION METHODS ==========
@@ -278,7 +250,10 @@ public class SessionService {
     public void startSession(Session s) {
         s.open();
         repo.updateStatus(s.getSessionId(), s.getStatus());
+        repo.materialiseRoster(s.getSessionId()); // large rosters are deferred until the session starts
+        DashboardCache.getInstance().invalidate();
         ApplicationContext.getAuthSession().setActiveSessionId(s.getSessionId());
+        ApplicationContext.getAttendanceService().openSession(s);
     }
 
     /**
@@ -291,12 +266,16 @@ public class SessionService {
     public void stopSession(Session s) {
         s.close();
         repo.updateStatus(s.getSessionId(), s.getStatus());
+        repo.materialiseRoster(s.getSessionId()); // sessions closed without being started still need a roster
+        ApplicationContext.getAttendanceService().closeSession(s.getSessionId());
+        DashboardCache.getInstance().invalidate();
 
         // Clear Session ID from AuthSession
         Integer activeSessionId = ApplicationContext.getAuthSession().getActiveSessionId();
         if (activeSessionId != null && activeSessionId == s.getSessionId()) {
             ApplicationContext.getAuthSession().clearActiveSessionId();
         }
+        requestAutoSessionReplan(); // a blocked auto-start may now be allowed
     }
 
     // ========== AUTO-SESSION VALIDATION METHODS ==========
@@ -365,7 +344,7 @@ public class SessionService {
      * @throws IllegalArgumentException if the session is null
      */
     public boolean canAutoStart(Session session) {
-        boolean result = autoSessionRule.canAutoStart(session);
+        boolean result = autoSessionRule.canAutoStart(session, captureAutoSessionContext());
         return result;
     }
 
@@ -378,15 +357,31 @@ public class SessionService {
      * @throws IllegalArgumentException if the session is null
      */
     public boolean canAutoStop(Session session) {
-        boolean result = autoSessionRule.canAutoStop(session);
+        boolean result = autoSessionRule.canAutoStop(session, captureAutoSessionContext());
         return result;
     }
 
     // ========== AUTO SESSION PROCESSING ==========
 
+    /**
+     * Captures the session state the auto-session rules evaluate against:
+     * open and auto-enabled sessions (one query) and a single clock instant.
+     *
+     * @return a fresh rule evaluation context
+     */
+    public AutoSessionContext captureAutoSessionContext() {
+        return new AutoSessionContext(LocalDateTime.now(), repo.findOpenOrAutoSessions());
+    }
+
     /**
      * Processes all sessions for automatic start and stop operations.
-     * This method is typically called by a scheduled background task.
+     * Kept for manual/diagnostic use; in normal operation the
+     * {@link AutoSessionScheduler} calls
+     * {@link #processAutoSession(Session, AutoSessionContext)} only for
+     * sessions whose start or end time is due.
+     * 
+     * Only sessions with auto-start or auto-stop enabled can be affected, so
+     * they are taken from a single context snapshot.
      * 
      * For each session:
      * - Auto-starts sessions with auto_start enabled that pass all rule validations
@@ -394,22 +389,71 @@ public class SessionService {
      */
     public void processAutoSessions() {
         System.out.println("SessionService: Processing auto sessions (background)");
-        List<Session> sessions = getAllSessions();
+        AutoSessionContext context = captureAutoSessionContext();
 
-        for (Session session : sessions) {
+        for (Session session : List.copyOf(context.getSessions())) {
+            processAutoSession(session, context);
+        }
+    }
 
-            // Auto start logic - ONLY for sessions with auto_start = TRUE
-            if (session.isAutoStart() && autoSessionRule.canAutoStart(session)) {
-                session.open();
-                updateSessionStatus(session);
-                ApplicationContext.getAuthSession().setActiveSessionId(session.getSessionId());
-            }
+    /**
+     * Applies automatic start and stop to a single session.
+     * 
+     * - Auto-starts the session if auto_start is enabled and all rules pass
+     * - Auto-stops the session if auto_stop is enabled and all rules pass
+     * 
+     * The context is updated in place, so several sessions processed in the
+     * same tick see each other's changes (e.g. only one auto-start opens).
+     *
+     * @param session the session to process
+     * @param context the rule evaluation context of the current tick
+     * @return true if the session was started or stopped
+     */
+    public boolean processAutoSession(Session session, AutoSessionContext context) {
+        boolean changed = false;
+
+        // Auto start logic - ONLY for sessions with auto_start = TRUE
+        if (session.isAutoStart() && autoSessionRule.canAutoStart(session, context)) {
+            session.open();
+            updateSessionStatus(session);
+            repo.materialiseRoster(session.getSessionId());
+            ApplicationContext.getAuthSession().setActiveSessionId(session.getSessionId());
+            ApplicationContext.getAttendanceService().openSession(session);
+            context.markOpened(session);
+            changed = true;
+        }
 
-            // Auto stop logic - ONLY for sessions with auto_stop = TRUE
-            if (session.isAutoStop() && autoSessionRule.canAutoStop(session)) {
-                session.close();
-                updateSessionStatus(session);
+        // Auto stop logic - ONLY for sessions with auto_stop = TRUE
+        if (session.isAutoStop() && autoSessionRule.canAutoStop(session, context)) {
+            session.close();
+            updateSessionStatus(session);
+            repo.materialiseRoster(session.getSessionId());
+            ApplicationContext.getAttendanceService().closeSession(session.getSessionId());
+            context.markClosed(session);
+
+            // Clear Session ID from AuthSession
+            Integer activeSessionId = ApplicationContext.getAuthSession().getActiveSessionId();
+            if (activeSessionId != null && activeSessionId == session.getSessionId()) {
+                ApplicationContext.getAuthSession().clearActiveSessionId();
             }
+            requestAutoSessionReplan(); // a blocked auto-start may now be allowed
+            changed = true;
+        }
+
+        if (changed) {
+            DashboardCache.getInstance().invalidate();
+        }
+        return changed;
+    }
+
+    /**
+     * Asks the application-wide auto-session scheduler to rebuild its plan.
+     * Called whenever sessions are created, edited, deleted or stopped.
+     */
+    private void requestAutoSessionReplan() {
+        AutoSessionScheduler scheduler = ApplicationContext.getAutoSessionScheduler();
+        if (scheduler != null) {
+            scheduler.replan();
         }
     }
 
@@ -11,6 +11,7 @@ import com.smartattendance.controller.student.StudentAttendanceRow;
 import com.smartattendance.controller.student.StudentCourseSummary;
 import com.smartattendance.model.dto.dashboard.AttendanceRecord;
 import com.smartattendance.model.dto.dashboard.DashboardFilter;
+import com.smartattendance.model.dto.dashboard.StatusCounts;
 import com.smartattendance.repository.DashboardRepository;
 import com.smartattendance.repository.JdbcDashboardRepository;
 import com.smartattendance.util.security.log.ApplicationLogger;
@@ -57,8 +58,8 @@ public class StudentAttendanceService {
      * <ul>
      *     <li>Creates a broad {@link DashboardFilter} from 1 Jan 2020 up to
      *         (today + 1 day) to capture all historical records</li>
-     *     <li>Delegates to {@link DashboardRepository#findAttendance(DashboardFilter)}</li>
-     *     <li>Filters by {@code studentId}</li>
+     *     <li>Delegates to {@link DashboardRepository#findAttendance(DashboardFilter)},
+     *         restricted to {@code studentId} in SQL</li>
      *     <li>Derives display fields (date, course label, status, method, markedAt string)</li>
      *     <li>Applies sensible fallbacks such as "Unknown" or "Pending" when data is missing</li>
      * </ul>
@@ -71,6 +72,7 @@ public class StudentAttendanceService {
         DashboardFilter filter = new DashboardFilter();
         filter.from = LocalDate.of(2020, 1, 1);
         filter.to   = LocalDate.now().plusDays(1);
+        filter.studentId = studentId;
 
         List<AttendanceRecord> all;
         try {
@@ -152,6 +154,32 @@ public class StudentAttendanceService {
             String selectedCourse,
             LocalDate from,
             LocalDate to) {
+        return applyFilters(null, master, selectedCourse, from, to);
+    }
+
+    /**
+     * Same as {@link #applyFilters(List, String, LocalDate, LocalDate)}, but
+     * when no date bound is set the per-course summaries are read from the
+     * {@code student_course_rollup} table for {@code studentId} instead of
+     * being recomputed from the rows. The rollup is only used when its total
+     * per course matches the rows, so the summaries are the same either way:
+     * a mark outside the window of {@link #loadRowsForStudent} or a rollup
+     * that drifted falls back to the rows.
+     *
+     * @param studentId      ID of the student the rows belong to, or {@code null}
+     *                       to always compute summaries from the rows
+     * @param master         full list of attendance rows for a student
+     * @param selectedCourse currently selected course filter or {@code "All courses"}
+     * @param from           inclusive start date filter; may be {@code null}
+     * @param to             inclusive end date filter; may be {@code null}
+     * @return {@link FilterResult} containing filtered rows and per-course summaries
+     */
+    public FilterResult applyFilters(
+            Integer studentId,
+            List<StudentAttendanceRow> master,
+            String selectedCourse,
+            LocalDate from,
+            LocalDate to) {
 
         List<StudentAttendanceRow> filtered = master.stream()
                 .filter(r -> selectedCourse == null
@@ -162,6 +190,13 @@ public class StudentAttendanceService {
                 .sorted(Comparator.comparing(StudentAttendanceRow::getDate).reversed())
                 .toList();
 
+        if (studentId != null && from == null && to == null) {
+            List<StudentCourseSummary> summaries = loadLifetimeSummaries(studentId, filtered, selectedCourse);
+            if (summaries != null) {
+                return new FilterResult(filtered, summaries);
+            }
+        }
+
         // Group rows by course
         Map<String, List<StudentAttendanceRow>> byCourse = new TreeMap<>();
         for (StudentAttendanceRow r : filtered) {
@@ -182,6 +217,48 @@ public class StudentAttendanceService {
         return new FilterResult(filtered, summaries);
     }
 
+    /**
+     * Builds per-course summaries from the student's lifetime rollup counts.
+     *
+     * @param studentId      ID of the student
+     * @param rows           the student's rows for {@code selectedCourse}
+     * @param selectedCourse course filter or {@code "All courses"}
+     * @return summaries sorted by course, or {@code null} if the rollup could
+     *         not be read or does not match the rows
+     */
+    private List<StudentCourseSummary> loadLifetimeSummaries(int studentId,
+                                                             List<StudentAttendanceRow> rows,
+                                                             String selectedCourse) {
+        Map<String, StatusCounts> totals;
+        try {
+            totals = repo.countStudentCourseTotals(studentId);
+        } catch (Exception e) {
+            appLogger.error("[StudentAttendanceService] rollup fetch failed", e);
+            return null;
+        }
+        if (selectedCourse != null && !"All courses".equals(selectedCourse)) {
+            totals.keySet().retainAll(List.of(selectedCourse));
+        }
+
+        Map<String, Integer> rowCounts = new TreeMap<>();
+        for (StudentAttendanceRow r : rows) {
+            rowCounts.merge(r.getCourse(), 1, Integer::sum);
+        }
+        Map<String, Integer> rollupCounts = new TreeMap<>();
+        totals.forEach((course, counts) -> rollupCounts.put(course, counts.total()));
+        if (!rowCounts.equals(rollupCounts)) {
+            return null;
+        }
+
+        List<StudentCourseSummary> summaries = new ArrayList<>();
+        new TreeMap<>(totals).forEach((course, counts) -> {
+            int total = counts.total();
+            double ratio = total == 0 ? Double.NaN : (counts.present * 1.0 / total);
+            summaries.add(new StudentCourseSummary(course, counts.present, total, ratio));
+        });
+        return summaries;
+    }
+
     /**
      * Result object bundling filtered rows and computed summaries for
      * the student attendance view.
@@ -0,0 +1,138 @@
+package com.smartattendance.service.mail;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link MailOutbox} kept in memory. Queued mail is lost when the process
+ * exits, so this is only meant for benchmarks and for trying the dispatcher
+ * against a local SMTP stand-in without a database.
+ *
+ * @version 20:40 19 Oct 2026
+ */
+public class InMemoryMailOutbox implements MailOutbox {
+
+    /** A queued mail and its delivery state. */
+    private static final class Entry {
+        private final long id;
+        private final MailMessage message;
+        private int attempts = 0;
+        private LocalDateTime due = LocalDateTime.now();
+
+        private Entry(long id, MailMessage message) {
+            this.id = id;
+            this.message = message;
+        }
+    }
+
+    // Insertion order, so equally due mail is claimed oldest first
+    private final Map<Long, Entry> queued = new LinkedHashMap<>();
+    private long nextId = 0;
+    private long sent = 0;
+    private long failed = 0;
+
+    @Override
+    public synchronized List<Long> enqueue(List<MailMessage> messages) {
+        List<Long> ids = new ArrayList<>(messages.size());
+        for (MailMessage m : messages) {
+            Entry e = new Entry(++nextId, m);
+            queued.put(e.id, e);
+            ids.add(e.id);
+        }
+        return ids;
+    }
+
+    @Override
+    public synchronized List<QueuedMail> claim(int max, int leaseSeconds) {
+        LocalDateTime now = LocalDateTime.now();
+        List<QueuedMail> claimed = new ArrayList<>();
+        List<Entry> due = new ArrayList<>();
+        for (Entry e : queued.values()) {
+            if (!e.due.isAfter(now)) {
+                due.add(e);
+            }
+        }
+        due.sort(Comparator.comparing(e -> e.due));
+
+        for (Entry e : due) {
+            if (claimed.size() >= max) {
+                break;
+            }
+            e.attempts++;
+            e.due = now.plusSeconds(leaseSeconds);
+            claimed.add(new QueuedMail(e.id, e.message, e.attempts));
+        }
+        return claimed;
+    }
+
+    @Override
+    public synchronized void markSent(List<Long> ids) {
+        for (Long id : ids) {
+            if (queued.remove(id) != null) {
+                sent++;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void markFailed(long id, String error, LocalDateTime retryAt) {
+        Entry e = queued.get(id);
+        if (e == null) {
+            return;
+        }
+        if (retryAt == null) {
+            queued.remove(id);
+            failed++;
+        } else {
+            e.due = retryAt;
+        }
+    }
+
+    @Override
+    public synchronized void release(List<Long> ids, String reason) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Long id : ids) {
+            Entry e = queued.get(id);
+            if (e != null) {
+                e.attempts = Math.max(0, e.attempts - 1);
+                e.due = now;
+            }
+        }
+    }
+
+    @Override
+    public synchronized LocalDateTime nextDue() {
+        LocalDateTime next = null;
+        for (Entry e : queued.values()) {
+            if (next == null || e.due.isBefore(next)) {
+                next = e.due;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * @return number of mails marked sent
+     */
+    public synchronized long getSentCount() {
+        return sent;
+    }
+
+    /**
+     * @return number of mails given up on
+     */
+    public synchronized long getFailedCount() {
+        return failed;
+    }
+
+    /**
+     * @return number of mails still queued or being sent
+     */
+    public synchronized int getQueuedCount() {
+        return queued.size();
+    }
+}
@@ -0,0 +1,96 @@
+package com.smartattendance.service.mail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+import com.smartattendance.util.EmailSettings;
+import com.smartattendance.util.security.log.ApplicationLogger;
+
+import jakarta.mail.Message;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Measures how fast the {@link MailDispatcher} delivers a round of absence
+ * notices, against a local SMTP stand-in (e.g. MailHog or smtp4dev) so no
+ * real mail is sent and no database is needed.
+ *
+ * Run with {@code --benchmark-mail [count] [host] [port]} (default 600 to
+ * localhost:1025). The dispatcher sends the notices through an
+ * {@link InMemoryMailOutbox} with the configured connections, batch size and
+ * rate limit; for comparison, a sample is then sent the old way, one
+ * {@link Transport#send} (and so one SMTP connection) per mail.
+ *
+ * @version 20:40 19 Oct 2026
+ */
+public final class MailBenchmark {
+
+    private static final int BASELINE_SAMPLE = 50;
+
+    private static final ApplicationLogger appLogger = ApplicationLogger.getInstance();
+
+    private MailBenchmark() {
+    }
+
+    /**
+     * Sends {@code count} notices through the dispatcher and a sample one per
+     * connection, and logs the mails/sec of both.
+     *
+     * @throws Exception if the stand-in cannot be reached or a mail fails
+     */
+    public static void run(int count, String host, int port) throws Exception {
+        EmailSettings settings = new EmailSettings(host, port, "", "", false);
+
+        List<MailMessage> notices = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            notices.add(notice(i));
+        }
+
+        InMemoryMailOutbox outbox = new InMemoryMailOutbox();
+        MailDispatcher dispatcher = new MailDispatcher(settings, outbox);
+        try {
+            long started = System.nanoTime();
+            List<CompletableFuture<Void>> futures = dispatcher.submitAll(notices);
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get();
+            double seconds = (System.nanoTime() - started) / 1e9;
+            appLogger.info(String.format("MailBenchmark: dispatcher     %d mails in %.2f s, %.0f mails/s",
+                    outbox.getSentCount(), seconds, outbox.getSentCount() / seconds));
+        } finally {
+            dispatcher.shutdown();
+        }
+
+        Properties props = new Properties();
+        props.put("mail.smtp.host", host);
+        props.put("mail.smtp.port", String.valueOf(port));
+        Session session = Session.getInstance(props);
+
+        int sample = Math.min(count, BASELINE_SAMPLE);
+        long started = System.nanoTime();
+        for (int i = 0; i < sample; i++) {
+            MailMessage m = notices.get(i);
+            MimeMessage message = new MimeMessage(session);
+            message.setFrom(new InternetAddress("smart-attendance@localhost"));
+            message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(m.to()));
+            message.setSubject(m.subject());
+            message.setText(m.body());
+            Transport.send(message);
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        appLogger.info(String.format("MailBenchmark: per-mail send  %d mails in %.2f s, %.0f mails/s",
+                sample, seconds, sample / seconds));
+    }
+
+    private static MailMessage notice(int i) {
+        String student = String.format("S%05d", i);
+        return new MailMessage(
+                student.toLowerCase() + "@students.example.com",
+                "Absence notice: CS102 lecture",
+                "Dear student " + student + ",\n\nYou were marked absent from today's CS102 lecture. "
+                        + "If this is a mistake, please contact your lecturer.\n",
+                List.of());
+    }
+}
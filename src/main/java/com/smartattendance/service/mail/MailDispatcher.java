@@ -0,0 +1,523 @@
+package com.smartattendance.service.mail;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.smartattendance.config.Config;
+import com.smartattendance.repository.MailOutboxRepository;
+import com.smartattendance.service.mail.MailOutbox.QueuedMail;
+import com.smartattendance.util.EmailSettings;
+import com.smartattendance.util.security.log.ApplicationLogger;
+
+import jakarta.mail.Authenticator;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.PasswordAuthentication;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeBodyPart;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeMultipart;
+
+/**
+ * Sends queued mail over a small pool of long-lived SMTP connections.
+ *
+ * Mail is first written to a {@link MailOutbox}, then picked up by
+ * {@code mail.connections} worker threads. Each worker keeps its own
+ * connected {@link Transport} and sends whole batches of
+ * {@code mail.batch.size} claimed mails over it, so hundreds of notices cost
+ * a handful of SMTP handshakes instead of one each. A connection left idle
+ * for {@code mail.idle.close.seconds} is closed and reopened on demand.
+ *
+ * All workers share one rate limit of {@code mail.rate.per.second} mails
+ * (0 for none). A failed mail is retried with exponential backoff from
+ * {@code mail.retry.base.seconds}, up to {@code mail.max.attempts} attempts;
+ * mail that can never be delivered (rejected addresses, a missing
+ * attachment) is given up on at once.
+ *
+ * A claimed batch is leased for long enough to send every mail in it at the
+ * SMTP timeout and the rate limit, plus a margin. A worker that falls behind
+ * that budget releases the rest of its batch instead of sending past the
+ * lease, when another worker may already have claimed the same mail. A
+ * released mail keeps its attempts, as it was not tried. Each mail is
+ * marked sent as soon as the server accepts it, so a crash mid-batch only
+ * sends the mail that was in flight again.
+ *
+ * @version 20:40 19 Oct 2026
+ */
+public final class MailDispatcher {
+
+    private static final int DEFAULT_CONNECTIONS = 3;
+    private static final int DEFAULT_BATCH_SIZE = 50;
+    private static final int DEFAULT_IDLE_CLOSE_SECONDS = 30;
+    private static final int DEFAULT_RATE_PER_SECOND = 50;
+    private static final int DEFAULT_RETRY_BASE_SECONDS = 5;
+    private static final int DEFAULT_MAX_ATTEMPTS = 5;
+    private static final int DEFAULT_SEND_TIMEOUT_SECONDS = 60;
+    private static final int DEFAULT_POLL_MS = 2000;
+
+    /** Longest wait between two retries */
+    private static final long MAX_BACKOFF_SECONDS = 15 * 60;
+    /** Added to a batch's send budget for its lease, covering the mail in flight when the budget runs out */
+    private static final int LEASE_MARGIN_SECONDS = 60;
+    /** SMTP connect, read and write timeout */
+    private static final int SMTP_TIMEOUT_MS = 30_000;
+
+    private static MailDispatcher instance;
+
+    private final EmailSettings settings;
+    private final MailOutbox outbox;
+    private final Session session;
+    private final int batchSize;
+    private final long idleCloseMs;
+    private final long spacingNanos;
+    private final int retryBaseSeconds;
+    private final int maxAttempts;
+    private final int sendTimeoutSeconds;
+    private final long pollMs;
+    /** How long a claimed batch stays with its worker before it is due again */
+    private final int leaseSeconds;
+    private final List<Thread> workers = new ArrayList<>();
+    private final ApplicationLogger appLogger = ApplicationLogger.getInstance();
+
+    // Callers waiting for their mail, by outbox id; guarded by itself
+    private final Map<Long, CompletableFuture<Void>> waiting = new HashMap<>();
+    private final Object wakeUp = new Object();
+    private long nextSendNanos = System.nanoTime(); // Guarded by this, for the rate limit
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a dispatcher and starts its workers.
+     *
+     * @param settings SMTP server and account
+     * @param outbox   queue the mail is kept in until sent
+     */
+    public MailDispatcher(EmailSettings settings, MailOutbox outbox) {
+        this.settings = settings;
+        this.outbox = outbox;
+        this.session = createSession(settings);
+        this.batchSize = Math.max(1, Config.getInt("mail.batch.size", DEFAULT_BATCH_SIZE));
+        this.idleCloseMs = Math.max(1, Config.getInt("mail.idle.close.seconds", DEFAULT_IDLE_CLOSE_SECONDS)) * 1000L;
+        int rate = Math.max(0, Config.getInt("mail.rate.per.second", DEFAULT_RATE_PER_SECOND));
+        this.spacingNanos = rate == 0 ? 0 : TimeUnit.SECONDS.toNanos(1) / rate;
+        this.retryBaseSeconds = Math.max(1, Config.getInt("mail.retry.base.seconds", DEFAULT_RETRY_BASE_SECONDS));
+        this.maxAttempts = Math.max(1, Config.getInt("mail.max.attempts", DEFAULT_MAX_ATTEMPTS));
+        this.sendTimeoutSeconds = Math.max(1, Config.getInt("mail.send.timeout.seconds", DEFAULT_SEND_TIMEOUT_SECONDS));
+        this.pollMs = Math.max(100, Config.getInt("mail.poll.ms", DEFAULT_POLL_MS));
+
+        int connections = Math.max(1, Config.getInt("mail.connections", DEFAULT_CONNECTIONS));
+        // Worst case per mail: one SMTP timeout, and a rate limit slot behind every other worker
+        long perMailMs = SMTP_TIMEOUT_MS + TimeUnit.NANOSECONDS.toMillis(spacingNanos * connections);
+        this.leaseSeconds = (int) Math.min(Integer.MAX_VALUE,
+                (batchSize * perMailMs + 999) / 1000 + LEASE_MARGIN_SECONDS);
+
+        for (int i = 1; i <= connections; i++) {
+            Thread t = new Thread(new Worker(), "mail-dispatcher-" + i);
+            t.setDaemon(true);
+            workers.add(t);
+            t.start();
+        }
+    }
+
+    /**
+     * @return the shared dispatcher, using the SMTP settings from the
+     *         environment and the database outbox
+     */
+    public static synchronized MailDispatcher getInstance() {
+        if (instance == null) {
+            instance = new MailDispatcher(EmailSettings.fromEnv(), new MailOutboxRepository());
+        }
+        return instance;
+    }
+
+    /**
+     * Stops the shared dispatcher, if it was started. Mail still queued is
+     * kept in the outbox and sent on the next start.
+     */
+    public static synchronized void shutdownInstance() {
+        if (instance != null) {
+            instance.shutdown();
+            instance = null;
+        }
+    }
+
+    private static Session createSession(EmailSettings s) {
+        boolean auth = s.username() != null && !s.username().isBlank();
+
+        Properties props = new Properties();
+        props.put("mail.smtp.host", s.host());
+        props.put("mail.smtp.port", String.valueOf(s.port()));
+        props.put("mail.smtp.auth", String.valueOf(auth));
+        props.put("mail.smtp.starttls.enable", String.valueOf(s.startTls()));
+        props.put("mail.smtp.ssl.trust", s.host());
+        props.put("mail.smtp.connectiontimeout", String.valueOf(SMTP_TIMEOUT_MS));
+        props.put("mail.smtp.timeout", String.valueOf(SMTP_TIMEOUT_MS));
+        props.put("mail.smtp.writetimeout", String.valueOf(SMTP_TIMEOUT_MS));
+
+        if (!auth) {
+            return Session.getInstance(props);
+        }
+        return Session.getInstance(props, new Authenticator() {
+            @Override
+            protected PasswordAuthentication getPasswordAuthentication() {
+                return new PasswordAuthentication(s.username(), s.password());
+            }
+        });
+    }
+
+    // ========== SUBMIT ==========
+
+    /**
+     * Queues one mail.
+     *
+     * @return completes when the mail is sent, or exceptionally when it is
+     *         given up on
+     * @throws Exception if the mail cannot be queued
+     */
+    public CompletableFuture<Void> submit(MailMessage message) throws Exception {
+        return submitAll(List.of(message)).get(0);
+    }
+
+    /**
+     * Queues many mails in one go, e.g. a round of absence notices.
+     *
+     * @return one future per message, in order, see {@link #submit}
+     * @throws Exception if the mail cannot be queued
+     */
+    public List<CompletableFuture<Void>> submitAll(List<MailMessage> messages) throws Exception {
+        if (closed) {
+            throw new IllegalStateException("Mail dispatcher is shut down");
+        }
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(messages.size());
+        // Held across the enqueue so a worker cannot finish a mail before its future is registered
+        synchronized (waiting) {
+            for (Long id : outbox.enqueue(messages)) {
+                CompletableFuture<Void> future = new CompletableFuture<>();
+                waiting.put(id, future);
+                futures.add(future);
+            }
+        }
+        synchronized (wakeUp) {
+            wakeUp.notifyAll();
+        }
+        return futures;
+    }
+
+    /**
+     * Queues one mail and waits for it to be sent.
+     *
+     * @throws Exception if the mail is given up on, or is still not sent after
+     *                   {@code mail.send.timeout.seconds} (it then stays queued
+     *                   and is retried in the background)
+     */
+    public void sendAndWait(MailMessage message) throws Exception {
+        CompletableFuture<Void> future = submit(message);
+        try {
+            future.get(sendTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        } catch (TimeoutException e) {
+            throw new MessagingException("Email not sent within " + sendTimeoutSeconds
+                    + " s, it stays queued and will be retried");
+        }
+    }
+
+    /**
+     * Stops the workers and closes their connections. A batch being sent is
+     * cut short; its unsent mail is released back to the outbox.
+     */
+    public void shutdown() {
+        closed = true;
+        for (Thread t : workers) {
+            t.interrupt();
+        }
+        for (Thread t : workers) {
+            try {
+                t.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        synchronized (waiting) {
+            for (CompletableFuture<Void> f : waiting.values()) {
+                f.completeExceptionally(new MessagingException("Mail dispatcher shut down, mail stays queued"));
+            }
+            waiting.clear();
+        }
+    }
+
+    // ========== SENDING ==========
+
+    /** A worker thread owning one SMTP connection. */
+    private final class Worker implements Runnable {
+
+        private Transport transport;
+        private long lastUsed;
+
+        @Override
+        public void run() {
+            try {
+                while (!closed) {
+                    List<QueuedMail> batch;
+                    try {
+                        batch = outbox.claim(batchSize, leaseSeconds);
+                    } catch (Exception e) {
+                        appLogger.error("MailDispatcher: Could not claim queued mail", e);
+                        batch = List.of();
+                    }
+
+                    if (batch.isEmpty()) {
+                        if (transport != null && System.currentTimeMillis() - lastUsed >= idleCloseMs) {
+                            disconnect();
+                        }
+                        synchronized (wakeUp) {
+                            wakeUp.wait(pollMs);
+                        }
+                    } else {
+                        sendBatch(batch);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // shutdown
+            } finally {
+                disconnect();
+            }
+        }
+
+        /**
+         * Sends a batch over this worker's connection.
+         *
+         * @throws InterruptedException on shutdown, after releasing the unsent mail
+         */
+        private void sendBatch(List<QueuedMail> batch) throws InterruptedException {
+            // Start no mail after this, so the one in flight finishes within the lease margin
+            long budgetEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(leaseSeconds - LEASE_MARGIN_SECONDS);
+            for (int i = 0; i < batch.size(); i++) {
+                if (closed || Thread.currentThread().isInterrupted()) {
+                    release(batch.subList(i, batch.size()), "Released on shutdown");
+                    throw new InterruptedException();
+                }
+                if (System.nanoTime() - budgetEnd > 0) {
+                    appLogger.warn("MailDispatcher: Batch took longer than its lease allows, releasing "
+                            + (batch.size() - i) + " unsent mails");
+                    release(batch.subList(i, batch.size()), "Released, lease running out");
+                    return;
+                }
+                QueuedMail mail = batch.get(i);
+
+                MimeMessage message;
+                try {
+                    message = buildMessage(mail.message());
+                } catch (Exception e) {
+                    failed(mail, e, true);
+                    continue;
+                }
+
+                try {
+                    awaitRateLimit();
+                } catch (InterruptedException e) {
+                    release(batch.subList(i, batch.size()), "Released on shutdown");
+                    throw e;
+                }
+
+                try {
+                    connected().sendMessage(message, message.getAllRecipients());
+                    lastUsed = System.currentTimeMillis();
+                } catch (SendFailedException e) {
+                    failed(mail, e, isRejectedAddress(e));
+                    continue;
+                } catch (MessagingException e) {
+                    // The connection may be broken; reconnect for the next mail
+                    disconnect();
+                    failed(mail, e, false);
+                    continue;
+                }
+                // Marked right away, so a crash later in the batch cannot send it twice
+                markSent(mail);
+            }
+        }
+
+        private Transport connected() throws MessagingException {
+            if (transport != null && transport.isConnected()) {
+                return transport;
+            }
+            disconnect();
+            Transport t = session.getTransport("smtp");
+            boolean auth = settings.username() != null && !settings.username().isBlank();
+            t.connect(settings.host(), settings.port(),
+                    auth ? settings.username() : null, auth ? settings.password() : null);
+            transport = t;
+            return t;
+        }
+
+        private void disconnect() {
+            if (transport != null) {
+                try {
+                    transport.close();
+                } catch (MessagingException e) {
+                    // already gone
+                }
+                transport = null;
+            }
+        }
+    }
+
+    private MimeMessage buildMessage(MailMessage m) throws Exception {
+        MimeMessage message = new MimeMessage(session);
+        message.setFrom(new InternetAddress(fromAddress()));
+        message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(m.to()));
+        message.setSubject(m.subject(), StandardCharsets.UTF_8.name());
+
+        if (m.attachments().isEmpty()) {
+            message.setText(m.body(), StandardCharsets.UTF_8.name());
+        } else {
+            MimeMultipart multipart = new MimeMultipart();
+
+            MimeBodyPart textPart = new MimeBodyPart();
+            textPart.setText(m.body(), StandardCharsets.UTF_8.name());
+            multipart.addBodyPart(textPart);
+
+            for (File file : m.attachments()) {
+                // A missing file can never be sent, fail now rather than mid-send
+                if (!file.isFile()) {
+                    throw new MessagingException("Attachment not found: " + file);
+                }
+                MimeBodyPart attachPart = new MimeBodyPart();
+                attachPart.attachFile(file);
+                attachPart.setFileName(file.getName());
+                multipart.addBodyPart(attachPart);
+            }
+            message.setContent(multipart);
+        }
+        return message;
+    }
+
+    /**
+     * @return the SMTP user, or a local address when sending without login
+     *         (e.g. to a local SMTP stand-in)
+     */
+    private String fromAddress() {
+        String user = settings.username();
+        return user != null && !user.isBlank() ? user : "smart-attendance@localhost";
+    }
+
+    /**
+     * @return true if the server rejected recipients and none was accepted,
+     *         so sending again cannot help
+     */
+    private static boolean isRejectedAddress(SendFailedException e) {
+        boolean invalid = e.getInvalidAddresses() != null && e.getInvalidAddresses().length > 0;
+        boolean unsent = e.getValidUnsentAddresses() != null && e.getValidUnsentAddresses().length > 0;
+        return invalid && !unsent;
+    }
+
+    /**
+     * Spaces sends across all workers to at most {@code mail.rate.per.second}.
+     */
+    private void awaitRateLimit() throws InterruptedException {
+        if (spacingNanos == 0) {
+            return;
+        }
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextSendNanos);
+            nextSendNanos = slot + spacingNanos;
+            waitNanos = slot - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private void markSent(QueuedMail mail) {
+        try {
+            outbox.markSent(List.of(mail.id()));
+        } catch (Exception e) {
+            // Delivered anyway; the mail is sent again once its lease ends
+            appLogger.error("MailDispatcher: Could not mark mail " + mail.id() + " sent", e);
+        }
+        complete(mail.id(), null);
+    }
+
+    /**
+     * Records a failed attempt and schedules a retry, or gives up on the
+     * mail if the failure is permanent or it ran out of attempts.
+     */
+    private void failed(QueuedMail mail, Exception e, boolean permanent) {
+        String error = e.getMessage() != null ? e.getMessage() : e.toString();
+        boolean giveUp = permanent || mail.attempts() >= maxAttempts;
+        LocalDateTime retryAt = giveUp ? null : LocalDateTime.now().plusSeconds(backoffSeconds(mail.attempts()));
+
+        try {
+            outbox.markFailed(mail.id(), error, retryAt);
+        } catch (Exception ex) {
+            appLogger.error("MailDispatcher: Could not record failure of mail " + mail.id(), ex);
+        }
+
+        if (giveUp) {
+            appLogger.warn("MailDispatcher: Gave up on mail " + mail.id() + " to " + mail.message().to()
+                    + " after " + mail.attempts() + " attempts: " + error);
+            complete(mail.id(), e);
+        } else {
+            appLogger.warn("MailDispatcher: Mail " + mail.id() + " failed (attempt " + mail.attempts()
+                    + "), retrying at " + retryAt + ": " + error);
+        }
+    }
+
+    /**
+     * @return seconds before the next attempt: the base doubled per attempt,
+     *         capped, with up to 20% jitter so retries do not arrive in bursts
+     */
+    private long backoffSeconds(int attempts) {
+        long backoff = Math.min(MAX_BACKOFF_SECONDS, (long) retryBaseSeconds << Math.min(attempts - 1, 20));
+        return backoff + ThreadLocalRandom.current().nextLong(backoff / 5 + 1);
+    }
+
+    /**
+     * Hands claimed mail back to the outbox, due immediately and without
+     * using up an attempt, instead of leaving it claimed until its lease
+     * ends.
+     */
+    private void release(List<QueuedMail> unsent, String reason) {
+        List<Long> ids = new ArrayList<>(unsent.size());
+        for (QueuedMail mail : unsent) {
+            ids.add(mail.id());
+        }
+        try {
+            outbox.release(ids, reason);
+        } catch (Exception e) {
+            // left to the lease
+        }
+    }
+
+    private void complete(long id, Exception error) {
+        CompletableFuture<Void> future;
+        synchronized (waiting) {
+            future = waiting.remove(id);
+        }
+        if (future != null) {
+            if (error == null) {
+                future.complete(null);
+            } else {
+                future.completeExceptionally(error);
+            }
+        }
+    }
+}
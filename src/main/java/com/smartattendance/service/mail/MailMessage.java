@@ -0,0 +1,22 @@
+package com.smartattendance.service.mail;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * An outgoing email: recipients, subject, plain text body and optional
+ * file attachments.
+ *
+ * @param to          recipient address, comma-separated if several
+ * @param subject     subject line
+ * @param body        plain text body
+ * @param attachments files to attach, read when the mail is sent; empty for none
+ *
+ * @version 20:40 19 Oct 2026
+ */
+public record MailMessage(String to, String subject, String body, List<File> attachments) {
+
+    public MailMessage {
+        attachments = attachments == null ? List.of() : List.copyOf(attachments);
+    }
+}
@@ -0,0 +1,65 @@
+package com.smartattendance.service.mail;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Queue of outgoing mail used by {@link MailDispatcher}.
+ *
+ * Mail is claimed for sending with a lease: a claimed mail that is neither
+ * marked sent nor failed before the lease ends (e.g. the app crashed
+ * mid-send) becomes claimable again, so nothing queued is lost.
+ *
+ * @version 20:40 19 Oct 2026
+ */
+public interface MailOutbox {
+
+    /**
+     * A claimed mail.
+     *
+     * @param id       outbox id
+     * @param message  the mail
+     * @param attempts sending attempts including the current one
+     */
+    record QueuedMail(long id, MailMessage message, int attempts) {
+    }
+
+    /**
+     * Adds mail to the queue, due immediately.
+     *
+     * @return the outbox ids, in the order of {@code messages}
+     */
+    List<Long> enqueue(List<MailMessage> messages) throws Exception;
+
+    /**
+     * Claims up to {@code max} due mails, oldest due first, and counts an
+     * attempt for each.
+     *
+     * @param leaseSeconds how long the claim lasts before the mail is due again
+     */
+    List<QueuedMail> claim(int max, int leaseSeconds) throws Exception;
+
+    /**
+     * Marks claimed mail as delivered.
+     */
+    void markSent(List<Long> ids) throws Exception;
+
+    /**
+     * Records a failed attempt.
+     *
+     * @param retryAt when to try again, or null to give up on the mail
+     */
+    void markFailed(long id, String error, LocalDateTime retryAt) throws Exception;
+
+    /**
+     * Hands claimed mail that was not tried back to the queue, due
+     * immediately, without counting the attempt its claim added.
+     */
+    void release(List<Long> ids, String reason) throws Exception;
+
+    /**
+     * @return earliest time a queued mail becomes due, or null if none is
+     *         queued
+     */
+    LocalDateTime nextDue() throws Exception;
+}
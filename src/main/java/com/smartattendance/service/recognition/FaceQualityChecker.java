@@ -0,0 +1,158 @@
+package com.smartattendance.service.recognition;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfDouble;
+import org.opencv.imgproc.Imgproc;
+
+import com.smartattendance.config.Config;
+
+/**
+ * Face Quality Checker
+ * Cheap checks run on a face crop before it reaches the recognizer
+ * Rejects crops that are too small, blurred, badly lit or stretched so that
+ * no embedding/histogram work is wasted on them
+ *
+ * Thresholds are read from config (quality.*) with safe defaults
+ */
+
+public class FaceQualityChecker {
+  // Default thresholds
+  private static final int DEFAULT_MIN_FACE_SIZE = 60; // pixels
+  private static final double DEFAULT_MIN_BLUR_SCORE = 50.0; // Laplacian variance
+  private static final double DEFAULT_MIN_BRIGHTNESS = 40.0; // mean gray level
+  private static final double DEFAULT_MAX_BRIGHTNESS = 220.0;
+  private static final double DEFAULT_MIN_CONTRAST = 20.0; // gray level std dev
+  private static final double DEFAULT_MIN_ASPECT = 0.75; // width / height
+  private static final double DEFAULT_MAX_ASPECT = 1.33;
+
+  /**
+   * Outcome of a quality check
+   */
+  public enum Verdict {
+    ACCEPTED,
+    TOO_SMALL,
+    BLURRY,
+    TOO_DARK,
+    TOO_BRIGHT,
+    LOW_CONTRAST,
+    BAD_ASPECT
+  }
+
+  private final boolean enabled;
+  private final int minFaceSize;
+  private final double minBlurScore;
+  private final double minBrightness;
+  private final double maxBrightness;
+  private final double minContrast;
+  private final double minAspect;
+  private final double maxAspect;
+
+  /**
+   * Default constructor, reads thresholds from config
+   */
+  public FaceQualityChecker() {
+    this.enabled = Config.getBoolean("quality.enabled", true);
+    this.minFaceSize = Config.getInt("quality.min.face.size", DEFAULT_MIN_FACE_SIZE);
+    this.minBlurScore = Config.getDouble("quality.min.blur.score", DEFAULT_MIN_BLUR_SCORE);
+    this.minBrightness = Config.getDouble("quality.min.brightness", DEFAULT_MIN_BRIGHTNESS);
+    this.maxBrightness = Config.getDouble("quality.max.brightness", DEFAULT_MAX_BRIGHTNESS);
+    this.minContrast = Config.getDouble("quality.min.contrast", DEFAULT_MIN_CONTRAST);
+    this.minAspect = Config.getDouble("quality.min.aspect", DEFAULT_MIN_ASPECT);
+    this.maxAspect = Config.getDouble("quality.max.aspect", DEFAULT_MAX_ASPECT);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Check a face crop against all quality thresholds
+   * Checks run from cheapest (size) to most expensive (blur)
+   *
+   * @param faceImage The face crop (BGR or grayscale)
+   * @return ACCEPTED, or the first failed check
+   */
+  public Verdict check(Mat faceImage) {
+    if (!enabled) {
+      return Verdict.ACCEPTED;
+    }
+
+    if (faceImage == null || faceImage.empty()
+        || faceImage.cols() < minFaceSize || faceImage.rows() < minFaceSize) {
+      return Verdict.TOO_SMALL;
+    }
+
+    double aspect = (double) faceImage.cols() / faceImage.rows();
+    if (aspect < minAspect || aspect > maxAspect) {
+      return Verdict.BAD_ASPECT;
+    }
+
+    Mat gray = toGray(faceImage);
+    try {
+      MatOfDouble mean = new MatOfDouble();
+      MatOfDouble stdDev = new MatOfDouble();
+      Core.meanStdDev(gray, mean, stdDev);
+      double brightness = mean.get(0, 0)[0];
+      double contrast = stdDev.get(0, 0)[0];
+      mean.release();
+      stdDev.release();
+
+      if (brightness < minBrightness) {
+        return Verdict.TOO_DARK;
+      }
+      if (brightness > maxBrightness) {
+        return Verdict.TOO_BRIGHT;
+      }
+      if (contrast < minContrast) {
+        return Verdict.LOW_CONTRAST;
+      }
+
+      if (blurScore(gray) < minBlurScore) {
+        return Verdict.BLURRY;
+      }
+
+      return Verdict.ACCEPTED;
+    } finally {
+      gray.release();
+    }
+  }
+
+  /**
+   * Variance of the Laplacian, higher means sharper
+   *
+   * @param gray Grayscale image
+   * @return blur score
+   */
+  public static double blurScore(Mat gray) {
+    Mat laplacian = new Mat();
+    MatOfDouble mean = new MatOfDouble();
+    MatOfDouble stdDev = new MatOfDouble();
+    try {
+      Imgproc.Laplacian(gray, laplacian, CvType.CV_64F);
+      Core.meanStdDev(laplacian, mean, stdDev);
+      double sigma = stdDev.get(0, 0)[0];
+      return sigma * sigma;
+    } finally {
+      laplacian.release();
+      mean.release();
+      stdDev.release();
+    }
+  }
+
+  private Mat toGray(Mat image) {
+    Mat gray = new Mat();
+    switch (image.channels()) {
+      case 3:
+        Imgproc.cvtColor(image, gray, Imgproc.COLOR_BGR2GRAY);
+        break;
+      case 4:
+        Imgproc.cvtColor(image, gray, Imgproc.COLOR_BGRA2GRAY);
+        break;
+      default:
+        gray = image.clone();
+    }
+    return gray;
+  }
+}
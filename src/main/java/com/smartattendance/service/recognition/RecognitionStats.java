@@ -0,0 +1,83 @@
+package com.smartattendance.service.recognition;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recognition Stats
+ * Counters for the live recognition pipeline
+ * Tracks how many face crops were recognized and how many were rejected by
+ * the quality gate (per reason) before reaching the recognizer
+ *
+ * Thread safe, shared between the camera loop and the UI
+ */
+
+public class RecognitionStats {
+  private final AtomicLong recognized = new AtomicLong();
+  private final Map<FaceQualityChecker.Verdict, AtomicLong> rejected = new EnumMap<>(FaceQualityChecker.Verdict.class);
+
+  public RecognitionStats() {
+    for (FaceQualityChecker.Verdict verdict : FaceQualityChecker.Verdict.values()) {
+      if (verdict != FaceQualityChecker.Verdict.ACCEPTED) {
+        rejected.put(verdict, new AtomicLong());
+      }
+    }
+  }
+
+  // ----- Recording -----
+  public void recordRecognized() {
+    recognized.incrementAndGet();
+  }
+
+  public void recordRejected(FaceQualityChecker.Verdict verdict) {
+    AtomicLong counter = rejected.get(verdict);
+    if (counter != null) {
+      counter.incrementAndGet();
+    }
+  }
+
+  /**
+   * Reset all counters to zero
+   */
+  public void reset() {
+    recognized.set(0);
+    rejected.values().forEach(counter -> counter.set(0));
+  }
+
+  // ----- Getters -----
+  public long getRecognizedCount() {
+    return recognized.get();
+  }
+
+  public long getRejectedCount(FaceQualityChecker.Verdict verdict) {
+    AtomicLong counter = rejected.get(verdict);
+    return counter != null ? counter.get() : 0;
+  }
+
+  public long getTotalRejected() {
+    long total = 0;
+    for (AtomicLong counter : rejected.values()) {
+      total += counter.get();
+    }
+    return total;
+  }
+
+  /**
+   * Copy of the rejection counters, keyed by reason
+   *
+   * @return rejection count per verdict
+   */
+  public Map<FaceQualityChecker.Verdict, Long> getRejectedCounts() {
+    Map<FaceQualityChecker.Verdict, Long> counts = new EnumMap<>(FaceQualityChecker.Verdict.class);
+    rejected.forEach((verdict, counter) -> counts.put(verdict, counter.get()));
+    return counts;
+  }
+
+  @Override
+  public String toString() {
+    return "RecognitionStats{recognized=" + getRecognizedCount()
+        + ", rejected=" + getTotalRejected()
+        + ", byReason=" + getRejectedCounts() + "}";
+  }
+}
@@ -0,0 +1,144 @@
+package com.smartattendance.service.report;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.smartattendance.config.Config;
+import com.smartattendance.service.AttendanceReportService.ReportFilter;
+import com.smartattendance.util.report.ReportSpec;
+
+/**
+ * On-disk cache of exported report files.
+ *
+ * Entries are keyed by the normalised filter, the selected columns, the
+ * format and the report data watermark (see
+ * {@code AttendanceRepository#dataWatermark}). Any write to the report data
+ * changes the watermark, so older entries are simply never hit again and
+ * age out. The bump is visible a moment before the write commits, so an
+ * export running at that moment may be cached without the write; it is
+ * replaced after the next write. Repeating an export with nothing changed copies
+ * the cached file instead of querying and rendering again.
+ *
+ * The cache keeps at most {@code report.cache.entries} files and
+ * {@code report.cache.max.mb} megabytes, evicting the least recently used.
+ * Files live in a temp directory for the lifetime of the process.
+ *
+ * @version 20:05 19 Oct 2026
+ */
+public final class ReportCache {
+
+    /** A cached file and the number of rows it holds. */
+    public record Hit(File file, long rows) {
+    }
+
+    private static final int DEFAULT_MAX_ENTRIES = 20;
+    private static final int DEFAULT_MAX_MB = 200;
+
+    private final int maxEntries = Math.max(0, Config.getInt("report.cache.entries", DEFAULT_MAX_ENTRIES));
+    private final long maxBytes = Math.max(0, Config.getInt("report.cache.max.mb", DEFAULT_MAX_MB)) * 1024L * 1024L;
+
+    // access order, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Hit> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes = 0;
+    private Path dir;
+
+    /**
+     * Builds the cache key of an export. Values that select the same rows
+     * ("All", blank or null) map to the same key.
+     *
+     * @param format    format name, e.g. "pdf" or "csv+xlsx"
+     * @param watermark report data watermark when the export started
+     */
+    public static String keyOf(ReportFilter f, ReportSpec spec, String format, long watermark) {
+        return format + "|" + watermark + "|" + f.fromDate + "|" + f.toDate + "|"
+                + norm(f.sessionDisplay) + "|" + norm(f.courseDisplay) + "|" + norm(f.status) + "|"
+                + norm(f.method) + "|" + norm(f.confidenceExpr).replace(" ", "") + "|" + columnsOf(spec);
+    }
+
+    private static String norm(String value) {
+        return value == null || value.isBlank() || "All".equalsIgnoreCase(value.trim()) ? "*" : value.trim();
+    }
+
+    static String columnsOf(ReportSpec s) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(s.isIncludeDateTime() ? '1' : '0')
+          .append(s.isIncludeSessionId() ? '1' : '0')
+          .append(s.isIncludeCourseCode() ? '1' : '0')
+          .append(s.isIncludeStudentId() ? '1' : '0')
+          .append(s.isIncludeStudentName() ? '1' : '0')
+          .append(s.isIncludeStatus() ? '1' : '0')
+          .append(s.isIncludeMethod() ? '1' : '0')
+          .append(s.isIncludeConfidence() ? '1' : '0')
+          .append(s.isIncludeNote() ? '1' : '0');
+        return sb.toString();
+    }
+
+    /**
+     * Copies the cached file for the key to {@code target}.
+     *
+     * @return the hit, or null on a miss
+     * @throws IOException if the cached file cannot be copied
+     */
+    public Hit copyTo(String key, File target) throws IOException {
+        Hit hit;
+        synchronized (this) {
+            hit = entries.get(key);
+        }
+        if (hit == null || !hit.file().exists()) {
+            return null;
+        }
+        Files.copy(hit.file().toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return hit;
+    }
+
+    /**
+     * Stores a copy of a freshly exported file. Files larger than the whole
+     * cache are not stored.
+     */
+    public void put(String key, File exported, long rows) throws IOException {
+        long size = exported.length();
+        if (maxEntries == 0 || size > maxBytes) {
+            return;
+        }
+
+        File copy;
+        synchronized (this) {
+            if (dir == null) {
+                dir = Files.createTempDirectory("report-cache-");
+                dir.toFile().deleteOnExit();
+            }
+            copy = Files.createTempFile(dir, "report-", ".bin").toFile();
+        }
+        copy.deleteOnExit();
+        Files.copy(exported.toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        synchronized (this) {
+            Hit old = entries.put(key, new Hit(copy, rows));
+            if (old != null) {
+                remove(old);
+            }
+            totalBytes += size;
+            evict();
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Hit>> it = entries.entrySet().iterator();
+        while (it.hasNext() && (entries.size() > maxEntries || totalBytes > maxBytes)) {
+            Hit eldest = it.next().getValue();
+            it.remove();
+            remove(eldest);
+        }
+    }
+
+    private void remove(Hit hit) {
+        totalBytes -= hit.file().length();
+        hit.file().delete();
+    }
+}
@@ -0,0 +1,182 @@
+package com.smartattendance.service.report;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+
+import com.smartattendance.util.report.CancellationToken;
+
+/**
+ * A report export or email queued on {@link ReportJobService}.
+ *
+ * A job moves from {@link State#QUEUED} to {@link State#RUNNING} and ends
+ * in one of the finished states. Every change (state, rows written) is
+ * pushed to the registered {@link ReportJobListener}s on the worker thread.
+ * Getters are safe to call from any thread.
+ *
+ * @version 20:05 19 Oct 2026
+ */
+public final class ReportJob {
+
+    public enum State {
+        QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED;
+
+        public boolean isFinished() {
+            return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    private final long id;
+    private final String description;
+    private final CancellationToken token = new CancellationToken();
+    private final List<ReportJobListener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile State state = State.QUEUED;
+    private volatile long rowsWritten = 0;
+    private volatile long estimatedRows = -1;
+    private volatile boolean fromCache = false;
+    private volatile File result;
+    private volatile String error;
+    private volatile Future<?> future;
+
+    ReportJob(long id, String description) {
+        this.id = id;
+        this.description = description;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    // planner estimate of the total rows, -1 if unknown
+    public long getEstimatedRows() {
+        return estimatedRows;
+    }
+
+    // true if the result was copied from the report cache
+    public boolean isFromCache() {
+        return fromCache;
+    }
+
+    // the written file once SUCCEEDED, null otherwise
+    public File getResult() {
+        return result;
+    }
+
+    // failure message once FAILED, null otherwise
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Registers a listener for state and progress changes and calls it once
+     * with the current state, so a listener added late does not miss the
+     * end of a fast job.
+     */
+    public void addListener(ReportJobListener listener) {
+        listeners.add(listener);
+        listener.onJobUpdate(this);
+    }
+
+    public void removeListener(ReportJobListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Requests cancellation. A queued job is cancelled at once; a running
+     * job stops at the next row it writes.
+     */
+    public void cancel() {
+        token.cancel();
+        Future<?> f = future;
+        if (f != null) {
+            f.cancel(true);
+        }
+        if (state == State.QUEUED) {
+            finish(State.CANCELLED, null, null);
+        }
+    }
+
+    /* ========== updated by ReportJobService ========== */
+
+    CancellationToken getToken() {
+        return token;
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    void setEstimatedRows(long estimatedRows) {
+        this.estimatedRows = estimatedRows;
+    }
+
+    /**
+     * @return false if the job was cancelled before it started
+     */
+    synchronized boolean start() {
+        if (state != State.QUEUED) {
+            return false;
+        }
+        state = State.RUNNING;
+        fire();
+        return true;
+    }
+
+    void progress(long rows) {
+        rowsWritten = rows;
+        fire();
+    }
+
+    void succeed(File result, long rows, boolean fromCache) {
+        this.rowsWritten = rows;
+        this.fromCache = fromCache;
+        finish(State.SUCCEEDED, result, null);
+    }
+
+    void fail(String error) {
+        finish(State.FAILED, null, error);
+    }
+
+    void cancelled() {
+        finish(State.CANCELLED, null, null);
+    }
+
+    private synchronized void finish(State end, File result, String error) {
+        if (state.isFinished()) {
+            return;
+        }
+        this.result = result;
+        this.error = error;
+        this.state = end;
+        fire();
+    }
+
+    private void fire() {
+        for (ReportJobListener l : listeners) {
+            try {
+                l.onJobUpdate(this);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "#" + id + " " + description + " [" + state + "]";
+    }
+}
@@ -0,0 +1,20 @@
+package com.smartattendance.service.report;
+
+/**
+ * Observer of a {@link ReportJob}'s state and progress.
+ *
+ * Called on the job's worker thread; UI listeners must hop to the FX thread
+ * (e.g. with {@code Platform.runLater}) before touching controls.
+ *
+ * @version 20:05 19 Oct 2026
+ */
+@FunctionalInterface
+public interface ReportJobListener {
+
+    /**
+     * Called when the job changes state or writes more rows.
+     *
+     * @param job the job, read its getters for the current values
+     */
+    void onJobUpdate(ReportJob job);
+}
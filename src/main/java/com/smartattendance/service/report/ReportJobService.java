@@ -0,0 +1,251 @@
+package com.smartattendance.service.report;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import com.smartattendance.config.Config;
+import com.smartattendance.service.AttendanceReportService;
+import com.smartattendance.service.AttendanceReportService.ReportFilter;
+import com.smartattendance.util.report.ReportFormat;
+import com.smartattendance.util.report.ReportSpec;
+import com.smartattendance.util.security.log.ApplicationLogger;
+
+/**
+ * Runs report exports, per-student reports and emails as background
+ * {@link ReportJob}s.
+ *
+ * Jobs run on a small fixed pool ({@code report.jobs.workers}) behind a
+ * bounded queue ({@code report.jobs.queue}); a job submitted while the
+ * queue is full fails at once instead of piling up. Callers get the job
+ * back immediately and follow it through a {@link ReportJobListener}.
+ *
+ * Exports are looked up in the {@link ReportCache} first, keyed by the
+ * report data watermark, so exporting the same filter again while no
+ * attendance was written is a file copy. A fresh export is cached only if
+ * the watermark did not move while it ran.
+ *
+ * @version 20:05 19 Oct 2026
+ */
+public final class ReportJobService {
+
+    /** Work done by a job; reports its outcome through the job. */
+    @FunctionalInterface
+    private interface JobBody {
+        void run(ReportJob job) throws Exception;
+    }
+
+    private static final ReportJobService INSTANCE = new ReportJobService();
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    /** Stands in for the column choice in summary cache keys; summaries have fixed columns */
+    private static final ReportSpec SUMMARY_SPEC = new ReportSpec();
+
+    private final AttendanceReportService reportService = new AttendanceReportService();
+    private final ReportCache cache = new ReportCache();
+    private final ApplicationLogger appLogger = ApplicationLogger.getInstance();
+    private final AtomicLong nextId = new AtomicLong();
+    private final ThreadPoolExecutor executor;
+
+    private ReportJobService() {
+        int workers = Math.max(1, Config.getInt("report.jobs.workers", 2));
+        int queued = Math.max(1, Config.getInt("report.jobs.queue", 10));
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queued), r -> {
+                    Thread t = new Thread(r, "report-job-" + THREAD_COUNT.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    /**
+     * @return the shared report job service
+     */
+    public static ReportJobService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Queues an export of the filtered attendance in one format.
+     *
+     * @param target file to write; deleted if the job fails or is cancelled
+     * @return the queued job
+     */
+    public ReportJob submitExport(ReportFilter filter, ReportSpec spec, ReportFormat format, File target) {
+        return submit("Export " + format + " to " + target.getName(), job ->
+                runExport(job, filter, spec, format.getExtension(), target, true,
+                        () -> reportService.export(filter, spec, format, target, job.getToken(), job::progress)));
+    }
+
+    /**
+     * Queues a zip bundle of several formats exported from one query.
+     *
+     * @param target zip file to write; deleted if the job fails or is cancelled
+     * @return the queued job
+     */
+    public ReportJob submitBundle(ReportFilter filter, ReportSpec spec, Set<ReportFormat> formats, File target) {
+        String key = "zip:" + formats.stream().map(ReportFormat::getExtension).collect(Collectors.joining("+"));
+        return submit("Export bundle " + formats + " to " + target.getName(), job ->
+                runExport(job, filter, spec, key, target, true,
+                        () -> reportService.exportBundle(filter, spec, formats, target, job.getToken(), job::progress)));
+    }
+
+    /**
+     * Queues a summary report export, one row per student and course (see
+     * {@link AttendanceReportService#exportSummary}). Its columns are fixed
+     * and the status, method and confidence filters do not apply, so they
+     * are left out of the cache key.
+     *
+     * @return the queued job; its row count is the number of summary rows
+     */
+    public ReportJob submitSummary(ReportFilter filter, ReportFormat format, File target) {
+        ReportFilter summaryFilter = new ReportFilter();
+        summaryFilter.fromDate = filter.fromDate;
+        summaryFilter.toDate = filter.toDate;
+        summaryFilter.sessionDisplay = filter.sessionDisplay;
+        summaryFilter.courseDisplay = filter.courseDisplay;
+
+        return submit("Export summary " + format + " to " + target.getName(), job ->
+                runExport(job, summaryFilter, SUMMARY_SPEC, "summary-" + format.getExtension(), target, false,
+                        () -> reportService.exportSummary(summaryFilter, format, target, job.getToken())));
+    }
+
+    /**
+     * Queues sending a report file by email.
+     *
+     * @return the queued job; its result is the attachment
+     */
+    public ReportJob submitEmail(String to, String subject, String body, File attachment) {
+        return submit("Email " + attachment.getName() + " to " + to, job -> {
+            job.getToken().throwIfCancelled();
+            reportService.sendEmail(to, subject, body, attachment);
+            job.succeed(attachment, 0, false);
+        });
+    }
+
+    /**
+     * Queues rendering one PDF per enrolled student into a directory, see
+     * {@link StudentReportFanOut}. Submitting again with the same directory
+     * resumes an interrupted run.
+     *
+     * @param outputDir directory for the PDFs
+     * @param zip       whether to also bundle the PDFs into one zip
+     * @param email     whether to email each student their PDF
+     * @return the queued job; its progress counts students, its result is the
+     *         zip or the directory
+     */
+    public ReportJob submitStudentReports(ReportFilter filter,
+                                          ReportSpec spec,
+                                          File outputDir,
+                                          boolean zip,
+                                          boolean email) {
+        return submit("Student reports to " + outputDir.getName() + (email ? " and email" : ""), job -> {
+            job.setEstimatedRows(reportService.countStudentReports(filter));
+            StudentReportFanOut.Result result = new StudentReportFanOut(reportService)
+                    .run(filter, spec, outputDir, zip, email, job.getToken(), job::progress);
+            if (result.failed() > 0) {
+                job.fail(result.failed() + " of " + result.students()
+                        + " student reports failed, run again into the same folder to retry them");
+                return;
+            }
+            job.succeed(result.zip() != null ? result.zip() : outputDir, result.students(), false);
+        });
+    }
+
+    /** Runs an export, used by {@link #runExport}. */
+    @FunctionalInterface
+    private interface Export {
+        long run() throws Exception;
+    }
+
+    /**
+     * Serves an export from the cache, or runs it and caches the file.
+     *
+     * @param estimate whether to give the job the planner's row estimate;
+     *                 false for exports that do not write one row per record
+     */
+    private void runExport(ReportJob job,
+                           ReportFilter filter,
+                           ReportSpec spec,
+                           String format,
+                           File target,
+                           boolean estimate,
+                           Export export) throws Exception {
+        long watermark = reportService.dataWatermark();
+        String key = watermark >= 0 ? ReportCache.keyOf(filter, spec, format, watermark) : null;
+
+        if (key != null) {
+            try {
+                ReportCache.Hit hit = cache.copyTo(key, target);
+                if (hit != null) {
+                    job.succeed(target, hit.rows(), true);
+                    return;
+                }
+            } catch (IOException e) {
+                appLogger.warn("Report cache copy failed, exporting again: " + e.getMessage());
+            }
+        }
+
+        if (estimate) {
+            job.setEstimatedRows(reportService.estimateAttendanceCount(filter));
+        }
+        long rows;
+        try {
+            rows = export.run();
+        } catch (Exception e) {
+            target.delete();
+            throw e;
+        }
+
+        if (key != null && reportService.dataWatermark() == watermark) {
+            try {
+                cache.put(key, target, rows);
+            } catch (IOException e) {
+                appLogger.warn("Report cache store failed: " + e.getMessage());
+            }
+        }
+        job.succeed(target, rows, false);
+    }
+
+    private ReportJob submit(String description, JobBody body) {
+        ReportJob job = new ReportJob(nextId.incrementAndGet(), description);
+        try {
+            job.setFuture(executor.submit(() -> run(job, body)));
+        } catch (RejectedExecutionException e) {
+            appLogger.warn("Report job rejected, queue full: " + job);
+            job.fail("Too many report jobs queued, try again later");
+        }
+        return job;
+    }
+
+    private void run(ReportJob job, JobBody body) {
+        if (!job.start()) {
+            return; // cancelled while queued
+        }
+        try {
+            body.run(job);
+        } catch (CancellationException | InterruptedException | InterruptedIOException e) {
+            job.cancelled();
+        } catch (Exception e) {
+            if (job.getToken().isCancelled()) {
+                job.cancelled(); // e.g. an I/O error caused by the interrupt
+            } else {
+                appLogger.error("Report job failed: " + job, e);
+                job.fail(e.getMessage() != null ? e.getMessage() : e.toString());
+            }
+        }
+        if (job.getState() == ReportJob.State.CANCELLED) {
+            appLogger.info("Report job cancelled: " + job);
+        }
+    }
+}
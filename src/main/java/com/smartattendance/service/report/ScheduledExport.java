@@ -0,0 +1,78 @@
+package com.smartattendance.service.report;
+
+import java.io.File;
+import java.time.LocalDateTime;
+
+import com.smartattendance.model.dto.page.AttendanceChangeKey;
+import com.smartattendance.service.AttendanceReportService.ReportFilter;
+import com.smartattendance.util.report.ReportFormat;
+import com.smartattendance.util.report.ReportSpec;
+
+/**
+ * A scheduled incremental export: every {@code intervalMinutes} the
+ * attendance rows matching {@code filter} that were inserted or changed
+ * since the last run are written to a new file in {@code targetDir}.
+ *
+ * @param id              export_id, 0 before it is saved
+ * @param name            unique name, also the start of the file names
+ * @param format          file format
+ * @param targetDir       directory the files are written to
+ * @param filter          report filter, as built by the Reports tab
+ * @param spec            selected columns
+ * @param intervalMinutes time between two runs
+ * @param due             when the run is (or was) due
+ * @param after           high-water mark, key of the last row exported, or
+ *                        null before the first run
+ * @version 22:30 19 Oct 2026
+ */
+public record ScheduledExport(int id,
+                              String name,
+                              ReportFormat format,
+                              File targetDir,
+                              ReportFilter filter,
+                              ReportSpec spec,
+                              int intervalMinutes,
+                              LocalDateTime due,
+                              AttendanceChangeKey after) {
+
+    /**
+     * @return the selected columns as stored, one 0/1 flag per column in
+     *         {@link ReportSpec} order
+     */
+    public String columns() {
+        return ReportCache.columnsOf(spec);
+    }
+
+    /**
+     * Parses a stored column string, see {@link #columns()}.
+     */
+    public static ReportSpec specOf(String columns) {
+        return new ReportSpec.Builder()
+                .includeDateTime(flag(columns, 0))
+                .includeSessionId(flag(columns, 1))
+                .includeCourseCode(flag(columns, 2))
+                .includeStudentId(flag(columns, 3))
+                .includeStudentName(flag(columns, 4))
+                .includeStatus(flag(columns, 5))
+                .includeMethod(flag(columns, 6))
+                .includeConfidence(flag(columns, 7))
+                .includeNote(flag(columns, 8))
+                .build();
+    }
+
+    private static boolean flag(String columns, int index) {
+        return index < columns.length() && columns.charAt(index) == '1';
+    }
+
+    /**
+     * @return the first time after {@code now} that is a whole number of
+     *         intervals after {@link #due}, so runs keep their time of day
+     */
+    public LocalDateTime nextDueAfter(LocalDateTime now) {
+        LocalDateTime next = due;
+        while (!next.isAfter(now)) {
+            next = next.plusMinutes(intervalMinutes);
+        }
+        return next;
+    }
+}
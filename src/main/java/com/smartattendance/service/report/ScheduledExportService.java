@@ -0,0 +1,209 @@
+package com.smartattendance.service.report;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.smartattendance.config.Config;
+import com.smartattendance.repository.ScheduledExportRepository;
+import com.smartattendance.service.AttendanceReportService;
+import com.smartattendance.service.AttendanceReportService.ChangeExport;
+import com.smartattendance.service.AttendanceReportService.ReportFilter;
+import com.smartattendance.util.report.CancellationToken;
+import com.smartattendance.util.report.ReportFormat;
+import com.smartattendance.util.report.ReportSpec;
+import com.smartattendance.util.security.log.ApplicationLogger;
+
+/**
+ * Runs {@link ScheduledExport}s: each run writes only the attendance rows
+ * inserted or changed since the previous run, e.g. for a nightly registrar
+ * feed, instead of the whole history.
+ *
+ * A run streams the rows after the export's high-water mark into a hidden
+ * {@code .part} file in the target directory, renames it atomically to
+ * {@code <name>-<yyyyMMdd-HHmmss>.<ext>} and only then stores the new mark,
+ * so readers of the directory never see a partial file. If the app stops
+ * between the rename and storing the mark, the next run writes the same
+ * rows again; each row carries its student and session, so a consumer can
+ * apply it twice safely.
+ *
+ * Due exports are normally run from cron with
+ * {@code --run-scheduled-exports}, on the machine whose folders the exports
+ * were scheduled to: the target directory is a path on that machine. Setting
+ * {@code report.schedule.poll.enabled} makes a running app poll for due
+ * exports every {@code report.schedule.poll.seconds} instead; enable it on
+ * that one machine only, as any polling client may claim any export.
+ *
+ * @version 22:30 19 Oct 2026
+ */
+public final class ScheduledExportService {
+
+    /** Whether a running app polls for due exports, see the class comment */
+    public static final boolean POLL_ENABLED = Config.getBoolean("report.schedule.poll.enabled", false);
+
+    private static final int POLL_SECONDS = Config.getInt("report.schedule.poll.seconds", 60);
+
+    /**
+     * Changes younger than this wait for the next run, see
+     * AttendanceRepository#streamChangedAttendance. changed_at is set when a
+     * row is written, not when its transaction commits: a transaction that
+     * commits more than this many seconds after writing a row can land
+     * behind the high-water mark, and that change is then never exported.
+     * Keep it above the longest attendance write transaction.
+     */
+    private static final int SETTLE_SECONDS = Config.getInt("report.schedule.settle.seconds", 30);
+
+    /** How long one claimed run may take before it is considered lost and retried */
+    private static final int LEASE_SECONDS = Config.getInt("report.schedule.lease.seconds", 3600);
+
+    /** Interval of exports scheduled from the Reports tab */
+    public static final int DEFAULT_INTERVAL_MINUTES = Config.getInt("report.schedule.interval.minutes", 1440);
+
+    private static final DateTimeFormatter FILE_TS = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static final ScheduledExportService INSTANCE = new ScheduledExportService();
+
+    private final AttendanceReportService reportService = new AttendanceReportService();
+    private final ScheduledExportRepository repo = new ScheduledExportRepository();
+    private final ApplicationLogger appLogger = ApplicationLogger.getInstance();
+
+    private ScheduledExecutorService poller;
+
+    private ScheduledExportService() {
+    }
+
+    public static ScheduledExportService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts polling for due exports on a background thread, if
+     * {@link #POLL_ENABLED}.
+     */
+    public synchronized void start() {
+        if (!POLL_ENABLED || poller != null) {
+            return;
+        }
+        poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "scheduled-exports");
+            t.setDaemon(true);
+            return t;
+        });
+        poller.scheduleWithFixedDelay(this::poll, POLL_SECONDS, POLL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops polling. A run in progress is interrupted; its lease expires and
+     * it is retried later.
+     */
+    public synchronized void stop() {
+        if (poller != null) {
+            poller.shutdownNow();
+            poller = null;
+        }
+    }
+
+    /**
+     * Saves a new scheduled export. Its first run, due at once, exports every
+     * matching row so far; later runs only what changed.
+     *
+     * @param name            unique name, letters, digits, '-' and '_' only
+     * @param targetDir       existing, writable directory
+     * @param intervalMinutes time between two runs
+     * @return the saved definition's id
+     * @throws IllegalArgumentException if the name or directory is invalid
+     * @throws SQLException             if it cannot be saved, e.g. the name
+     *                                  is taken
+     */
+    public int schedule(String name,
+                        ReportFilter filter,
+                        ReportSpec spec,
+                        ReportFormat format,
+                        File targetDir,
+                        int intervalMinutes) throws SQLException {
+        if (name == null || !name.matches("[A-Za-z0-9_-]{1,100}")) {
+            throw new IllegalArgumentException("Use 1-100 letters, digits, '-' or '_' for the export name");
+        }
+        if (!targetDir.isDirectory() || !targetDir.canWrite()) {
+            throw new IllegalArgumentException("Not a writable directory: " + targetDir);
+        }
+        if (intervalMinutes <= 0) {
+            throw new IllegalArgumentException("Interval must be positive: " + intervalMinutes);
+        }
+
+        int id = repo.create(new ScheduledExport(0, name, format, targetDir, filter, spec,
+                intervalMinutes, null, null));
+        appLogger.info("Scheduled export '" + name + "' every " + intervalMinutes + " min to " + targetDir);
+        return id;
+    }
+
+    /**
+     * Runs every export that is due, one after the other, on the calling
+     * thread. Each is claimed just before it runs, so its lease only covers
+     * its own run.
+     *
+     * @return number of exports that failed
+     * @throws SQLException if the due exports cannot be claimed
+     */
+    public int runDue() throws SQLException {
+        int failed = 0;
+        // Stops when interrupted; exports not yet claimed stay due
+        while (!Thread.currentThread().isInterrupted()) {
+            ScheduledExport export = repo.claimNext(LEASE_SECONDS);
+            if (export == null) {
+                break;
+            }
+            if (!run(export)) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    private void poll() {
+        try {
+            runDue();
+        } catch (Exception e) {
+            appLogger.error("Scheduled exports: poll failed", e);
+        }
+    }
+
+    /**
+     * Runs one claimed export and records the outcome.
+     *
+     * @return whether it succeeded
+     */
+    private boolean run(ScheduledExport export) {
+        LocalDateTime started = LocalDateTime.now();
+        File target = new File(export.targetDir(),
+                export.name() + "-" + FILE_TS.format(started) + "." + export.format().getExtension());
+        File part = new File(export.targetDir(), "." + target.getName() + ".part");
+
+        try {
+            ChangeExport result = reportService.exportChanges(export.filter(), export.spec(), export.format(),
+                    export.after(), SETTLE_SECONDS, part, CancellationToken.NONE);
+            Files.move(part.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+
+            repo.complete(export.id(), result.last(), result.rows(), target, export.nextDueAfter(started));
+            appLogger.info("Scheduled export '" + export.name() + "': " + result.rows()
+                    + " changed rows to " + target.getName());
+            return true;
+        } catch (Exception e) {
+            part.delete();
+            appLogger.error("Scheduled export '" + export.name() + "' failed, retrying in "
+                    + LEASE_SECONDS + " s", e);
+            try {
+                repo.fail(export.id(), String.valueOf(e.getMessage()));
+            } catch (SQLException se) {
+                appLogger.error("Scheduled export '" + export.name() + "': could not record failure", se);
+            }
+            return false;
+        }
+    }
+}
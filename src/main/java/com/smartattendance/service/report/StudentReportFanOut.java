@@ -0,0 +1,419 @@
+package com.smartattendance.service.report;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import com.smartattendance.config.Config;
+import com.smartattendance.service.AttendanceReportService;
+import com.smartattendance.service.AttendanceReportService.ReportFilter;
+import com.smartattendance.service.mail.MailDispatcher;
+import com.smartattendance.service.mail.MailMessage;
+import com.smartattendance.util.report.CancellationToken;
+import com.smartattendance.util.report.PdfReportGenerator;
+import com.smartattendance.util.report.ReportSpec;
+import com.smartattendance.util.report.StudentReport;
+import com.smartattendance.util.security.log.ApplicationLogger;
+
+/**
+ * Renders one attendance PDF per enrolled student, e.g. at the end of a
+ * term, and optionally emails each student their own report.
+ *
+ * <p>Students are read with one grouped streaming query (see
+ * {@link AttendanceReportService#streamStudentReports}) and rendered on a
+ * pool of {@code report.students.workers} threads. At most twice that many
+ * students are queued for rendering, so reading pauses while the workers
+ * catch up and memory stays bounded however many students there are.
+ * Emails are queued with the {@link MailDispatcher}, which sends them over
+ * its pooled connections.
+ *
+ * <p>The PDFs are written to an output directory, together with a manifest
+ * of the students done. Running again into the same directory with the same
+ * filter, columns and email choice resumes: the query starts after the last checkpoint and
+ * students already done are skipped, so an interrupted or cancelled run only
+ * renders what is missing. Students that failed are retried.
+ *
+ * @version 21:15 19 Oct 2026
+ */
+public final class StudentReportFanOut {
+
+    /**
+     * Outcome and throughput of a run.
+     *
+     * @param students students read by this run, including ones already done
+     * @param rendered PDFs rendered by this run
+     * @param resumed  students already done by an earlier run
+     * @param failed   students whose PDF or email failed
+     * @param emailed  emails queued by this run
+     * @param bytes    size of the PDFs rendered by this run
+     * @param seconds  wall time of the run
+     * @param zip      bundle of all PDFs, or null if none was asked for
+     */
+    public record Result(long students, long rendered, long resumed, long failed, long emailed,
+                         long bytes, double seconds, File zip) {
+
+        public double studentsPerSecond() {
+            return seconds > 0 ? rendered / seconds : 0;
+        }
+    }
+
+    /** Name of the resume manifest in the output directory */
+    static final String MANIFEST_NAME = ".student-reports.manifest";
+
+    /** Name of the zip bundle written into the output directory */
+    static final String ZIP_NAME = "student-reports.zip";
+
+    /** Completed students between two resume checkpoints */
+    private static final int CHECKPOINT_EVERY = 100;
+
+    /** Completed students between two progress updates */
+    private static final int PROGRESS_EVERY = 10;
+
+    private static final int WORKERS = Math.max(1,
+            Config.getInt("report.students.workers", Runtime.getRuntime().availableProcessors()));
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final AttendanceReportService reportService;
+    private final ApplicationLogger appLogger = ApplicationLogger.getInstance();
+
+    public StudentReportFanOut(AttendanceReportService reportService) {
+        this.reportService = reportService;
+    }
+
+    /**
+     * Renders (and optionally emails) the report of every student enrolled
+     * in the filter's course, over the filter's date range.
+     *
+     * @param spec      columns of the attendance table in each PDF
+     * @param outputDir directory for the PDFs and the resume manifest
+     * @param zip       whether to also bundle all PDFs into {@value #ZIP_NAME}
+     * @param email     whether to email each student their PDF
+     * @param token     checked before each student is queued
+     * @param progress  called with the number of students done, or null
+     * @return counts and throughput of the run
+     * @throws Exception if the query fails or the run is cancelled; what was
+     *                   done so far is kept for the next run
+     */
+    public Result run(ReportFilter filter,
+                      ReportSpec spec,
+                      File outputDir,
+                      boolean zip,
+                      boolean email,
+                      CancellationToken token,
+                      LongConsumer progress) throws Exception {
+        Files.createDirectories(outputDir.toPath());
+        // A run that mails does not resume one that did not, whose checkpoint mailed no one
+        String key = filter.fromDate + "|" + filter.toDate + "|" + filter.courseDisplay + "|"
+                + ReportCache.columnsOf(spec) + "|" + (email ? "mail" : "nomail");
+
+        long started = System.nanoTime();
+        AtomicLong rendered = new AtomicLong();
+        AtomicLong resumed = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicLong emailed = new AtomicLong();
+        AtomicLong bytes = new AtomicLong();
+        AtomicLong done = new AtomicLong();
+        PdfReportGenerator generator = new PdfReportGenerator();
+
+        ExecutorService pool = Executors.newFixedThreadPool(WORKERS, r -> {
+            Thread t = new Thread(r, "student-report-" + THREAD_COUNT.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        Semaphore inFlight = new Semaphore(WORKERS * 2);
+
+        long students;
+        try (Manifest manifest = Manifest.open(new File(outputDir, MANIFEST_NAME), key)) {
+            if (manifest.resumeAfter() > 0 || manifest.doneCount() > 0) {
+                appLogger.info("StudentReportFanOut: Resuming in " + outputDir + " after student "
+                        + manifest.resumeAfter() + ", " + manifest.doneCount() + " already done");
+            }
+
+            try {
+                students = reportService.streamStudentReports(filter, manifest.resumeAfter(), report -> {
+                    token.throwIfCancelled();
+                    int id = Integer.parseInt(report.getStudentId());
+                    boolean wantMail = email && report.getEmail() != null && !report.getEmail().isBlank();
+                    String fileName = manifest.fileOf(id);
+                    boolean needPdf = fileName == null || !new File(outputDir, fileName).isFile();
+                    boolean needMail = wantMail && !manifest.isMailed(id);
+
+                    if (!needPdf && !needMail) {
+                        manifest.skipped(id);
+                        resumed.incrementAndGet();
+                        report(progress, done.incrementAndGet());
+                        return;
+                    }
+
+                    inFlight.acquire();
+                    manifest.started(id);
+                    pool.execute(() -> {
+                        boolean ok = false;
+                        try {
+                            String name = needPdf ? fileNameOf(report) : fileName;
+                            File pdf = new File(outputDir, name);
+                            if (needPdf) {
+                                generator.generateStudentReport(spec, report, pdf);
+                                bytes.addAndGet(pdf.length());
+                                rendered.incrementAndGet();
+                                manifest.rendered(id, name);
+                            }
+                            if (needMail) {
+                                MailDispatcher.getInstance().submit(mailOf(report, filter, pdf));
+                                emailed.incrementAndGet();
+                                manifest.mailed(id);
+                            }
+                            ok = true;
+                        } catch (Exception e) {
+                            failed.incrementAndGet();
+                            appLogger.error("StudentReportFanOut: Report of student " + id + " failed", e);
+                        } finally {
+                            manifest.finished(id, ok);
+                            inFlight.release();
+                            report(progress, done.incrementAndGet());
+                        }
+                    });
+                });
+
+                pool.shutdown();
+                while (!pool.awaitTermination(1, TimeUnit.SECONDS)) {
+                    token.throwIfCancelled();
+                }
+            } finally {
+                if (!pool.isTerminated()) {
+                    // Cancelled or failed: let the students being rendered finish, so their files are whole
+                    pool.shutdown();
+                    pool.awaitTermination(30, TimeUnit.SECONDS);
+                }
+            }
+
+            File zipFile = null;
+            if (zip) {
+                token.throwIfCancelled();
+                zipFile = new File(outputDir, ZIP_NAME);
+                zip(manifest, outputDir, zipFile, token);
+            }
+
+            double seconds = (System.nanoTime() - started) / 1e9;
+            Result result = new Result(students, rendered.get(), resumed.get(), failed.get(), emailed.get(),
+                    bytes.get(), seconds, zipFile);
+            appLogger.info(String.format("StudentReportFanOut: %d students (%d rendered, %d resumed, %d failed, "
+                            + "%d emailed) in %.1f s, %.1f students/s, %d KB on %d workers",
+                    result.students(), result.rendered(), result.resumed(), result.failed(), result.emailed(),
+                    seconds, result.studentsPerSecond(), result.bytes() / 1024, WORKERS));
+            if (progress != null) {
+                progress.accept(done.get());
+            }
+            return result;
+        }
+    }
+
+    private static void report(LongConsumer progress, long done) {
+        if (progress != null && done % PROGRESS_EVERY == 0) {
+            progress.accept(done);
+        }
+    }
+
+    /**
+     * @return file name of a student's PDF: the id, then the name made safe
+     *         for file systems
+     */
+    private static String fileNameOf(StudentReport report) {
+        String name = report.getStudentName() != null ? report.getStudentName() : "";
+        String safe = name.replaceAll("[^A-Za-z0-9._-]+", "_");
+        return "attendance-" + report.getStudentId() + (safe.isEmpty() ? "" : "-" + safe) + ".pdf";
+    }
+
+    private static MailMessage mailOf(StudentReport report, ReportFilter filter, File pdf) {
+        String range = filter.fromDate != null || filter.toDate != null
+                ? " (" + (filter.fromDate != null ? filter.fromDate : "start") + " to "
+                        + (filter.toDate != null ? filter.toDate : "today") + ")"
+                : "";
+        String body = "Dear " + report.getStudentName() + ",\n\n"
+                + "Attached is your attendance report" + range + ", with your sessions, "
+                + "their status and your attendance per course.\n";
+        return new MailMessage(report.getEmail(), "Your attendance report" + range, body, List.of(pdf));
+    }
+
+    /**
+     * Writes every PDF done so far, this run or earlier, into the zip in
+     * student order.
+     */
+    private static void zip(Manifest manifest, File dir, File target, CancellationToken token) throws IOException {
+        File tmp = new File(dir, ZIP_NAME + ".part");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(tmp))) {
+            for (String name : manifest.fileNames()) {
+                token.throwIfCancelled();
+                File pdf = new File(dir, name);
+                if (!pdf.isFile()) {
+                    continue;
+                }
+                out.putNextEntry(new ZipEntry(name));
+                Files.copy(pdf.toPath(), out);
+                out.closeEntry();
+            }
+        } catch (IOException | RuntimeException e) {
+            tmp.delete();
+            throw e;
+        }
+        Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Append-only record of the students done in an output directory.
+     *
+     * <pre>
+     * key &lt;filter, columns and email choice&gt;
+     * pdf &lt;user id&gt; &lt;file name&gt;
+     * mail &lt;user id&gt;
+     * after &lt;user id&gt;
+     * </pre>
+     *
+     * "after" checkpoints the user id up to which every student is complete,
+     * so a resumed run queries only the students after it. A manifest with a
+     * different key is started over.
+     */
+    private static final class Manifest implements AutoCloseable {
+
+        private final BufferedWriter out;
+        private final Map<Integer, String> completed = new TreeMap<>(); // user id -> PDF file name
+        private final Set<Integer> mailed = new HashSet<>();
+        private final TreeSet<Integer> pending = new TreeSet<>(); // started, or failed, not complete
+        private int after = 0;
+        private int lastStarted = 0;
+        private int sinceCheckpoint = 0;
+
+        private Manifest(BufferedWriter out) {
+            this.out = out;
+        }
+
+        static Manifest open(File file, String key) throws IOException {
+            Manifest m = null;
+            if (file.isFile()) {
+                List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+                if (!lines.isEmpty() && lines.get(0).equals("key " + key)) {
+                    m = new Manifest(new BufferedWriter(new FileWriter(file, StandardCharsets.UTF_8, true)));
+                    for (String line : lines) {
+                        String[] parts = line.split(" ", 3);
+                        switch (parts[0]) {
+                            case "pdf" -> m.completed.put(Integer.parseInt(parts[1]), parts[2]);
+                            case "mail" -> m.mailed.add(Integer.parseInt(parts[1]));
+                            case "after" -> m.after = Integer.parseInt(parts[1]);
+                            default -> { }
+                        }
+                    }
+                    m.lastStarted = m.after;
+                }
+            }
+            if (m == null) {
+                m = new Manifest(new BufferedWriter(new FileWriter(file, StandardCharsets.UTF_8, false)));
+                m.append("key " + key);
+            }
+            return m;
+        }
+
+        int resumeAfter() {
+            return after;
+        }
+
+        synchronized String fileOf(int id) {
+            return completed.get(id);
+        }
+
+        synchronized boolean isMailed(int id) {
+            return mailed.contains(id);
+        }
+
+        synchronized int doneCount() {
+            return completed.size();
+        }
+
+        synchronized List<String> fileNames() {
+            return List.copyOf(completed.values());
+        }
+
+        synchronized void started(int id) {
+            pending.add(id);
+            lastStarted = Math.max(lastStarted, id);
+        }
+
+        /** Records a student that an earlier run already completed. */
+        synchronized void skipped(int id) {
+            lastStarted = Math.max(lastStarted, id);
+        }
+
+        synchronized void rendered(int id, String fileName) throws IOException {
+            completed.put(id, fileName);
+            append("pdf " + id + " " + fileName);
+        }
+
+        synchronized void mailed(int id) throws IOException {
+            mailed.add(id);
+            append("mail " + id);
+        }
+
+        /**
+         * Records that a student's work ended. A failed student stays
+         * pending, so the checkpoint never passes it and the next run
+         * retries it.
+         */
+        synchronized void finished(int id, boolean ok) {
+            if (ok) {
+                pending.remove(id);
+            }
+            if (++sinceCheckpoint >= CHECKPOINT_EVERY) {
+                checkpoint();
+            }
+        }
+
+        private void checkpoint() {
+            int upTo = pending.isEmpty() ? lastStarted : pending.first() - 1;
+            if (upTo > after) {
+                after = upTo;
+                try {
+                    append("after " + after);
+                } catch (IOException e) {
+                    ApplicationLogger.getInstance().warn("StudentReportFanOut: Could not write checkpoint: "
+                            + e.getMessage());
+                }
+            }
+            sinceCheckpoint = 0;
+        }
+
+        private void append(String line) throws IOException {
+            out.write(line);
+            out.newLine();
+            out.flush();
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            try {
+                checkpoint();
+            } finally {
+                out.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.smartattendance.service.rules;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.smartattendance.model.entity.Session;
+
+/**
+ * Snapshot of the global session state used by the AutoSessionRule chain.
+ *
+ * The context is captured once per scheduling tick from a single query and
+ * passed through every decorator, so the rules no longer query the database
+ * or read the clock on their own. Evaluating many sessions therefore costs
+ * one query, and every rule in a tick sees the same instant.
+ *
+ * Key features:
+ * - Ids of open, auto-start and auto-stop sessions
+ * - One clock instant shared by TimeRule and SessionEndedRule
+ * - The captured sessions themselves, so callers can skip a lookup
+ * - Updated in place when a session is started or stopped during the tick
+ *
+ * @version 14:45 19 Oct 2026
+ */
+public class AutoSessionContext {
+
+    // ========== SNAPSHOT STATE ==========
+
+    /** The instant all rules compare against */
+    private final LocalDateTime now;
+
+    /** Sessions captured by the snapshot, keyed by session_id */
+    private final Map<Integer, Session> sessions = new HashMap<>();
+
+    /** Ids of sessions currently open */
+    private final Set<Integer> openSessionIds = new HashSet<>();
+
+    /** Ids of sessions with auto-start enabled */
+    private final Set<Integer> autoStartSessionIds = new HashSet<>();
+
+    /** Ids of sessions with auto-stop enabled */
+    private final Set<Integer> autoStopSessionIds = new HashSet<>();
+
+    // ========== CONSTRUCTOR ==========
+
+    /**
+     * Builds a context from the open and auto-enabled sessions.
+     *
+     * @param now      the instant the rules should evaluate against
+     * @param sessions every open session and every session with auto-start
+     *                 or auto-stop enabled
+     */
+    public AutoSessionContext(LocalDateTime now, Collection<Session> sessions) {
+        this.now = now;
+        for (Session session : sessions) {
+            this.sessions.put(session.getSessionId(), session);
+            if ("Open".equals(session.getStatus())) {
+                openSessionIds.add(session.getSessionId());
+            }
+            if (session.isAutoStart()) {
+                autoStartSessionIds.add(session.getSessionId());
+            }
+            if (session.isAutoStop()) {
+                autoStopSessionIds.add(session.getSessionId());
+            }
+        }
+    }
+
+    // ========== QUERIES ==========
+
+    /**
+     * @return the instant this context was captured for
+     */
+    public LocalDateTime getNow() {
+        return now;
+    }
+
+    /**
+     * Returns a captured session.
+     *
+     * @param sessionId the session_id
+     * @return the session, or null if it is neither open nor auto-enabled
+     */
+    public Session getSession(int sessionId) {
+        return sessions.get(sessionId);
+    }
+
+    /**
+     * @return the captured sessions
+     */
+    public Collection<Session> getSessions() {
+        return Collections.unmodifiableCollection(sessions.values());
+    }
+
+    /**
+     * @return true if any session is open
+     */
+    public boolean isSessionOpen() {
+        return !openSessionIds.isEmpty();
+    }
+
+    /**
+     * Checks if a session other than the given one has auto-start enabled.
+     *
+     * @param excludeSessionId the session_id to exclude
+     * @return true if another auto-start session exists
+     */
+    public boolean hasOtherAutoStartSession(int excludeSessionId) {
+        return autoStartSessionIds.size() > (autoStartSessionIds.contains(excludeSessionId) ? 1 : 0);
+    }
+
+    /**
+     * Checks if a session other than the given one has auto-stop enabled.
+     *
+     * @param excludeSessionId the session_id to exclude
+     * @return true if another auto-stop session exists
+     */
+    public boolean hasOtherAutoStopSession(int excludeSessionId) {
+        return autoStopSessionIds.size() > (autoStopSessionIds.contains(excludeSessionId) ? 1 : 0);
+    }
+
+    // ========== UPDATES DURING A TICK ==========
+
+    /**
+     * Records that a session was opened during this tick, so later
+     * evaluations in the same tick see it.
+     *
+     * @param session the opened session
+     */
+    public void markOpened(Session session) {
+        sessions.put(session.getSessionId(), session);
+        openSessionIds.add(session.getSessionId());
+    }
+
+    /**
+     * Records that a session was closed during this tick.
+     *
+     * @param session the closed session
+     */
+    public void markClosed(Session session) {
+        openSessionIds.remove(session.getSessionId());
+    }
+}
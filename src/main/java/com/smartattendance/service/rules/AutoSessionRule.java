@@ -28,8 +28,9 @@ import com.smartattendance.model.entity.Session;
  *                 new ConflictPreventionRule(
  *                         new TimeRule())));
  * 
- * // Evaluate rules for a session
- * if (ruleChain.canAutoStart(session)) {
+ * // Evaluate rules for a session against one snapshot of the session state
+ * AutoSessionContext context = new AutoSessionContext(LocalDateTime.now(), sessions);
+ * if (ruleChain.canAutoStart(session, context)) {
  *     // Proceed with auto-start
  * }
  * }
@@ -50,10 +51,12 @@ public interface AutoSessionRule {
      * relevant rule is satisfied.
      *
      * @param session the session to evaluate, must not be null
+     * @param context snapshot of the session state and clock for this
+     *                evaluation, must not be null
      * @return true if the session passes all auto-start rules
      * @throws IllegalArgumentException if session is null
      */
-    boolean canAutoStart(Session session);
+    boolean canAutoStart(Session session, AutoSessionContext context);
 
     /**
      * Checks whether a session is allowed to auto-stop based on
@@ -65,10 +68,12 @@ public interface AutoSessionRule {
      * relevant rule is satisfied.
      *
      * @param session the session to evaluate, must not be null
+     * @param context snapshot of the session state and clock for this
+     *                evaluation, must not be null
      * @return true if the session passes all auto-stop rules
      * @throws IllegalArgumentException if session is null
      */
-    boolean canAutoStop(Session session);
+    boolean canAutoStop(Session session, AutoSessionContext context);
 
     /**
      * Returns a human-readable description of the rule.
@@ -1,7 +1,6 @@
 package com.smartattendance.service.rules;
 
 import com.smartattendance.model.entity.Session;
-import com.smartattendance.service.SessionService;
 import com.smartattendance.util.security.log.ApplicationLogger;
 
 /**
@@ -39,9 +38,6 @@ public class ConflictPreventionRule implements AutoSessionRule {
     /** The wrapped rule that this decorator enhances with conflict prevention */
     private final AutoSessionRule wrappedRule;
 
-    /** Service for checking session states and conflicts */
-    private final SessionService sessionService;
-
     /** Logger for tracking rule evaluation and conflict events */
     private final ApplicationLogger appLogger = ApplicationLogger.getInstance();
 
@@ -50,15 +46,16 @@ public class ConflictPreventionRule implements AutoSessionRule {
     /**
      * Constructs a new ConflictPreventionRule that wraps the specified rule.
      *
-     * @param wrappedRule    the rule to be decorated with conflict prevention
-     *                       logic, must not be null
-     * @param sessionService the service for session state checks, must not be null
-     * @throws IllegalArgumentException if wrappedRule or sessionService is null
+     * Session states are read from the {@link AutoSessionContext} passed to
+     * each evaluation instead of being queried per session.
+     *
+     * @param wrappedRule the rule to be decorated with conflict prevention
+     *                    logic, must not be null
+     * @throws IllegalArgumentException if wrappedRule is null
      * 
      */
-    public ConflictPreventionRule(AutoSessionRule wrappedRule, SessionService sessionService) {
+    public ConflictPreventionRule(AutoSessionRule wrappedRule) {
         this.wrappedRule = wrappedRule;
-        this.sessionService = sessionService;
     }
 
     // ========== RULE EVALUATION METHODS ==========
@@ -82,37 +79,38 @@ public class ConflictPreventionRule implements AutoSessionRule {
      *
      * @param session the session to evaluate for automatic starting, must not be
      *                null
+     * @param context snapshot of the session state and clock, must not be null
      * @return true if no conflicts exist and the wrapped rule allows auto-start,
      *         false otherwise
      * @throws IllegalArgumentException if session is null
      * 
-     * @see SessionService#hasOtherAutoStartSession(int)
-     * @see SessionService#isSessionOpen()
+     * @see AutoSessionContext#hasOtherAutoStartSession(int)
+     * @see AutoSessionContext#isSessionOpen()
      */
     @Override
-    public boolean canAutoStart(Session session) {
+    public boolean canAutoStart(Session session, AutoSessionContext context) {
         // Only check conflict prevention for sessions that actually have autoStart
         // enabled
         if (!session.isAutoStart()) {
             appLogger.info("ConflictPreventionRule: Session " + session.getSessionId()
                     + " doesn't have autoStart - skipping conflict check");
-            return wrappedRule.canAutoStart(session);
+            return wrappedRule.canAutoStart(session, context);
         }
 
         // Check if there are OTHER auto-start sessions (excluding this one)
-        if (sessionService.hasOtherAutoStartSession(session.getSessionId())) {
+        if (context.hasOtherAutoStartSession(session.getSessionId())) {
             appLogger.warn("ConflictPreventionRule: Other auto-start sessions exist - BLOCKED");
             return false;
         }
 
         // Check if there is already an open session
-        if (sessionService.isSessionOpen()) {
+        if (context.isSessionOpen()) {
             appLogger.warn("ConflictPreventionRule: There is already an open session - BLOCKED");
             return false;
         }
 
         appLogger.info("ConflictPreventionRule: No conflicts - ALLOWED");
-        return wrappedRule.canAutoStart(session);
+        return wrappedRule.canAutoStart(session, context);
     }
 
     /**
@@ -133,30 +131,31 @@ public class ConflictPreventionRule implements AutoSessionRule {
      *
      * @param session the session to evaluate for automatic stopping, must not be
      *                null
+     * @param context snapshot of the session state and clock, must not be null
      * @return true if no conflicts exist and the wrapped rule allows auto-stop,
      *         false otherwise
      * @throws IllegalArgumentException if session is null
      * 
-     * @see SessionService#hasOtherAutoStopSession(int)
+     * @see AutoSessionContext#hasOtherAutoStopSession(int)
      */
     @Override
-    public boolean canAutoStop(Session session) {
+    public boolean canAutoStop(Session session, AutoSessionContext context) {
         // Only check conflict prevention for sessions that actually have autoStart
         // enabled
         if (!session.isAutoStop()) {
             appLogger.info("ConflictPreventionRule: Session " + session.getSessionId()
                     + " doesn't have autoStop - skipping conflict check");
-            return wrappedRule.canAutoStop(session);
+            return wrappedRule.canAutoStop(session, context);
         }
 
         // Check if there are OTHER auto-start sessions (excluding this one)
-        if (sessionService.hasOtherAutoStopSession(session.getSessionId())) {
+        if (context.hasOtherAutoStopSession(session.getSessionId())) {
             appLogger.warn("ConflictPreventionRule: Other auto-stop sessions exist - BLOCKED");
             return false;
         }
 
         appLogger.info("ConflictPreventionRule: No other auto-stop sessions - ALLOWED");
-        return wrappedRule.canAutoStop(session);
+        return wrappedRule.canAutoStop(session, context);
     }
 
     // ========== RULE DESCRIPTION METHOD ==========
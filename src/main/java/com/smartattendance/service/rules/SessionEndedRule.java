@@ -25,8 +25,8 @@ import java.time.LocalDateTime;
  * This ensures cleanup of sessions that might still be open past their end
  * time.
  * 
- * - Temporal Validation: Uses current system time compared to session
- * end time
+ * - Temporal Validation: Uses the evaluation instant of the
+ * {@link AutoSessionContext} compared to session end time
  * to determine if a session has ended.
  * 
  * This rule is typically placed early in the decorator chain to quickly reject
@@ -85,22 +85,23 @@ public class SessionEndedRule implements AutoSessionRule {
      *
      * @param session the session to evaluate for automatic starting, must not be
      *                null
+     * @param context snapshot of the session state and clock, must not be null
      * @return true if the session hasn't ended and the wrapped rule allows
      *         auto-start, false otherwise
      * @throws IllegalArgumentException if session is null
      * 
-     * @see #hasSessionEnded(Session)
+     * @see #hasSessionEnded(Session, LocalDateTime)
      */
     @Override
-    public boolean canAutoStart(Session session) {
+    public boolean canAutoStart(Session session, AutoSessionContext context) {
         // Cannot auto-start sessions that have already ended
-        if (hasSessionEnded(session)) {
+        if (hasSessionEnded(session, context.getNow())) {
             appLogger.info(
                     "SessionEndedRule: Session " + session.getSessionId() + " has already ended - CANNOT auto-start");
             return false;
         }
 
-        return wrappedRule.canAutoStart(session);
+        return wrappedRule.canAutoStart(session, context);
     }
 
     /**
@@ -119,14 +120,15 @@ public class SessionEndedRule implements AutoSessionRule {
      *
      * @param session the session to evaluate for automatic stopping, must not be
      *                null
+     * @param context snapshot of the session state and clock, must not be null
      * @return the result of the wrapped rule's auto-stop evaluation
      * @throws IllegalArgumentException if session is null
      */
     @Override
-    public boolean canAutoStop(Session session) {
+    public boolean canAutoStop(Session session, AutoSessionContext context) {
         // For auto-stop, we still want to allow stopping sessions that have ended
         // (in case they are still open for some reason)
-        return wrappedRule.canAutoStop(session);
+        return wrappedRule.canAutoStop(session, context);
     }
 
     // ========== RULE DESCRIPTION METHOD ==========
@@ -158,13 +160,13 @@ public class SessionEndedRule implements AutoSessionRule {
      * to create a complete LocalDateTime for accurate temporal comparison.
      *
      * @param session the session to check for ended status, must not be null
+     * @param now     the evaluation instant from the rule context
      * @return true if the current time is after the session's end time, false
      *         otherwise
      * @throws IllegalArgumentException if session is null
      * 
      */
-    private boolean hasSessionEnded(Session session) {
-        LocalDateTime now = LocalDateTime.now();
+    private boolean hasSessionEnded(Session session, LocalDateTime now) {
         LocalDateTime endDateTime = LocalDateTime.of(session.getSessionDate(), session.getEndTime());
         return now.isAfter(endDateTime);
     }
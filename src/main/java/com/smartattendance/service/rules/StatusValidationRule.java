@@ -80,12 +80,13 @@ public class StatusValidationRule implements AutoSessionRule {
      *
      * @param session the session to evaluate for automatic starting, must not be
      *                null
+     * @param context snapshot of the session state and clock, must not be null
      * @return true if the session is in "Pending" status and the wrapped rule
      *         allows auto-start, false otherwise
      * @throws IllegalArgumentException if session is null
      */
     @Override
-    public boolean canAutoStart(Session session) {
+    public boolean canAutoStart(Session session, AutoSessionContext context) {
         // Can only auto-start if session is in Pending status
         if (!"Pending".equals(session.getStatus())) {
             appLogger.warn("StatusValidationRule: Session " + session.getSessionId() +
@@ -93,7 +94,7 @@ public class StatusValidationRule implements AutoSessionRule {
             return false;
         }
 
-        return wrappedRule.canAutoStart(session);
+        return wrappedRule.canAutoStart(session, context);
     }
 
     /**
@@ -121,12 +122,13 @@ public class StatusValidationRule implements AutoSessionRule {
      *
      * @param session the session to evaluate for automatic stopping, must not be
      *                null
+     * @param context snapshot of the session state and clock, must not be null
      * @return true if the session is not in "Closed" status and the wrapped rule
      *         allows auto-stop, false otherwise
      * @throws IllegalArgumentException if session is null
      */
     @Override
-    public boolean canAutoStop(Session session) {
+    public boolean canAutoStop(Session session, AutoSessionContext context) {
         // Can only auto-stop if session is in Pending or Open status
         if ("Closed".equals(session.getStatus())) {
             appLogger.warn("StatusValidationRule: Session " + session.getSessionId() +
@@ -134,7 +136,7 @@ public class StatusValidationRule implements AutoSessionRule {
             return false;
         }
 
-        return wrappedRule.canAutoStop(session);
+        return wrappedRule.canAutoStop(session, context);
     }
 
     // ========== RULE DESCRIPTION METHOD ==========
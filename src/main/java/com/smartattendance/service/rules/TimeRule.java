@@ -13,8 +13,8 @@ import java.time.LocalDateTime;
  * chain,
  * providing core time-based validation for both automatic starting and stopping
  * of sessions.
- * It evaluates whether the current system time meets or exceeds the scheduled
- * session times.
+ * It evaluates whether the current time, taken once per evaluation from the
+ * {@link AutoSessionContext}, meets or exceeds the scheduled session times.
  * 
  * Temporal Validation Rules:
  * Auto-Start Temporal Condition:
@@ -61,6 +61,7 @@ public class TimeRule implements AutoSessionRule {
      *
      * @param session the session to evaluate for automatic starting, must not be
      *                null
+     * @param context snapshot of the session state and clock, must not be null
      * @return true if current time meets or exceeds the session start time, false
      *         otherwise
      * @throws IllegalArgumentException if session is null or missing temporal
@@ -68,9 +69,9 @@ public class TimeRule implements AutoSessionRule {
      * 
      */
     @Override
-    public boolean canAutoStart(Session session) {
+    public boolean canAutoStart(Session session, AutoSessionContext context) {
         // For auto-start: only check if current time >= session start time
-        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime now = context.getNow();
         LocalDateTime startDateTime = LocalDateTime.of(session.getSessionDate(), session.getStartTime());
 
         boolean canStart = now.isAfter(startDateTime) || now.isEqual(startDateTime);
@@ -96,6 +97,7 @@ public class TimeRule implements AutoSessionRule {
      *
      * @param session the session to evaluate for automatic stopping, must not be
      *                null
+     * @param context snapshot of the session state and clock, must not be null
      * @return true if current time meets or exceeds the session end time, false
      *         otherwise
      * @throws IllegalArgumentException if session is null or missing temporal
@@ -103,9 +105,9 @@ public class TimeRule implements AutoSessionRule {
      * 
      */
     @Override
-    public boolean canAutoStop(Session session) {
+    public boolean canAutoStop(Session session, AutoSessionContext context) {
         // For auto-stop: only check if current time >= session end time
-        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime now = context.getNow();
         LocalDateTime endDateTime = LocalDateTime.of(session.getSessionDate(), session.getEndTime());
 
         boolean canStop = now.isAfter(endDateTime) || now.isEqual(endDateTime);
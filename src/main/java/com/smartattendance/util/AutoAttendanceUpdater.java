@@ -2,10 +2,10 @@ package com.smartattendance.util;
 
 // import java.util.ArrayList;
 // import java.util.List;
+import java.time.LocalDateTime;
 import java.util.Timer;
 import java.util.TimerTask;
 
-import com.smartattendance.repository.SessionRepository;
 // import com.smartattendance.service.AttendanceObserver;
 import com.smartattendance.service.AttendanceService;
 import com.smartattendance.service.AutoAttendanceMarker;
@@ -24,14 +24,20 @@ import com.smartattendance.service.AutoAttendanceMarker;
  * records as ABSENT for sessions that are closed. It delegates the actual
  * marking to {@link AutoAttendanceMarker}.
  *
+ * Sessions are normally swept the moment they are closed (see
+ * {@link AttendanceService#closeSession(int)}), so this is only a safety net:
+ * the first run sweeps every closed session, later runs only sessions closed
+ * since the previous run (the watermark).
+ *
  */
 public class AutoAttendanceUpdater {
 
-    private final SessionRepository sessionRepository; // Reference to sessionRepository
+    private static final long WATERMARK_OVERLAP_SECONDS = 5; // Re-check sessions closed just before the last run
     // private final AttendanceService attendanceService;
     // private final List<AttendanceObserver> observers = new ArrayList<>();
     private final Timer timer;
     private final AutoAttendanceMarker autoAttendanceMarker; // Reference to autoAttendanceMarker
+    private LocalDateTime watermark; // Start of the previous sweep, null until the first sweep ran
 
     /**
      * Constructs an AutoAttendanceUpdater.
@@ -40,7 +46,6 @@ public class AutoAttendanceUpdater {
      * access to the AutoAttendanceMarker
      */
     public AutoAttendanceUpdater(AttendanceService attendanceService) {
-        this.sessionRepository = new SessionRepository();
         this.autoAttendanceMarker = attendanceService.getAutoAttendanceMarker();
         this.timer = new Timer(true); // daemon thread
     }
@@ -70,7 +75,7 @@ public class AutoAttendanceUpdater {
             @Override
             public void run() {
                 try {
-                    autoAttendanceMarker.markPendingAttendanceAsAbsent(sessionRepository);
+                    sweep();
 
                     // // Refresh UI on JavaFX thread
                     // Platform.runLater(() -> {
@@ -84,6 +89,23 @@ public class AutoAttendanceUpdater {
         }, 0, intervalSeconds * 1000L);
     }
 
+    /**
+     * Marks PENDING records of sessions closed since the watermark as ABSENT
+     * and, if it succeeded, moves the watermark to the start of this sweep. The sweep overlaps
+     * the previous one by a few seconds so a session closed while it ran is
+     * not missed; re-sweeping a session is harmless as no PENDING rows remain.
+     */
+    private void sweep() {
+        LocalDateTime sweepStart = LocalDateTime.now();
+        LocalDateTime closedSince = watermark != null
+                ? watermark.minusSeconds(WATERMARK_OVERLAP_SECONDS)
+                : null;
+
+        if (autoAttendanceMarker.markPendingAttendanceAsAbsent(closedSince) >= 0) {
+            watermark = sweepStart;
+        }
+    }
+
      /**
      * Stops the automatic attendance updater.
      * 
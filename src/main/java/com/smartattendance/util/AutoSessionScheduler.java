@@ -0,0 +1,296 @@
+package com.smartattendance.util;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.smartattendance.model.entity.Session;
+import com.smartattendance.repository.SessionRepository;
+import com.smartattendance.service.SessionService;
+import com.smartattendance.service.rules.AutoSessionContext;
+import com.smartattendance.util.security.log.ApplicationLogger;
+
+/**
+ * Time-indexed scheduler for automatic session start and stop.
+ *
+ * Instead of polling every session on a fixed interval, this scheduler keeps
+ * a priority queue of the upcoming auto-start and auto-stop instants and
+ * sleeps on a background thread until the earliest one is due. When a trigger
+ * fires, the affected sessions are evaluated against one AutoSessionContext
+ * snapshot through the SessionService rule chain (Decorator pattern), so
+ * sessions open and close on time while the database stays idle in between.
+ *
+ * Key features:
+ * - One query to build the plan, none while waiting
+ * - Runs off the JavaFX thread, UI is notified through a listener
+ * - Re-plans only when sessions are created, edited, deleted or stopped
+ * - Triggers already due when planned (e.g. after start-up) fire immediately
+ *
+ * @version 14:10 19 Oct 2026
+ */
+public class AutoSessionScheduler {
+
+    // ========== TRIGGER MODEL ==========
+
+    /** Kind of automatic operation a trigger performs */
+    private enum Action {
+        START, STOP
+    }
+
+    /** A single planned auto-start or auto-stop instant, ordered by time */
+    private record Trigger(LocalDateTime at, int sessionId, Action action) implements Comparable<Trigger> {
+        @Override
+        public int compareTo(Trigger other) {
+            return at.compareTo(other.at);
+        }
+    }
+
+    /** Upper bound for one sleep, so system clock changes are picked up */
+    private static final long MAX_SLEEP_MILLIS = 60_000;
+
+    // ========== DEPENDENCIES ==========
+
+    /** Service evaluating the rule chain and applying start/stop */
+    private final SessionService sessionService;
+
+    /** Repository used to load the auto-session candidates */
+    private final SessionRepository sessionRepository = new SessionRepository();
+
+    /** Logger for scheduling events */
+    private final ApplicationLogger appLogger = ApplicationLogger.getInstance();
+
+    // ========== SCHEDULER STATE ==========
+
+    /** Upcoming triggers, guarded by lock */
+    private final PriorityQueue<Trigger> triggers = new PriorityQueue<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Signalled on re-plan requests and shutdown */
+    private final Condition wakeUp = lock.newCondition();
+
+    /** Set when the plan must be rebuilt from the database, guarded by lock */
+    private boolean replanRequested = true;
+
+    private volatile boolean running = false;
+
+    private Thread worker;
+
+    /** Called after sessions were started or stopped, e.g. to refresh a table */
+    private volatile Runnable onSessionsChanged;
+
+    // ========== CONSTRUCTOR ==========
+
+    /**
+     * Constructs a new AutoSessionScheduler.
+     *
+     * @param sessionService the service applying automatic start/stop, must not
+     *                       be null
+     */
+    public AutoSessionScheduler(SessionService sessionService) {
+        this.sessionService = sessionService;
+    }
+
+    // ========== LIFECYCLE METHODS ==========
+
+    /**
+     * Starts the scheduler thread. The first plan is built immediately.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "auto-session-scheduler");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Stops the scheduler thread. Pending triggers are discarded.
+     */
+    public synchronized void stop() {
+        running = false;
+        signal();
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+    }
+
+    /**
+     * Requests the plan to be rebuilt from the database. Returns immediately,
+     * the query runs on the scheduler thread.
+     * Call after a session is created, edited, deleted or stopped.
+     */
+    public void replan() {
+        lock.lock();
+        try {
+            replanRequested = true;
+            wakeUp.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the callback run (on the scheduler thread) after triggers fired.
+     *
+     * @param listener the callback, or null to remove it
+     */
+    public void setOnSessionsChanged(Runnable listener) {
+        this.onSessionsChanged = listener;
+    }
+
+    // ========== SCHEDULING LOOP ==========
+
+    /**
+     * Main loop: rebuild the plan when requested, sleep until the earliest
+     * trigger is due, then fire every due trigger.
+     */
+    private void run() {
+        while (running) {
+            try {
+                if (takeReplanRequest()) {
+                    rebuildPlan();
+                }
+
+                List<Trigger> due = awaitDueTriggers();
+                if (!due.isEmpty()) {
+                    fire(due);
+                }
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return;
+                }
+            } catch (Exception e) {
+                appLogger.error("AutoSessionScheduler: Scheduling error", e);
+            }
+        }
+    }
+
+    private boolean takeReplanRequest() {
+        lock.lock();
+        try {
+            boolean requested = replanRequested;
+            replanRequested = false;
+            return requested;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Loads the auto-session candidates and replaces the trigger queue.
+     */
+    private void rebuildPlan() {
+        List<Session> sessions = sessionRepository.findAutoSessions();
+        List<Trigger> planned = new ArrayList<>();
+
+        for (Session session : sessions) {
+            if (session.getSessionDate() == null) {
+                continue;
+            }
+            if (session.isAutoStart() && "Pending".equals(session.getStatus())
+                    && session.getStartTime() != null) {
+                planned.add(new Trigger(LocalDateTime.of(session.getSessionDate(), session.getStartTime()),
+                        session.getSessionId(), Action.START));
+            }
+            if (session.isAutoStop() && !"Closed".equals(session.getStatus())
+                    && session.getEndTime() != null) {
+                planned.add(new Trigger(LocalDateTime.of(session.getSessionDate(), session.getEndTime()),
+                        session.getSessionId(), Action.STOP));
+            }
+        }
+
+        lock.lock();
+        try {
+            triggers.clear();
+            triggers.addAll(planned);
+        } finally {
+            lock.unlock();
+        }
+
+        Trigger next = planned.stream().min(Trigger::compareTo).orElse(null);
+        appLogger.info("AutoSessionScheduler: Planned " + planned.size() + " triggers"
+                + (next != null ? ", next " + next.action() + " of session " + next.sessionId() + " at " + next.at() : ""));
+    }
+
+    /**
+     * Sleeps until the earliest trigger is due or a re-plan is requested.
+     *
+     * @return the triggers that are due now, empty if woken for a re-plan
+     */
+    private List<Trigger> awaitDueTriggers() throws InterruptedException {
+        lock.lock();
+        try {
+            while (running && !replanRequested) {
+                Trigger next = triggers.peek();
+                LocalDateTime now = LocalDateTime.now();
+
+                if (next != null && !next.at().isAfter(now)) {
+                    break;
+                }
+
+                long waitMillis = next == null
+                        ? MAX_SLEEP_MILLIS
+                        : Math.min(MAX_SLEEP_MILLIS, Duration.between(now, next.at()).toMillis() + 1);
+                wakeUp.await(waitMillis, TimeUnit.MILLISECONDS);
+            }
+
+            List<Trigger> due = new ArrayList<>();
+            LocalDateTime now = LocalDateTime.now();
+            while (!triggers.isEmpty() && !triggers.peek().at().isAfter(now)) {
+                due.add(triggers.poll());
+            }
+            return due;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Looks up each session with a due trigger in a fresh rule context and
+     * lets the rule chain decide whether to start or stop it. A trigger rejected by the rules (e.g.
+     * another session is still open) is retried on the next re-plan.
+     */
+    private void fire(List<Trigger> due) {
+        Set<Integer> sessionIds = new LinkedHashSet<>();
+        for (Trigger trigger : due) {
+            appLogger.info("AutoSessionScheduler: " + trigger.action() + " due for session " + trigger.sessionId());
+            sessionIds.add(trigger.sessionId());
+        }
+
+        // One snapshot (single query, single clock instant) for the whole tick
+        AutoSessionContext context = sessionService.captureAutoSessionContext();
+
+        boolean changed = false;
+        for (int sessionId : sessionIds) {
+            Session session = context.getSession(sessionId);
+            if (session != null && sessionService.processAutoSession(session, context)) {
+                changed = true;
+            }
+        }
+
+        Runnable listener = onSessionsChanged;
+        if (changed && listener != null) {
+            listener.run();
+        }
+    }
+
+    private void signal() {
+        lock.lock();
+        try {
+            wakeUp.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
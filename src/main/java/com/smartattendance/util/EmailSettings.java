@@ -11,11 +11,15 @@ public record EmailSettings(
         String host, int port, String username, String password, boolean startTls) {
 
     public static EmailSettings fromEnv() {
-        String host = ENV.getSMTPHost();
-        int port = Integer.parseInt(ENV.getSMTPPort());
-        String user = ENV.getSMTPUser();
-        String pass = ENV.getSMTPPass();
-        boolean tls = Boolean.parseBoolean(ENV.getSMTPTls());
+        String host = orDefault(ENV.getSMTPHost(), "smtp.gmail.com");
+        int port = Integer.parseInt(orDefault(ENV.getSMTPPort(), "587"));
+        String user = orDefault(ENV.getSMTPUser(), "");
+        String pass = orDefault(ENV.getSMTPPass(), "");
+        boolean tls = Boolean.parseBoolean(orDefault(ENV.getSMTPTls(), "true"));
         return new EmailSettings(host, port, user, pass, tls);
     }
+
+    private static String orDefault(String value, String def) {
+        return (value != null && !value.isBlank()) ? value : def;
+    }
 }
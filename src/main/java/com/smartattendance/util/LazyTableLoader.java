@@ -0,0 +1,48 @@
+package com.smartattendance.util;
+
+import javafx.scene.control.TableRow;
+import javafx.scene.control.TableView;
+
+/**
+ * Triggers loading of the next page when a {@link TableView} is scrolled
+ * near the end of its items.
+ *
+ * The table only creates rows for the visible part of the list, so a row
+ * being laid out within {@code prefetchRows} of the last item means the user
+ * has scrolled (or the viewport is tall enough) to need more data. Empty
+ * filler rows below the last item count too, so a short first page keeps
+ * loading until the viewport is full.
+ *
+ * The callback runs on the FX thread and may be called many times while a
+ * page is loading; it must ignore calls while a load is in flight or when
+ * there are no more pages.
+ *
+ * @version 17:50 19 Oct 2026
+ */
+public final class LazyTableLoader {
+
+    private LazyTableLoader() {
+    }
+
+    /**
+     * Installs a row factory on the table that calls {@code loadMore} when a
+     * row near the end of the items becomes visible. Replaces any existing
+     * row factory.
+     *
+     * @param table        table to watch
+     * @param prefetchRows how many rows before the end to start loading
+     * @param loadMore     loads and appends the next page
+     * @param <T>          type of the table items
+     */
+    public static <T> void install(TableView<T> table, int prefetchRows, Runnable loadMore) {
+        table.setRowFactory(tv -> new TableRow<>() {
+            @Override
+            public void updateIndex(int index) {
+                super.updateIndex(index);
+                if (index >= 0 && index >= tv.getItems().size() - prefetchRows) {
+                    loadMore.run();
+                }
+            }
+        });
+    }
+}
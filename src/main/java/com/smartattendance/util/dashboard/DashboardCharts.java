@@ -7,7 +7,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
-import com.smartattendance.model.dto.dashboard.AttendanceRecord;
+import com.smartattendance.model.dto.dashboard.StatusCounts;
 import com.smartattendance.util.chart.ChartStyler;
 import com.smartattendance.util.chart.DefaultChartStyler;
 import com.smartattendance.util.chart.DefaultLegendBuilder;
@@ -26,12 +26,11 @@ import javafx.scene.layout.HBox;
 
 /**
  * Utility class that builds and configures dashboard charts from
- * raw {@link AttendanceRecord} data.
+ * aggregates computed by the database (see {@code DashboardAggregates}).
  *
  * <p>Responsibilities:
  * <ul>
- *     <li>Aggregate raw attendance records into chart-friendly data structures</li>
- *     <li>Populate JavaFX charts (bar, stacked bar, pie) with those aggregates</li>
+ *     <li>Populate JavaFX charts (bar, stacked bar, pie) with pre-aggregated counts</li>
  *     <li>Apply shared styling and custom legends using the util.chart layer</li>
  *     <li>Add tooltips for better readability and quick inspection of values</li>
  * </ul>
@@ -67,7 +66,7 @@ public final class DashboardCharts {
      * <p>Behaviour:
      * <ul>
      *     <li>Initialises the X-axis with one bar per day in the {@code [from, to]} date range</li>
-     *     <li>Counts how many records fall on each day (based on {@code markedAt})</li>
+     *     <li>Fills in the per-day counts computed by the database</li>
      *     <li>Labels each bar using the three-letter day-of-week (e.g. MON, TUE)</li>
      *     <li>Applies the shared chart styling and installs tooltips</li>
      * </ul>
@@ -75,14 +74,14 @@ public final class DashboardCharts {
      * @param chart   target bar chart to populate (must have String X and Number Y)
      * @param x       category axis representing days of the week (not modified directly here)
      * @param y       numeric axis representing counts (styled via {@link ChartStyler})
-     * @param records list of attendance records to aggregate
+     * @param perDay  record count per day; days without records may be omitted
      * @param from    start date (inclusive) of the range; if {@code null}, the method returns
      * @param to      end date (inclusive) of the range; if {@code null}, the method returns
      */
     public static void setupWeeklyChart(BarChart<String, Number> chart,
                                         CategoryAxis x,
                                         NumberAxis y,
-                                        List<AttendanceRecord> records,
+                                        Map<LocalDate, Integer> perDay,
                                         LocalDate from,
                                         LocalDate to) {
         // If chart or date range is missing, do nothing.
@@ -91,23 +90,15 @@ public final class DashboardCharts {
         // Pre-populate a map with one entry per day in the range so that
         // even days with zero attendance get a bar with value 0.
         long days = ChronoUnit.DAYS.between(from, to) + 1;
-        Map<LocalDate, Integer> perDay = new LinkedHashMap<>();
+        Map<LocalDate, Integer> range = new LinkedHashMap<>();
         for (int i = 0; i < days; i++) {
-            perDay.put(from.plusDays(i), 0);
-        }
-
-        // Count how many records fall on each date in the range.
-        for (AttendanceRecord r : records) {
-            if (r.markedAt == null) continue;
-            LocalDate d = r.markedAt.toLocalDate();
-            if (!d.isBefore(from) && !d.isAfter(to)) {
-                perDay.put(d, perDay.get(d) + 1);
-            }
+            LocalDate d = from.plusDays(i);
+            range.put(d, perDay.getOrDefault(d, 0));
         }
 
         // Convert the aggregated map into a single bar chart series.
         XYChart.Series<String, Number> s = new XYChart.Series<>();
-        for (Map.Entry<LocalDate, Integer> e : perDay.entrySet()) {
+        for (Map.Entry<LocalDate, Integer> e : range.entrySet()) {
             String label = e.getKey().getDayOfWeek().toString().substring(0, 3);
             s.getData().add(new XYChart.Data<>(label, e.getValue()));
         }
@@ -125,44 +116,30 @@ public final class DashboardCharts {
      *
      * <p>Behaviour:
      * <ul>
-     *     <li>Defines discrete time bins: ≤0, 1–5, 6–10, 11–15, &gt;15 minutes</li>
-     *     <li>Computes the difference between {@code sessionStart} and {@code markedAt}</li>
-     *     <li>Increments the count of the appropriate bin for each valid record</li>
+     *     <li>Uses discrete time bins: ≤0, 1–5, 6–10, 11–15, &gt;15 minutes</li>
+     *     <li>Plots the per-bin counts computed by the database</li>
      *     <li>Applies the shared chart styling and installs tooltips</li>
      * </ul>
      *
      * @param chart   target bar chart to populate
      * @param x       category axis representing time bins
      * @param y       numeric axis representing counts
-     * @param records list of attendance records to analyze
+     * @param counts  arrival counts per bin, in the bin order above
      */
     public static void setupArrivalHistogram(BarChart<String, Number> chart,
                                              CategoryAxis x,
                                              NumberAxis y,
-                                             List<AttendanceRecord> records) {
+                                             int[] counts) {
         if (chart == null) return;
 
-        // Define logical bins for minutes difference between session start and arrival.
+        // Labels for minutes difference between session start and arrival.
         String[] bins = {"≤0", "1–5", "6–10", "11–15", ">15"};
-        int[] counts  = new int[bins.length];
-
-        // For each record, compute the delay in minutes and map it into a bin index.
-        for (AttendanceRecord r : records) {
-            if (r.markedAt == null || r.sessionStart == null) continue;
-            long mins = java.time.Duration.between(r.sessionStart, r.markedAt).toMinutes();
-            int idx;
-            if (mins <= 0) idx = 0;
-            else if (mins <= 5) idx = 1;
-            else if (mins <= 10) idx = 2;
-            else if (mins <= 15) idx = 3;
-            else idx = 4;
-            counts[idx]++;
-        }
 
         // Populate a single series with bin labels and counts.
         XYChart.Series<String, Number> s = new XYChart.Series<>();
         for (int i = 0; i < bins.length; i++) {
-            s.getData().add(new XYChart.Data<>(bins[i], counts[i]));
+            int count = (counts != null && i < counts.length) ? counts[i] : 0;
+            s.getData().add(new XYChart.Data<>(bins[i], count));
         }
         chart.getData().setAll(s);
 
@@ -177,8 +154,7 @@ public final class DashboardCharts {
      *
      * <p>Behaviour:
      * <ul>
-     *     <li>Counts Present/Late/Absent/Pending from {@link AttendanceRecord#status}</li>
-     *     <li>Treats {@code null} or empty status as {@code "Pending"}</li>
+     *     <li>Uses the Present/Late/Absent/Pending counts computed by the database</li>
      *     <li>Filters which slices to show based on the boolean flags</li>
      *     <li>Applies a shared pie style, adds percentage tooltips</li>
      *     <li>Optionally renders a custom legend in {@code legendBox}</li>
@@ -186,7 +162,7 @@ public final class DashboardCharts {
      *
      * @param pie         target pie chart to populate
      * @param legendBox   container in which to render the custom legend; may be {@code null}
-     * @param records     list of attendance records
+     * @param counts      counts per status
      * @param showPresent whether to include the "Present" slice
      * @param showLate    whether to include the "Late" slice
      * @param showAbsent  whether to include the "Absent" slice
@@ -194,29 +170,21 @@ public final class DashboardCharts {
      */
     public static void setupStatusPie(PieChart pie,
                                       HBox legendBox,
-                                      List<AttendanceRecord> records,
+                                      StatusCounts counts,
                                       boolean showPresent,
                                       boolean showLate,
                                       boolean showAbsent,
                                       boolean showPending) {
         if (pie == null) return;
 
-        // Aggregate counts per status. Unknown/empty statuses fall back to "Pending".
-        int present = 0, late = 0, absent = 0, pending = 0;
-        for (AttendanceRecord r : records) {
-            String st = (r.status == null || r.status.isEmpty()) ? "Pending" : r.status;
-            if ("Present".equals(st)) present++;
-            else if ("Late".equals(st)) late++;
-            else if ("Absent".equals(st)) absent++;
-            else pending++;
-        }
+        StatusCounts c = (counts != null) ? counts : new StatusCounts();
 
         // Build pie slices conditionally, depending on user-selected filters.
         pie.getData().clear();
-        if (showPresent) pie.getData().add(new PieChart.Data("Present", present));
-        if (showLate)    pie.getData().add(new PieChart.Data("Late", late));
-        if (showAbsent)  pie.getData().add(new PieChart.Data("Absent", absent));
-        if (showPending) pie.getData().add(new PieChart.Data("Pending", pending));
+        if (showPresent) pie.getData().add(new PieChart.Data("Present", c.present));
+        if (showLate)    pie.getData().add(new PieChart.Data("Late", c.late));
+        if (showAbsent)  pie.getData().add(new PieChart.Data("Absent", c.absent));
+        if (showPending) pie.getData().add(new PieChart.Data("Pending", c.pending));
 
         STYLER.stylePieChart(pie);
         addPieTooltips(pie);
@@ -236,8 +204,7 @@ public final class DashboardCharts {
      *
      * <p>Behaviour:
      * <ul>
-     *     <li>Groups records by course code (falling back to "Unknown" if missing/blank)</li>
-     *     <li>For each course, counts Present/Late/Absent/Pending occurrences</li>
+     *     <li>Uses the course &times; status matrix computed by the database</li>
      *     <li>Creates up to four stacked series, one per status, controlled by flags</li>
      *     <li>Sets X-axis categories in course order to keep the mapping stable</li>
      *     <li>Applies shared styling and installs stacked bar tooltips</li>
@@ -248,7 +215,7 @@ public final class DashboardCharts {
      * @param x           category axis representing courses
      * @param y           numeric axis representing counts
      * @param legendBox   optional container for the custom legend; may be {@code null}
-     * @param records     list of attendance records
+     * @param perCourse   counts per status keyed by course code, in display order
      * @param showPresent whether to include "Present" as a stacked series
      * @param showLate    whether to include "Late" as a stacked series
      * @param showAbsent  whether to include "Absent" as a stacked series
@@ -258,31 +225,15 @@ public final class DashboardCharts {
                                         CategoryAxis x,
                                         NumberAxis y,
                                         HBox legendBox,
-                                        List<AttendanceRecord> records,
+                                        Map<String, StatusCounts> perCourse,
                                         boolean showPresent,
                                         boolean showLate,
                                         boolean showAbsent,
                                         boolean showPending) {
         if (chart == null) return;
 
-        // Per-course arrays store counts in order: [Present, Late, Absent, Pending].
-        Map<String, int[]> perCourse = new LinkedHashMap<>();
-        for (AttendanceRecord r : records) {
-            String course = (r.courseCode != null && !r.courseCode.isBlank())
-                    ? r.courseCode : "Unknown";
-            perCourse.putIfAbsent(course, new int[4]);
-            int[] arr = perCourse.get(course);
-
-            // Normalize status and increment the appropriate index.
-            String st = (r.status == null || r.status.isEmpty()) ? "Pending" : r.status;
-            if ("Present".equals(st)) arr[0]++;
-            else if ("Late".equals(st)) arr[1]++;
-            else if ("Absent".equals(st)) arr[2]++;
-            else arr[3]++;
-        }
-
         // No data → clear chart and exit.
-        if (perCourse.isEmpty()) {
+        if (perCourse == null || perCourse.isEmpty()) {
             chart.getData().clear();
             return;
         }
@@ -298,7 +249,7 @@ public final class DashboardCharts {
             XYChart.Series<String, Number> s = new XYChart.Series<>();
             s.setName("Present");
             for (String c : courses) {
-                s.getData().add(new XYChart.Data<>(c, perCourse.get(c)[0]));
+                s.getData().add(new XYChart.Data<>(c, perCourse.get(c).present));
             }
             seriesList.add(s);
         }
@@ -306,7 +257,7 @@ public final class DashboardCharts {
             XYChart.Series<String, Number> s = new XYChart.Series<>();
             s.setName("Late");
             for (String c : courses) {
-                s.getData().add(new XYChart.Data<>(c, perCourse.get(c)[1]));
+                s.getData().add(new XYChart.Data<>(c, perCourse.get(c).late));
             }
             seriesList.add(s);
         }
@@ -314,7 +265,7 @@ public final class DashboardCharts {
             XYChart.Series<String, Number> s = new XYChart.Series<>();
             s.setName("Absent");
             for (String c : courses) {
-                s.getData().add(new XYChart.Data<>(c, perCourse.get(c)[2]));
+                s.getData().add(new XYChart.Data<>(c, perCourse.get(c).absent));
             }
             seriesList.add(s);
         }
@@ -322,7 +273,7 @@ public final class DashboardCharts {
             XYChart.Series<String, Number> s = new XYChart.Series<>();
             s.setName("Pending");
             for (String c : courses) {
-                s.getData().add(new XYChart.Data<>(c, perCourse.get(c)[3]));
+                s.getData().add(new XYChart.Data<>(c, perCourse.get(c).pending));
             }
             seriesList.add(s);
         }
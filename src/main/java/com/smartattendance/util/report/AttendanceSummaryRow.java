@@ -0,0 +1,166 @@
+package com.smartattendance.util.report;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * One row of the attendance summary report: a student's attendance in one
+ * course, aggregated by the database.
+ *
+ * <p>The attendance ratio is (Present + Late) over the sessions with a final
+ * status (Present, Late or Absent); Pending records are counted separately.
+ * Absence streaks count consecutive Absent sessions of the course, in
+ * session order, ignoring Pending ones.
+ *
+ * @version 21:50 19 Oct 2026
+ */
+public class AttendanceSummaryRow {
+
+    /** Column headers, in the order every summary generator writes them. */
+    public static final String[] HEADERS = {
+            "Student ID", "Student Name", "Course", "Sessions", "Present", "Late", "Absent", "Pending",
+            "Attendance %", "Longest Absence Streak", "Current Absence Streak", "Last Attended"
+    };
+
+    private static final DateTimeFormatter TS_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private String studentId;
+    private String studentName;
+    private String courseCode;
+    private int sessions;
+    private int present;
+    private int late;
+    private int absent;
+    private int pending;
+    private Double attendancePercent; // null if no session has a final status
+    private int longestAbsenceStreak;
+    private int currentAbsenceStreak;
+    private LocalDateTime lastAttended;
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(String studentId) {
+        this.studentId = studentId;
+    }
+
+    public String getStudentName() {
+        return studentName;
+    }
+
+    public void setStudentName(String studentName) {
+        this.studentName = studentName;
+    }
+
+    public String getCourseCode() {
+        return courseCode;
+    }
+
+    public void setCourseCode(String courseCode) {
+        this.courseCode = courseCode;
+    }
+
+    public int getSessions() {
+        return sessions;
+    }
+
+    public void setSessions(int sessions) {
+        this.sessions = sessions;
+    }
+
+    public int getPresent() {
+        return present;
+    }
+
+    public void setPresent(int present) {
+        this.present = present;
+    }
+
+    public int getLate() {
+        return late;
+    }
+
+    public void setLate(int late) {
+        this.late = late;
+    }
+
+    public int getAbsent() {
+        return absent;
+    }
+
+    public void setAbsent(int absent) {
+        this.absent = absent;
+    }
+
+    public int getPending() {
+        return pending;
+    }
+
+    public void setPending(int pending) {
+        this.pending = pending;
+    }
+
+    /**
+     * @return share of sessions attended, 0 to 100, or {@code null} if no
+     *         session has a final status yet
+     */
+    public Double getAttendancePercent() {
+        return attendancePercent;
+    }
+
+    public void setAttendancePercent(Double attendancePercent) {
+        this.attendancePercent = attendancePercent;
+    }
+
+    public int getLongestAbsenceStreak() {
+        return longestAbsenceStreak;
+    }
+
+    public void setLongestAbsenceStreak(int longestAbsenceStreak) {
+        this.longestAbsenceStreak = longestAbsenceStreak;
+    }
+
+    /**
+     * @return Absent sessions since the student last attended the course
+     */
+    public int getCurrentAbsenceStreak() {
+        return currentAbsenceStreak;
+    }
+
+    public void setCurrentAbsenceStreak(int currentAbsenceStreak) {
+        this.currentAbsenceStreak = currentAbsenceStreak;
+    }
+
+    /**
+     * @return when the student was last marked Present or Late, or
+     *         {@code null} if never
+     */
+    public LocalDateTime getLastAttended() {
+        return lastAttended;
+    }
+
+    public void setLastAttended(LocalDateTime lastAttended) {
+        this.lastAttended = lastAttended;
+    }
+
+    /**
+     * @return the row as display text, one value per {@link #HEADERS} entry
+     */
+    public String[] toCells() {
+        return new String[] {
+                studentId,
+                studentName != null ? studentName : "",
+                courseCode,
+                String.valueOf(sessions),
+                String.valueOf(present),
+                String.valueOf(late),
+                String.valueOf(absent),
+                String.valueOf(pending),
+                attendancePercent != null ? String.format("%.1f", attendancePercent) : "",
+                String.valueOf(longestAbsenceStreak),
+                String.valueOf(currentAbsenceStreak),
+                lastAttended != null ? TS_FMT.format(lastAttended) : ""
+        };
+    }
+}
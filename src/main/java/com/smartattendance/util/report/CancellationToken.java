@@ -0,0 +1,42 @@
+package com.smartattendance.util.report;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Cooperative cancellation flag for a report export.
+ *
+ * The owner of the export calls {@link #cancel()}; the code writing the
+ * report calls {@link #throwIfCancelled()} between rows, so an export stops
+ * within one row of being cancelled without being interrupted mid-write.
+ *
+ * @version 20:05 19 Oct 2026
+ */
+public final class CancellationToken {
+
+    /** A token that is never cancelled, for exports that cannot be stopped. */
+    public static final CancellationToken NONE = new CancellationToken();
+
+    private volatile boolean cancelled = false;
+
+    /**
+     * Requests cancellation. Has no effect on {@link #NONE}.
+     */
+    public void cancel() {
+        if (this != NONE) {
+            cancelled = true;
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @throws CancellationException if cancellation was requested
+     */
+    public void throwIfCancelled() {
+        if (cancelled) {
+            throw new CancellationException("Report export cancelled");
+        }
+    }
+}
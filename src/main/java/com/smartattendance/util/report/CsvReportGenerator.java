@@ -1,8 +1,10 @@
 package com.smartattendance.util.report;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
-import java.io.PrintWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.List;
 
 /**
@@ -14,6 +16,8 @@ import java.util.List;
  *     <li>Uses {@link ReportSpec} to decide which columns to include</li>
  *     <li>Writes a header row followed by one row per {@link AttendanceReportRow}</li>
  *     <li>Performs simple CSV escaping for values containing commas, quotes, or newlines</li>
+ *     <li>Can also stream rows one at a time via {@link #open(ReportSpec, File)}</li>
+ *     <li>Writes the per student and course summary report via {@link #generateSummary}</li>
  * </ul>
  *
  * <p>Example usage:
@@ -24,14 +28,14 @@ import java.util.List;
  * 
  * @author Ernest Lun
  */
-public class CsvReportGenerator implements ReportGenerator {
+public class CsvReportGenerator implements ReportGenerator, StreamingReportGenerator, SummaryReportGenerator {
 
     /**
      * Generate a CSV report file using the provided specification and data rows.
      *
      * <p>Behaviour:
      * <ul>
-     *     <li>Opens a {@link PrintWriter} on the target file (overwriting if it exists)</li>
+     *     <li>Opens a buffered UTF-8 writer on the target file (overwriting if it exists)</li>
      *     <li>Writes a header line containing only the selected columns from {@link ReportSpec}</li>
      *     <li>Writes one CSV line per {@link AttendanceReportRow}, in the same column order</li>
      *     <li>Applies {@link #escape(String)} to each value to ensure a valid CSV format</li>
@@ -48,118 +52,161 @@ public class CsvReportGenerator implements ReportGenerator {
                          File target) throws Exception {
 
         // try-with-resources guarantees the writer is closed even if an exception occurs.
-        try (PrintWriter out = new PrintWriter(new FileWriter(target))) {
+        try (ReportWriter writer = open(spec, target)) {
+            for (AttendanceReportRow r : rows) {
+                writer.writeRow(r);
+            }
+        }
+    }
 
-            // =====================
-            //     HEADER LINE
-            // =====================
-            boolean first = true;
+    /**
+     * Open the target file and write the header line, returning a writer
+     * that appends one CSV line per row as rows are streamed in.
+     *
+     * @param spec   report configuration indicating which fields to include
+     * @param target file to write the CSV into
+     * @return writer for the data rows; closing it flushes the file
+     * @throws Exception if the file cannot be created
+     */
+    @Override
+    public ReportWriter open(ReportSpec spec, File target) throws Exception {
+        BufferedWriter out = Files.newBufferedWriter(target.toPath(), StandardCharsets.UTF_8);
+        try {
+            writeHeader(spec, out);
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
 
-            // Each "if" block conditionally writes a column header, adding
-            // a comma prefix when it's not the first column.
-            if (spec.isIncludeDateTime()) {
-                out.print("Date/Time");
-                first = false;
-            }
-            if (spec.isIncludeSessionId()) {
-                if (!first) out.print(",");
-                out.print("Session ID");
-                first = false;
-            }
-            if (spec.isIncludeCourseCode()) {
-                if (!first) out.print(",");
-                out.print("Course");
-                first = false;
-            }
-            if (spec.isIncludeStudentId()) {
-                if (!first) out.print(",");
-                out.print("Student ID");
-                first = false;
+        return new ReportWriter() {
+            @Override
+            public void writeRow(AttendanceReportRow row) throws IOException {
+                CsvReportGenerator.this.writeRow(spec, row, out);
             }
-            if (spec.isIncludeStudentName()) {
-                if (!first) out.print(",");
-                out.print("Student Name");
-                first = false;
-            }
-            if (spec.isIncludeStatus()) {
-                if (!first) out.print(",");
-                out.print("Status");
-                first = false;
-            }
-            if (spec.isIncludeMethod()) {
-                if (!first) out.print(",");
-                out.print("Method");
-                first = false;
-            }
-            if (spec.isIncludeConfidence()) {
-                if (!first) out.print(",");
-                out.print("Confidence");
-                first = false;
+
+            @Override
+            public void close() throws IOException {
+                out.close();
             }
-            if (spec.isIncludeNote()) {
-                if (!first) out.print(",");
-                out.print("Note");
+        };
+    }
+
+    /**
+     * Write the summary report: a header line with
+     * {@link AttendanceSummaryRow#HEADERS}, then one line per student and
+     * course.
+     *
+     * @param rows   summary rows to export
+     * @param target file to write the CSV into
+     * @throws Exception if file creation or writing fails
+     */
+    @Override
+    public void generateSummary(List<AttendanceSummaryRow> rows, File target) throws Exception {
+        try (BufferedWriter out = Files.newBufferedWriter(target.toPath(), StandardCharsets.UTF_8)) {
+            boolean first = true;
+            for (String header : AttendanceSummaryRow.HEADERS) {
+                first = cell(out, first, header);
             }
-            out.println(); // end of header row
+            out.newLine();
 
-            // =====================
-            //       DATA ROWS
-            // =====================
-            for (AttendanceReportRow r : rows) {
+            for (AttendanceSummaryRow r : rows) {
                 first = true;
-
-                // For each row, we mirror the same column order and inclusion
-                // logic as in the header section above.
-                if (spec.isIncludeDateTime()) {
-                    out.print(escape(r.getTimestampFormatted()));
-                    first = false;
-                }
-                if (spec.isIncludeSessionId()) {
-                    if (!first) out.print(",");
-                    out.print(escape(r.getSessionId()));
-                    first = false;
-                }
-                if (spec.isIncludeCourseCode()) {
-                    if (!first) out.print(",");
-                    out.print(escape(r.getCourseCode()));
-                    first = false;
-                }
-                if (spec.isIncludeStudentId()) {
-                    if (!first) out.print(",");
-                    out.print(escape(r.getStudentId()));
-                    first = false;
-                }
-                if (spec.isIncludeStudentName()) {
-                    if (!first) out.print(",");
-                    out.print(escape(r.getStudentName()));
-                    first = false;
-                }
-                if (spec.isIncludeStatus()) {
-                    if (!first) out.print(",");
-                    out.print(escape(r.getStatus()));
-                    first = false;
-                }
-                if (spec.isIncludeMethod()) {
-                    if (!first) out.print(",");
-                    out.print(escape(r.getMethod()));
-                    first = false;
-                }
-                if (spec.isIncludeConfidence()) {
-                    if (!first) out.print(",");
-                    out.print(escape(r.getConfidence()));
-                    first = false;
+                for (String value : r.toCells()) {
+                    first = cell(out, first, escape(value));
                 }
-                if (spec.isIncludeNote()) {
-                    if (!first) out.print(",");
-                    out.print(escape(r.getNote()));
-                }
-
-                // End of one CSV record (row).
-                out.println();
+                out.newLine();
             }
         }
     }
 
+    /**
+     * Write the header line for the selected columns.
+     */
+    private void writeHeader(ReportSpec spec, BufferedWriter out) throws IOException {
+        boolean first = true;
+
+        // Each "if" block conditionally writes a column header, adding
+        // a comma prefix when it's not the first column.
+        if (spec.isIncludeDateTime()) {
+            first = cell(out, first, "Date/Time");
+        }
+        if (spec.isIncludeSessionId()) {
+            first = cell(out, first, "Session ID");
+        }
+        if (spec.isIncludeCourseCode()) {
+            first = cell(out, first, "Course");
+        }
+        if (spec.isIncludeStudentId()) {
+            first = cell(out, first, "Student ID");
+        }
+        if (spec.isIncludeStudentName()) {
+            first = cell(out, first, "Student Name");
+        }
+        if (spec.isIncludeStatus()) {
+            first = cell(out, first, "Status");
+        }
+        if (spec.isIncludeMethod()) {
+            first = cell(out, first, "Method");
+        }
+        if (spec.isIncludeConfidence()) {
+            first = cell(out, first, "Confidence");
+        }
+        if (spec.isIncludeNote()) {
+            cell(out, first, "Note");
+        }
+        out.newLine(); // end of header row
+    }
+
+    /**
+     * Write one data line, mirroring the column order and inclusion logic
+     * of {@link #writeHeader}.
+     */
+    private void writeRow(ReportSpec spec, AttendanceReportRow r, BufferedWriter out) throws IOException {
+        boolean first = true;
+
+        if (spec.isIncludeDateTime()) {
+            first = cell(out, first, escape(r.getTimestampFormatted()));
+        }
+        if (spec.isIncludeSessionId()) {
+            first = cell(out, first, escape(r.getSessionId()));
+        }
+        if (spec.isIncludeCourseCode()) {
+            first = cell(out, first, escape(r.getCourseCode()));
+        }
+        if (spec.isIncludeStudentId()) {
+            first = cell(out, first, escape(r.getStudentId()));
+        }
+        if (spec.isIncludeStudentName()) {
+            first = cell(out, first, escape(r.getStudentName()));
+        }
+        if (spec.isIncludeStatus()) {
+            first = cell(out, first, escape(r.getStatus()));
+        }
+        if (spec.isIncludeMethod()) {
+            first = cell(out, first, escape(r.getMethod()));
+        }
+        if (spec.isIncludeConfidence()) {
+            first = cell(out, first, escape(r.getConfidence()));
+        }
+        if (spec.isIncludeNote()) {
+            cell(out, first, escape(r.getNote()));
+        }
+
+        // End of one CSV record (row).
+        out.newLine();
+    }
+
+    /**
+     * Write one cell, preceded by a comma unless it is the first of the line.
+     *
+     * @return {@code false}, the new value of the caller's "first" flag
+     */
+    private boolean cell(BufferedWriter out, boolean first, String value) throws IOException {
+        if (!first) out.write(',');
+        out.write(value);
+        return false;
+    }
+
     /**
      * Escape a value for safe inclusion in a CSV cell.
      *
@@ -0,0 +1,248 @@
+package com.smartattendance.util.report;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.multipdf.PDFMergerUtility;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+
+import com.smartattendance.config.Config;
+
+/**
+ * Renders large PDF reports on a worker pool and merges the parts with
+ * PDFBox.
+ *
+ * Rows are cut into chunks of {@code report.pdf.chunk.pages} pages of
+ * single-line rows (the first chunk is shorter by the title block). Each
+ * chunk is rendered by {@link PdfReportGenerator} into its own temp PDF on
+ * one of {@code report.pdf.workers} threads, with the same table header
+ * repeated on every page. Once all chunks are done the total page count is
+ * known, so every chunk gets its "Page X of N" footer stamped, in parallel,
+ * and {@link PDFMergerUtility} joins them into the target file.
+ *
+ * Chunk boundaries fall on page boundaries as long as rows fit on one line;
+ * a wrapped note pushes the rest of its chunk down, leaving one short page
+ * at the end of that chunk. At most two chunks per worker are buffered or
+ * rendering at a time, so memory stays bounded while the database cursor
+ * is read.
+ *
+ * @version 19:20 19 Oct 2026
+ */
+public class ParallelPdfReportGenerator implements StreamingReportGenerator {
+
+    /** Pages of single-line rows rendered per chunk */
+    private static final int CHUNK_PAGES = Math.max(1, Config.getInt("report.pdf.chunk.pages", 50));
+
+    /** Threads rendering chunks, at least one */
+    private static final int WORKERS =
+            Math.max(1, Config.getInt("report.pdf.workers", Runtime.getRuntime().availableProcessors()));
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    /**
+     * Open a writer that buffers rows into page-aligned chunks and renders
+     * them in the background. Closing it waits for every chunk, numbers the
+     * pages and writes the merged {@code target}.
+     *
+     * @param spec   report configuration controlling which fields to include
+     * @param target target PDF file
+     * @return writer for the data rows
+     * @throws Exception if the temp directory cannot be created
+     */
+    @Override
+    public ReportWriter open(ReportSpec spec, File target) throws Exception {
+        return new ChunkingWriter(spec, target);
+    }
+
+    /** A rendered chunk and its number of pages. */
+    private record Chunk(File file, int pages) {
+    }
+
+    /**
+     * Collects rows into chunks, submits each full chunk to the pool and
+     * merges the results on close.
+     */
+    private static final class ChunkingWriter implements ReportWriter {
+
+        private final ReportSpec spec;
+        private final File target;
+        private final Path tempDir;
+        private final ExecutorService pool;
+        private final Semaphore inFlight = new Semaphore(WORKERS * 2);
+        private final List<Future<Chunk>> chunks = new ArrayList<>();
+        private List<AttendanceReportRow> buffer = new ArrayList<>();
+        private int chunkRows;
+
+        ChunkingWriter(ReportSpec spec, File target) throws IOException {
+            this.spec = spec;
+            this.target = target;
+            this.tempDir = Files.createTempDirectory("report-pdf-");
+            this.pool = Executors.newFixedThreadPool(WORKERS, r -> {
+                Thread t = new Thread(r, "pdf-chunk-" + THREAD_COUNT.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+            // The first chunk also holds the title
+            this.chunkRows = PdfReportGenerator.rowsOnFirstPage()
+                    + (CHUNK_PAGES - 1) * PdfReportGenerator.rowsPerPage();
+        }
+
+        @Override
+        public void writeRow(AttendanceReportRow r) throws Exception {
+            buffer.add(r);
+            if (buffer.size() >= chunkRows) {
+                submitChunk();
+            }
+        }
+
+        /**
+         * Hands the buffered rows to the pool, blocking while too many
+         * chunks are already waiting or rendering.
+         */
+        private void submitChunk() throws InterruptedException {
+            inFlight.acquire();
+            List<AttendanceReportRow> rows = buffer;
+            boolean first = chunks.isEmpty();
+            File file = tempDir.resolve("chunk-" + chunks.size() + ".pdf").toFile();
+
+            chunks.add(pool.submit(() -> {
+                try {
+                    new PdfReportGenerator(first, false).generate(spec, rows, file);
+                    try (PDDocument doc = PDDocument.load(file, MemoryUsageSetting.setupTempFileOnly())) {
+                        return new Chunk(file, doc.getNumberOfPages());
+                    }
+                } finally {
+                    inFlight.release();
+                }
+            }));
+
+            buffer = new ArrayList<>();
+            chunkRows = CHUNK_PAGES * PdfReportGenerator.rowsPerPage();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                // An empty report still gets the title and header row
+                if (!buffer.isEmpty() || chunks.isEmpty()) {
+                    submitChunk();
+                }
+
+                List<Chunk> rendered = new ArrayList<>();
+                int totalPages = 0;
+                for (Future<Chunk> f : chunks) {
+                    Chunk c = await(f);
+                    rendered.add(c);
+                    totalPages += c.pages();
+                }
+
+                // Stamp page numbers now that the total is known
+                List<Callable<Void>> stamps = new ArrayList<>();
+                int firstPage = 1;
+                for (Chunk c : rendered) {
+                    int from = firstPage;
+                    int total = totalPages;
+                    stamps.add(() -> {
+                        stampPageNumbers(c.file(), from, total);
+                        return null;
+                    });
+                    firstPage += c.pages();
+                }
+                for (Future<Void> f : pool.invokeAll(stamps)) {
+                    await(f);
+                }
+
+                PDFMergerUtility merger = new PDFMergerUtility();
+                for (Chunk c : rendered) {
+                    merger.addSource(c.file());
+                }
+                merger.setDestinationFileName(target.getAbsolutePath());
+                merger.mergeDocuments(MemoryUsageSetting.setupTempFileOnly());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                InterruptedIOException ie = new InterruptedIOException("PDF report cancelled");
+                ie.initCause(e);
+                throw ie;
+            } finally {
+                pool.shutdownNow();
+                deleteTempDir();
+            }
+        }
+
+        private void deleteTempDir() {
+            File[] files = tempDir.toFile().listFiles();
+            if (files != null) {
+                for (File f : files) {
+                    f.delete();
+                }
+            }
+            tempDir.toFile().delete();
+        }
+    }
+
+    /**
+     * Waits for a chunk task and rethrows its failure, wrapped in an
+     * {@link IOException} unless it already is one.
+     */
+    private static <T> T await(Future<T> f) throws IOException, InterruptedException {
+        try {
+            return f.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Adds a centred "Page X of N" footer to every page of a chunk, in the
+     * same font and position as the serial {@link PdfReportGenerator}.
+     *
+     * @param file      chunk PDF, rewritten in place
+     * @param firstPage number of the chunk's first page in the merged report
+     * @param total     number of pages in the merged report
+     */
+    private static void stampPageNumbers(File file, int firstPage, int total) throws IOException {
+        File stamped = new File(file.getPath() + ".numbered");
+        try (PDDocument doc = PDDocument.load(file, MemoryUsageSetting.setupTempFileOnly())) {
+            for (int i = 0; i < doc.getNumberOfPages(); i++) {
+                PDPage page = doc.getPage(i);
+                PDRectangle box = page.getMediaBox();
+                String text = "Page " + (firstPage + i) + " of " + total;
+                float width = PDType1Font.HELVETICA.getStringWidth(text) / 1000
+                        * PdfReportGenerator.FOOTER_FONT_SIZE;
+
+                try (PDPageContentStream cs = new PDPageContentStream(
+                        doc, page, PDPageContentStream.AppendMode.APPEND, true, true)) {
+                    cs.beginText();
+                    cs.setFont(PDType1Font.HELVETICA, PdfReportGenerator.FOOTER_FONT_SIZE);
+                    cs.newLineAtOffset(box.getLowerLeftX() + (box.getWidth() - width) / 2,
+                            box.getLowerLeftY() + PdfReportGenerator.FOOTER_Y);
+                    cs.showText(text);
+                    cs.endText();
+                }
+            }
+            doc.save(stamped);
+        }
+        Files.move(stamped.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+}
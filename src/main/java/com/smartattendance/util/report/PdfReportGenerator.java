@@ -1,21 +1,30 @@
 package com.smartattendance.util.report;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 
 import com.itextpdf.text.BaseColor;
 import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
 import com.itextpdf.text.Element;
 import com.itextpdf.text.Font;
 import com.itextpdf.text.PageSize;
 import com.itextpdf.text.Paragraph;
 import com.itextpdf.text.Phrase;
+import com.itextpdf.text.pdf.BaseFont;
+import com.itextpdf.text.pdf.PdfContentByte;
 import com.itextpdf.text.pdf.PdfPCell;
 import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfPageEventHelper;
+import com.itextpdf.text.pdf.PdfTemplate;
 import com.itextpdf.text.pdf.PdfWriter;
+import com.smartattendance.config.Config;
 
 /**
  * {@code PdfReportGenerator} is a {@link ReportGenerator} implementation
@@ -27,13 +36,20 @@ import com.itextpdf.text.pdf.PdfWriter;
  *     <li>Add a title section ("Attendance Report")</li>
  *     <li>Render a table whose columns are controlled by {@link ReportSpec}</li>
  *     <li>Apply basic styling: header background, fonts, zebra striping, alignment</li>
+ *     <li>Flush the table to the document in chunks, so large reports render
+ *         in bounded memory</li>
+ *     <li>Number the pages ("Page X of N") in the footer</li>
+ *     <li>Render one student's report, with a per-course summary above the
+ *         rows ({@link #generateStudentReport})</li>
+ *     <li>Render the per student and course summary report
+ *         ({@link #generateSummary})</li>
  * </ul>
  *
  * <p>This class uses iText (com.itextpdf) for PDF generation.
  * 
  * @author Ernest Lun
  */
-public class PdfReportGenerator implements ReportGenerator {
+public class PdfReportGenerator implements ReportGenerator, StreamingReportGenerator, SummaryReportGenerator {
 
     /**
      * Formatter for the timestamp column when rendered to PDF.
@@ -62,6 +78,56 @@ public class PdfReportGenerator implements ReportGenerator {
     private static final Font CELL_FONT =
             new Font(Font.FontFamily.HELVETICA, 9);
 
+    // ===== shared colours, so no BaseColor is allocated per cell =====
+
+    /** Blue-ish header background. */
+    private static final BaseColor HEADER_BG = new BaseColor(33, 150, 243);
+
+    /** Light grey background of every other data row. */
+    private static final BaseColor STRIPE_BG = new BaseColor(245, 245, 245);
+
+    // ===== page layout, used for the page-count estimate and page-aligned chunks =====
+
+    /** Page margins in points. */
+    private static final float MARGIN = 36f;
+
+    /** Height of a single-line data row: 9pt text plus 2 x 5pt padding, as laid out by iText. */
+    private static final float ROW_HEIGHT = 19f;
+
+    /** Height of the header row (10pt bold, 6pt padding) and of the title block (16pt leading 24 + 12 spacing). */
+    private static final float HEADER_ROW_HEIGHT = 22f;
+    private static final float TITLE_HEIGHT = 36f;
+
+    /**
+     * Number of rows collected before the table is handed to the document,
+     * which renders them and drops them from memory.
+     */
+    private static final int CHUNK_ROWS = Config.getInt("report.pdf.chunk.rows", 500);
+
+    /** Font size of the page number footer and its distance from the page bottom. */
+    static final float FOOTER_FONT_SIZE = 8f;
+    static final float FOOTER_Y = 20f;
+
+    /** Whether the document starts with the title block. */
+    private final boolean withTitle;
+
+    /** Whether the pages get a "Page X of N" footer. */
+    private final boolean withPageNumbers;
+
+    public PdfReportGenerator() {
+        this(true, true);
+    }
+
+    /**
+     * Used by {@link ParallelPdfReportGenerator} to render the chunks of a
+     * report: only the first chunk has the title, and page numbers are added
+     * after merging, once the total is known.
+     */
+    PdfReportGenerator(boolean withTitle, boolean withPageNumbers) {
+        this.withTitle = withTitle;
+        this.withPageNumbers = withPageNumbers;
+    }
+
     /**
      * Generate a PDF report using the given specification and rows, writing the
      * output into the supplied target file.
@@ -85,69 +151,361 @@ public class PdfReportGenerator implements ReportGenerator {
                          List<AttendanceReportRow> rows,
                          File target) throws Exception {
 
+        try (ReportWriter writer = open(spec, target)) {
+            for (AttendanceReportRow r : rows) {
+                writer.writeRow(r);
+            }
+        }
+    }
+
+    /**
+     * Open the PDF document with the title and table header written, and
+     * return a writer that adds data rows incrementally.
+     *
+     * <p>The table is marked incomplete ({@code setComplete(false)}) and
+     * added to the document every {@code report.pdf.chunk.rows} rows. iText
+     * renders the rows added so far and releases them, so only one chunk of
+     * cells is in memory however large the report is. Closing the writer
+     * completes the table and the document.
+     *
+     * @param spec   report configuration controlling which fields to include
+     * @param target target PDF file
+     * @return writer for the data rows
+     * @throws Exception if the document cannot be created
+     */
+    @Override
+    public ReportWriter open(ReportSpec spec, File target) throws Exception {
+        return open(spec, target, withTitle ? "Attendance Report" : null, null);
+    }
+
+    /**
+     * Generate one student's attendance report: a title naming the student,
+     * a table of sessions attended per course, then the student's rows with
+     * the columns selected in {@code spec}.
+     *
+     * @param spec   report configuration controlling which fields to include
+     * @param report the student's rows and course summaries
+     * @param target target PDF file
+     * @throws Exception if writing the PDF fails (e.g. I/O or iText errors)
+     */
+    public void generateStudentReport(ReportSpec spec,
+                                      StudentReport report,
+                                      File target) throws Exception {
+        String title = "Attendance Report: " + report.getStudentName()
+                + " (ID " + report.getStudentId() + ")";
+
+        try (ReportWriter writer = open(spec, target, title, summaryTable(report))) {
+            for (AttendanceReportRow r : report.getRows()) {
+                writer.writeRow(r);
+            }
+        }
+    }
+
+    /**
+     * Generate the summary report: an "Attendance Summary" title and one
+     * table row per student and course, with the header row repeated on
+     * every page. Like the detail report, the table is flushed to the
+     * document every {@code report.pdf.chunk.rows} rows.
+     *
+     * @param rows   summary rows to export
+     * @param target target PDF file
+     * @throws Exception if writing the PDF fails (e.g. I/O or iText errors)
+     */
+    @Override
+    public void generateSummary(List<AttendanceSummaryRow> rows, File target) throws Exception {
+        Document doc = new Document(PageSize.A4.rotate(), MARGIN, MARGIN, MARGIN, MARGIN);
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(target));
+        PdfWriter writer = PdfWriter.getInstance(doc, out);
+        if (withPageNumbers) {
+            writer.setPageEvent(new PageNumberFooter());
+        }
+        doc.open();
+        try {
+            if (withTitle) {
+                Paragraph title = new Paragraph("Attendance Summary", TITLE_FONT);
+                title.setAlignment(Element.ALIGN_LEFT);
+                title.setSpacingAfter(12f);
+                doc.add(title);
+            }
+
+            String[] headers = AttendanceSummaryRow.HEADERS;
+            PdfPTable table = new PdfPTable(headers.length);
+            table.setWidthPercentage(100);
+            // Name and course get more room than the counts
+            table.setWidths(new float[] { 6, 12, 7, 7, 6, 5, 6, 6, 8, 8, 8, 10 });
+            table.setHeaderRows(1);
+            table.setComplete(false);
+
+            for (String h : headers) {
+                PdfPCell cell = new PdfPCell(new Phrase(h, HEADER_FONT));
+                cell.setBackgroundColor(HEADER_BG);
+                cell.setHorizontalAlignment(Element.ALIGN_CENTER);
+                cell.setPadding(6f);
+                table.addCell(cell);
+            }
+
+            boolean odd = false;
+            int pending = 0;
+            for (AttendanceSummaryRow r : rows) {
+                odd = !odd;
+                String[] cells = r.toCells();
+                for (int i = 0; i < cells.length; i++) {
+                    PdfPCell cell = new PdfPCell(new Phrase(cells[i], CELL_FONT));
+                    cell.setPadding(5f);
+                    cell.setVerticalAlignment(Element.ALIGN_MIDDLE);
+                    // Name and course left-aligned, IDs, counts and dates centred
+                    cell.setHorizontalAlignment(i == 1 || i == 2 ? Element.ALIGN_LEFT : Element.ALIGN_CENTER);
+                    if (odd) {
+                        cell.setBackgroundColor(STRIPE_BG);
+                    }
+                    table.addCell(cell);
+                }
+                if (++pending >= CHUNK_ROWS) {
+                    doc.add(table);
+                    pending = 0;
+                }
+            }
+
+            table.setComplete(true);
+            doc.add(table);
+        } finally {
+            doc.close();
+        }
+    }
+
+    /**
+     * Open the document, write the optional title and the element below it,
+     * and return a writer for the data rows.
+     */
+    private ReportWriter open(ReportSpec spec, File target, String titleText, Element preamble) throws Exception {
         // Create a landscape A4 document with 36pt margins on all sides.
-        Document doc = new Document(PageSize.A4.rotate(), 36, 36, 36, 36);
-        PdfWriter.getInstance(doc, new FileOutputStream(target));
+        Document doc = new Document(PageSize.A4.rotate(), MARGIN, MARGIN, MARGIN, MARGIN);
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(target));
+        PdfWriter writer = PdfWriter.getInstance(doc, out);
+        if (withPageNumbers) {
+            writer.setPageEvent(new PageNumberFooter());
+        }
         doc.open();
 
         // ---- Title section ----
-        Paragraph title = new Paragraph("Attendance Report", TITLE_FONT);
-        title.setAlignment(Element.ALIGN_LEFT);
-        title.setSpacingAfter(12f); // space between title and table
-        doc.add(title);
-
-        // Decide which columns should be displayed for this report.
-        List<Column> columns = resolveColumns(spec);
-
-        // Table with one column per configured field.
-        PdfPTable table = new PdfPTable(columns.size());
-        table.setWidthPercentage(100);
-        table.setHeaderRows(1); // first row is a header row
-
-        // ---- Header row ----
-        for (Column c : columns) {
-            PdfPCell cell = new PdfPCell(new Phrase(c.header, HEADER_FONT));
-            // Blue-ish header background.
-            cell.setBackgroundColor(new BaseColor(33, 150, 243));
+        if (titleText != null) {
+            Paragraph title = new Paragraph(titleText, TITLE_FONT);
+            title.setAlignment(Element.ALIGN_LEFT);
+            title.setSpacingAfter(12f); // space between title and table
+            doc.add(title);
+        }
+        if (preamble != null) {
+            doc.add(preamble);
+        }
+
+        return new PdfTableWriter(doc, resolveColumns(spec));
+    }
+
+    /**
+     * Build the per-course summary table of a student report: status
+     * counts and the attendance ratio of each enrolled course.
+     */
+    private static PdfPTable summaryTable(StudentReport report) {
+        String[] headers = { "Course", "Present", "Late", "Absent", "Pending", "Attendance" };
+        PdfPTable table = new PdfPTable(headers.length);
+        table.setWidthPercentage(60);
+        table.setHorizontalAlignment(Element.ALIGN_LEFT);
+        table.setSpacingAfter(16f);
+
+        for (String h : headers) {
+            PdfPCell cell = new PdfPCell(new Phrase(h, HEADER_FONT));
+            cell.setBackgroundColor(HEADER_BG);
             cell.setHorizontalAlignment(Element.ALIGN_CENTER);
             cell.setPadding(6f);
             table.addCell(cell);
         }
 
-        // ---- Data rows ----
-        boolean odd = false; // used to alternate row background colors
-        for (AttendanceReportRow r : rows) {
-            odd = !odd;
-            for (Column c : columns) {
-                String text = c.valueOf(r);
-                PdfPCell cell = new PdfPCell(
-                        new Phrase(text != null ? text : "", CELL_FONT)
-                );
+        for (StudentReport.CourseSummary c : report.getCourseSummaries()) {
+            double ratio = c.getAttendedRatio();
+            String[] values = {
+                    c.getCourseCode(),
+                    String.valueOf(c.getPresent()),
+                    String.valueOf(c.getLate()),
+                    String.valueOf(c.getAbsent()),
+                    String.valueOf(c.getPending()),
+                    ratio < 0 ? "-" : String.format("%.0f%%", ratio * 100)
+            };
+            for (int i = 0; i < values.length; i++) {
+                PdfPCell cell = new PdfPCell(new Phrase(values[i], CELL_FONT));
                 cell.setPadding(5f);
-                cell.setVerticalAlignment(Element.ALIGN_MIDDLE);
+                cell.setHorizontalAlignment(i == 0 ? Element.ALIGN_LEFT : Element.ALIGN_CENTER);
+                table.addCell(cell);
+            }
+        }
+        return table;
+    }
 
-                // Zebra striping for every other row to improve readability.
-                if (odd) {
-                    cell.setBackgroundColor(new BaseColor(245, 245, 245));
-                }
+    /**
+     * Estimate how many pages a report will take, assuming single-line rows.
+     * Long notes wrap and add pages, so treat this as a lower bound.
+     *
+     * @param rowCount number of data rows
+     * @return estimated number of pages, at least 1
+     */
+    public static long estimatePages(long rowCount) {
+        int rowsPerPage = rowsPerPage();
+        int rowsOnFirstPage = rowsOnFirstPage();
+
+        if (rowCount <= rowsOnFirstPage) {
+            return 1;
+        }
+        return 1 + (rowCount - rowsOnFirstPage + rowsPerPage - 1) / rowsPerPage;
+    }
+
+    /** Single-line rows that fit on a page below the repeated header row. */
+    static int rowsPerPage() {
+        float usable = PageSize.A4.rotate().getHeight() - 2 * MARGIN - HEADER_ROW_HEIGHT;
+        return Math.max(1, (int) (usable / ROW_HEIGHT));
+    }
+
+    /** Single-line rows that fit on the first page, below the title. */
+    static int rowsOnFirstPage() {
+        float usable = PageSize.A4.rotate().getHeight() - 2 * MARGIN - HEADER_ROW_HEIGHT;
+        return Math.max(1, (int) ((usable - TITLE_HEIGHT) / ROW_HEIGHT));
+    }
+
+    /**
+     * Writes "Page X of " centred in the bottom margin of every page, and
+     * the total into a shared template once the document is closed.
+     */
+    private static final class PageNumberFooter extends PdfPageEventHelper {
+
+        private BaseFont font;
+        private PdfTemplate total;
+
+        @Override
+        public void onOpenDocument(PdfWriter writer, Document document) {
+            try {
+                font = BaseFont.createFont(BaseFont.HELVETICA, BaseFont.WINANSI, BaseFont.NOT_EMBEDDED);
+            } catch (Exception e) {
+                throw new IllegalStateException("Cannot load footer font", e);
+            }
+            total = writer.getDirectContent().createTemplate(40, 12);
+        }
+
+        @Override
+        public void onEndPage(PdfWriter writer, Document document) {
+            String text = "Page " + writer.getPageNumber() + " of ";
+            float textWidth = font.getWidthPoint(text, FOOTER_FONT_SIZE);
+            // Centre on the text plus a guess of the total's width
+            float totalWidth = font.getWidthPoint(String.valueOf(writer.getPageNumber()), FOOTER_FONT_SIZE);
+            float x = (document.left() + document.right() - textWidth - totalWidth) / 2;
+
+            PdfContentByte cb = writer.getDirectContent();
+            cb.beginText();
+            cb.setFontAndSize(font, FOOTER_FONT_SIZE);
+            cb.setTextMatrix(x, FOOTER_Y);
+            cb.showText(text);
+            cb.endText();
+            cb.addTemplate(total, x + textWidth, FOOTER_Y);
+        }
+
+        @Override
+        public void onCloseDocument(PdfWriter writer, Document document) {
+            total.beginText();
+            total.setFontAndSize(font, FOOTER_FONT_SIZE);
+            total.setTextMatrix(0, 0);
+            total.showText(String.valueOf(writer.getPageNumber()));
+            total.endText();
+        }
+    }
+
+    /**
+     * Adds rows to an incomplete table and flushes it to the document in
+     * chunks. Cells are copied from per-column templates, so styling is set
+     * up once instead of per cell.
+     */
+    private static final class PdfTableWriter implements ReportWriter {
+
+        private final Document doc;
+        private final List<Column> columns;
+        private final PdfPTable table;
+        private final PdfPCell[] plain;   // Template per column, white row
+        private final PdfPCell[] striped; // Template per column, grey row
+        private boolean odd = false;      // used to alternate row background colors
+        private int pending = 0;          // rows added since the last flush
+
+        PdfTableWriter(Document doc, List<Column> columns) {
+            this.doc = doc;
+            this.columns = columns;
+
+            // Table with one column per configured field.
+            table = new PdfPTable(columns.size());
+            table.setWidthPercentage(100);
+            table.setHeaderRows(1); // first row is a header row, repeated on every page
+            table.setComplete(false);
+
+            // ---- Header row ----
+            for (Column c : columns) {
+                PdfPCell cell = new PdfPCell(new Phrase(c.header, HEADER_FONT));
+                cell.setBackgroundColor(HEADER_BG);
+                cell.setHorizontalAlignment(Element.ALIGN_CENTER);
+                cell.setPadding(6f);
+                table.addCell(cell);
+            }
+
+            // ---- Cell templates ----
+            plain = new PdfPCell[columns.size()];
+            striped = new PdfPCell[columns.size()];
+            for (int i = 0; i < columns.size(); i++) {
+                PdfPCell t = new PdfPCell();
+                t.setPadding(5f);
+                t.setVerticalAlignment(Element.ALIGN_MIDDLE);
 
                 // Center-align some specific columns; others are left-aligned.
-                if (c.header.equals("Date/Time") ||
-                    c.header.equals("Session ID") ||
-                    c.header.equals("Student ID") ||
-                    c.header.equals("Confidence")) {
-                    cell.setHorizontalAlignment(Element.ALIGN_CENTER);
+                String header = columns.get(i).header;
+                if (header.equals("Date/Time") ||
+                    header.equals("Session ID") ||
+                    header.equals("Student ID") ||
+                    header.equals("Confidence")) {
+                    t.setHorizontalAlignment(Element.ALIGN_CENTER);
                 } else {
-                    cell.setHorizontalAlignment(Element.ALIGN_LEFT);
+                    t.setHorizontalAlignment(Element.ALIGN_LEFT);
                 }
+                plain[i] = t;
 
+                // Zebra striping for every other row to improve readability.
+                striped[i] = new PdfPCell(t);
+                striped[i].setBackgroundColor(STRIPE_BG);
+            }
+        }
+
+        @Override
+        public void writeRow(AttendanceReportRow r) throws DocumentException {
+            odd = !odd;
+            PdfPCell[] templates = odd ? striped : plain;
+
+            for (int i = 0; i < columns.size(); i++) {
+                String text = columns.get(i).valueOf(r);
+                PdfPCell cell = new PdfPCell(templates[i]);
+                cell.setPhrase(new Phrase(text != null ? text : "", CELL_FONT));
                 table.addCell(cell);
             }
+
+            // Render the rows collected so far and let iText release them.
+            if (++pending >= CHUNK_ROWS) {
+                doc.add(table);
+                pending = 0;
+            }
         }
 
-        // Add the completed table to the document and close the PDF.
-        doc.add(table);
-        doc.close();
+        @Override
+        public void close() throws IOException {
+            try {
+                // Add the remaining rows and close the PDF.
+                table.setComplete(true);
+                doc.add(table);
+            } catch (DocumentException e) {
+                throw new IOException("Could not finish the PDF table", e);
+            } finally {
+                doc.close();
+            }
+        }
     }
 
     /**
@@ -163,7 +521,7 @@ public class PdfReportGenerator implements ReportGenerator {
      * @param spec report configuration
      * @return ordered list of columns to render
      */
-    private List<Column> resolveColumns(ReportSpec spec) {
+    private static List<Column> resolveColumns(ReportSpec spec) {
         List<Column> cols = new ArrayList<>();
 
         if (spec.isIncludeDateTime()) {
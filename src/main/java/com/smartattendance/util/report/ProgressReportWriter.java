@@ -0,0 +1,61 @@
+package com.smartattendance.util.report;
+
+import java.io.IOException;
+import java.util.function.LongConsumer;
+
+/**
+ * Wraps a {@link ReportWriter} to count rows, report progress and stop on
+ * cancellation.
+ *
+ * Before each row the {@link CancellationToken} is checked, so a cancelled
+ * export fails with {@link java.util.concurrent.CancellationException} at
+ * the next row. Progress is reported every {@value #PROGRESS_EVERY_ROWS}
+ * rows and once more with the final count when the writer is closed.
+ *
+ * @version 20:05 19 Oct 2026
+ */
+public class ProgressReportWriter implements ReportWriter {
+
+    /** Rows between two progress callbacks */
+    private static final int PROGRESS_EVERY_ROWS = 1000;
+
+    private final ReportWriter delegate;
+    private final CancellationToken token;
+    private final LongConsumer progress;
+    private long rows = 0;
+
+    /**
+     * @param delegate writer receiving the rows
+     * @param token    checked before every row
+     * @param progress called with the number of rows written so far, or null
+     */
+    public ProgressReportWriter(ReportWriter delegate, CancellationToken token, LongConsumer progress) {
+        this.delegate = delegate;
+        this.token = token;
+        this.progress = progress;
+    }
+
+    @Override
+    public void writeRow(AttendanceReportRow r) throws Exception {
+        token.throwIfCancelled();
+        delegate.writeRow(r);
+        if (++rows % PROGRESS_EVERY_ROWS == 0 && progress != null) {
+            progress.accept(rows);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+        if (progress != null && rows % PROGRESS_EVERY_ROWS != 0) {
+            progress.accept(rows);
+        }
+    }
+
+    /**
+     * @return rows written so far
+     */
+    public long getRows() {
+        return rows;
+    }
+}
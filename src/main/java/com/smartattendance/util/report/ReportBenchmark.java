@@ -0,0 +1,105 @@
+package com.smartattendance.util.report;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.smartattendance.util.security.log.ApplicationLogger;
+
+/**
+ * Measures rows/sec and peak heap of the streaming report generators on
+ * synthetic rows, without a database. The parallel PDF generator is run
+ * alongside the serial one, so the speed-up can be compared directly.
+ *
+ * Run with {@code --benchmark-reports [rows]} (default 200000). Each
+ * generator writes the same rows, with every column selected, to a temp
+ * file that is deleted afterwards. Peak heap is sampled every 10000 rows, so
+ * it shows whether memory stays bounded as the report grows.
+ *
+ * @version 18:55 19 Oct 2026
+ */
+public final class ReportBenchmark {
+
+    private static final int SAMPLE_EVERY_ROWS = 10_000;
+
+    private static final ApplicationLogger appLogger = ApplicationLogger.getInstance();
+
+    private ReportBenchmark() {
+    }
+
+    /**
+     * Benchmarks the CSV, XLSX, PDF and parallel PDF generators and logs
+     * one line each.
+     *
+     * @param rows number of rows per report
+     * @throws Exception if a report cannot be written
+     */
+    public static void run(int rows) throws Exception {
+        Map<String, StreamingReportGenerator> generators = new LinkedHashMap<>();
+        generators.put("csv", new CsvReportGenerator());
+        generators.put("xlsx", new XlsxReportGenerator());
+        generators.put("pdf", new PdfReportGenerator());
+        generators.put("pdf-parallel", new ParallelPdfReportGenerator());
+
+        ReportSpec spec = new ReportSpec.Builder()
+                .includeDateTime(true)
+                .includeSessionId(true)
+                .includeCourseCode(true)
+                .includeStudentId(true)
+                .includeStudentName(true)
+                .includeStatus(true)
+                .includeMethod(true)
+                .includeConfidence(true)
+                .includeNote(true)
+                .build();
+
+        for (Map.Entry<String, StreamingReportGenerator> e : generators.entrySet()) {
+            File target = File.createTempFile("report-benchmark-", "." + e.getKey().replace("-parallel", ""));
+            try {
+                Runtime rt = Runtime.getRuntime();
+                System.gc();
+                long baseHeap = rt.totalMemory() - rt.freeMemory();
+                long peakHeap = 0;
+
+                long started = System.nanoTime();
+                try (ReportWriter writer = e.getValue().open(spec, target)) {
+                    for (int i = 0; i < rows; i++) {
+                        writer.writeRow(syntheticRow(i));
+                        if (i % SAMPLE_EVERY_ROWS == 0) {
+                            peakHeap = Math.max(peakHeap, rt.totalMemory() - rt.freeMemory() - baseHeap);
+                        }
+                    }
+                }
+                double seconds = (System.nanoTime() - started) / 1e9;
+
+                String line = String.format("ReportBenchmark: %-12s %d rows in %.1f s, %.0f rows/s, "
+                        + "peak heap +%d MB, file %d KB", e.getKey(), rows, seconds, rows / seconds,
+                        peakHeap / (1024 * 1024), target.length() / 1024);
+                if (e.getKey().startsWith("pdf")) {
+                    line += ", ~" + PdfReportGenerator.estimatePages(rows) + " pages estimated";
+                }
+                appLogger.info(line);
+            } finally {
+                target.delete();
+            }
+        }
+    }
+
+    /**
+     * Builds a deterministic row resembling real attendance data.
+     */
+    private static AttendanceReportRow syntheticRow(int i) {
+        AttendanceReportRow r = new AttendanceReportRow();
+        r.setTimestamp(LocalDateTime.of(2026, 1, 5, 9, 0).plusMinutes(i % 525_600));
+        r.setSessionId(String.valueOf(1 + i / 40));
+        r.setCourseCode("CS" + (101 + i % 12));
+        r.setStudentId(String.valueOf(1000 + i % 4000));
+        r.setStudentName("student" + (1000 + i % 4000));
+        r.setStatus(i % 10 == 0 ? "Late" : i % 17 == 0 ? "Absent" : "Present");
+        r.setMethod(i % 5 == 0 ? "Manual" : "Face");
+        r.setConfidence(i % 5 == 0 ? null : String.valueOf(0.80 + (i % 20) / 100.0));
+        r.setNote(i % 50 == 0 ? "Arrived after the roll call, approved by lecturer" : null);
+        return r;
+    }
+}
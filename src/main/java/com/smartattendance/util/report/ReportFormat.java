@@ -0,0 +1,26 @@
+package com.smartattendance.util.report;
+
+/**
+ * File formats an attendance report can be exported as.
+ *
+ * @version 19:40 19 Oct 2026
+ */
+public enum ReportFormat {
+
+    CSV("csv"),
+    XLSX("xlsx"),
+    PDF("pdf");
+
+    private final String extension;
+
+    ReportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * @return file extension without the dot, e.g. {@code "xlsx"}
+     */
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,33 @@
+package com.smartattendance.util.report;
+
+import java.io.IOException;
+
+/**
+ * Receives report rows one at a time and writes them to an open report file.
+ *
+ * <p>Obtained from {@link StreamingReportGenerator#open}. Rows are written
+ * as they arrive, so the caller can feed it straight from a database cursor
+ * without collecting the rows in a list first. Closing the writer finishes
+ * the file (trailer, footer, flush).
+ *
+ * @version 18:20 19 Oct 2026
+ */
+public interface ReportWriter extends AutoCloseable {
+
+    /**
+     * Write one row. The row is not retained, so the caller may reuse or
+     * discard it afterwards.
+     *
+     * @param row the row to write
+     * @throws Exception if the row cannot be written
+     */
+    void writeRow(AttendanceReportRow row) throws Exception;
+
+    /**
+     * Finish and close the report file.
+     *
+     * @throws IOException if the file cannot be completed
+     */
+    @Override
+    void close() throws IOException;
+}
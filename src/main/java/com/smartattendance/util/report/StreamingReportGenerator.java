@@ -0,0 +1,32 @@
+package com.smartattendance.util.report;
+
+import java.io.File;
+
+/**
+ * Report generator that writes rows as they are produced instead of taking a
+ * complete {@code List<AttendanceReportRow>}.
+ *
+ * <p>Used for exports that stream rows from a database cursor, so memory use
+ * does not grow with the number of rows in the report.
+ *
+ * <pre>
+ *     try (ReportWriter writer = generator.open(spec, target)) {
+ *         repository.streamAttendance(..., writer);
+ *     }
+ * </pre>
+ *
+ * @version 18:20 19 Oct 2026
+ */
+public interface StreamingReportGenerator {
+
+    /**
+     * Create the target file, write the header for the columns selected in
+     * {@code spec} and return a writer for the rows.
+     *
+     * @param spec   report configuration (selected columns)
+     * @param target destination file, created or overwritten
+     * @return writer accepting the rows; must be closed to finish the file
+     * @throws Exception if the file cannot be created
+     */
+    ReportWriter open(ReportSpec spec, File target) throws Exception;
+}
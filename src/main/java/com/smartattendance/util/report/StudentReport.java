@@ -0,0 +1,139 @@
+package com.smartattendance.util.report;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One student's attendance for a per-student report: their attendance rows
+ * and a summary per enrolled course.
+ *
+ * <p>The attendance ratio of a course is (Present + Late) over the sessions
+ * with a final status (Present, Late or Absent); Pending records are listed
+ * but not counted. A course without any record has no ratio.
+ *
+ * @version 21:15 19 Oct 2026
+ */
+public class StudentReport {
+
+    /**
+     * Receives the per-student reports of a grouped query, one student at a
+     * time.
+     */
+    @FunctionalInterface
+    public interface Sink {
+        void accept(StudentReport report) throws Exception;
+    }
+
+    /** Status counts of one course. */
+    public static final class CourseSummary {
+        private final String courseCode;
+        private int present;
+        private int late;
+        private int absent;
+        private int pending;
+
+        CourseSummary(String courseCode) {
+            this.courseCode = courseCode;
+        }
+
+        public String getCourseCode() {
+            return courseCode;
+        }
+
+        public int getPresent() {
+            return present;
+        }
+
+        public int getLate() {
+            return late;
+        }
+
+        public int getAbsent() {
+            return absent;
+        }
+
+        public int getPending() {
+            return pending;
+        }
+
+        /**
+         * @return share of sessions attended, between 0 and 1, or -1 if no
+         *         session of the course has a final status
+         */
+        public double getAttendedRatio() {
+            int counted = present + late + absent;
+            return counted == 0 ? -1 : (present + late) / (double) counted;
+        }
+    }
+
+    private final String studentId;
+    private final String studentName;
+    private final String email;
+    private final List<AttendanceReportRow> rows = new ArrayList<>();
+    private final Map<String, CourseSummary> courses = new LinkedHashMap<>();
+
+    public StudentReport(String studentId, String studentName, String email) {
+        this.studentId = studentId;
+        this.studentName = studentName;
+        this.email = email;
+    }
+
+    /**
+     * Adds an enrolled course, so it is summarised even without attendance.
+     */
+    public void addCourse(String courseCode) {
+        courses.computeIfAbsent(courseCode, CourseSummary::new);
+    }
+
+    /**
+     * Adds an attendance row and counts it in its course's summary.
+     */
+    public void addRow(AttendanceReportRow row) {
+        rows.add(row);
+        CourseSummary summary = courses.computeIfAbsent(row.getCourseCode(), CourseSummary::new);
+        String status = row.getStatus() != null ? row.getStatus() : "";
+        switch (status) {
+            case "Present":
+                summary.present++;
+                break;
+            case "Late":
+                summary.late++;
+                break;
+            case "Absent":
+                summary.absent++;
+                break;
+            default:
+                summary.pending++;
+                break;
+        }
+    }
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public String getStudentName() {
+        return studentName;
+    }
+
+    /**
+     * @return the student's email address, or null if unknown
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    public List<AttendanceReportRow> getRows() {
+        return Collections.unmodifiableList(rows);
+    }
+
+    /**
+     * @return the enrolled courses in the order they were added
+     */
+    public List<CourseSummary> getCourseSummaries() {
+        return new ArrayList<>(courses.values());
+    }
+}
@@ -0,0 +1,27 @@
+package com.smartattendance.util.report;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Generator of the attendance summary report: one row per student and
+ * course instead of one per attendance record.
+ *
+ * <p>Implemented by the CSV, XLSX and PDF generators. The columns are fixed
+ * ({@link AttendanceSummaryRow#HEADERS}); {@link ReportSpec} column choices
+ * do not apply. Summaries are small (students x courses), so they are
+ * passed as a list rather than streamed.
+ *
+ * @version 21:50 19 Oct 2026
+ */
+public interface SummaryReportGenerator {
+
+    /**
+     * Write the summary rows to {@code target}, created or overwritten.
+     *
+     * @param rows   summary rows, in the order to write them
+     * @param target destination file
+     * @throws Exception if the file cannot be written
+     */
+    void generateSummary(List<AttendanceSummaryRow> rows, File target) throws Exception;
+}
@@ -0,0 +1,164 @@
+package com.smartattendance.util.report;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Copies every row to several {@link ReportWriter}s, each written on its
+ * own thread, so one database pass can produce several report formats at
+ * the same speed as the slowest of them.
+ *
+ * Each sink reads from a bounded queue. When a sink falls behind its queue
+ * fills up and {@link #writeRow} blocks, so the reader never gets more than
+ * {@code capacity} rows ahead of any sink and memory stays bounded.
+ *
+ * Cancellation uses thread interruption: if the thread calling
+ * {@link #writeRow} is interrupted, it throws {@link InterruptedException}
+ * and {@link #close} stops the sinks without waiting for their queues to
+ * drain; {@code close} itself, if interrupted, throws
+ * {@link InterruptedIOException}. The first sink failure is rethrown by the next {@code writeRow}
+ * or by {@code close}; the other sinks still close, so no temp files or
+ * threads are left behind.
+ *
+ * @version 19:40 19 Oct 2026
+ */
+public class TeeReportWriter implements ReportWriter {
+
+    /** How long a cancelled tee waits for its sinks to close */
+    private static final long SINK_CLOSE_TIMEOUT_SECONDS = 30;
+
+    /** Marks the end of the rows in a sink's queue */
+    private static final AttendanceReportRow END = new AttendanceReportRow();
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final List<BlockingQueue<AttendanceReportRow>> queues = new ArrayList<>();
+    private final List<Future<?>> consumers = new ArrayList<>();
+    private final ExecutorService pool;
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+    private boolean cancelled = false;
+
+    /**
+     * Starts one writing thread per sink. The tee owns the sinks from here
+     * on and closes them in {@link #close}.
+     *
+     * @param sinks    writers to copy the rows to
+     * @param capacity rows each sink may lag behind the reader
+     */
+    public TeeReportWriter(List<ReportWriter> sinks, int capacity) {
+        this.pool = Executors.newFixedThreadPool(Math.max(1, sinks.size()), r -> {
+            Thread t = new Thread(r, "report-tee-" + THREAD_COUNT.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        for (ReportWriter sink : sinks) {
+            BlockingQueue<AttendanceReportRow> queue = new ArrayBlockingQueue<>(capacity);
+            queues.add(queue);
+            consumers.add(pool.submit(() -> drain(queue, sink)));
+        }
+    }
+
+    /**
+     * Writes queued rows to the sink until the end marker, then closes it.
+     * After a failure the remaining rows are discarded, so the reader never
+     * blocks on a dead sink.
+     */
+    private void drain(BlockingQueue<AttendanceReportRow> queue, ReportWriter sink) {
+        try (sink) {
+            for (AttendanceReportRow r = queue.take(); r != END; r = queue.take()) {
+                if (failure.get() == null) {
+                    sink.writeRow(r);
+                }
+            }
+        } catch (Exception e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    @Override
+    public void writeRow(AttendanceReportRow r) throws Exception {
+        if (Thread.interrupted()) {
+            cancelled = true;
+            throw new InterruptedException("Report export cancelled");
+        }
+        rethrowFailure();
+
+        try {
+            for (BlockingQueue<AttendanceReportRow> queue : queues) {
+                queue.put(r);
+            }
+        } catch (InterruptedException e) {
+            cancelled = true;
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for every sink to write its remaining rows and close, or, after
+     * a cancellation, interrupts them.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (cancelled) {
+                stopSinks();
+                return;
+            }
+            for (BlockingQueue<AttendanceReportRow> queue : queues) {
+                queue.put(END);
+            }
+            for (Future<?> consumer : consumers) {
+                consumer.get();
+            }
+        } catch (InterruptedException e) {
+            stopSinks();
+            Thread.currentThread().interrupt();
+            InterruptedIOException ie = new InterruptedIOException("Report export cancelled");
+            ie.initCause(e);
+            throw ie;
+        } catch (ExecutionException e) {
+            failure.compareAndSet(null, new Exception(e.getCause()));
+        } finally {
+            pool.shutdown();
+        }
+
+        Exception e = failure.get();
+        if (e instanceof IOException io) {
+            throw io;
+        } else if (e != null) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Interrupts the sinks and waits for them to close, so their files are
+     * released; sinks close as their take() is interrupted.
+     */
+    private void stopSinks() {
+        pool.shutdownNow();
+        try {
+            pool.awaitTermination(SINK_CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void rethrowFailure() throws Exception {
+        Exception e = failure.get();
+        if (e != null) {
+            throw e;
+        }
+    }
+}
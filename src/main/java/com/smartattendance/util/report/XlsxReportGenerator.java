@@ -2,13 +2,17 @@ package com.smartattendance.util.report;
 
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.List;
 
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import com.smartattendance.config.Config;
 
 /**
  * {@code XlsxReportGenerator} is a {@link ReportGenerator} implementation
@@ -16,29 +20,56 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
  *
  * <p>Key behaviour:
  * <ul>
- *     <li>Creates a workbook with a single sheet named "Attendance"</li>
+ *     <li>Creates a workbook with a sheet named "Attendance"</li>
  *     <li>Writes a header row based on {@link ReportSpec}</li>
- *     <li>Writes one row per {@link AttendanceReportRow}</li>
- *     <li>Auto-sizes all used columns for readability</li>
+ *     <li>Continues on "Attendance (2)", "Attendance (3)" and so on, with the
+ *         header repeated, once a sheet reaches Excel's row limit</li>
+ *     <li>Writes one row per {@link AttendanceReportRow}, with typed cells:
+ *         the timestamp as an Excel date, IDs and confidence as numbers</li>
+ *     <li>Sizes the used columns from the text length of a sample of rows</li>
+ *     <li>Writes the per student and course summary report to a "Summary"
+ *         sheet via {@link #generateSummary}, counts and ratios as numbers</li>
  * </ul>
  *
- * <p>This implementation uses Apache POI's XSSF API (XSSFWorkbook) to produce
- * modern .xlsx files.
- * 
+ * <p>This implementation uses Apache POI's streaming SXSSF API
+ * ({@link SXSSFWorkbook}): only the last {@code report.xlsx.window.rows} rows
+ * are kept in memory, older rows are flushed to a compressed temp file, so
+ * memory use does not grow with the report. It also implements
+ * {@link StreamingReportGenerator}, so rows can be fed straight from a
+ * database cursor.
+ *
  * @author Ernest Lun
  */
-public class XlsxReportGenerator implements ReportGenerator {
+public class XlsxReportGenerator implements ReportGenerator, StreamingReportGenerator, SummaryReportGenerator {
+
+    /** Rows kept in memory before older rows are flushed to the temp file */
+    private static final int WINDOW_ROWS = Config.getInt("report.xlsx.window.rows", 100);
+
+    /** Number of leading rows whose text lengths decide the column widths */
+    private static final int WIDTH_SAMPLE_ROWS = 500;
+
+    /** Rows per sheet, header included, that Excel will open */
+    private static final int MAX_SHEET_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+    /** Column width bounds, in characters */
+    private static final int MIN_WIDTH_CHARS = 8;
+    private static final int MAX_WIDTH_CHARS = 60;
+
+    /** Excel format of the Date/Time column, same text as the CSV/PDF exports */
+    private static final String DATE_TIME_FORMAT = "yyyy-mm-dd hh:mm:ss";
+
+    /** Excel format of the summary's Attendance % column */
+    private static final String PERCENT_FORMAT = "0.0";
 
     /**
      * Generate an Excel report using the given {@link ReportSpec} and rows.
      *
      * <p>Behaviour:
      * <ul>
-     *     <li>Creates a new workbook and "Attendance" sheet</li>
+     *     <li>Opens a streaming workbook and "Attendance" sheet</li>
      *     <li>Writes the header row, including only selected columns</li>
      *     <li>Iterates through all {@code rows} and writes each as a data row</li>
-     *     <li>Auto-sizes all created columns</li>
-     *     <li>Writes the workbook out to {@code target}</li>
+     *     <li>Sizes all created columns and writes the workbook out to {@code target}</li>
      * </ul>
      *
      * @param spec   report configuration indicating which columns to include
@@ -51,74 +82,277 @@ public class XlsxReportGenerator implements ReportGenerator {
                          List<AttendanceReportRow> rows,
                          File target) throws Exception {
 
-        // Use try-with-resources so the workbook is closed automatically.
-        try (Workbook wb = new XSSFWorkbook()) {
-            Sheet sheet = wb.createSheet("Attendance");
+        // Use try-with-resources so the workbook is written and disposed automatically.
+        try (ReportWriter writer = open(spec, target)) {
+            for (AttendanceReportRow r : rows) {
+                writer.writeRow(r);
+            }
+        }
+    }
+
+    /**
+     * Open a streaming workbook with the header row written. The returned
+     * writer appends one sheet row per call; closing it sets the column
+     * widths, writes {@code target} and deletes the temp file.
+     *
+     * @param spec   report configuration indicating which columns to include
+     * @param target output file for the .xlsx report
+     * @return writer for the data rows
+     * @throws Exception if the workbook cannot be created
+     */
+    @Override
+    public ReportWriter open(ReportSpec spec, File target) throws Exception {
+        SXSSFWorkbook wb = new SXSSFWorkbook(WINDOW_ROWS);
+        wb.setCompressTempFiles(true);
+        return new XlsxWriter(wb, spec, target);
+    }
+
+    /**
+     * Write the summary report to a single "Summary" sheet: the
+     * {@link AttendanceSummaryRow#HEADERS} row, then one row per student and
+     * course with numeric counts, ratio and streaks and a date for the last
+     * attendance.
+     *
+     * @param rows   summary rows to export
+     * @param target output file for the .xlsx report
+     * @throws Exception if workbook creation or file I/O fails
+     */
+    @Override
+    public void generateSummary(List<AttendanceSummaryRow> rows, File target) throws Exception {
+        SXSSFWorkbook wb = new SXSSFWorkbook(WINDOW_ROWS);
+        wb.setCompressTempFiles(true);
+        try {
+            Sheet sheet = wb.createSheet("Summary");
+            CellStyle dateStyle = wb.createCellStyle();
+            dateStyle.setDataFormat(wb.getCreationHelper().createDataFormat().getFormat(DATE_TIME_FORMAT));
+            CellStyle percentStyle = wb.createCellStyle();
+            percentStyle.setDataFormat(wb.getCreationHelper().createDataFormat().getFormat(PERCENT_FORMAT));
+
+            int[] widths = new int[AttendanceSummaryRow.HEADERS.length];
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < widths.length; i++) {
+                header.createCell(i).setCellValue(AttendanceSummaryRow.HEADERS[i]);
+                widths[i] = AttendanceSummaryRow.HEADERS[i].length();
+            }
+
+            int rowIdx = 1;
+            for (AttendanceSummaryRow r : rows) {
+                Row xRow = sheet.createRow(rowIdx);
+                setNumberOrText(xRow.createCell(0), r.getStudentId());
+                if (r.getStudentName() != null) {
+                    xRow.createCell(1).setCellValue(r.getStudentName());
+                }
+                xRow.createCell(2).setCellValue(r.getCourseCode());
+                xRow.createCell(3).setCellValue(r.getSessions());
+                xRow.createCell(4).setCellValue(r.getPresent());
+                xRow.createCell(5).setCellValue(r.getLate());
+                xRow.createCell(6).setCellValue(r.getAbsent());
+                xRow.createCell(7).setCellValue(r.getPending());
+                Cell percent = xRow.createCell(8);
+                if (r.getAttendancePercent() != null) {
+                    percent.setCellValue(r.getAttendancePercent());
+                    percent.setCellStyle(percentStyle);
+                }
+                xRow.createCell(9).setCellValue(r.getLongestAbsenceStreak());
+                xRow.createCell(10).setCellValue(r.getCurrentAbsenceStreak());
+                Cell last = xRow.createCell(11);
+                if (r.getLastAttended() != null) {
+                    last.setCellValue(r.getLastAttended());
+                    last.setCellStyle(dateStyle);
+                }
+
+                if (rowIdx++ <= WIDTH_SAMPLE_ROWS) {
+                    String[] cells = r.toCells();
+                    for (int i = 0; i < widths.length; i++) {
+                        widths[i] = Math.max(widths[i], cells[i].length());
+                    }
+                }
+            }
 
-            int rowIdx = 0;
+            // Width unit is 1/256 of a character, plus some padding
+            for (int i = 0; i < widths.length; i++) {
+                int chars = Math.max(MIN_WIDTH_CHARS, Math.min(MAX_WIDTH_CHARS, widths[i] + 2));
+                sheet.setColumnWidth(i, chars * 256);
+            }
 
-            // ==================
-            //       HEADER
-            // ==================
+            try (FileOutputStream fos = new FileOutputStream(target)) {
+                wb.write(fos);
+            }
+        } finally {
+            wb.dispose(); // delete the temp file
+            wb.close();
+        }
+    }
+
+    /**
+     * Write a numeric cell, or a string cell if the value is not a number.
+     */
+    private static void setNumberOrText(Cell cell, String value) {
+        if (value == null) {
+            return;
+        }
+        try {
+            cell.setCellValue(Double.parseDouble(value));
+        } catch (NumberFormatException e) {
+            cell.setCellValue(value);
+        }
+    }
+
+    /**
+     * Writes rows into streaming sheets, starting a new one at the row
+     * limit, and tracks the sampled column widths.
+     */
+    private static final class XlsxWriter implements ReportWriter {
+
+        private final SXSSFWorkbook wb;
+        private Sheet sheet;
+        private int sheets = 1;
+        private final ReportSpec spec;
+        private final File target;
+        private final CellStyle dateStyle;
+        private final int[] widths; // Longest text seen per column, in characters
+        private int rowIdx = 0;
+
+        XlsxWriter(SXSSFWorkbook wb, ReportSpec spec, File target) {
+            this.wb = wb;
+            this.spec = spec;
+            this.target = target;
+            this.sheet = wb.createSheet("Attendance");
+            this.widths = new int[countColumns(spec)];
+
+            dateStyle = wb.createCellStyle();
+            dateStyle.setDataFormat(wb.getCreationHelper().createDataFormat().getFormat(DATE_TIME_FORMAT));
+
+            writeHeader();
+        }
+
+        private void writeHeader() {
             Row header = sheet.createRow(rowIdx++);
             int col = 0;
 
             // The order here defines the column order in the sheet and must
             // match the per-row writing logic below.
-            if (spec.isIncludeDateTime())   header.createCell(col++).setCellValue("Date/Time");
-            if (spec.isIncludeSessionId())  header.createCell(col++).setCellValue("Session ID");
-            if (spec.isIncludeCourseCode()) header.createCell(col++).setCellValue("Course");
-            if (spec.isIncludeStudentId())  header.createCell(col++).setCellValue("Student ID");
-            if (spec.isIncludeStudentName())header.createCell(col++).setCellValue("Student Name");
-            if (spec.isIncludeStatus())     header.createCell(col++).setCellValue("Status");
-            if (spec.isIncludeMethod())     header.createCell(col++).setCellValue("Method");
-            if (spec.isIncludeConfidence()) header.createCell(col++).setCellValue("Confidence");
-            if (spec.isIncludeNote())       header.createCell(col++).setCellValue("Note");
-
-            // ==================
-            //      DATA ROWS
-            // ==================
-            for (AttendanceReportRow r : rows) {
-                Row xRow = sheet.createRow(rowIdx++);
-                col = 0;
-
-                // For simplicity, the Date/Time is exported as a formatted string.
-                // (You could optionally use a true Excel date cell + cell style instead.)
-                if (spec.isIncludeDateTime()) {
-                    Cell c = xRow.createCell(col++);
-                    c.setCellValue(r.getTimestampFormatted());
+            if (spec.isIncludeDateTime())   col = text(header, col, "Date/Time");
+            if (spec.isIncludeSessionId())  col = text(header, col, "Session ID");
+            if (spec.isIncludeCourseCode()) col = text(header, col, "Course");
+            if (spec.isIncludeStudentId())  col = text(header, col, "Student ID");
+            if (spec.isIncludeStudentName())col = text(header, col, "Student Name");
+            if (spec.isIncludeStatus())     col = text(header, col, "Status");
+            if (spec.isIncludeMethod())     col = text(header, col, "Method");
+            if (spec.isIncludeConfidence()) col = text(header, col, "Confidence");
+            if (spec.isIncludeNote())       text(header, col, "Note");
+        }
+
+        @Override
+        public void writeRow(AttendanceReportRow r) {
+            if (rowIdx >= MAX_SHEET_ROWS) {
+                nextSheet();
+            }
+            Row xRow = sheet.createRow(rowIdx++);
+            int col = 0;
+
+            if (spec.isIncludeDateTime()) {
+                Cell c = xRow.createCell(col);
+                if (r.getTimestamp() != null) {
+                    c.setCellValue(r.getTimestamp());
+                    c.setCellStyle(dateStyle);
                 }
-                if (spec.isIncludeSessionId())   xRow.createCell(col++).setCellValue(nz(r.getSessionId()));
-                if (spec.isIncludeCourseCode())  xRow.createCell(col++).setCellValue(nz(r.getCourseCode()));
-                if (spec.isIncludeStudentId())   xRow.createCell(col++).setCellValue(nz(r.getStudentId()));
-                if (spec.isIncludeStudentName()) xRow.createCell(col++).setCellValue(nz(r.getStudentName()));
-                if (spec.isIncludeStatus())      xRow.createCell(col++).setCellValue(nz(r.getStatus()));
-                if (spec.isIncludeMethod())      xRow.createCell(col++).setCellValue(nz(r.getMethod()));
-                if (spec.isIncludeConfidence())  xRow.createCell(col++).setCellValue(nz(r.getConfidence()));
-                if (spec.isIncludeNote())        xRow.createCell(col++).setCellValue(nz(r.getNote()));
+                sample(col++, DATE_TIME_FORMAT.length());
             }
+            if (spec.isIncludeSessionId())   col = number(xRow, col, r.getSessionId());
+            if (spec.isIncludeCourseCode())  col = text(xRow, col, r.getCourseCode());
+            if (spec.isIncludeStudentId())   col = number(xRow, col, r.getStudentId());
+            if (spec.isIncludeStudentName()) col = text(xRow, col, r.getStudentName());
+            if (spec.isIncludeStatus())      col = text(xRow, col, r.getStatus());
+            if (spec.isIncludeMethod())      col = text(xRow, col, r.getMethod());
+            if (spec.isIncludeConfidence())  col = number(xRow, col, r.getConfidence());
+            if (spec.isIncludeNote())        text(xRow, col, r.getNote());
+        }
+
+        /**
+         * Size the full sheet and continue on a new one with the header
+         * repeated.
+         */
+        private void nextSheet() {
+            setColumnWidths();
+            sheet = wb.createSheet("Attendance (" + (++sheets) + ")");
+            rowIdx = 0;
+            writeHeader();
+        }
 
-            // Auto-size all columns actually used, based on the spec.
-            int totalCols = countColumns(spec);
-            for (int i = 0; i < totalCols; i++) {
-                sheet.autoSizeColumn(i);
+        /**
+         * Write a string cell (left blank for null) and return the next column.
+         */
+        private int text(Row row, int col, String value) {
+            Cell c = row.createCell(col);
+            if (value != null) {
+                c.setCellValue(value);
+                sample(col, value.length());
             }
+            return col + 1;
+        }
 
-            // Finally, write the workbook contents to disk.
-            try (FileOutputStream fos = new FileOutputStream(target)) {
-                wb.write(fos);
+        /**
+         * Write a numeric cell, or a string cell if the value is not a
+         * number, and return the next column.
+         */
+        private int number(Row row, int col, String value) {
+            if (value == null || value.isBlank()) {
+                row.createCell(col);
+                return col + 1;
+            }
+            try {
+                row.createCell(col).setCellValue(Double.parseDouble(value));
+                sample(col, value.length());
+                return col + 1;
+            } catch (NumberFormatException e) {
+                return text(row, col, value);
+            }
+        }
+
+        /**
+         * Record a text length for the column while still in the sample.
+         */
+        private void sample(int col, int length) {
+            if (sheets == 1 && rowIdx <= WIDTH_SAMPLE_ROWS + 1 && length > widths[col]) {
+                widths[col] = length;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                setColumnWidths();
+
+                try (FileOutputStream fos = new FileOutputStream(target)) {
+                    wb.write(fos);
+                }
+            } finally {
+                wb.dispose(); // delete the temp file
+                wb.close();
+            }
+        }
+
+        /**
+         * Apply the sampled widths to the current sheet.
+         */
+        private void setColumnWidths() {
+            // Width unit is 1/256 of a character, plus some padding
+            for (int i = 0; i < widths.length; i++) {
+                int chars = Math.max(MIN_WIDTH_CHARS, Math.min(MAX_WIDTH_CHARS, widths[i] + 2));
+                sheet.setColumnWidth(i, chars * 256);
             }
         }
     }
 
     /**
      * Count how many columns will be present based on the given spec,
-     * so we know how many columns to auto-size.
+     * so we know how many column widths to track.
      *
      * @param spec report configuration
      * @return total number of columns to be written
      */
-    private int countColumns(ReportSpec spec) {
+    private static int countColumns(ReportSpec spec) {
         int c = 0;
         if (spec.isIncludeDateTime())   c++;
         if (spec.isIncludeSessionId())  c++;
@@ -131,16 +365,4 @@ public class XlsxReportGenerator implements ReportGenerator {
         if (spec.isIncludeNote())       c++;
         return c;
     }
-
-    /**
-     * Null-safe helper: return an empty string instead of {@code null}.
-     *
-     * <p>This prevents "null" from appearing in Excel cells.
-     *
-     * @param s input string (may be {@code null})
-     * @return {@code s} if non-null, otherwise an empty string
-     */
-    private String nz(String s) {
-        return s == null ? "" : s;
-    }
 }
@@ -1,19 +1,6 @@
--- Drop tables
-DROP TABLE IF EXISTS attendance CASCADE;
-
-DROP TABLE IF EXISTS verification CASCADE;
-
-DROP TABLE IF EXISTS face_data CASCADE;
-
-DROP TABLE IF EXISTS enrollments CASCADE;
-
-DROP TABLE IF EXISTS profile CASCADE;
-
-DROP TABLE IF EXISTS sessions CASCADE;
-
-DROP TABLE IF EXISTS courses CASCADE;
-
-DROP TABLE IF EXISTS users CASCADE;
+-- V1: Baseline schema
+-- The original tables and indexes. Databases created from the old
+-- drop-and-recreate schema.sql are recorded at this version without running it.
 
 -- Create users table
 CREATE TABLE users (
@@ -142,4 +129,4 @@ CREATE INDEX idx_attendance_user ON attendance (user_id);
 
 CREATE INDEX idx_attendance_status ON attendance (status);
 
-CREATE INDEX idx_attendance_marked_at ON attendance (marked_at);
\ No newline at end of file
+CREATE INDEX idx_attendance_marked_at ON attendance (marked_at);
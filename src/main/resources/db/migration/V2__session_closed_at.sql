@@ -0,0 +1,6 @@
+-- V2: Session close time
+-- Used by the absent sweep to only revisit recently closed sessions.
+
+ALTER TABLE sessions ADD COLUMN IF NOT EXISTS closed_at TIMESTAMP WITHOUT TIME ZONE;
+
+CREATE INDEX IF NOT EXISTS idx_sessions_closed_at ON sessions (closed_at);
@@ -0,0 +1,218 @@
+-- V3: Analytics rollup tables
+-- Maintained by the triggers below on every attendance write, so the
+-- dashboard reads a few rows per day instead of rescanning attendance.
+-- Records without marked_at are kept under day '-infinity', which every
+-- date range filter excludes. student_course_rollup only counts marked
+-- records, the ones the student portal lists.
+CREATE TABLE IF NOT EXISTS attendance_daily_rollup (
+    day DATE NOT NULL,
+    session_id INTEGER NOT NULL,
+    course_id INTEGER NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    cnt INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (day, session_id, status)
+);
+
+CREATE TABLE IF NOT EXISTS session_arrival_rollup (
+    session_id INTEGER NOT NULL,
+    day DATE NOT NULL,
+    bin SMALLINT NOT NULL,
+    cnt INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (session_id, day, bin)
+);
+
+CREATE TABLE IF NOT EXISTS student_course_rollup (
+    user_id INTEGER NOT NULL,
+    course_id INTEGER NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    cnt INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, course_id, status)
+);
+
+CREATE INDEX IF NOT EXISTS idx_daily_rollup_course ON attendance_daily_rollup (course_id, day);
+
+CREATE INDEX IF NOT EXISTS idx_daily_rollup_session ON attendance_daily_rollup (session_id);
+
+CREATE INDEX IF NOT EXISTS idx_arrival_rollup_day ON session_arrival_rollup (day);
+
+-- Add (p_delta = 1) or remove (p_delta = -1) one attendance row from the rollups
+CREATE OR REPLACE FUNCTION attendance_rollup_apply(
+    p_user_id INTEGER,
+    p_session_id INTEGER,
+    p_course_id INTEGER,
+    p_start_time TIMESTAMP WITHOUT TIME ZONE,
+    p_status VARCHAR,
+    p_marked_at TIMESTAMP WITHOUT TIME ZONE,
+    p_delta INTEGER
+) RETURNS VOID AS $$
+DECLARE
+    v_status VARCHAR(20) := COALESCE(NULLIF(p_status, ''), 'Pending');
+    v_day DATE := COALESCE(p_marked_at::date, '-infinity'::date);
+    v_mins NUMERIC;
+BEGIN
+    INSERT INTO attendance_daily_rollup (day, session_id, course_id, status, cnt)
+    VALUES (v_day, p_session_id, p_course_id, v_status, p_delta)
+    ON CONFLICT (day, session_id, status)
+    DO UPDATE SET cnt = attendance_daily_rollup.cnt + EXCLUDED.cnt,
+                  course_id = EXCLUDED.course_id;
+
+    IF p_marked_at IS NOT NULL THEN
+        INSERT INTO student_course_rollup (user_id, course_id, status, cnt)
+        VALUES (p_user_id, p_course_id, v_status, p_delta)
+        ON CONFLICT (user_id, course_id, status)
+        DO UPDATE SET cnt = student_course_rollup.cnt + EXCLUDED.cnt;
+    END IF;
+
+    IF p_marked_at IS NOT NULL AND p_start_time IS NOT NULL THEN
+        v_mins := TRUNC(EXTRACT(EPOCH FROM (p_marked_at - p_start_time)) / 60);
+        INSERT INTO session_arrival_rollup (session_id, day, bin, cnt)
+        VALUES (
+            p_session_id,
+            v_day,
+            CASE
+                WHEN v_mins <= 0 THEN 0
+                WHEN v_mins <= 5 THEN 1
+                WHEN v_mins <= 10 THEN 2
+                WHEN v_mins <= 15 THEN 3
+                ELSE 4
+            END,
+            p_delta
+        )
+        ON CONFLICT (session_id, day, bin)
+        DO UPDATE SET cnt = session_arrival_rollup.cnt + EXCLUDED.cnt;
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Keep the rollups in sync with attendance inserts, updates and deletes
+CREATE OR REPLACE FUNCTION attendance_rollup_trigger() RETURNS TRIGGER AS $$
+DECLARE
+    v_course_id INTEGER;
+    v_start_time TIMESTAMP WITHOUT TIME ZONE;
+BEGIN
+    IF TG_OP = 'UPDATE'
+       AND OLD.user_id = NEW.user_id
+       AND OLD.session_id = NEW.session_id
+       AND OLD.status IS NOT DISTINCT FROM NEW.status
+       AND OLD.marked_at IS NOT DISTINCT FROM NEW.marked_at THEN
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        SELECT course_id, start_time INTO v_course_id, v_start_time
+        FROM sessions WHERE session_id = OLD.session_id;
+        -- Session already gone: its rollup rows were removed by sessions_rollup_delete
+        IF FOUND THEN
+            PERFORM attendance_rollup_apply(OLD.user_id, OLD.session_id, v_course_id,
+                v_start_time, OLD.status, OLD.marked_at, -1);
+        END IF;
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        SELECT course_id, start_time INTO v_course_id, v_start_time
+        FROM sessions WHERE session_id = NEW.session_id;
+        PERFORM attendance_rollup_apply(NEW.user_id, NEW.session_id, v_course_id,
+            v_start_time, NEW.status, NEW.marked_at, 1);
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_attendance_rollup ON attendance;
+
+CREATE TRIGGER trg_attendance_rollup
+AFTER INSERT OR UPDATE OF user_id, session_id, status, marked_at OR DELETE ON attendance
+FOR EACH ROW EXECUTE FUNCTION attendance_rollup_trigger();
+
+-- Move a session's rows when its course or start time changes
+CREATE OR REPLACE FUNCTION sessions_rollup_update() RETURNS TRIGGER AS $$
+DECLARE
+    r RECORD;
+BEGIN
+    FOR r IN SELECT user_id, status, marked_at FROM attendance WHERE session_id = NEW.session_id LOOP
+        PERFORM attendance_rollup_apply(r.user_id, OLD.session_id, OLD.course_id,
+            OLD.start_time, r.status, r.marked_at, -1);
+        PERFORM attendance_rollup_apply(r.user_id, NEW.session_id, NEW.course_id,
+            NEW.start_time, r.status, r.marked_at, 1);
+    END LOOP;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_sessions_rollup_update ON sessions;
+
+CREATE TRIGGER trg_sessions_rollup_update
+AFTER UPDATE OF course_id, start_time ON sessions
+FOR EACH ROW
+WHEN (OLD.course_id IS DISTINCT FROM NEW.course_id OR OLD.start_time IS DISTINCT FROM NEW.start_time)
+EXECUTE FUNCTION sessions_rollup_update();
+
+-- Remove a session's rows before its attendance is cascade-deleted
+CREATE OR REPLACE FUNCTION sessions_rollup_delete() RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE student_course_rollup r
+    SET cnt = r.cnt - x.cnt
+    FROM (
+        SELECT user_id, COALESCE(NULLIF(status, ''), 'Pending') AS status, COUNT(*) AS cnt
+        FROM attendance
+        WHERE session_id = OLD.session_id AND marked_at IS NOT NULL
+        GROUP BY 1, 2
+    ) x
+    WHERE r.user_id = x.user_id AND r.course_id = OLD.course_id AND r.status = x.status;
+
+    DELETE FROM attendance_daily_rollup WHERE session_id = OLD.session_id;
+    DELETE FROM session_arrival_rollup WHERE session_id = OLD.session_id;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_sessions_rollup_delete ON sessions;
+
+CREATE TRIGGER trg_sessions_rollup_delete
+BEFORE DELETE ON sessions
+FOR EACH ROW EXECUTE FUNCTION sessions_rollup_delete();
+
+-- Recompute every rollup from scratch (e.g. after a bulk import with triggers disabled)
+CREATE OR REPLACE FUNCTION rebuild_attendance_rollups() RETURNS VOID AS $$
+BEGIN
+    TRUNCATE attendance_daily_rollup, session_arrival_rollup, student_course_rollup;
+
+    INSERT INTO attendance_daily_rollup (day, session_id, course_id, status, cnt)
+    SELECT COALESCE(a.marked_at::date, '-infinity'::date), a.session_id, s.course_id,
+           COALESCE(NULLIF(a.status, ''), 'Pending'), COUNT(*)
+    FROM attendance a
+    JOIN sessions s ON a.session_id = s.session_id
+    GROUP BY 1, 2, 3, 4;
+
+    INSERT INTO student_course_rollup (user_id, course_id, status, cnt)
+    SELECT a.user_id, s.course_id, COALESCE(NULLIF(a.status, ''), 'Pending'), COUNT(*)
+    FROM attendance a
+    JOIN sessions s ON a.session_id = s.session_id
+    WHERE a.marked_at IS NOT NULL
+    GROUP BY 1, 2, 3;
+
+    INSERT INTO session_arrival_rollup (session_id, day, bin, cnt)
+    SELECT session_id, day, bin, COUNT(*)
+    FROM (
+        SELECT a.session_id, a.marked_at::date AS day,
+               CASE
+                   WHEN m.mins <= 0 THEN 0
+                   WHEN m.mins <= 5 THEN 1
+                   WHEN m.mins <= 10 THEN 2
+                   WHEN m.mins <= 15 THEN 3
+                   ELSE 4
+               END AS bin
+        FROM attendance a
+        JOIN sessions s ON a.session_id = s.session_id
+        CROSS JOIN LATERAL (
+            SELECT TRUNC(EXTRACT(EPOCH FROM (a.marked_at - s.start_time)) / 60) AS mins
+        ) m
+        WHERE a.marked_at IS NOT NULL AND s.start_time IS NOT NULL
+    ) b
+    GROUP BY 1, 2, 3;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Populate the rollups from existing attendance
+SELECT rebuild_attendance_rollups();
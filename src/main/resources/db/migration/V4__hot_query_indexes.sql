@@ -0,0 +1,29 @@
+-- V4: Composite and partial indexes for the hot attendance queries
+-- Checked by QueryPlanChecker (run the app with --check-query-plans).
+
+-- Session roster views and status lookups: WHERE session_id = ? [AND status = ?]
+CREATE INDEX IF NOT EXISTS idx_attendance_session_status ON attendance (session_id, status);
+
+-- Absent sweep: only the still pending rows of a session
+CREATE INDEX IF NOT EXISTS idx_attendance_pending ON attendance (session_id) WHERE status = 'Pending';
+
+-- Dashboard, top cards and reports: half-open marked_at ranges, newest first.
+-- Covers the columns the top-card scan needs, so it can be an index-only scan.
+CREATE INDEX IF NOT EXISTS idx_attendance_marked_at_cover ON attendance (marked_at DESC) INCLUDE (user_id, session_id, status);
+
+-- Session combo boxes and latest-session lookup: per course, newest first
+CREATE INDEX IF NOT EXISTS idx_sessions_course_date ON sessions (course_id, session_date DESC, start_time DESC);
+
+-- Session lists across all courses, and date range session counts
+CREATE INDEX IF NOT EXISTS idx_sessions_date_start ON sessions (session_date DESC, start_time DESC);
+
+-- Auto-session scheduler candidates
+CREATE INDEX IF NOT EXISTS idx_sessions_auto ON sessions (session_date) WHERE auto_start OR auto_stop;
+
+-- Superseded: leading columns of the indexes above (or of the primary key)
+DROP INDEX IF EXISTS idx_attendance_session;
+DROP INDEX IF EXISTS idx_attendance_user;
+DROP INDEX IF EXISTS idx_attendance_status;
+DROP INDEX IF EXISTS idx_attendance_marked_at;
+DROP INDEX IF EXISTS idx_sessions_course;
+DROP INDEX IF EXISTS idx_sessions_date;
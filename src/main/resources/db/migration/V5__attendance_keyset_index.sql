@@ -0,0 +1,9 @@
+-- V5: Index matching the keyset order of the paginated attendance listings
+-- ORDER BY marked_at DESC, user_id DESC, session_id DESC, continued with
+-- (marked_at, user_id, session_id) < (?, ?, ?). Checked by QueryPlanChecker.
+
+-- Replaces idx_attendance_marked_at_cover: same leading column, still covers
+-- the top-card scan (user_id, session_id, status) as an index-only scan.
+CREATE INDEX IF NOT EXISTS idx_attendance_keyset ON attendance (marked_at DESC, user_id DESC, session_id DESC) INCLUDE (status);
+
+DROP INDEX IF EXISTS idx_attendance_marked_at_cover;
@@ -0,0 +1,50 @@
+-- V6: Report data watermark
+-- A sequence bumped whenever data shown in attendance reports changes, so a
+-- cached report file can be reused while the watermark is unchanged.
+-- nextval never blocks or rolls back, so concurrent writers do not contend;
+-- a rolled back write only costs one extra cache miss.
+CREATE SEQUENCE IF NOT EXISTS report_data_seq;
+
+CREATE OR REPLACE FUNCTION report_data_bump() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM nextval('report_data_seq');
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Constraint triggers deferred to commit time, so the bump happens as late as
+-- possible. nextval is not transactional, though: the new value is visible a
+-- moment before the write commits, and a report read in that moment can be
+-- cached under the new watermark with the old data. It is served until the
+-- next write bumps the watermark again.
+-- Updates touching only last_seen (recognition heartbeats) do not change
+-- reports and must not invalidate the cache, as in V3 and V8.
+DROP TRIGGER IF EXISTS trg_report_data_attendance ON attendance;
+
+CREATE CONSTRAINT TRIGGER trg_report_data_attendance
+AFTER INSERT
+   OR UPDATE OF user_id, session_id, status, method, note, confidence, marked_at
+   OR DELETE ON attendance
+DEFERRABLE INITIALLY DEFERRED
+FOR EACH ROW EXECUTE FUNCTION report_data_bump();
+
+DROP TRIGGER IF EXISTS trg_report_data_sessions ON sessions;
+
+CREATE CONSTRAINT TRIGGER trg_report_data_sessions
+AFTER UPDATE OF course_id OR DELETE ON sessions
+DEFERRABLE INITIALLY DEFERRED
+FOR EACH ROW EXECUTE FUNCTION report_data_bump();
+
+DROP TRIGGER IF EXISTS trg_report_data_courses ON courses;
+
+CREATE CONSTRAINT TRIGGER trg_report_data_courses
+AFTER UPDATE OF course_code OR DELETE ON courses
+DEFERRABLE INITIALLY DEFERRED
+FOR EACH ROW EXECUTE FUNCTION report_data_bump();
+
+DROP TRIGGER IF EXISTS trg_report_data_users ON users;
+
+CREATE CONSTRAINT TRIGGER trg_report_data_users
+AFTER UPDATE OF username OR DELETE ON users
+DEFERRABLE INITIALLY DEFERRED
+FOR EACH ROW EXECUTE FUNCTION report_data_bump();
@@ -0,0 +1,24 @@
+-- V7: Outgoing mail queue
+-- Mail is queued here before it is sent, so a crash or SMTP outage does not
+-- lose it. MailDispatcher claims due rows with FOR UPDATE SKIP LOCKED and
+-- keeps a claimed row due again at the end of its lease (next_attempt_at),
+-- so a row stuck in 'Sending' after a crash is picked up again.
+-- attachments holds one file path per line.
+CREATE TABLE IF NOT EXISTS mail_outbox (
+    mail_id BIGSERIAL PRIMARY KEY,
+    recipients TEXT NOT NULL,
+    subject TEXT NOT NULL,
+    body TEXT NOT NULL,
+    attachments TEXT,
+    status VARCHAR(10) NOT NULL DEFAULT 'Pending',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT LOCALTIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT LOCALTIMESTAMP,
+    sent_at TIMESTAMP,
+    CONSTRAINT mail_outbox_status_check CHECK (status IN ('Pending', 'Sending', 'Sent', 'Failed'))
+);
+
+-- Only queued rows are scanned by the dispatcher
+CREATE INDEX IF NOT EXISTS idx_mail_outbox_due ON mail_outbox (next_attempt_at)
+    WHERE status IN ('Pending', 'Sending');
@@ -0,0 +1,83 @@
+-- V8: Incremental scheduled exports
+-- attendance.changed_at records when a row was inserted or when a column
+-- shown in reports last changed, so an edited mark is exported again.
+-- Updates touching only last_seen (recognition bookkeeping) keep it.
+-- clock_timestamp() rather than the transaction start time, so a row written
+-- late in a long transaction does not land behind rows already exported.
+-- A row only becomes visible to an export a settle delay after changed_at
+-- (report.schedule.settle.seconds); a transaction committing later than
+-- that after writing a row can fall behind the export's high-water mark.
+ALTER TABLE attendance ADD COLUMN IF NOT EXISTS changed_at TIMESTAMP;
+
+-- The backfill changes no reported data, so skip the per-row report
+-- watermark trigger from V6 rather than queue one deferred call per row.
+ALTER TABLE attendance DISABLE TRIGGER trg_report_data_attendance;
+
+UPDATE attendance SET changed_at = COALESCE(marked_at, last_seen, LOCALTIMESTAMP)
+WHERE changed_at IS NULL;
+
+ALTER TABLE attendance ENABLE TRIGGER trg_report_data_attendance;
+
+ALTER TABLE attendance ALTER COLUMN changed_at SET DEFAULT LOCALTIMESTAMP;
+ALTER TABLE attendance ALTER COLUMN changed_at SET NOT NULL;
+
+CREATE OR REPLACE FUNCTION attendance_touch_changed() RETURNS TRIGGER AS $$
+BEGIN
+    NEW.changed_at := clock_timestamp()::timestamp;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_attendance_changed_insert ON attendance;
+
+CREATE TRIGGER trg_attendance_changed_insert
+BEFORE INSERT ON attendance
+FOR EACH ROW EXECUTE FUNCTION attendance_touch_changed();
+
+DROP TRIGGER IF EXISTS trg_attendance_changed_update ON attendance;
+
+CREATE TRIGGER trg_attendance_changed_update
+BEFORE UPDATE ON attendance
+FOR EACH ROW
+WHEN (OLD.status IS DISTINCT FROM NEW.status
+   OR OLD.method IS DISTINCT FROM NEW.method
+   OR OLD.note IS DISTINCT FROM NEW.note
+   OR OLD.confidence IS DISTINCT FROM NEW.confidence
+   OR OLD.marked_at IS DISTINCT FROM NEW.marked_at
+   OR OLD.session_id IS DISTINCT FROM NEW.session_id
+   OR OLD.user_id IS DISTINCT FROM NEW.user_id)
+EXECUTE FUNCTION attendance_touch_changed();
+
+-- Keyset order of incremental exports: (changed_at, user_id, session_id)
+CREATE INDEX IF NOT EXISTS idx_attendance_changed ON attendance (changed_at, user_id, session_id);
+
+-- Export definitions. The filter is stored as the report combo labels
+-- (session_filter, course_filter) and columns as one 0/1 flag per report
+-- column, in ReportSpec order. hwm_* is the key of the last row exported,
+-- NULL before the first run. While a run is in progress next_run_at is its
+-- lease expiry, so a run lost in a crash is retried.
+CREATE TABLE IF NOT EXISTS scheduled_exports (
+    export_id SERIAL PRIMARY KEY,
+    name VARCHAR(100) NOT NULL UNIQUE,
+    format VARCHAR(10) NOT NULL DEFAULT 'csv',
+    target_dir TEXT NOT NULL,
+    columns VARCHAR(20) NOT NULL,
+    from_date DATE,
+    to_date DATE,
+    session_filter TEXT,
+    course_filter TEXT,
+    status_filter VARCHAR(20),
+    method_filter VARCHAR(10),
+    confidence_filter VARCHAR(20),
+    interval_minutes INTEGER NOT NULL DEFAULT 1440,
+    next_run_at TIMESTAMP NOT NULL DEFAULT LOCALTIMESTAMP,
+    hwm_changed_at TIMESTAMP,
+    hwm_user_id INTEGER,
+    hwm_session_id INTEGER,
+    last_run_at TIMESTAMP,
+    last_rows BIGINT,
+    last_file TEXT,
+    last_error TEXT,
+    CONSTRAINT scheduled_exports_format_check CHECK (format IN ('csv', 'xlsx', 'pdf')),
+    CONSTRAINT scheduled_exports_interval_check CHECK (interval_minutes > 0)
+);